@@ -23,24 +23,71 @@ import static java.time.temporal.ChronoField.SECOND_OF_MINUTE;
 import static java.util.Locale.US;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Instant;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.chrono.IsoChronology;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneRules;
 
 /**
  * A special zoned temporal format that recognizes all valid CQL input formats when parsing.
  *
  * <p>When formatting, this format uses {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} as the
  * formatting pattern, which is compliant with both CQL and ISO-8601.
+ *
+ * <p>Timestamps in the most common ISO-8601 layouts, such as {@code 2020-01-01T12:34:56.789Z}, are
+ * converted to and from {@link Instant}s by a specialized, allocation-free parser and formatter;
+ * other inputs are handled by a {@link DateTimeFormatter}.
  */
 public class CqlTemporalFormat extends ZonedTemporalFormat {
 
   public static final CqlTemporalFormat DEFAULT_INSTANCE = new CqlTemporalFormat(ZoneId.of("UTC"));
 
+  private final ZoneId timeZone;
+  private final @Nullable ZoneOffset fixedOffset;
+
   public CqlTemporalFormat(@NonNull ZoneId timeZone) {
     super(createParser(), createFormatter(timeZone), timeZone);
+    this.timeZone = timeZone;
+    ZoneRules rules = timeZone.getRules();
+    this.fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : null;
+  }
+
+  /**
+   * Parses the given text as an {@link Instant}.
+   *
+   * <p>This method produces the same results as {@link #parse(String)} followed by a conversion to
+   * {@link Instant}, but is much faster for timestamps in the most common ISO-8601 layouts.
+   *
+   * @param text the text to parse.
+   * @return the parsed instant, or {@code null} if the text is {@code null} or empty.
+   */
+  @Nullable
+  public Instant parseInstant(@Nullable String text) {
+    if (text == null || text.isEmpty()) {
+      return null;
+    }
+    Instant instant = FastIsoTimestamps.parseInstant(text, fixedOffset);
+    if (instant == null) {
+      instant = Instant.from(parse(text));
+    }
+    return instant;
+  }
+
+  @Override
+  public String format(TemporalAccessor temporal) {
+    if (temporal instanceof Instant) {
+      String formatted = FastIsoTimestamps.formatInstant((Instant) temporal, timeZone);
+      if (formatted != null) {
+        return formatted;
+      }
+    }
+    return super.format(temporal);
   }
 
   @NonNull
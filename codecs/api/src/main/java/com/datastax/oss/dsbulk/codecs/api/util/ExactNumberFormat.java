@@ -31,6 +31,10 @@ public class ExactNumberFormat extends NumberFormat {
     this.delegate = delegate;
   }
 
+  NumberFormat getDelegate() {
+    return delegate;
+  }
+
   @Override
   public Number parse(String source, ParsePosition parsePosition) {
     return delegate.parse(source, parsePosition);
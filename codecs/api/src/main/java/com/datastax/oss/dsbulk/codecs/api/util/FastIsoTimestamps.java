@@ -0,0 +1,284 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.api.util;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * An allocation-free parser and formatter for timestamps in the most common ISO-8601 layouts, that
+ * can be used instead of {@link CqlTemporalFormat} when converting to and from {@link Instant}s.
+ *
+ * <p>The parser recognizes inputs of the form {@code yyyy-MM-dd}, optionally followed by {@code
+ * 'T'} or a blank and {@code HH:mm[:ss[.SSSSSSSSS]]}, optionally followed by {@code Z}, {@code
+ * +HH:MM} or {@code +HHMM}. Inputs in any other layout (including time zone names, years outside
+ * the range {@code 0000-9999}, and out-of-range fields) are not recognized and must be parsed with
+ * {@link CqlTemporalFormat#parse(String)}, which will also produce the appropriate error messages.
+ *
+ * <p>The formatter produces the same output as {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME}, for
+ * instants whose year is between {@code 0000} and {@code 9999} and whose zone offset has no seconds
+ * component.
+ */
+final class FastIsoTimestamps {
+
+  private static final int SECONDS_PER_DAY = 86400;
+
+  private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+  private static final int[] POWERS_OF_TEN = {
+    1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+  };
+
+  /** The length of the longest formatted timestamp: {@code yyyy-MM-ddTHH:mm:ss.SSSSSSSSS+HH:MM}. */
+  private static final int MAX_FORMATTED_LENGTH = 35;
+
+  private FastIsoTimestamps() {}
+
+  /**
+   * Parses the given text as an instant.
+   *
+   * @param text the text to parse; cannot be {@code null}.
+   * @param defaultOffset the offset to apply when the text does not contain any offset, or {@code
+   *     null} if no offset can be applied (for example, because the default time zone observes
+   *     daylight saving time).
+   * @return the parsed instant, or {@code null} if the text was not recognized.
+   */
+  @Nullable
+  static Instant parseInstant(@NonNull String text, @Nullable ZoneOffset defaultOffset) {
+    int length = text.length();
+    if (length < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+      return null;
+    }
+    int year = parseDigits(text, 0, 4);
+    int month = parseDigits(text, 5, 2);
+    int day = parseDigits(text, 8, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+      return null;
+    }
+    int pos = 10;
+    int secondOfDay = 0;
+    int nanos = 0;
+    if (pos < length && (text.charAt(pos) == 'T' || text.charAt(pos) == ' ')) {
+      pos++;
+      if (pos + 5 > length || text.charAt(pos + 2) != ':') {
+        return null;
+      }
+      int hour = parseDigits(text, pos, 2);
+      int minute = parseDigits(text, pos + 3, 2);
+      int second = 0;
+      pos += 5;
+      if (pos < length && text.charAt(pos) == ':') {
+        if (pos + 3 > length) {
+          return null;
+        }
+        second = parseDigits(text, pos + 1, 2);
+        pos += 3;
+        if (pos < length && text.charAt(pos) == '.') {
+          int start = ++pos;
+          while (pos < length && pos - start < 9 && isDigit(text.charAt(pos))) {
+            nanos = nanos * 10 + (text.charAt(pos++) - '0');
+          }
+          int digits = pos - start;
+          if (digits == 0 || (pos < length && isDigit(text.charAt(pos)))) {
+            return null;
+          }
+          nanos *= POWERS_OF_TEN[9 - digits];
+        }
+      }
+      if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+        return null;
+      }
+      secondOfDay = hour * 3600 + minute * 60 + second;
+    }
+    int offsetSeconds;
+    if (pos == length) {
+      if (defaultOffset == null) {
+        return null;
+      }
+      offsetSeconds = defaultOffset.getTotalSeconds();
+    } else {
+      offsetSeconds = parseOffset(text, pos);
+      if (offsetSeconds == Integer.MIN_VALUE) {
+        return null;
+      }
+    }
+    long epochSecond = toEpochDay(year, month, day) * SECONDS_PER_DAY + secondOfDay - offsetSeconds;
+    return Instant.ofEpochSecond(epochSecond, nanos);
+  }
+
+  /**
+   * Formats the given instant in the given time zone.
+   *
+   * @param instant the instant to format; cannot be {@code null}.
+   * @param timeZone the time zone to use; cannot be {@code null}.
+   * @return the formatted instant, or {@code null} if the instant cannot be formatted by this
+   *     class.
+   */
+  @Nullable
+  static String formatInstant(@NonNull Instant instant, @NonNull ZoneId timeZone) {
+    int offsetSeconds = timeZone.getRules().getOffset(instant).getTotalSeconds();
+    if (offsetSeconds % 60 != 0) {
+      return null;
+    }
+    long localSecond = instant.getEpochSecond() + offsetSeconds;
+    long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+    int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+    // converts the epoch day to year, month and day, see
+    // http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+    long z = epochDay + 719468;
+    long era = Math.floorDiv(z, 146097);
+    int dayOfEra = (int) (z - era * 146097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    if (year < 0 || year > 9999) {
+      return null;
+    }
+    char[] chars = new char[MAX_FORMATTED_LENGTH];
+    writeDigits(chars, 0, (int) year, 4);
+    chars[4] = '-';
+    writeDigits(chars, 5, month, 2);
+    chars[7] = '-';
+    writeDigits(chars, 8, day, 2);
+    chars[10] = 'T';
+    writeDigits(chars, 11, secondOfDay / 3600, 2);
+    chars[13] = ':';
+    writeDigits(chars, 14, secondOfDay / 60 % 60, 2);
+    chars[16] = ':';
+    writeDigits(chars, 17, secondOfDay % 60, 2);
+    int pos = 19;
+    int nanos = instant.getNano();
+    if (nanos > 0) {
+      // like DateTimeFormatter.ISO_LOCAL_TIME, print as many digits as necessary
+      int digits = 9;
+      while (nanos % 10 == 0) {
+        nanos /= 10;
+        digits--;
+      }
+      chars[pos++] = '.';
+      writeDigits(chars, pos, nanos, digits);
+      pos += digits;
+    }
+    if (offsetSeconds == 0) {
+      chars[pos++] = 'Z';
+    } else {
+      chars[pos++] = offsetSeconds < 0 ? '-' : '+';
+      int offsetMinutes = Math.abs(offsetSeconds) / 60;
+      writeDigits(chars, pos, offsetMinutes / 60, 2);
+      chars[pos + 2] = ':';
+      writeDigits(chars, pos + 3, offsetMinutes % 60, 2);
+      pos += 5;
+    }
+    return new String(chars, 0, pos);
+  }
+
+  /**
+   * Parses a zone offset: {@code Z}, {@code +HH:MM} or {@code +HHMM}, until the end of the text.
+   *
+   * @return the offset in seconds, or {@link Integer#MIN_VALUE} if the offset was not recognized.
+   */
+  private static int parseOffset(String text, int pos) {
+    int remaining = text.length() - pos;
+    char c = text.charAt(pos);
+    if (c == 'Z' && remaining == 1) {
+      return 0;
+    }
+    if (c != '+' && c != '-') {
+      return Integer.MIN_VALUE;
+    }
+    int hours;
+    int minutes;
+    if (remaining == 6 && text.charAt(pos + 3) == ':') {
+      hours = parseDigits(text, pos + 1, 2);
+      minutes = parseDigits(text, pos + 4, 2);
+    } else if (remaining == 5) {
+      hours = parseDigits(text, pos + 1, 2);
+      minutes = parseDigits(text, pos + 3, 2);
+    } else {
+      return Integer.MIN_VALUE;
+    }
+    if (hours < 0 || minutes < 0 || minutes > 59) {
+      return Integer.MIN_VALUE;
+    }
+    int seconds = hours * 3600 + minutes * 60;
+    if (seconds > MAX_OFFSET_SECONDS) {
+      return Integer.MIN_VALUE;
+    }
+    return c == '-' ? -seconds : seconds;
+  }
+
+  /** @return the value of the given number of ASCII digits, or -1 if a char is not a digit. */
+  private static int parseDigits(String text, int pos, int count) {
+    int value = 0;
+    for (int i = pos; i < pos + count; i++) {
+      char c = text.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  private static void writeDigits(char[] chars, int pos, int value, int count) {
+    for (int i = pos + count - 1; i >= pos; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  private static boolean isLeapYear(int year) {
+    return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+  }
+
+  /**
+   * Converts a date to a number of days since the epoch, see
+   * http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+   */
+  private static long toEpochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = Math.floorDiv(y, 400);
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097L + dayOfEra - 719468;
+  }
+}
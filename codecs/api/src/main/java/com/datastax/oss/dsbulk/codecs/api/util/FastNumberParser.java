@@ -0,0 +1,256 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.api.util;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+
+/**
+ * An allocation-free parser for plain decimal numbers, that can be used instead of {@link
+ * CodecUtils#parseNumber(String, NumberFormat)} when the number format would parse such numbers as
+ * is.
+ *
+ * <p>Plain integers are strings of ASCII digits, optionally preceded by a sign; plain decimals may
+ * also contain one dot. Only numbers that can be represented exactly by the target type are
+ * accepted: at most 18 digits for integers, and at most {@value #MAX_DOUBLE_DIGITS} (resp. {@value
+ * #MAX_FLOAT_DIGITS}) significant digits for doubles (resp. floats), so that the results are
+ * identical to the ones obtained with {@link CodecUtils#parseNumber(String, NumberFormat)}. Any
+ * other input must be parsed with the latter.
+ */
+public final class FastNumberParser {
+
+  /** The maximum number of digits of a plain integer; such integers always fit in a long. */
+  public static final int MAX_LONG_DIGITS = 18;
+
+  /** The maximum number of significant digits of a plain decimal converted to a double. */
+  public static final int MAX_DOUBLE_DIGITS = 15;
+
+  /** The maximum number of significant digits of a plain decimal converted to a float. */
+  public static final int MAX_FLOAT_DIGITS = 6;
+
+  private static final double[] DOUBLE_POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private static final float[] FLOAT_POWERS_OF_TEN = {
+    1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+  };
+
+  private static final long[] LONG_POWERS_OF_TEN = {
+    1L,
+    10L,
+    100L,
+    1_000L,
+    10_000L,
+    100_000L,
+    1_000_000L,
+    10_000_000L,
+    100_000_000L,
+    1_000_000_000L,
+    10_000_000_000L,
+    100_000_000_000L,
+    1_000_000_000_000L,
+    10_000_000_000_000L,
+    100_000_000_000_000L,
+    1_000_000_000_000_000L
+  };
+
+  private FastNumberParser() {}
+
+  /**
+   * Returns whether the given format parses plain decimal numbers as is.
+   *
+   * <p>This is the case for {@link DecimalFormat} instances without prefixes, suffixes nor
+   * multiplier, using ASCII digits, a dot as decimal separator, and a hyphen as minus sign, such as
+   * the ones created by {@link CodecUtils#getNumberFormat} for the default pattern and locale.
+   *
+   * @param format the format to inspect.
+   * @return {@code true} if plain numbers can be parsed with this class, {@code false} otherwise.
+   */
+  public static boolean isCompatible(@NonNull NumberFormat format) {
+    if (format instanceof ToStringNumberFormat) {
+      format = ((ToStringNumberFormat) format).getDelegate();
+    } else if (format instanceof ExactNumberFormat) {
+      format = ((ExactNumberFormat) format).getDelegate();
+    }
+    if (!(format instanceof DecimalFormat)) {
+      return false;
+    }
+    DecimalFormat decimalFormat = (DecimalFormat) format;
+    DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+    return decimalFormat.getMultiplier() == 1
+        && decimalFormat.getPositivePrefix().isEmpty()
+        && decimalFormat.getPositiveSuffix().isEmpty()
+        && decimalFormat.getNegativePrefix().equals("-")
+        && decimalFormat.getNegativeSuffix().isEmpty()
+        && symbols.getZeroDigit() == '0'
+        && symbols.getDecimalSeparator() == '.'
+        && symbols.getMinusSign() == '-';
+  }
+
+  /**
+   * Returns whether the given string is a plain integer with at most {@link #MAX_LONG_DIGITS}
+   * digits.
+   *
+   * @param s the string to inspect.
+   * @return {@code true} if the string can be parsed with {@link #parseLong(CharSequence)}.
+   */
+  public static boolean isPlainInteger(@NonNull CharSequence s) {
+    int length = s.length();
+    int start = startOfDigits(s);
+    int digits = length - start;
+    if (digits == 0 || digits > MAX_LONG_DIGITS) {
+      return false;
+    }
+    for (int i = start; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses a plain integer.
+   *
+   * @param s the string to parse; must be a {@linkplain #isPlainInteger(CharSequence) plain
+   *     integer}.
+   * @return the parsed value.
+   */
+  public static long parseLong(@NonNull CharSequence s) {
+    int length = s.length();
+    int start = startOfDigits(s);
+    long value = 0;
+    for (int i = start; i < length; i++) {
+      value = value * 10 + (s.charAt(i) - '0');
+    }
+    return start > 0 && s.charAt(0) == '-' ? -value : value;
+  }
+
+  /**
+   * Returns whether the given string is a plain decimal with at most the given number of
+   * significant digits.
+   *
+   * @param s the string to inspect.
+   * @param maxDigits the maximum number of significant digits, either {@link #MAX_DOUBLE_DIGITS} or
+   *     {@link #MAX_FLOAT_DIGITS}.
+   * @return {@code true} if the string can be parsed with {@link #parseDouble(CharSequence)} or
+   *     {@link #parseFloat(CharSequence)}.
+   */
+  public static boolean isPlainDecimal(@NonNull CharSequence s, int maxDigits) {
+    int length = s.length();
+    int start = startOfDigits(s);
+    boolean dot = false;
+    int digits = 0;
+    int significantDigits = 0;
+    int fractionDigits = 0;
+    for (int i = start; i < length; i++) {
+      char c = s.charAt(i);
+      if (c == '.') {
+        if (dot) {
+          return false;
+        }
+        dot = true;
+      } else if (c >= '0' && c <= '9') {
+        digits++;
+        if (significantDigits > 0 || c != '0') {
+          significantDigits++;
+        }
+        if (dot) {
+          fractionDigits++;
+        }
+      } else {
+        return false;
+      }
+    }
+    int maxFractionDigits =
+        maxDigits <= MAX_FLOAT_DIGITS
+            ? FLOAT_POWERS_OF_TEN.length - 1
+            : DOUBLE_POWERS_OF_TEN.length - 1;
+    return digits > 0
+        && digits <= MAX_LONG_DIGITS
+        && significantDigits <= maxDigits
+        && fractionDigits <= maxFractionDigits;
+  }
+
+  /**
+   * Parses a plain decimal as a double.
+   *
+   * @param s the string to parse; must be a {@linkplain #isPlainDecimal(CharSequence, int) plain
+   *     decimal} with at most {@link #MAX_DOUBLE_DIGITS} significant digits.
+   * @return the parsed value.
+   */
+  public static double parseDouble(@NonNull CharSequence s) {
+    long mantissa = mantissa(s);
+    int scale = scale(s);
+    // both the mantissa and the power of ten are exactly representable as doubles, so the
+    // division is correctly rounded.
+    return scale == 0 ? (double) mantissa : mantissa / DOUBLE_POWERS_OF_TEN[scale];
+  }
+
+  /**
+   * Parses a plain decimal as a float.
+   *
+   * @param s the string to parse; must be a {@linkplain #isPlainDecimal(CharSequence, int) plain
+   *     decimal} with at most {@link #MAX_FLOAT_DIGITS} significant digits.
+   * @return the parsed value.
+   */
+  public static float parseFloat(@NonNull CharSequence s) {
+    long mantissa = mantissa(s);
+    int scale = scale(s);
+    // both the mantissa and the power of ten are exactly representable as floats, so the
+    // division is correctly rounded.
+    return scale == 0 ? (float) mantissa : mantissa / FLOAT_POWERS_OF_TEN[scale];
+  }
+
+  private static long mantissa(CharSequence s) {
+    int length = s.length();
+    int start = startOfDigits(s);
+    long value = 0;
+    for (int i = start; i < length; i++) {
+      char c = s.charAt(i);
+      if (c != '.') {
+        value = value * 10 + (c - '0');
+      }
+    }
+    // apply the sign to the long value, so that "-0" yields 0, not -0.0
+    return start > 0 && s.charAt(0) == '-' ? -value : value;
+  }
+
+  private static int scale(CharSequence s) {
+    int length = s.length();
+    for (int i = length - 1; i >= 0; i--) {
+      if (s.charAt(i) == '.') {
+        return length - 1 - i;
+      }
+    }
+    return 0;
+  }
+
+  private static int startOfDigits(CharSequence s) {
+    if (s.length() > 0) {
+      char c = s.charAt(0);
+      if (c == '-' || c == '+') {
+        return 1;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.api.util;
+
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class FastIsoTimestampsTest {
+
+  private static final ZoneId[] ZONES = {
+    ZoneId.of("UTC"),
+    ZoneOffset.ofHoursMinutes(5, 30),
+    ZoneOffset.ofHours(-8),
+    ZoneId.of("America/New_York"),
+    ZoneId.of("Europe/Paris"),
+    ZoneId.of("Asia/Kathmandu")
+  };
+
+  private static final CqlTemporalFormat[] FORMATS =
+      Arrays.stream(ZONES).map(CqlTemporalFormat::new).toArray(CqlTemporalFormat[]::new);
+
+  @Test
+  void should_parse_common_layouts() {
+    ZoneOffset utc = ZoneOffset.UTC;
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29", utc))
+        .isEqualTo(Instant.parse("2020-02-29T00:00:00Z"));
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34", utc))
+        .isEqualTo(Instant.parse("2020-02-29T12:34:00Z"));
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29 12:34:56", utc))
+        .isEqualTo(Instant.parse("2020-02-29T12:34:56Z"));
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56.789Z", null))
+        .isEqualTo(Instant.parse("2020-02-29T12:34:56.789Z"));
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56.123456789+02:00", null))
+        .isEqualTo(Instant.parse("2020-02-29T10:34:56.123456789Z"));
+    assertThat(FastIsoTimestamps.parseInstant("1969-12-31T23:00:00-0130", null))
+        .isEqualTo(Instant.parse("1970-01-01T00:30:00Z"));
+    assertThat(FastIsoTimestamps.parseInstant("0000-01-01T00:00:00Z", null))
+        .isEqualTo(Instant.parse("0000-01-01T00:00:00Z"));
+  }
+
+  @Test
+  void should_not_parse_other_layouts() {
+    ZoneOffset utc = ZoneOffset.UTC;
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56", null)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2021-02-29", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T24:00", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56.", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56.1234567890", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56+02", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56+19:00", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T12:34:56 UTC", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("2020-02-29T", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant("+12020-02-29", utc)).isNull();
+    assertThat(FastIsoTimestamps.parseInstant(" 2020-02-29", utc)).isNull();
+  }
+
+  @Test
+  void should_parse_like_cql_temporal_format() {
+    Random random = new Random(0);
+    for (int i = 0; i < 20_000; i++) {
+      CqlTemporalFormat format = FORMATS[random.nextInt(FORMATS.length)];
+      String text = randomTimestamp(random);
+      Instant expected;
+      try {
+        expected = Instant.from(format.parse(text));
+      } catch (DateTimeException e) {
+        expected = null;
+      }
+      if (expected == null) {
+        assertThat(catchThrowable(() -> format.parseInstant(text)))
+            .as(text)
+            .isInstanceOf(DateTimeException.class);
+      } else {
+        assertThat(format.parseInstant(text)).as(text).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  void should_format_like_iso_offset_date_time() {
+    Random random = new Random(0);
+    long min = Instant.parse("0000-01-02T00:00:00Z").getEpochSecond();
+    long max = Instant.parse("9999-12-30T00:00:00Z").getEpochSecond();
+    for (int i = 0; i < 20_000; i++) {
+      int zone = random.nextInt(ZONES.length);
+      long seconds = min + (long) (random.nextDouble() * (max - min));
+      int nanos;
+      switch (random.nextInt(4)) {
+        case 0:
+          nanos = 0;
+          break;
+        case 1:
+          nanos = random.nextInt(1000) * 1_000_000;
+          break;
+        case 2:
+          nanos = random.nextInt(1_000_000) * 1000;
+          break;
+        default:
+          nanos = random.nextInt(1_000_000_000);
+      }
+      Instant instant = Instant.ofEpochSecond(seconds, nanos);
+      String expected = ISO_OFFSET_DATE_TIME.withZone(ZONES[zone]).format(instant);
+      assertThat(FORMATS[zone].format(instant)).isEqualTo(expected);
+    }
+  }
+
+  private static String randomTimestamp(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int year = random.nextInt(10) == 0 ? random.nextInt(10000) : 1900 + random.nextInt(200);
+    sb.append(
+        String.format("%04d-%02d-%02d", year, 1 + random.nextInt(13), 1 + random.nextInt(31)));
+    if (random.nextInt(5) > 0) {
+      sb.append(random.nextBoolean() ? 'T' : ' ');
+      sb.append(String.format("%02d:%02d", random.nextInt(25), random.nextInt(61)));
+      if (random.nextInt(4) > 0) {
+        sb.append(String.format(":%02d", random.nextInt(61)));
+        if (random.nextBoolean()) {
+          sb.append('.');
+          int digits = random.nextInt(11);
+          for (int i = 0; i < digits; i++) {
+            sb.append(random.nextInt(10));
+          }
+        }
+      }
+    }
+    int hours = random.nextInt(20);
+    int minutes = random.nextInt(60);
+    char sign = random.nextBoolean() ? '+' : '-';
+    switch (random.nextInt(6)) {
+      case 0:
+        break;
+      case 1:
+        sb.append('Z');
+        break;
+      case 2:
+        sb.append(String.format("%c%02d:%02d", sign, hours, minutes));
+        break;
+      case 3:
+        sb.append(String.format("%c%02d%02d", sign, hours, minutes));
+        break;
+      case 4:
+        sb.append(String.format("%c%02d", sign, hours));
+        break;
+      default:
+        sb.append(" UTC");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.api.util;
+
+import static java.math.RoundingMode.HALF_EVEN;
+import static java.util.Locale.FRANCE;
+import static java.util.Locale.GERMANY;
+import static java.util.Locale.US;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class FastNumberParserTest {
+
+  @Test
+  void should_detect_compatible_formats() {
+    assertThat(
+            FastNumberParser.isCompatible(
+                CodecUtils.getNumberFormat("#,###.##", US, HALF_EVEN, false)))
+        .isTrue();
+    assertThat(
+            FastNumberParser.isCompatible(
+                CodecUtils.getNumberFormat("#,###.##", US, HALF_EVEN, true)))
+        .isTrue();
+    assertThat(
+            FastNumberParser.isCompatible(
+                CodecUtils.getNumberFormat("#,###.##%", US, HALF_EVEN, true)))
+        .isFalse();
+    assertThat(
+            FastNumberParser.isCompatible(
+                CodecUtils.getNumberFormat("$#,###.##", US, HALF_EVEN, true)))
+        .isFalse();
+    assertThat(
+            FastNumberParser.isCompatible(
+                CodecUtils.getNumberFormat("#,###.##", GERMANY, HALF_EVEN, true)))
+        .isFalse();
+    assertThat(
+            FastNumberParser.isCompatible(
+                CodecUtils.getNumberFormat("#,###.##", FRANCE, HALF_EVEN, true)))
+        .isFalse();
+  }
+
+  @Test
+  void should_detect_plain_integers() {
+    assertThat(FastNumberParser.isPlainInteger("0")).isTrue();
+    assertThat(FastNumberParser.isPlainInteger("-42")).isTrue();
+    assertThat(FastNumberParser.isPlainInteger("+42")).isTrue();
+    assertThat(FastNumberParser.isPlainInteger("999999999999999999")).isTrue();
+    assertThat(FastNumberParser.isPlainInteger("1000000000000000000")).isFalse();
+    assertThat(FastNumberParser.isPlainInteger("")).isFalse();
+    assertThat(FastNumberParser.isPlainInteger("-")).isFalse();
+    assertThat(FastNumberParser.isPlainInteger(" 42")).isFalse();
+    assertThat(FastNumberParser.isPlainInteger("1,234")).isFalse();
+    assertThat(FastNumberParser.isPlainInteger("1.0")).isFalse();
+    assertThat(FastNumberParser.isPlainInteger("1e3")).isFalse();
+  }
+
+  @Test
+  void should_detect_plain_decimals() {
+    assertThat(FastNumberParser.isPlainDecimal("-0.5", 15)).isTrue();
+    assertThat(FastNumberParser.isPlainDecimal(".5", 15)).isTrue();
+    assertThat(FastNumberParser.isPlainDecimal("5.", 15)).isTrue();
+    assertThat(FastNumberParser.isPlainDecimal("0.00012345678901234", 15)).isTrue();
+    assertThat(FastNumberParser.isPlainDecimal("1234567890.123456", 15)).isFalse();
+    assertThat(FastNumberParser.isPlainDecimal("1234567", 6)).isFalse();
+    assertThat(FastNumberParser.isPlainDecimal(".", 15)).isFalse();
+    assertThat(FastNumberParser.isPlainDecimal("1.2.3", 15)).isFalse();
+    assertThat(FastNumberParser.isPlainDecimal("NaN", 15)).isFalse();
+    assertThat(FastNumberParser.isPlainDecimal("1E10", 15)).isFalse();
+  }
+
+  @Test
+  void should_parse_numbers_like_number_format() throws ParseException {
+    NumberFormat format = CodecUtils.getNumberFormat("#,###.##", US, HALF_EVEN, false);
+    Random random = new Random(0);
+    for (int i = 0; i < 100_000; i++) {
+      String s = randomNumber(random);
+      Number expected = CodecUtils.parseNumber(s, format);
+      if (FastNumberParser.isPlainInteger(s)) {
+        assertThat(FastNumberParser.parseLong(s)).as(s).isEqualTo(expected.longValue());
+      }
+      if (FastNumberParser.isPlainDecimal(s, FastNumberParser.MAX_DOUBLE_DIGITS)) {
+        assertThat(FastNumberParser.parseDouble(s))
+            .as(s)
+            .isEqualTo(CodecUtils.toDoubleValueExact(expected));
+      }
+      if (FastNumberParser.isPlainDecimal(s, FastNumberParser.MAX_FLOAT_DIGITS)) {
+        assertThat(FastNumberParser.parseFloat(s))
+            .as(s)
+            .isEqualTo(CodecUtils.toFloatValueExact(expected));
+      }
+    }
+  }
+
+  private static String randomNumber(Random random) {
+    StringBuilder sb = new StringBuilder();
+    if (random.nextBoolean()) {
+      sb.append('-');
+    }
+    int digits = 1 + random.nextInt(18);
+    int dot = random.nextBoolean() ? -1 : random.nextInt(digits + 1);
+    for (int i = 0; i < digits; i++) {
+      if (i == dot) {
+        sb.append('.');
+      }
+      sb.append((char) ('0' + random.nextInt(10)));
+    }
+    return sb.toString();
+  }
+}
@@ -17,8 +17,10 @@ package com.datastax.oss.dsbulk.codecs.text.json;
 
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
+import com.datastax.oss.dsbulk.codecs.api.util.CqlTemporalFormat;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
 import com.fasterxml.jackson.databind.JsonNode;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -29,6 +31,7 @@ public class JsonNodeToInstantCodec extends JsonNodeToTemporalCodec<Instant> {
 
   private final ZoneId timeZone;
   private final ZonedDateTime epoch;
+  private final @Nullable CqlTemporalFormat cqlFormat;
 
   public JsonNodeToInstantCodec(
       TemporalFormat temporalFormat,
@@ -38,10 +41,15 @@ public class JsonNodeToInstantCodec extends JsonNodeToTemporalCodec<Instant> {
     super(TypeCodecs.TIMESTAMP, temporalFormat, nullStrings);
     this.timeZone = timeZone;
     this.epoch = epoch;
+    cqlFormat =
+        temporalFormat instanceof CqlTemporalFormat ? (CqlTemporalFormat) temporalFormat : null;
   }
 
   @Override
   public Instant externalToInternal(JsonNode node) {
+    if (cqlFormat != null) {
+      return isNullOrEmpty(node) ? null : cqlFormat.parseInstant(node.asText());
+    }
     TemporalAccessor temporal = parseTemporalAccessor(node);
     if (temporal == null) {
       return null;
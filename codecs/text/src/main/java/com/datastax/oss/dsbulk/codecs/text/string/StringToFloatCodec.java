@@ -18,6 +18,7 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 import static java.util.stream.Collectors.toList;
 
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.codecs.api.util.FastNumberParser;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
 import io.netty.util.concurrent.FastThreadLocal;
@@ -59,10 +60,13 @@ public class StringToFloatCodec extends StringToNumberCodec<Float> {
 
   @Override
   public Float externalToInternal(String s) {
-    Number number = parseNumber(s);
-    if (number == null) {
+    if (isNullOrEmpty(s)) {
       return null;
     }
+    if (isPlainDecimal(s, FastNumberParser.MAX_FLOAT_DIGITS)) {
+      return FastNumberParser.parseFloat(s);
+    }
+    Number number = parseNumber(s);
     return narrowNumber(number, Float.class);
   }
 }
@@ -17,7 +17,9 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
+import com.datastax.oss.dsbulk.codecs.api.util.CqlTemporalFormat;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -28,6 +30,7 @@ public class StringToInstantCodec extends StringToTemporalCodec<Instant> {
 
   private final ZoneId timeZone;
   private final ZonedDateTime epoch;
+  private final @Nullable CqlTemporalFormat cqlFormat;
 
   public StringToInstantCodec(
       TemporalFormat temporalFormat,
@@ -37,10 +40,15 @@ public class StringToInstantCodec extends StringToTemporalCodec<Instant> {
     super(TypeCodecs.TIMESTAMP, temporalFormat, nullStrings);
     this.timeZone = timeZone;
     this.epoch = epoch;
+    cqlFormat =
+        temporalFormat instanceof CqlTemporalFormat ? (CqlTemporalFormat) temporalFormat : null;
   }
 
   @Override
   public Instant externalToInternal(String s) {
+    if (cqlFormat != null) {
+      return isNullOrEmpty(s) ? null : cqlFormat.parseInstant(s);
+    }
     TemporalAccessor temporal = parseTemporalAccessor(s);
     if (temporal == null) {
       return null;
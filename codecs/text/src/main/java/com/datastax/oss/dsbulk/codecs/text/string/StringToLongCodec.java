@@ -18,6 +18,7 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 import static java.util.stream.Collectors.toList;
 
 import com.datastax.oss.driver.api.core.type.codec.PrimitiveLongCodec;
+import com.datastax.oss.dsbulk.codecs.api.util.FastNumberParser;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
 import io.netty.util.concurrent.FastThreadLocal;
@@ -60,10 +61,13 @@ public class StringToLongCodec extends StringToNumberCodec<Long> {
 
   @Override
   public Long externalToInternal(String s) {
-    Number number = parseNumber(s);
-    if (number == null) {
+    if (isNullOrEmpty(s)) {
       return null;
     }
+    if (isPlainInteger(s)) {
+      return FastNumberParser.parseLong(s);
+    }
+    Number number = parseNumber(s);
     return narrowNumber(number, Long.class);
   }
 }
@@ -17,6 +17,7 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
+import com.datastax.oss.dsbulk.codecs.api.util.FastNumberParser;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TemporalFormat;
 import io.netty.util.concurrent.FastThreadLocal;
@@ -39,6 +40,7 @@ public abstract class StringToNumberCodec<N extends Number> extends StringConver
   private final ZonedDateTime epoch;
   private final Map<String, Boolean> booleanStrings;
   private final List<N> booleanNumbers;
+  private final boolean fastPath;
 
   StringToNumberCodec(
       TypeCodec<N> targetCodec,
@@ -62,6 +64,7 @@ public abstract class StringToNumberCodec<N extends Number> extends StringConver
     this.epoch = epoch;
     this.booleanStrings = booleanStrings;
     this.booleanNumbers = booleanNumbers;
+    this.fastPath = FastNumberParser.isCompatible(numberFormat.get());
   }
 
   @Override
@@ -87,6 +90,24 @@ public abstract class StringToNumberCodec<N extends Number> extends StringConver
         booleanNumbers);
   }
 
+  /**
+   * Whether the given input is a plain integer that can be parsed with {@link FastNumberParser},
+   * bypassing {@link #parseNumber(String)}. Must be invoked only for inputs that are not
+   * {@linkplain #isNullOrEmpty(String) null or empty}.
+   */
+  boolean isPlainInteger(String s) {
+    return fastPath && FastNumberParser.isPlainInteger(s);
+  }
+
+  /**
+   * Whether the given input is a plain decimal that can be parsed with {@link FastNumberParser},
+   * bypassing {@link #parseNumber(String)}. Must be invoked only for inputs that are not
+   * {@linkplain #isNullOrEmpty(String) null or empty}.
+   */
+  boolean isPlainDecimal(String s, int maxDigits) {
+    return fastPath && FastNumberParser.isPlainDecimal(s, maxDigits);
+  }
+
   N narrowNumber(Number number, Class<? extends N> targetClass) {
     return CodecUtils.narrowNumber(number, targetClass, overflowStrategy, roundingMode);
   }
@@ -94,4 +94,21 @@ class StringToIntegerCodecTest {
         .cannotConvertFromExternal("2000-01-01T00:00:00Z") // overflow
     ;
   }
+
+  @Test
+  void should_check_null_strings_before_parsing_plain_integers() {
+    ConversionContext context = new TextConversionContext().setNullStrings("0");
+    ConvertingCodecFactory codecFactory = new ConvertingCodecFactory(context);
+    codec =
+        (StringToIntegerCodec)
+            codecFactory.<String, Integer>createConvertingCodec(
+                DataTypes.INT, GenericType.STRING, true);
+    assertThat(codec)
+        .convertsFromExternal("0")
+        .toInternal(null)
+        .convertsFromExternal("00")
+        .toInternal(0)
+        .convertsFromExternal("+42")
+        .toInternal(42);
+  }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.api;
+
+import com.datastax.oss.driver.shaded.guava.common.base.MoreObjects;
+import com.datastax.oss.driver.shaded.guava.common.base.Suppliers;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.URI;
+import java.util.AbstractList;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A record that stores its values in a plain array, and its fields in a {@link RecordSchema} shared
+ * with other records.
+ *
+ * <p>Unlike {@link DefaultRecord}, this record does not allocate any object per value, and is
+ * immutable, except for {@link #clear()}.
+ */
+public final class ArrayBackedRecord implements Record {
+
+  private static final Object[] NO_VALUES = new Object[0];
+
+  private final Object source;
+  private final Supplier<URI> resource;
+  private final long position;
+
+  private RecordSchema schema;
+  private Object[] values;
+
+  /**
+   * Creates a new record.
+   *
+   * @param source the record source (its original form).
+   * @param resource the record resource (where it comes from: file, database, etc).
+   * @param position the record position inside the resource (line number, etc.).
+   * @param schema the record fields.
+   * @param values the record values, in the order of the schema; the array is not copied.
+   * @throws IllegalArgumentException if the number of values does not match the schema.
+   */
+  public ArrayBackedRecord(
+      @NonNull Object source,
+      @NonNull URI resource,
+      long position,
+      @NonNull RecordSchema schema,
+      @NonNull Object... values) {
+    this(source, position, () -> resource, schema, values);
+  }
+
+  /**
+   * Creates a new record.
+   *
+   * @param source the record source (its original form).
+   * @param resource the record resource (where it comes from: file, database, etc); the supplier
+   *     will be memoized.
+   * @param position the record position inside the resource (line number, etc.).
+   * @param schema the record fields.
+   * @param values the record values, in the order of the schema; the array is not copied.
+   * @throws IllegalArgumentException if the number of values does not match the schema.
+   */
+  public ArrayBackedRecord(
+      @NonNull Object source,
+      @NonNull Supplier<URI> resource,
+      long position,
+      @NonNull RecordSchema schema,
+      @NonNull Object... values) {
+    this(source, position, Suppliers.memoize(resource::get), schema, values);
+  }
+
+  private ArrayBackedRecord(
+      Object source, long position, Supplier<URI> resource, RecordSchema schema, Object[] values) {
+    if (schema.size() != values.length) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expecting record to contain %d fields but found %d.", schema.size(), values.length));
+    }
+    this.source = source;
+    this.resource = resource;
+    this.position = position;
+    this.schema = schema;
+    this.values = values;
+  }
+
+  @NonNull
+  @Override
+  public Object getSource() {
+    return source;
+  }
+
+  @NonNull
+  @Override
+  public URI getResource() {
+    return resource.get();
+  }
+
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  /** @return the fields of this record. */
+  @NonNull
+  public RecordSchema getSchema() {
+    return schema;
+  }
+
+  @NonNull
+  @Override
+  public Set<Field> fields() {
+    return schema.getFields();
+  }
+
+  @NonNull
+  @Override
+  public Collection<Object> values() {
+    Object[] values = this.values;
+    // when fields have indexed aliases, each value is also the value of its alias
+    int size = schema.hasIndexedAliases() ? values.length * 2 : values.length;
+    return new AbstractList<Object>() {
+      @Override
+      public Object get(int index) {
+        if (index < 0 || index >= size) {
+          throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return values[index % values.length];
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Object getFieldValue(@NonNull Field field) {
+    int index = schema.indexOf(field);
+    return index == -1 ? null : values[index];
+  }
+
+  /**
+   * @param index the index of a value in the {@linkplain #getSchema() schema}, as returned by
+   *     {@link RecordSchema#indexOf(Field)}.
+   * @return the value at the given index.
+   */
+  public Object getValue(int index) {
+    return values[index];
+  }
+
+  @Override
+  public void clear() {
+    schema = RecordSchema.EMPTY;
+    values = NO_VALUES;
+  }
+
+  @Override
+  public String toString() {
+    List<Map.Entry<Field, Object>> entries = new ArrayList<>();
+    Iterator<Object> values = values().iterator();
+    for (Field field : fields()) {
+      entries.add(new SimpleImmutableEntry<>(field, values.next()));
+    }
+    return MoreObjects.toStringHelper(this)
+        .add("source", source)
+        .add("entries", entries)
+        .toString();
+  }
+}
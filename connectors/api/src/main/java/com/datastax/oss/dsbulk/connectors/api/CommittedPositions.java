@@ -0,0 +1,51 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.api;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.net.URI;
+import java.util.function.LongPredicate;
+
+/**
+ * The records committed by a previous read operation, grouped by resource.
+ *
+ * <p>Instances of this interface are passed to connectors that support {@link
+ * CommonConnectorFeature#RESUMABLE_READS} when an operation is resumed; see {@link
+ * Connector#resumeFrom(CommittedPositions)}.
+ */
+public interface CommittedPositions {
+
+  /**
+   * Whether all the records in the given resource were committed. Resources that are fully
+   * committed can be skipped entirely.
+   *
+   * @param resource the resource to inspect; see {@link Record#getResource()}.
+   * @return {@code true} if the resource is fully committed, {@code false} otherwise.
+   */
+  boolean isResourceCommitted(@NonNull URI resource);
+
+  /**
+   * Returns a predicate that tests whether the record at a given position in the given resource was
+   * committed.
+   *
+   * @param resource the resource to inspect; see {@link Record#getResource()}.
+   * @return a predicate accepting the committed {@linkplain Record#getPosition() positions} of the
+   *     resource, or {@code null} if no record of the resource was committed.
+   */
+  @Nullable
+  LongPredicate getCommittedPositions(@NonNull URI resource);
+}
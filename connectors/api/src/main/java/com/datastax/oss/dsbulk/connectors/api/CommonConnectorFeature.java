@@ -28,4 +28,10 @@ public enum CommonConnectorFeature implements ConnectorFeature {
    * strings).
    */
   MAPPED_RECORDS,
+
+  /**
+   * Indicates that the connector can resume a previous read operation, skipping the records that
+   * were already committed; see {@link Connector#resumeFrom(CommittedPositions)}.
+   */
+  RESUMABLE_READS,
 }
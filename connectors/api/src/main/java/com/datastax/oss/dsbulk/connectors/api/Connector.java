@@ -143,6 +143,21 @@ public interface Connector extends AutoCloseable {
    */
   default void configure(@NonNull Config settings, boolean read) throws IllegalArgumentException {}
 
+  /**
+   * Instructs the connector to resume a previous read operation.
+   *
+   * <p>Connectors should skip the resources that were fully committed, and should not emit the
+   * records that were committed; the remaining records must be emitted with the same resources and
+   * positions as in the previous operation.
+   *
+   * <p>This method is only invoked on connectors that support {@link
+   * CommonConnectorFeature#RESUMABLE_READS}. It is invoked after the connector is properly {@link
+   * #configure(Config, boolean) configured}, and before it is {@link #init() initialized}.
+   *
+   * @param committedPositions the records committed by the previous operation.
+   */
+  default void resumeFrom(@NonNull CommittedPositions committedPositions) {}
+
   /**
    * Initializes the connector.
    *
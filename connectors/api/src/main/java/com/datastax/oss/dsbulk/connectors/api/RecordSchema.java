@@ -0,0 +1,169 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.api;
+
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ordered fields of {@linkplain ArrayBackedRecord array-backed records}.
+ *
+ * <p>A schema is immutable, and is meant to be shared by all the records of a same resource that
+ * have the same fields; it maps each field to the index of its value in the records, so that values
+ * can be looked up in constant time.
+ *
+ * <p>A schema can also expose each value under an {@linkplain IndexedField indexed field} in
+ * addition to its declared field, as is the case for CSV files with a header.
+ */
+public final class RecordSchema {
+
+  /** The schema of records that have no fields. */
+  public static final RecordSchema EMPTY = new RecordSchema(new Field[0], false);
+
+  /**
+   * Creates a schema with the given fields.
+   *
+   * @param fields the fields, in the order of the values of the records.
+   * @return a new schema.
+   * @throws IllegalArgumentException if a field is present twice.
+   */
+  @NonNull
+  public static RecordSchema of(@NonNull Field... fields) {
+    return new RecordSchema(fields.clone(), false);
+  }
+
+  /**
+   * Creates a schema with the given fields.
+   *
+   * @param fields the fields, in the order of the values of the records.
+   * @return a new schema.
+   * @throws IllegalArgumentException if a field is present twice.
+   */
+  @NonNull
+  public static RecordSchema of(@NonNull List<? extends Field> fields) {
+    return new RecordSchema(fields.toArray(new Field[0]), false);
+  }
+
+  /**
+   * Creates a schema with indexed fields only.
+   *
+   * @param size the number of fields.
+   * @return a new schema.
+   */
+  @NonNull
+  public static RecordSchema indexed(int size) {
+    Field[] fields = new Field[size];
+    for (int i = 0; i < size; i++) {
+      fields[i] = new DefaultIndexedField(i);
+    }
+    return new RecordSchema(fields, false);
+  }
+
+  /**
+   * Creates a schema with the given fields, where each value is also exposed under an indexed field
+   * matching its position.
+   *
+   * @param fields the fields, in the order of the values of the records; none of them should be an
+   *     indexed field.
+   * @return a new schema.
+   * @throws IllegalArgumentException if a field is present twice.
+   */
+  @NonNull
+  public static RecordSchema withIndexedAliases(@NonNull Field... fields) {
+    return new RecordSchema(fields.clone(), true);
+  }
+
+  private final Field[] fields;
+  private final boolean indexedAliases;
+  private final Map<Field, Integer> indices;
+  private final Set<Field> fieldSet;
+
+  private RecordSchema(Field[] fields, boolean indexedAliases) {
+    this.fields = fields;
+    this.indexedAliases = indexedAliases;
+    Map<Field, Integer> indices = new HashMap<>();
+    ImmutableSet.Builder<Field> fieldSet = ImmutableSet.builder();
+    for (int i = 0; i < fields.length; i++) {
+      if (indices.put(fields[i], i) != null) {
+        throw new IllegalArgumentException(
+            String.format("Field %s is present more than once.", fields[i]));
+      }
+      fieldSet.add(fields[i]);
+    }
+    if (indexedAliases) {
+      for (int i = 0; i < fields.length; i++) {
+        Field alias = new DefaultIndexedField(i);
+        if (indices.put(alias, i) != null) {
+          throw new IllegalArgumentException(
+              String.format("Field %s is present more than once.", alias));
+        }
+        fieldSet.add(alias);
+      }
+    }
+    this.indices = ImmutableMap.copyOf(indices);
+    this.fieldSet = fieldSet.build();
+  }
+
+  /** @return the number of values in the records of this schema. */
+  public int size() {
+    return fields.length;
+  }
+
+  /** @return whether each value is also exposed under an indexed field matching its position. */
+  public boolean hasIndexedAliases() {
+    return indexedAliases;
+  }
+
+  /**
+   * @param index the index of a value.
+   * @return the declared field of the value at the given index.
+   */
+  @NonNull
+  public Field getField(int index) {
+    return fields[index];
+  }
+
+  /**
+   * @return all the fields of this schema, including indexed aliases if any: declared fields come
+   *     first, in the order of the values, followed by aliases.
+   */
+  @NonNull
+  public Set<Field> getFields() {
+    return fieldSet;
+  }
+
+  /**
+   * @param field the field to look up.
+   * @return the index of the value of the given field, or -1 if this schema has no such field.
+   */
+  public int indexOf(@NonNull Field field) {
+    Integer index = indices.get(field);
+    return index == null ? -1 : index;
+  }
+
+  @Override
+  public String toString() {
+    return indexedAliases
+        ? Arrays.toString(fields) + " with indexed aliases"
+        : Arrays.toString(fields);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ArrayBackedRecordTest {
+
+  private final URI resource = URI.create("file://file1.csv");
+
+  private final Field a = new DefaultMappedField("a");
+  private final Field b = new DefaultMappedField("b");
+
+  @Test
+  void should_expose_values_by_field_and_index() {
+    RecordSchema schema = RecordSchema.of(a, b);
+    ArrayBackedRecord record = new ArrayBackedRecord("source", resource, 1, schema, "foo", 42);
+    assertThat(record.getSource()).isEqualTo("source");
+    assertThat(record.getResource()).isEqualTo(resource);
+    assertThat(record.getPosition()).isEqualTo(1);
+    assertThat(record.getSchema()).isSameAs(schema);
+    assertThat(record.fields()).containsExactly(a, b);
+    assertThat(record.values()).containsExactly("foo", 42);
+    assertThat(record.getFieldValue(a)).isEqualTo("foo");
+    assertThat(record.getFieldValue(b)).isEqualTo(42);
+    assertThat(record.getFieldValue(new DefaultMappedField("c"))).isNull();
+    assertThat(record.getFieldValue(new DefaultIndexedField(0))).isNull();
+    assertThat(record.getValue(schema.indexOf(b))).isEqualTo(42);
+  }
+
+  @Test
+  void should_expose_values_under_indexed_aliases() {
+    RecordSchema schema = RecordSchema.withIndexedAliases(a, b);
+    ArrayBackedRecord record = new ArrayBackedRecord("source", resource, 1, schema, "foo", 42);
+    // fields and values are aligned: each value is repeated for its alias
+    assertThat(record.fields())
+        .containsExactly(a, b, new DefaultIndexedField(0), new DefaultIndexedField(1));
+    assertThat(record.values()).containsExactly("foo", 42, "foo", 42);
+    assertThat(record.getFieldValue(a)).isEqualTo("foo");
+    assertThat(record.getFieldValue(new DefaultIndexedField(0))).isEqualTo("foo");
+    assertThat(record.getFieldValue(new DefaultIndexedField(1))).isEqualTo(42);
+  }
+
+  @Test
+  void should_reject_values_not_matching_schema() {
+    RecordSchema schema = RecordSchema.of(a, b);
+    assertThatThrownBy(() -> new ArrayBackedRecord("source", resource, 1, schema, "foo"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Expecting record to contain 2 fields but found 1.");
+  }
+
+  @Test
+  void should_clear_fields_and_values() {
+    RecordSchema schema = RecordSchema.withIndexedAliases(a, b);
+    ArrayBackedRecord record = new ArrayBackedRecord("source", resource, 1, schema, "foo", 42);
+    record.clear();
+    assertThat(record.getSchema()).isSameAs(RecordSchema.EMPTY);
+    assertThat(record.fields()).isEmpty();
+    assertThat(record.values()).isEmpty();
+    assertThat(record.getFieldValue(a)).isNull();
+    // the record keeps its metadata
+    assertThat(record.getSource()).isEqualTo("source");
+    assertThat(record.getResource()).isEqualTo(resource);
+    assertThat(record.getPosition()).isEqualTo(1);
+  }
+
+  @Test
+  void should_memoize_resource_supplier() {
+    AtomicInteger calls = new AtomicInteger();
+    ArrayBackedRecord record =
+        new ArrayBackedRecord(
+            "source",
+            () -> {
+              calls.incrementAndGet();
+              return resource;
+            },
+            1,
+            RecordSchema.EMPTY);
+    assertThat(calls).hasValue(0);
+    assertThat(record.getResource()).isEqualTo(resource);
+    assertThat(record.getResource()).isEqualTo(resource);
+    assertThat(calls).hasValue(1);
+  }
+}
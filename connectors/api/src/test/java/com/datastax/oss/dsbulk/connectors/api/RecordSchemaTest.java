@@ -0,0 +1,92 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class RecordSchemaTest {
+
+  private final Field a = new DefaultMappedField("a");
+  private final Field b = new DefaultMappedField("b");
+  private final Field c = new DefaultMappedField("c");
+
+  @Test
+  void should_locate_fields() {
+    RecordSchema schema = RecordSchema.of(a, b, c);
+    assertThat(schema.size()).isEqualTo(3);
+    assertThat(schema.hasIndexedAliases()).isFalse();
+    assertThat(schema.indexOf(a)).isEqualTo(0);
+    assertThat(schema.indexOf(b)).isEqualTo(1);
+    assertThat(schema.indexOf(c)).isEqualTo(2);
+    assertThat(schema.indexOf(new DefaultMappedField("d"))).isEqualTo(-1);
+    assertThat(schema.indexOf(new DefaultIndexedField(0))).isEqualTo(-1);
+    assertThat(schema.getField(1)).isEqualTo(b);
+    assertThat(schema.getFields()).containsExactly(a, b, c);
+  }
+
+  @Test
+  void should_locate_indexed_fields() {
+    RecordSchema schema = RecordSchema.indexed(2);
+    assertThat(schema.size()).isEqualTo(2);
+    assertThat(schema.indexOf(new DefaultIndexedField(0))).isEqualTo(0);
+    assertThat(schema.indexOf(new DefaultIndexedField(1))).isEqualTo(1);
+    assertThat(schema.indexOf(new DefaultIndexedField(2))).isEqualTo(-1);
+    assertThat(schema.getFields())
+        .containsExactly(new DefaultIndexedField(0), new DefaultIndexedField(1));
+  }
+
+  @Test
+  void should_locate_fields_and_their_indexed_aliases() {
+    RecordSchema schema = RecordSchema.withIndexedAliases(a, b);
+    assertThat(schema.size()).isEqualTo(2);
+    assertThat(schema.hasIndexedAliases()).isTrue();
+    assertThat(schema.indexOf(a)).isEqualTo(0);
+    assertThat(schema.indexOf(b)).isEqualTo(1);
+    assertThat(schema.indexOf(new DefaultIndexedField(0))).isEqualTo(0);
+    assertThat(schema.indexOf(new DefaultIndexedField(1))).isEqualTo(1);
+    assertThat(schema.indexOf(new DefaultIndexedField(2))).isEqualTo(-1);
+    assertThat(schema.getField(0)).isEqualTo(a);
+    // declared fields come first, followed by aliases
+    assertThat(schema.getFields())
+        .containsExactly(a, b, new DefaultIndexedField(0), new DefaultIndexedField(1));
+  }
+
+  @Test
+  void should_reject_duplicate_fields() {
+    assertThatThrownBy(() -> RecordSchema.of(a, b, a))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Field a is present more than once.");
+  }
+
+  @Test
+  void should_reject_fields_clashing_with_indexed_aliases() {
+    assertThatThrownBy(() -> RecordSchema.withIndexedAliases(a, new DefaultIndexedField(0)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Field 0 is present more than once.");
+  }
+
+  @Test
+  void should_not_share_field_array_with_caller() {
+    Field[] fields = {a, b};
+    RecordSchema schema = RecordSchema.of(fields);
+    fields[0] = c;
+    assertThat(schema.getField(0)).isEqualTo(a);
+    assertThat(schema.indexOf(c)).isEqualTo(-1);
+  }
+}
@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.connectors.commons;
 
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.CommittedPositions;
 import com.datastax.oss.dsbulk.connectors.api.Connector;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
@@ -25,6 +26,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
@@ -41,6 +43,7 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Stream;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
@@ -82,6 +85,7 @@ public abstract class AbstractFileBasedConnector implements Connector {
   protected RecordWriter singleWriter;
   protected AtomicInteger fileCounter;
   protected AtomicInteger nextWriterIndex;
+  protected CommittedPositions committedPositions;
 
   // Public API
 
@@ -135,6 +139,12 @@ public abstract class AbstractFileBasedConnector implements Connector {
     maxRecords = settings.getLong(MAX_RECORDS);
   }
 
+  @Override
+  public void resumeFrom(@NonNull CommittedPositions committedPositions) {
+    assert read;
+    this.committedPositions = committedPositions;
+  }
+
   @Override
   public void init() throws URISyntaxException, IOException {
     if (read) {
@@ -160,7 +170,12 @@ public abstract class AbstractFileBasedConnector implements Connector {
     assert read;
     return Flux.concat(
             Flux.fromIterable(roots).flatMap(this::scanRootDirectory), Flux.fromIterable(files))
-        .map(url -> readSingleFile(url).transform(this::applyPerFileLimits));
+        .filter(url -> !isResourceCommitted(url))
+        .map(
+            url ->
+                readSingleFile(url)
+                    .transform(this::applyPerFileLimits)
+                    .transform(records -> skipCommittedRecords(url, records)));
   }
 
   @SuppressWarnings("BlockingMethodInNonBlockingContext")
@@ -545,6 +560,46 @@ public abstract class AbstractFileBasedConnector implements Connector {
     return records;
   }
 
+  /**
+   * Whether the resource accessible through the given URL was fully committed by the operation
+   * being resumed, if any. Only used when reading.
+   */
+  protected boolean isResourceCommitted(@NonNull URL url) {
+    if (committedPositions != null && committedPositions.isResourceCommitted(toResource(url))) {
+      LOGGER.debug("Skipping {}: all records were committed by the resumed operation.", url);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Filters out records that were committed by the operation being resumed, if any, from a stream
+   * of records coming from {@link #readSingleFile(java.net.URL)}.
+   *
+   * <p>This must be applied after {@link #applyPerFileLimits(Flux)}, so that {@code skipRecords}
+   * and {@code maxRecords} select the same records as in the resumed operation.
+   */
+  @SuppressWarnings("ReactiveStreamsUnusedPublisher")
+  @NonNull
+  protected Flux<Record> skipCommittedRecords(@NonNull URL url, @NonNull Flux<Record> records) {
+    if (committedPositions != null) {
+      LongPredicate committed = committedPositions.getCommittedPositions(toResource(url));
+      if (committed != null) {
+        records = records.filter(record -> !committed.test(record.getPosition()));
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Returns the resource identifier of the records read from the given URL; see {@link
+   * Record#getResource()}.
+   */
+  @NonNull
+  protected URI toResource(@NonNull URL url) {
+    return URI.create(url.toExternalForm());
+  }
+
   /**
    * Returns the URL that the connector should write to. Not used for reads.
    *
@@ -0,0 +1,247 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+/**
+ * A quote-aware scanner that counts the records in CSV data, without actually parsing them.
+ *
+ * <p>The scanner operates on raw bytes, and thus only supports encodings where the line feed, the
+ * delimiter, the quote and the escape characters are encoded as single ASCII bytes that cannot
+ * appear inside multi-byte sequences, such as UTF-8 or ISO-8859-1.
+ *
+ * <p>The scanner mimics the way the CSV parser splits its input into records: a line separator ends
+ * a record, unless it appears inside a quoted value; a quote only starts a quoted value when it is
+ * found at the beginning of a value; empty lines are skipped, and so are lines containing only
+ * whitespace if the parser trims whitespace. When lines end with CRLF, the parser also ends a
+ * record on a lone line feed, except inside unquoted values; the scanner does the same.
+ *
+ * <p>Because a line separator can only be followed by the beginning of a record or by the remainder
+ * of a quoted value, data can be split after any line separator, and each part scanned
+ * independently, provided that the scanner is told whether the part starts inside a quoted value.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class CSVBoundaryScanner {
+
+  private static final int LINE_START = 0;
+  private static final int VALUE_START = 1;
+  private static final int UNQUOTED = 2;
+  private static final int QUOTED = 3;
+  private static final int CLOSING_QUOTE = 4;
+  private static final int ESCAPED = 5;
+  // characters following the closing quote of a value
+  private static final int QUOTED_TAIL = 6;
+
+  private final byte delimiter;
+  private final byte quote;
+  private final byte escape;
+  private final boolean crlf;
+  private final boolean ignoreLeadingWhitespaces;
+  private final boolean countBlankLines;
+
+  private int state;
+  private boolean empty;
+  private boolean blank;
+  private long records;
+  private boolean pendingCr;
+  private int lastLineEnd;
+  private long lastLineEndRecords;
+
+  /**
+   * Creates a new scanner.
+   *
+   * @param delimiter the field delimiter.
+   * @param quote the quote character.
+   * @param escape the quote escape character.
+   * @param crlf whether lines end with CRLF rather than LF.
+   * @param ignoreLeadingWhitespaces whether the parser skips leading whitespace in values; if so, a
+   *     quote preceded by whitespace still starts a quoted value.
+   * @param countBlankLines whether lines containing only whitespace are records.
+   */
+  CSVBoundaryScanner(
+      char delimiter,
+      char quote,
+      char escape,
+      boolean crlf,
+      boolean ignoreLeadingWhitespaces,
+      boolean countBlankLines) {
+    this.delimiter = (byte) delimiter;
+    this.quote = (byte) quote;
+    this.escape = (byte) escape;
+    this.crlf = crlf;
+    this.ignoreLeadingWhitespaces = ignoreLeadingWhitespaces;
+    this.countBlankLines = countBlankLines;
+    reset(false);
+  }
+
+  /**
+   * Resets this scanner.
+   *
+   * @param inQuotes whether the next byte to scan is inside a quoted value.
+   */
+  void reset(boolean inQuotes) {
+    state = inQuotes ? QUOTED : LINE_START;
+    empty = !inQuotes;
+    blank = !inQuotes;
+    records = 0;
+    pendingCr = false;
+    lastLineEnd = -1;
+    lastLineEndRecords = 0;
+  }
+
+  /**
+   * Scans the given bytes.
+   *
+   * @param bytes the array containing the bytes to scan.
+   * @param offset the index of the first byte to scan.
+   * @param length the number of bytes to scan.
+   */
+  void scan(byte[] bytes, int offset, int length) {
+    int state = this.state;
+    boolean empty = this.empty;
+    boolean blank = this.blank;
+    long records = this.records;
+    int lastLineEnd = -1;
+    long lastLineEndRecords = this.lastLineEndRecords;
+    boolean pendingCr = this.pendingCr;
+    for (int i = offset; i < offset + length; i++) {
+      byte b = bytes[i];
+      if (state == QUOTED) {
+        // the most common case inside quoted values
+        if (b == quote) {
+          state = CLOSING_QUOTE;
+        } else if (b == escape) {
+          state = ESCAPED;
+        }
+        continue;
+      }
+      if (state == ESCAPED) {
+        state = QUOTED;
+        continue;
+      }
+      if (crlf) {
+        if (b == '\r') {
+          if (pendingCr) {
+            // the previous carriage return was not part of a line separator
+            empty = false;
+            state = next(state, (byte) '\r', true);
+          }
+          pendingCr = true;
+          continue;
+        }
+        if (b == '\n') {
+          if (!pendingCr && state == UNQUOTED) {
+            // the parser treats a lone line feed inside an unquoted value as data
+            empty = false;
+            continue;
+          }
+        } else if (pendingCr) {
+          empty = false;
+          state = next(state, (byte) '\r', true);
+        }
+        pendingCr = false;
+      }
+      if (b == '\n') {
+        if (!empty && (!blank || countBlankLines)) {
+          records++;
+        }
+        state = LINE_START;
+        empty = true;
+        blank = true;
+        lastLineEnd = i + 1;
+        lastLineEndRecords = records;
+        continue;
+      }
+      empty = false;
+      boolean whitespace = b >= 0 && b <= ' ';
+      if (!whitespace) {
+        blank = false;
+      }
+      state = next(state, b, whitespace);
+    }
+    this.state = state;
+    this.empty = empty;
+    this.blank = blank;
+    this.records = records;
+    this.lastLineEnd = lastLineEnd;
+    this.lastLineEndRecords = lastLineEndRecords;
+    this.pendingCr = pendingCr;
+  }
+
+  /** Computes the state that follows the given byte, outside quoted values and line separators. */
+  private int next(int state, byte b, boolean whitespace) {
+    switch (state) {
+      case LINE_START:
+      case VALUE_START:
+        if (b == quote) {
+          return QUOTED;
+        } else if (b == delimiter) {
+          return VALUE_START;
+        } else if (!whitespace || !ignoreLeadingWhitespaces) {
+          return UNQUOTED;
+        }
+        return state;
+      case CLOSING_QUOTE:
+        if (b == quote && escape == quote) {
+          // doubled quote
+          return QUOTED;
+        } else if (b == delimiter) {
+          return VALUE_START;
+        }
+        return QUOTED_TAIL;
+      default:
+        return b == delimiter ? VALUE_START : state;
+    }
+  }
+
+  /** Signals that the end of the data was reached, and counts the last record, if any. */
+  void finish() {
+    if (pendingCr) {
+      empty = false;
+      pendingCr = false;
+    }
+    if (!empty && (!blank || countBlankLines)) {
+      records++;
+    }
+    state = LINE_START;
+    empty = true;
+    blank = true;
+  }
+
+  /** @return the number of records found since the last reset. */
+  long getRecords() {
+    return records;
+  }
+
+  /**
+   * @return the index, in the array passed to the last invocation of {@link #scan(byte[], int,
+   *     int)}, of the byte following the last line feed that ended a line during that invocation;
+   *     or -1 if no line ended during that invocation. The data can be split at that index.
+   */
+  int getLastLineEnd() {
+    return lastLineEnd;
+  }
+
+  /** @return the number of records found since the last reset, up to the last line end. */
+  long getRecordsAtLastLineEnd() {
+    return lastLineEndRecords;
+  }
+
+  /** @return whether the next byte to scan is inside a quoted value. */
+  boolean isInQuotes() {
+    return state == QUOTED || state == ESCAPED;
+  }
+}
@@ -16,19 +16,21 @@
 package com.datastax.oss.dsbulk.connectors.csv;
 
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.ConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.DefaultErrorRecord;
-import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
-import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.MappedField;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
+import com.datastax.oss.dsbulk.io.MappedFileReader;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import com.univocity.parsers.common.ParsingContext;
@@ -40,19 +42,38 @@ import com.univocity.parsers.csv.CsvParserSettings;
 import com.univocity.parsers.csv.CsvWriter;
 import com.univocity.parsers.csv.CsvWriterSettings;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * A connector for CSV files.
@@ -61,6 +82,19 @@ import reactor.core.publisher.SynchronousSink;
  * handler} installed for it. For file URLs, it is also capable of reading several files at once
  * from a given root directory.
  *
+ * <p>When reading, large local files are split into byte ranges of at least {@code splitSize}
+ * bytes, which are then parsed concurrently. The ranges are aligned on record boundaries, and the
+ * number of records in each range is computed beforehand with a {@link CSVBoundaryScanner}, so that
+ * the records emitted by each range have the same positions as if the whole file had been parsed
+ * sequentially.
+ *
+ * <p>Inputs that cannot be split into byte ranges, such as compressed files or the standard input,
+ * are read by a single thread that only decompresses them and cuts them into chunks of whole
+ * records; chunks are then parsed concurrently, and their records re-emitted in order.
+ *
+ * <p>Records are parsed either by the univocity CSV parser, or, when the {@code parser} setting is
+ * {@code fast}, by a {@link CSVTokenizer} that works on raw bytes.
+ *
  * <p>This connector is highly configurable; see its {@code dsbulk-reference.conf} file, bundled
  * within its jar archive, for detailed information.
  */
@@ -88,6 +122,16 @@ public class CSVConnector extends AbstractFileBasedConnector {
   private static final String NORMALIZE_LINE_ENDINGS_IN_QUOTES = "normalizeLineEndingsInQuotes";
   private static final String NULL_VALUE = "nullValue";
   private static final String EMPTY_VALUE = "emptyValue";
+  private static final String SPLIT_SIZE = "splitSize";
+  private static final String PARSER = "parser";
+  private static final String UNIVOCITY_PARSER = "univocity";
+  private static final String FAST_PARSER = "fast";
+
+  private static final int SCAN_BUFFER_SIZE = 256 * 1024;
+  private static final int DETECTION_BUFFER_SIZE = 64 * 1024;
+  private static final int READ_BUFFER_SIZE = 8192 * 2;
+  private static final int STREAM_CHUNK_SIZE = 1024 * 1024;
+  private static final int CHUNK_INPUT_BUFFER_SIZE = 64 * 1024;
 
   private String delimiter;
   private char quote;
@@ -104,8 +148,16 @@ public class CSVConnector extends AbstractFileBasedConnector {
   private boolean normalizeLineEndingsInQuotes;
   private String nullValue;
   private String emptyValue;
+  private long splitSize;
+  private String parser;
   private CsvParserSettings parserSettings;
+  private boolean tokenize;
   private CsvWriterSettings writerSettings;
+  private boolean encode;
+  private boolean splittable;
+  private int splitParallelism;
+  private Scheduler splitScheduler;
+  private Scheduler streamScheduler;
 
   @Override
   @NonNull
@@ -139,6 +191,20 @@ public class CSVConnector extends AbstractFileBasedConnector {
       normalizeLineEndingsInQuotes = settings.getBoolean(NORMALIZE_LINE_ENDINGS_IN_QUOTES);
       nullValue = settings.getIsNull(NULL_VALUE) ? null : settings.getString(NULL_VALUE);
       emptyValue = settings.getIsNull(EMPTY_VALUE) ? null : settings.getString(EMPTY_VALUE);
+      splitSize = settings.getBytes(SPLIT_SIZE);
+      if (splitSize < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for dsbulk.connector.csv.%s: Expecting a positive size or zero, got: %d",
+                SPLIT_SIZE, splitSize));
+      }
+      parser = settings.getString(PARSER);
+      if (!UNIVOCITY_PARSER.equalsIgnoreCase(parser) && !FAST_PARSER.equalsIgnoreCase(parser)) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for dsbulk.connector.csv.%s: Expecting '%s' or '%s', got: '%s'",
+                PARSER, UNIVOCITY_PARSER, FAST_PARSER, parser));
+      }
       if (!AUTO_NEWLINE.equalsIgnoreCase(newline) && (newline.isEmpty() || newline.length() > 2)) {
         throw new IllegalArgumentException(
             String.format(
@@ -153,35 +219,23 @@ public class CSVConnector extends AbstractFileBasedConnector {
   @Override
   public void init() throws URISyntaxException, IOException {
     super.init();
-    CsvFormat format = new CsvFormat();
-    format.setDelimiter(delimiter);
-    format.setQuote(quote);
-    format.setQuoteEscape(escape);
-    format.setComment(comment);
     boolean autoNewline = AUTO_NEWLINE.equalsIgnoreCase(newline);
     if (read) {
-      parserSettings = new CsvParserSettings();
-      parserSettings.setFormat(format);
-      parserSettings.setNullValue(nullValue);
-      parserSettings.setEmptyValue(emptyValue);
-      // do not use this feature as the parser throws an error if the file
-      // has fewer lines than skipRecords;
-      // we'll use the skip() operator instead.
-      // parserSettings.setNumberOfRowsToSkip(skipRecords);
-      parserSettings.setHeaderExtractionEnabled(header);
-      parserSettings.setMaxCharsPerColumn(maxCharsPerColumn);
-      parserSettings.setMaxColumns(maxColumns);
-      parserSettings.setNormalizeLineEndingsWithinQuotes(normalizeLineEndingsInQuotes);
-      parserSettings.setIgnoreLeadingWhitespaces(ignoreLeadingWhitespaces);
-      parserSettings.setIgnoreTrailingWhitespaces(ignoreTrailingWhitespaces);
-      parserSettings.setIgnoreLeadingWhitespacesInQuotes(ignoreLeadingWhitespacesInQuotes);
-      parserSettings.setIgnoreTrailingWhitespacesInQuotes(ignoreTrailingWhitespacesInQuotes);
-      if (autoNewline) {
-        parserSettings.setLineSeparatorDetectionEnabled(true);
-      } else {
-        format.setLineSeparator(newline);
+      parserSettings = createParserSettings(header, autoNewline ? null : newline);
+      splittable = isSplittable();
+      splitParallelism = ConfigUtils.resolveThreads("1C");
+      if (FAST_PARSER.equalsIgnoreCase(parser)) {
+        tokenize = isTokenizable();
+        if (!tokenize) {
+          LOGGER.warn(
+              "The fast CSV parser does not support the current settings, "
+                  + "the univocity parser will be used instead. "
+                  + "See the documentation of dsbulk.connector.csv.{} for details.",
+              PARSER);
+        }
       }
     } else {
+      CsvFormat format = createFormat();
       writerSettings = new CsvWriterSettings();
       writerSettings.setFormat(format);
       writerSettings.setNullValue(nullValue);
@@ -195,7 +249,121 @@ public class CSVConnector extends AbstractFileBasedConnector {
       } else {
         format.setLineSeparator(newline);
       }
+      encode = CSVEncoder.supports(writerSettings);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      super.close();
+    } finally {
+      if (splitScheduler != null) {
+        splitScheduler.dispose();
+      }
+      if (streamScheduler != null) {
+        streamScheduler.dispose();
+      }
+    }
+  }
+
+  @NonNull
+  private CsvFormat createFormat() {
+    CsvFormat format = new CsvFormat();
+    format.setDelimiter(delimiter);
+    format.setQuote(quote);
+    format.setQuoteEscape(escape);
+    format.setComment(comment);
+    return format;
+  }
+
+  /**
+   * Creates the parser settings.
+   *
+   * @param extractHeader whether the parser should extract field names from the first line.
+   * @param lineSeparator the line separator, or {@code null} to detect it automatically.
+   */
+  @NonNull
+  private CsvParserSettings createParserSettings(
+      boolean extractHeader, @Nullable String lineSeparator) {
+    CsvFormat format = createFormat();
+    CsvParserSettings parserSettings = new CsvParserSettings();
+    parserSettings.setFormat(format);
+    parserSettings.setNullValue(nullValue);
+    parserSettings.setEmptyValue(emptyValue);
+    // do not use this feature as the parser throws an error if the file
+    // has fewer lines than skipRecords;
+    // we'll use the skip() operator instead.
+    // parserSettings.setNumberOfRowsToSkip(skipRecords);
+    parserSettings.setHeaderExtractionEnabled(extractHeader);
+    parserSettings.setMaxCharsPerColumn(maxCharsPerColumn);
+    parserSettings.setMaxColumns(maxColumns);
+    parserSettings.setNormalizeLineEndingsWithinQuotes(normalizeLineEndingsInQuotes);
+    parserSettings.setIgnoreLeadingWhitespaces(ignoreLeadingWhitespaces);
+    parserSettings.setIgnoreTrailingWhitespaces(ignoreTrailingWhitespaces);
+    parserSettings.setIgnoreLeadingWhitespacesInQuotes(ignoreLeadingWhitespacesInQuotes);
+    parserSettings.setIgnoreTrailingWhitespacesInQuotes(ignoreTrailingWhitespacesInQuotes);
+    if (lineSeparator == null) {
+      parserSettings.setLineSeparatorDetectionEnabled(true);
+    } else {
+      format.setLineSeparator(lineSeparator);
+    }
+    return parserSettings;
+  }
+
+  /**
+   * Whether the current settings allow inputs to be split into parts that are parsed concurrently.
+   *
+   * <p>This requires the data to be scanned for record boundaries as raw bytes (see {@link
+   * CSVBoundaryScanner}), and records to be selected by position only.
+   */
+  private boolean isSplittable() {
+    return splitSize > 0
+        && skipRecords == 0
+        && maxRecords == -1
+        && comment == '\0'
+        && delimiter.length() == 1
+        && (AUTO_NEWLINE.equalsIgnoreCase(newline)
+            || newline.equals("\n")
+            || newline.equals("\r\n"))
+        && isAsciiCompatible(delimiter + quote + escape + "\r\n");
+  }
+
+  /**
+   * Whether the current settings allow inputs to be parsed by a {@link CSVTokenizer}.
+   *
+   * <p>Like splitting, this requires the data to be scanned as raw bytes; in addition, the
+   * tokenizer does not trim whitespace, nor normalize line endings.
+   */
+  private boolean isTokenizable() {
+    return comment == '\0'
+        && delimiter.length() == 1
+        && (AUTO_NEWLINE.equalsIgnoreCase(newline)
+            || newline.equals("\n")
+            || newline.equals("\r\n"))
+        && !ignoreLeadingWhitespaces
+        && !ignoreTrailingWhitespaces
+        && !ignoreLeadingWhitespacesInQuotes
+        && !ignoreTrailingWhitespacesInQuotes
+        && !normalizeLineEndingsInQuotes
+        && isAsciiCompatible(delimiter + quote + escape + "\r\n");
+  }
+
+  private boolean isAsciiCompatible(String chars) {
+    if (!encoding.equals(StandardCharsets.UTF_8)
+        && (!encoding.canEncode() || encoding.newEncoder().maxBytesPerChar() != 1)) {
+      return false;
+    }
+    byte[] bytes = chars.getBytes(encoding);
+    if (bytes.length != chars.length()) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (chars.charAt(i) > 127 || bytes[i] != chars.charAt(i)) {
+        return false;
+      }
     }
+    return true;
   }
 
   @NonNull
@@ -215,44 +383,872 @@ public class CSVConnector extends AbstractFileBasedConnector {
         case INDEXED_RECORDS:
           // always support indexed records, regardless of the presence of a header
           return true;
+        case RESUMABLE_READS:
+          return true;
       }
     }
     return false;
   }
 
+  @NonNull
+  @Override
+  protected Flux<Record> readSingleFile(@NonNull URL url) {
+    Path file = getSplittableFile(url);
+    if (file != null) {
+      return Flux.defer(
+          () -> {
+            try {
+              return readSplits(url, file);
+            } catch (IOException e) {
+              return Flux.error(e);
+            }
+          });
+    }
+    if (isSplittableStream(url)) {
+      return Flux.defer(
+          () -> {
+            try {
+              return readStreamSplits(url);
+            } catch (IOException e) {
+              return Flux.error(e);
+            }
+          });
+    }
+    return super.readSingleFile(url);
+  }
+
   @Override
   @NonNull
   protected RecordReader newSingleFileReader(@NonNull URL url) throws IOException {
+    if (tokenize) {
+      InputStream in = CompressedIOUtils.newBufferedInputStream(url, compression);
+      try {
+        return newTokenizingReader(
+            url,
+            getReadableFile(url),
+            in,
+            Long.MAX_VALUE,
+            AUTO_NEWLINE.equalsIgnoreCase(newline) ? null : newline,
+            null,
+            null);
+      } catch (IOException | RuntimeException e) {
+        in.close();
+        throw e;
+      }
+    }
     return new CSVRecordReader(url);
   }
 
-  private class CSVRecordReader implements RecordReader {
+  /**
+   * Creates a reader that parses the given input with a {@link CSVTokenizer}, or with the CSV
+   * parser if the line separator must be detected and is not supported by the tokenizer.
+   *
+   * @param url the URL to read.
+   * @param file the local file that the input comes from, if the input is that file or a split of
+   *     it, or {@code null} if the input cannot be read again.
+   * @param in the input to parse.
+   * @param length the maximum number of bytes to read from the input.
+   * @param lineSeparator the line separator, or {@code null} to detect it automatically.
+   * @param fieldNames the field names, or {@code null} to extract them from the first record if the
+   *     connector expects a header.
+   * @param split the split of the file to read, or {@code null} to read the whole input.
+   */
+  @NonNull
+  private RecordReader newTokenizingReader(
+      @NonNull URL url,
+      @Nullable Path file,
+      @NonNull InputStream in,
+      long length,
+      @Nullable String lineSeparator,
+      @Nullable MappedField[] fieldNames,
+      @Nullable Split split)
+      throws IOException {
+    if (lineSeparator == null) {
+      byte[] prefix = new byte[DETECTION_BUFFER_SIZE];
+      int prefixLength = readFully(in, prefix);
+      InputStream input =
+          new SequenceInputStream(new ByteArrayInputStream(prefix, 0, prefixLength), in);
+      lineSeparator = detectNewline(prefix, prefixLength);
+      if (lineSeparator == null) {
+        LOGGER.debug("Could not detect line separator of {}, it will not be tokenized", url);
+        return new CSVRecordReader(
+            url,
+            () -> new BufferedReader(new InputStreamReader(input, encoding), READ_BUFFER_SIZE),
+            parserSettings,
+            fieldNames,
+            split);
+      }
+      in = input;
+    }
+    return new TokenizingRecordReader(
+        url,
+        file,
+        new CSVTokenizer(in, length, encoding, createParserSettings(false, lineSeparator)),
+        fieldNames,
+        split);
+  }
+
+  /**
+   * Returns the local file that the given URL points to, if records can be read again from that
+   * file at their byte offsets, or {@code null} otherwise.
+   */
+  @Nullable
+  private Path getReadableFile(@NonNull URL url) {
+    if (!CompressedIOUtils.isNoneCompression(compression) || !"file".equals(url.getProtocol())) {
+      return null;
+    }
+    try {
+      Path file = Paths.get(url.toURI());
+      return Files.isRegularFile(file) ? file : null;
+    } catch (URISyntaxException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  @NonNull
+  private Callable<Reader> newFileReader(@NonNull URL url) {
+    return () -> CompressedIOUtils.newBufferedReader(url, encoding, compression);
+  }
+
+  /**
+   * Returns the local file that the given URL points to, if that file is large enough to be split,
+   * or {@code null} otherwise.
+   */
+  @Nullable
+  private Path getSplittableFile(@NonNull URL url) {
+    if (!splittable
+        || !CompressedIOUtils.isNoneCompression(compression)
+        || !"file".equals(url.getProtocol())) {
+      return null;
+    }
+    try {
+      Path file = Paths.get(url.toURI());
+      if (Files.isRegularFile(file) && Files.size(file) >= 2 * splitSize) {
+        return file;
+      }
+    } catch (URISyntaxException | IOException | RuntimeException e) {
+      LOGGER.debug("Could not inspect " + url + ", it will not be split", e);
+    }
+    return null;
+  }
+
+  /**
+   * Reads the given file by splitting it into ranges that are parsed concurrently.
+   *
+   * <p>The file is first cut into chunks of approximately {@code splitSize} bytes, each chunk
+   * ending with a line separator. The chunks are scanned concurrently, assuming that they start
+   * with a new record. Scan results are then processed in order: when a chunk actually starts
+   * inside a quoted value (because the previous chunk ended inside a quoted value), it is scanned
+   * again and appended to the previous range; otherwise, it starts a new range. Ranges are parsed
+   * concurrently as soon as their first record position is known, and their records re-emitted in
+   * file order.
+   *
+   * <p>The records of a range are only emitted once the parser has found as many records as the
+   * scanner; if they disagree, the rest of the file is read sequentially instead.
+   */
+  @NonNull
+  private Flux<Record> readSplits(@NonNull URL url, @NonNull Path file) throws IOException {
+    String lineSeparator = AUTO_NEWLINE.equalsIgnoreCase(newline) ? detectNewline(file) : newline;
+    if (lineSeparator == null) {
+      LOGGER.debug("Could not detect line separator of {}, it will not be split", url);
+      return super.readSingleFile(url);
+    }
+    long[] boundaries = findChunkBoundaries(file, lineSeparator);
+    LOGGER.debug("Reading {} in {} chunks of ~{} bytes", url, boundaries.length - 1, splitSize);
+    MappedField[] fieldNames = null;
+    if (header) {
+      try (CSVRecordReader reader = new CSVRecordReader(url)) {
+        fieldNames = reader.fieldNames;
+      }
+    }
+    CSVBoundaryScanner scanner = newBoundaryScanner(lineSeparator);
+    SplitResolver resolver = new SplitResolver(file, scanner, header);
+    MappedField[] headerFields = fieldNames;
+    Scheduler scheduler = getSplitScheduler();
+    return Flux.range(0, boundaries.length - 1)
+        .flatMapSequential(
+            i ->
+                Mono.fromCallable(
+                        () ->
+                            scanChunk(
+                                file,
+                                newBoundaryScanner(lineSeparator),
+                                boundaries[i],
+                                boundaries[i + 1],
+                                false))
+                    .subscribeOn(scheduler),
+            splitParallelism)
+        .<Split>handle(
+            (chunk, sink) -> {
+              try {
+                Split split = resolver.accept(chunk);
+                if (split != null) {
+                  sink.next(split);
+                }
+              } catch (IOException e) {
+                sink.error(e);
+              }
+            })
+        .concatWith(Mono.fromSupplier(resolver::finish))
+        .flatMapSequential(
+            split ->
+                Flux.<Record, RecordReader>generate(
+                        () -> newSplitReader(url, file, split, lineSeparator, headerFields),
+                        RecordReader::readNext,
+                        recordReader -> {
+                          try {
+                            recordReader.close();
+                          } catch (IOException e) {
+                            LOGGER.error("Error closing " + url, e);
+                          }
+                        })
+                    .collectList()
+                    .map(records -> new ParsedSplit(split, records))
+                    .onErrorResume(
+                        SplitMismatchException.class, e -> Mono.just(new ParsedSplit(split, null)))
+                    .subscribeOn(scheduler),
+            splitParallelism,
+            1)
+        // stop parsing splits as soon as one of them cannot be trusted
+        .takeUntil(parsed -> parsed.records == null)
+        .concatMap(
+            parsed ->
+                parsed.records == null
+                    ? readSequentially(url, parsed.split)
+                    : Flux.fromIterable(parsed.records),
+            1);
+  }
+
+  /**
+   * Reads the given file sequentially, starting with the first record of the given split; invoked
+   * when the boundary scanner and the parser disagree on the records of that split. The records of
+   * the previous splits were already emitted, and are skipped.
+   */
+  @NonNull
+  private Flux<Record> readSequentially(@NonNull URL url, @NonNull Split split) {
+    LOGGER.warn(
+        "Expected {} records between bytes {} and {} of {}, but the parser found a different "
+            + "number; reading the rest of the file sequentially.",
+        split.records,
+        split.start,
+        split.end,
+        url);
+    return super.readSingleFile(url).skip(split.firstRecord - 1);
+  }
+
+  /**
+   * Whether the given URL should be read as a stream that is cut into chunks parsed concurrently;
+   * this is the case for inputs that cannot be split into byte ranges, because they are compressed
+   * or not local files.
+   */
+  private boolean isSplittableStream(@NonNull URL url) {
+    return splittable
+        && (!CompressedIOUtils.isNoneCompression(compression) || !"file".equals(url.getProtocol()));
+  }
+
+  /**
+   * Reads the given URL by cutting its contents into chunks that are parsed concurrently.
+   *
+   * <p>A dedicated thread reads and decompresses the input, and cuts it into chunks of
+   * approximately {@code splitSize} bytes (but no more than {@value #STREAM_CHUNK_SIZE} bytes),
+   * each chunk ending on a record boundary; the number of records in each chunk is computed at the
+   * same time with a {@link CSVBoundaryScanner}. Chunks are parsed concurrently, and their records
+   * re-emitted in order.
+   */
+  @NonNull
+  private Flux<Record> readStreamSplits(@NonNull URL url) throws IOException {
+    InputStream in = CompressedIOUtils.newBufferedInputStream(url, compression);
+    StreamChunker chunker;
+    try {
+      byte[] prefix = new byte[DETECTION_BUFFER_SIZE];
+      int length = readFully(in, prefix);
+      String lineSeparator =
+          AUTO_NEWLINE.equalsIgnoreCase(newline) ? detectNewline(prefix, length) : newline;
+      if (lineSeparator == null) {
+        LOGGER.debug("Could not detect line separator of {}, it will not be split", url);
+        InputStream remaining =
+            new SequenceInputStream(new ByteArrayInputStream(prefix, 0, length), in);
+        return Flux.generate(
+            () ->
+                new CSVRecordReader(
+                    url,
+                    () ->
+                        new BufferedReader(
+                            new InputStreamReader(remaining, encoding), READ_BUFFER_SIZE),
+                    parserSettings,
+                    null,
+                    null),
+            RecordReader::readNext,
+            recordReader -> {
+              try {
+                recordReader.close();
+              } catch (IOException e) {
+                LOGGER.error("Error closing " + url, e);
+              }
+            });
+      }
+      int chunkSize = (int) Math.min(splitSize, STREAM_CHUNK_SIZE);
+      chunker =
+          new StreamChunker(
+              url, in, prefix, length, chunkSize, newBoundaryScanner(lineSeparator), lineSeparator);
+    } catch (IOException | RuntimeException e) {
+      in.close();
+      throw e;
+    }
+    Scheduler scheduler = getSplitScheduler();
+    return Flux.<StreamChunk, StreamChunker>generate(
+            () -> chunker,
+            (state, sink) -> {
+              try {
+                StreamChunk chunk = state.next();
+                if (chunk == null) {
+                  sink.complete();
+                } else {
+                  sink.next(chunk);
+                }
+              } catch (IOException e) {
+                sink.error(e);
+              }
+              return state;
+            },
+            state -> {
+              try {
+                state.close();
+              } catch (IOException e) {
+                LOGGER.error("Error closing " + url, e);
+              }
+            })
+        .subscribeOn(getStreamScheduler())
+        .flatMapSequential(
+            chunk ->
+                Flux.<Record, RecordReader>generate(
+                        () -> newChunkReader(url, chunk),
+                        RecordReader::readNext,
+                        recordReader -> {
+                          try {
+                            recordReader.close();
+                          } catch (IOException e) {
+                            LOGGER.error("Error closing " + url, e);
+                          }
+                        })
+                    .collectList()
+                    .subscribeOn(scheduler),
+            splitParallelism,
+            1)
+        .concatMapIterable(records -> records);
+  }
+
+  private synchronized Scheduler getStreamScheduler() {
+    if (streamScheduler == null) {
+      streamScheduler = Schedulers.newParallel("csv-reader", readConcurrency(), true);
+    }
+    return streamScheduler;
+  }
+
+  private synchronized Scheduler getSplitScheduler() {
+    if (splitScheduler == null) {
+      splitScheduler = Schedulers.newParallel("csv-parser", splitParallelism, true);
+    }
+    return splitScheduler;
+  }
+
+  @NonNull
+  @VisibleForTesting
+  CSVBoundaryScanner newBoundaryScanner(@NonNull String lineSeparator) {
+    return new CSVBoundaryScanner(
+        delimiter.charAt(0),
+        quote,
+        escape,
+        lineSeparator.equals("\r\n"),
+        ignoreLeadingWhitespaces,
+        !ignoreLeadingWhitespaces && !ignoreTrailingWhitespaces);
+  }
+
+  @NonNull
+  private RecordReader newSplitReader(
+      @NonNull URL url,
+      @NonNull Path file,
+      @NonNull Split split,
+      @NonNull String lineSeparator,
+      @Nullable MappedField[] fieldNames)
+      throws IOException {
+    boolean first = split.start == 0;
+    if (tokenize) {
+      FileChannel channel = FileChannel.open(file);
+      try {
+        channel.position(split.start);
+        return newTokenizingReader(
+            url,
+            file,
+            Channels.newInputStream(channel),
+            split.end - split.start,
+            lineSeparator,
+            first ? null : fieldNames,
+            split);
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+    return new CSVRecordReader(
+        url,
+        () -> new MappedFileReader(file, encoding, split.start, split.end),
+        createParserSettings(header && first, lineSeparator),
+        first ? null : fieldNames,
+        split);
+  }
+
+  @NonNull
+  private RecordReader newChunkReader(@NonNull URL url, @NonNull StreamChunk chunk)
+      throws IOException {
+    boolean first = chunk.split.start == 0;
+    if (tokenize) {
+      return newTokenizingReader(
+          url,
+          null,
+          new ByteArrayInputStream(chunk.bytes, 0, chunk.length),
+          chunk.length,
+          chunk.lineSeparator,
+          first ? null : chunk.fieldNames,
+          chunk.split);
+    }
+    return new CSVRecordReader(
+        url,
+        () ->
+            new InputStreamReader(new ByteArrayInputStream(chunk.bytes, 0, chunk.length), encoding),
+        createChunkParserSettings(header && first, chunk.lineSeparator),
+        first ? null : chunk.fieldNames,
+        chunk.split);
+  }
+
+  @NonNull
+  private CsvParserSettings createChunkParserSettings(
+      boolean extractHeader, @NonNull String lineSeparator) {
+    CsvParserSettings settings = createParserSettings(extractHeader, lineSeparator);
+    // chunks are in memory already, reading them on a separate thread would not help
+    settings.setReadInputOnSeparateThread(false);
+    settings.setInputBufferSize(CHUNK_INPUT_BUFFER_SIZE);
+    return settings;
+  }
+
+  /**
+   * Detects the line separator of the given file by inspecting its first bytes.
+   *
+   * @return the line separator, or {@code null} if it could not be detected, or if it is not
+   *     supported when splitting files.
+   */
+  @Nullable
+  private static String detectNewline(@NonNull Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      byte[] bytes = new byte[DETECTION_BUFFER_SIZE];
+      return detectNewline(bytes, readFully(in, bytes));
+    }
+  }
+
+  /**
+   * Detects the line separator of some data by inspecting its first bytes.
+   *
+   * @return the line separator, or {@code null} if it could not be detected, or if it is not
+   *     supported when splitting inputs.
+   */
+  @Nullable
+  private static String detectNewline(@NonNull byte[] bytes, int length) {
+    for (int i = 0; i < length; i++) {
+      if (bytes[i] == '\n') {
+        return "\n";
+      }
+      if (bytes[i] == '\r') {
+        return i + 1 < length && bytes[i + 1] == '\n' ? "\r\n" : null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads from the given stream until the given array is full, or the end of the stream is reached.
+   *
+   * @return the number of bytes read.
+   */
+  private static int readFully(@NonNull InputStream in, @NonNull byte[] bytes) throws IOException {
+    return readFully(in, bytes, 0);
+  }
+
+  private static int readFully(@NonNull InputStream in, @NonNull byte[] bytes, int offset)
+      throws IOException {
+    int length = offset;
+    while (length < bytes.length) {
+      int read = in.read(bytes, length, bytes.length - length);
+      if (read == -1) {
+        break;
+      }
+      length += read;
+    }
+    return length;
+  }
+
+  /**
+   * Cuts the given file into chunks of approximately {@code splitSize} bytes; each chunk but the
+   * last one ends with a line separator.
+   *
+   * @return the offsets of the chunk boundaries, including 0 and the file size.
+   */
+  @NonNull
+  private long[] findChunkBoundaries(@NonNull Path file, @NonNull String lineSeparator)
+      throws IOException {
+    // when lines end with CRLF, a lone line feed may be part of a value
+    int separatorLength = lineSeparator.length();
+    List<Long> boundaries = new ArrayList<>();
+    boundaries.add(0L);
+    try (FileChannel channel = FileChannel.open(file)) {
+      long size = channel.size();
+      ByteBuffer buffer = ByteBuffer.allocate(DETECTION_BUFFER_SIZE);
+      long position = splitSize;
+      while (position < size - splitSize) {
+        long boundary = -1;
+        while (boundary == -1 && position < size) {
+          buffer.clear();
+          long start = position - separatorLength + 1;
+          int read = channel.read(buffer, start);
+          if (read < separatorLength) {
+            break;
+          }
+          for (int i = separatorLength - 1; i < read; i++) {
+            if (buffer.get(i) == '\n' && (separatorLength == 1 || buffer.get(i - 1) == '\r')) {
+              boundary = start + i + 1;
+              break;
+            }
+          }
+          if (boundary == -1) {
+            position = start + read;
+          }
+        }
+        if (boundary == -1 || boundary >= size) {
+          break;
+        }
+        boundaries.add(boundary);
+        position = boundary + splitSize;
+      }
+      boundaries.add(size);
+    }
+    return boundaries.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /** Scans the given chunk of the given file for records. */
+  @NonNull
+  private static Chunk scanChunk(
+      @NonNull Path file,
+      @NonNull CSVBoundaryScanner scanner,
+      long start,
+      long end,
+      boolean inQuotes)
+      throws IOException {
+    scanner.reset(inQuotes);
+    try (FileChannel channel = FileChannel.open(file)) {
+      ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+      long position = start;
+      while (position < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        int read = channel.read(buffer, position);
+        if (read <= 0) {
+          throw new IOException(
+              String.format("Unexpected end of file %s at byte %d", file, position));
+        }
+        scanner.scan(buffer.array(), 0, read);
+        position += read;
+      }
+      if (end == channel.size()) {
+        scanner.finish();
+      }
+    }
+    return new Chunk(start, end, inQuotes, scanner.isInQuotes(), scanner.getRecords());
+  }
+
+  /** The result of scanning a chunk of a file. */
+  private static class Chunk {
+
+    private final long start;
+    private final long end;
+    private final boolean startsInQuotes;
+    private final boolean endsInQuotes;
+    private final long records;
+
+    private Chunk(
+        long start, long end, boolean startsInQuotes, boolean endsInQuotes, long records) {
+      this.start = start;
+      this.end = end;
+      this.startsInQuotes = startsInQuotes;
+      this.endsInQuotes = endsInQuotes;
+      this.records = records;
+    }
+  }
+
+  /** A range of a file, starting and ending on record boundaries. */
+  private static class Split {
+
+    private final long start;
+    private final long end;
+    private final long firstRecord;
+    private final long records;
+
+    private Split(long start, long end, long firstRecord, long records) {
+      this.start = start;
+      this.end = end;
+      this.firstRecord = firstRecord;
+      this.records = records;
+    }
+  }
+
+  /** The records of a split, or {@code null} if they do not match the scanned records. */
+  private static class ParsedSplit {
+
+    private final Split split;
+    private final @Nullable List<Record> records;
+
+    private ParsedSplit(Split split, @Nullable List<Record> records) {
+      this.split = split;
+      this.records = records;
+    }
+  }
+
+  /** Signals that the parser and the boundary scanner disagree on the records of a split. */
+  private static class SplitMismatchException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private SplitMismatchException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Merges scanned chunks into splits. Chunks must be accepted in order; this class is not
+   * thread-safe.
+   */
+  private static class SplitResolver {
+
+    private final Path file;
+    private final CSVBoundaryScanner scanner;
+
+    private boolean inQuotes;
+    private long start;
+    private long end;
+    private long records;
+    private long nextRecord = 1;
+
+    private SplitResolver(Path file, CSVBoundaryScanner scanner, boolean header) {
+      this.file = file;
+      this.scanner = scanner;
+      // the header line is counted by the scanner, but is not a record
+      records = header ? -1 : 0;
+    }
+
+    /**
+     * Accepts the next chunk.
+     *
+     * @return the previous split, if the chunk starts a new split, or {@code null} otherwise.
+     */
+    @Nullable
+    private Split accept(Chunk chunk) throws IOException {
+      if (chunk.startsInQuotes != inQuotes) {
+        // the chunk was scanned with the wrong initial state, scan it again
+        chunk = scanChunk(file, scanner, chunk.start, chunk.end, inQuotes);
+      }
+      Split split = null;
+      if (!inQuotes && chunk.start > 0) {
+        split = finish();
+        start = chunk.start;
+      }
+      end = chunk.end;
+      records += chunk.records;
+      inQuotes = chunk.endsInQuotes;
+      return split;
+    }
+
+    /** @return the last split. */
+    private Split finish() {
+      Split split = new Split(start, end, nextRecord, Math.max(0, records));
+      nextRecord += split.records;
+      records = 0;
+      return split;
+    }
+  }
+
+  /** A chunk of a stream, starting and ending on record boundaries. */
+  private static class StreamChunk {
+
+    private final byte[] bytes;
+    private final int length;
+    private final Split split;
+    private final String lineSeparator;
+    private final @Nullable MappedField[] fieldNames;
+
+    private StreamChunk(
+        byte[] bytes,
+        int length,
+        Split split,
+        String lineSeparator,
+        @Nullable MappedField[] fieldNames) {
+      this.bytes = bytes;
+      this.length = length;
+      this.split = split;
+      this.lineSeparator = lineSeparator;
+      this.fieldNames = fieldNames;
+    }
+  }
+
+  /**
+   * Cuts a stream into chunks of whole records, and counts the records in each chunk. This class is
+   * not thread-safe.
+   */
+  private class StreamChunker implements AutoCloseable {
 
     private final URL url;
-    private final URI resource;
-    private final CsvParser parser;
-    private final ParsingContext context;
-    private final MappedField[] fieldNames;
+    private final InputStream in;
+    private final int chunkSize;
+    private final CSVBoundaryScanner scanner;
+    private final String lineSeparator;
 
-    private long recordNumber = 1;
+    private byte[] buffer;
+    private int length;
+    private int scanned;
+    private long position;
+    private long recordsAtLastCut;
+    private long nextRecord = 1;
+    private boolean done;
+    private @Nullable MappedField[] fieldNames;
 
-    private CSVRecordReader(URL url) throws IOException {
+    /**
+     * Creates a new chunker.
+     *
+     * @param url the URL being read.
+     * @param in the stream to read.
+     * @param prefix the bytes already read from the stream.
+     * @param prefixLength the number of bytes already read from the stream.
+     * @param chunkSize the target chunk size.
+     * @param scanner the scanner to use.
+     * @param lineSeparator the line separator.
+     */
+    private StreamChunker(
+        URL url,
+        InputStream in,
+        byte[] prefix,
+        int prefixLength,
+        int chunkSize,
+        CSVBoundaryScanner scanner,
+        String lineSeparator) {
       this.url = url;
-      try {
-        resource = URI.create(url.toExternalForm());
-        parser = new CsvParser(parserSettings);
-        Reader r = CompressedIOUtils.newBufferedReader(url, encoding, compression);
-        parser.beginParsing(r);
-        context = parser.getContext();
-        fieldNames = header ? getFieldNames(url, context) : null;
-      } catch (Exception e) {
-        throw asIOException(url, e, "Error creating CSV parser for " + url);
+      this.in = in;
+      this.chunkSize = chunkSize;
+      this.scanner = scanner;
+      this.lineSeparator = lineSeparator;
+      buffer = new byte[Math.max(chunkSize, prefixLength)];
+      System.arraycopy(prefix, 0, buffer, 0, prefixLength);
+      length = prefixLength;
+      // the header line is counted by the scanner, but is not a record
+      recordsAtLastCut = header ? 1 : 0;
+    }
+
+    /** @return the next chunk, or {@code null} if the end of the stream was reached. */
+    @Nullable
+    private StreamChunk next() throws IOException {
+      while (!done) {
+        length = readFully(in, buffer, length);
+        boolean eof = length < buffer.length;
+        scanner.scan(buffer, scanned, length - scanned);
+        scanned = length;
+        if (eof) {
+          scanner.finish();
+          done = true;
+          if (length > 0) {
+            return cut(length, scanner.getRecords());
+          }
+        } else if (scanner.getLastLineEnd() != -1) {
+          return cut(scanner.getLastLineEnd(), scanner.getRecordsAtLastLineEnd());
+        } else {
+          // the buffer does not contain a whole record yet
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+      }
+      return null;
+    }
+
+    @NonNull
+    private StreamChunk cut(int end, long recordsAtEnd) throws IOException {
+      long records = Math.max(0, recordsAtEnd - recordsAtLastCut);
+      Split split = new Split(position, position + end, nextRecord, records);
+      StreamChunk chunk = new StreamChunk(buffer, end, split, lineSeparator, fieldNames);
+      if (header && position == 0 && !done) {
+        // extract field names once, other chunks do not start with the header
+        byte[] bytes = buffer;
+        try (CSVRecordReader reader =
+            new CSVRecordReader(
+                url,
+                () -> new InputStreamReader(new ByteArrayInputStream(bytes, 0, end), encoding),
+                createChunkParserSettings(true, lineSeparator),
+                null,
+                null)) {
+          fieldNames = reader.fieldNames;
+        }
       }
+      nextRecord += records;
+      recordsAtLastCut = Math.max(recordsAtLastCut, recordsAtEnd);
+      position += end;
+      int remaining = length - end;
+      byte[] next = new byte[Math.max(chunkSize, remaining)];
+      System.arraycopy(buffer, end, next, 0, remaining);
+      buffer = next;
+      length = remaining;
+      scanned = remaining;
+      return chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
     }
+  }
+
+  /** Base class for readers, that turns parsed rows into records. */
+  private abstract class AbstractCSVRecordReader implements RecordReader {
+
+    final URL url;
+    final URI resource;
+    final @Nullable Split split;
+    MappedField[] fieldNames;
+
+    long recordNumber;
+
+    private RecordSchema schema;
+
+    /**
+     * @param url the URL to read.
+     * @param split the split of the file to read, or {@code null} to read the whole file.
+     */
+    AbstractCSVRecordReader(URL url, @Nullable Split split) {
+      this.url = url;
+      this.split = split;
+      recordNumber = split == null ? 1 : split.firstRecord;
+      resource = URI.create(url.toExternalForm());
+    }
+
+    /** @return the values of the next row, or {@code null} if there are no more rows. */
+    @Nullable
+    abstract Object[] nextRow() throws IOException;
+
+    /**
+     * @return the source of the row that was last returned by {@link #nextRow()}: its text, or an
+     *     object that reads it on demand.
+     */
+    abstract Object currentSource();
 
-    private MappedField[] getFieldNames(URL url, ParsingContext context) throws IOException {
+    /** @return the line to report when a row cannot be parsed, or -1 if the parser knows it. */
+    long errorLine() {
+      return split == null ? -1 : recordNumber;
+    }
+
+    MappedField[] getFieldNames(URL url, String[] parsedHeaders) throws IOException {
       List<String> fieldNames = new ArrayList<>();
-      String[] parsedHeaders = context.headers();
       List<String> errors = new ArrayList<>();
       for (int i = 0; i < parsedHeaders.length; i++) {
         String name = parsedHeaders[i];
@@ -276,11 +1272,24 @@ public class CSVConnector extends AbstractFileBasedConnector {
     @Override
     public RecordReader readNext(@NonNull SynchronousSink<Record> sink) {
       try {
-        com.univocity.parsers.common.record.Record row = parser.parseNextRecord();
-        if (row != null) {
-          Record record = parseNext(row);
+        Object[] values = nextRow();
+        if (values != null) {
+          Record record = parseNext(values);
           LOGGER.trace("Emitting record {}", record);
           sink.next(record);
+        } else if (split != null && recordNumber - split.firstRecord != split.records) {
+          // should not happen, unless the scanner and the parser disagree on record boundaries
+          sink.error(
+              new SplitMismatchException(
+                  String.format(
+                      "Error reading from %s: expected %d records between bytes %d and %d, "
+                          + "but found %d. Please set connector.csv.%s to 0 to disable file splitting.",
+                      url,
+                      split.records,
+                      split.start,
+                      split.end,
+                      recordNumber - split.firstRecord,
+                      SPLIT_SIZE)));
         } else {
           LOGGER.debug("Done reading {}", url);
           sink.complete();
@@ -288,35 +1297,101 @@ public class CSVConnector extends AbstractFileBasedConnector {
       } catch (Exception e) {
         IOException error =
             asIOException(
-                url, e, String.format("Error reading from %s at line %d", url, recordNumber));
+                url,
+                e,
+                String.format("Error reading from %s at line %d", url, recordNumber),
+                errorLine());
         sink.error(error);
       }
       return this;
     }
 
     @NonNull
-    private Record parseNext(com.univocity.parsers.common.record.Record row) {
-      String source = context.currentParsedContent();
+    private Record parseNext(Object[] values) {
+      Object source = currentSource();
       Record record;
       try {
-        Object[] values = row.getValues();
-        if (header) {
-          record = DefaultRecord.mapped(source, resource, recordNumber++, fieldNames, values);
-          // also emit indexed fields
-          for (int i = 0; i < values.length; i++) {
-            DefaultIndexedField field = new DefaultIndexedField(i);
-            Object value = values[i];
-            ((DefaultRecord) record).setFieldValue(field, value);
-          }
-        } else {
-          record = DefaultRecord.indexed(source, resource, recordNumber++, values);
-        }
+        record = new ArrayBackedRecord(source, resource, recordNumber++, schema(values), values);
       } catch (Exception e) {
         record = new DefaultErrorRecord(source, resource, recordNumber, e);
       }
       return record;
     }
 
+    /**
+     * @return the schema of a record with the given values, shared by the records of the reader.
+     */
+    @NonNull
+    private RecordSchema schema(Object[] values) {
+      RecordSchema schema = this.schema;
+      if (schema == null || (!header && schema.size() != values.length)) {
+        // with a header, mapped fields are also emitted as indexed fields
+        schema =
+            header
+                ? RecordSchema.withIndexedAliases(fieldNames)
+                : RecordSchema.indexed(values.length);
+        this.schema = schema;
+      }
+      return schema;
+    }
+  }
+
+  /** A reader that parses its input with the univocity CSV parser. */
+  private class CSVRecordReader extends AbstractCSVRecordReader {
+
+    private final CsvParser parser;
+    private final ParsingContext context;
+
+    private CSVRecordReader(URL url) throws IOException {
+      this(url, newFileReader(url), parserSettings, null, null);
+    }
+
+    /**
+     * Creates a new reader.
+     *
+     * @param url the URL to read.
+     * @param input the supplier of the reader to parse.
+     * @param settings the parser settings.
+     * @param fieldNames the field names, or {@code null} to extract them from the first line if the
+     *     connector expects a header.
+     * @param split the split of the file to read, or {@code null} to read the whole file.
+     */
+    private CSVRecordReader(
+        URL url,
+        Callable<Reader> input,
+        CsvParserSettings settings,
+        @Nullable MappedField[] fieldNames,
+        @Nullable Split split)
+        throws IOException {
+      super(url, split);
+      try {
+        parser = new CsvParser(settings);
+        parser.beginParsing(input.call());
+        context = parser.getContext();
+        if (!header) {
+          this.fieldNames = null;
+        } else if (fieldNames == null) {
+          this.fieldNames = getFieldNames(url, context.headers());
+        } else {
+          this.fieldNames = fieldNames;
+        }
+      } catch (Exception e) {
+        throw asIOException(url, e, "Error creating CSV parser for " + url, -1);
+      }
+    }
+
+    @Nullable
+    @Override
+    Object[] nextRow() {
+      com.univocity.parsers.common.record.Record row = parser.parseNextRecord();
+      return row == null ? null : row.getValues();
+    }
+
+    @Override
+    String currentSource() {
+      return context.currentParsedContent();
+    }
+
     @Override
     public void close() {
       if (parser != null) {
@@ -325,10 +1400,80 @@ public class CSVConnector extends AbstractFileBasedConnector {
     }
   }
 
+  /** A reader that parses its input with a {@link CSVTokenizer}. */
+  private class TokenizingRecordReader extends AbstractCSVRecordReader {
+
+    private final @Nullable Path file;
+    private final long offset;
+    private final CSVTokenizer tokenizer;
+
+    /**
+     * Creates a new reader.
+     *
+     * @param url the URL to read.
+     * @param file the local file to read the text of records from, or {@code null} if the text of
+     *     records must be kept in memory.
+     * @param tokenizer the tokenizer to read records from.
+     * @param fieldNames the field names, or {@code null} to extract them from the first record if
+     *     the connector expects a header.
+     * @param split the split of the file to read, or {@code null} to read the whole file.
+     */
+    private TokenizingRecordReader(
+        URL url,
+        @Nullable Path file,
+        CSVTokenizer tokenizer,
+        @Nullable MappedField[] fieldNames,
+        @Nullable Split split)
+        throws IOException {
+      super(url, split);
+      this.file = file;
+      this.offset = split == null ? 0 : split.start;
+      this.tokenizer = tokenizer;
+      try {
+        if (!header) {
+          this.fieldNames = null;
+        } else if (fieldNames == null) {
+          this.fieldNames = getFieldNames(url, tokenizer.next() ? tokenizer.getValues() : null);
+        } else {
+          this.fieldNames = fieldNames;
+        }
+      } catch (Exception e) {
+        tokenizer.close();
+        throw asIOException(url, e, "Error creating CSV parser for " + url, recordNumber);
+      }
+    }
+
+    @Nullable
+    @Override
+    Object[] nextRow() throws IOException {
+      return tokenizer.next() ? tokenizer.getValues() : null;
+    }
+
+    @Override
+    Object currentSource() {
+      long position = tokenizer.getSourcePosition();
+      if (file == null || position == -1) {
+        return tokenizer.getSource();
+      }
+      return new FileRecordSource(file, offset + position, tokenizer.getSourceLength(), encoding);
+    }
+
+    @Override
+    long errorLine() {
+      // the tokenizer does not track lines
+      return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+      tokenizer.close();
+    }
+  }
+
   @NonNull
   @Override
   protected RecordWriter newSingleFileWriter() {
-    return new CSVRecordWriter();
+    return encode ? new EncodingRecordWriter() : new CSVRecordWriter();
   }
 
   private class CSVRecordWriter implements RecordWriter {
@@ -407,20 +1552,109 @@ public class CSVConnector extends AbstractFileBasedConnector {
     }
   }
 
+  /** A writer that writes its output with a {@link CSVEncoder}. */
+  private class EncodingRecordWriter implements RecordWriter {
+
+    private URL url;
+    private CSVEncoder encoder;
+
+    @Override
+    public void write(@NonNull Record record) throws IOException {
+      try {
+        if (encoder == null) {
+          open();
+        } else if (shouldRoll()) {
+          close();
+          open();
+        }
+        if (encoder == null) {
+          // the channel was closed due to interruption
+          return;
+        }
+        if (shouldWriteHeader()) {
+          encoder.writeHeaders(
+              record.fields().stream().map(Field::toString).toArray(String[]::new));
+        }
+        LOGGER.trace("Writing record {} to {}", record, url);
+        encoder.writeRow(record.values());
+      } catch (ClosedChannelException e) {
+        // OK, happens when the channel was closed due to interruption
+      } catch (RuntimeException | IOException e) {
+        throw new IOException(String.format("Error writing to %s", url), e);
+      }
+    }
+
+    private boolean shouldWriteHeader() {
+      return header && encoder.getRecordCount() == 0;
+    }
+
+    private boolean shouldRoll() {
+      return !roots.isEmpty() && encoder.getRecordCount() == maxRecords;
+    }
+
+    private void open() throws IOException {
+      url = getOrCreateDestinationURL();
+      try {
+        encoder =
+            new CSVEncoder(
+                CompressedIOUtils.newBufferedWriter(url, encoding, compression), writerSettings);
+        LOGGER.debug("Writing {}", url);
+      } catch (ClosedChannelException e) {
+        // OK, happens when the channel was closed due to interruption
+      } catch (RuntimeException | IOException e) {
+        throw new IOException(String.format("Error opening %s", url), e);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (encoder != null) {
+        try {
+          encoder.flush();
+        } catch (ClosedChannelException e) {
+          // OK, happens when the channel was closed due to interruption
+        } catch (RuntimeException | IOException e) {
+          throw new IOException(String.format("Error flushing %s", url), e);
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (encoder != null) {
+        try {
+          encoder.close();
+          LOGGER.debug("Done writing {}", url);
+          encoder = null;
+        } catch (ClosedChannelException e) {
+          // OK, happens when the channel was closed due to interruption
+        } catch (RuntimeException | IOException e) {
+          throw new IOException(String.format("Error closing %s", url), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Converts the given exception to an {@link IOException}.
+   *
+   * @param line the line to report, or -1 to report the line where the parser failed, if known.
+   */
   @NonNull
-  private IOException asIOException(@NonNull URL url, Exception e, String genericErrorMessage) {
+  private IOException asIOException(
+      @NonNull URL url, Exception e, String genericErrorMessage, long line) {
     IOException error;
     if (e instanceof TextParsingException) {
-      error = launderTextParsingException(((TextParsingException) e), url);
+      error = launderTextParsingException(((TextParsingException) e), url, line);
     } else if (e.getCause() instanceof TextParsingException) {
-      error = launderTextParsingException(((TextParsingException) e.getCause()), url);
+      error = launderTextParsingException(((TextParsingException) e.getCause()), url, line);
     } else {
       error = new IOException(genericErrorMessage, e);
     }
     return error;
   }
 
-  private IOException launderTextParsingException(TextParsingException e, URL url) {
+  private IOException launderTextParsingException(TextParsingException e, URL url, long line) {
     // TextParsingException messages are very verbose, so we wrap these exceptions
     // in an IOE that only keeps the first sentence.
     String message = e.getMessage();
@@ -444,6 +1678,9 @@ public class CSVConnector extends AbstractFileBasedConnector {
       }
     }
     return new IOException(
-        String.format("Error reading from %s at line %d: %s", url, e.getLineIndex(), message), e);
+        String.format(
+            "Error reading from %s at line %d: %s",
+            url, line == -1 ? e.getLineIndex() : line, message),
+        e);
   }
 }
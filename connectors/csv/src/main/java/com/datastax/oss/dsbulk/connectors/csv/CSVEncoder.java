@@ -0,0 +1,209 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+import com.univocity.parsers.csv.CsvFormat;
+import com.univocity.parsers.csv.CsvWriterSettings;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A CSV encoder that writes records directly to its output.
+ *
+ * <p>Each record is encoded into a reusable character buffer in a single pass: values are copied as
+ * is, or quoted and escaped inline when they contain special characters, and the buffer is then
+ * handed to the output in one call.
+ *
+ * <p>Records are written exactly like the CSV writer does with the same settings, provided that the
+ * delimiter is a single character, whitespace is not trimmed and line endings in quoted values are
+ * not normalized; see {@link #supports(CsvWriterSettings)}. In particular, values are quoted if
+ * they contain the delimiter, the quote character, a line break or a character of the line
+ * separator, or if they are the first value of a record and start with the comment character; and
+ * records that end up empty are not written at all.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class CSVEncoder implements Flushable, Closeable {
+
+  private final Writer out;
+  private final char delimiter;
+  private final char quote;
+  private final char escape;
+  private final char comment;
+  private final String nullValue;
+  private final char[] lineSeparator;
+
+  private char[] buffer = new char[1024];
+  private int length;
+  private long recordCount;
+
+  /**
+   * Creates a new encoder.
+   *
+   * @param out the output to write to.
+   * @param settings the settings of the CSV writer; they must be {@linkplain
+   *     #supports(CsvWriterSettings) supported}.
+   */
+  CSVEncoder(@NonNull Writer out, @NonNull CsvWriterSettings settings) {
+    this.out = out;
+    CsvFormat format = settings.getFormat();
+    delimiter = format.getDelimiter();
+    quote = format.getQuote();
+    escape = format.getQuoteEscape();
+    comment = format.getComment();
+    nullValue = settings.getNullValue();
+    lineSeparator = format.getLineSeparator();
+  }
+
+  /** @return whether records written with the given settings can be encoded by this class. */
+  static boolean supports(@NonNull CsvWriterSettings settings) {
+    return settings.getFormat().getDelimiterString().length() == 1
+        && !settings.getIgnoreLeadingWhitespaces()
+        && !settings.getIgnoreTrailingWhitespaces()
+        && !settings.isNormalizeLineEndingsWithinQuotes()
+        && settings.isQuoteEscapingEnabled()
+        && !settings.getQuoteAllFields()
+        && !settings.isEscapeUnquotedValues()
+        && !settings.isInputEscaped()
+        && settings.getQuotationTriggers().length == 0
+        && (settings.getEmptyValue() == null || settings.getEmptyValue().isEmpty());
+  }
+
+  /** @return the number of records written so far, including headers. */
+  long getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * Writes a header record.
+   *
+   * @param headers the field names.
+   */
+  void writeHeaders(@NonNull String... headers) throws IOException {
+    writeRow(Arrays.asList(headers));
+  }
+
+  /**
+   * Writes a record.
+   *
+   * @param values the values of the record; they are converted to strings with {@link
+   *     String#valueOf(Object)}, except nulls, which are replaced by the null value if any.
+   */
+  void writeRow(@NonNull Iterable<?> values) throws IOException {
+    if (encode(values)) {
+      out.write(buffer, 0, length);
+      recordCount++;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  /**
+   * Encodes the given values into the buffer, followed by the line separator.
+   *
+   * @return {@code false} if the record is empty and must not be written.
+   */
+  private boolean encode(Iterable<?> values) {
+    length = 0;
+    int column = 0;
+    for (Object value : values) {
+      if (column > 0) {
+        append(delimiter);
+      }
+      if (value == null) {
+        if (nullValue != null) {
+          appendValue(column, nullValue, true);
+        }
+      } else {
+        appendValue(column, String.valueOf(value), false);
+      }
+      column++;
+    }
+    if (length == 0) {
+      return false;
+    }
+    for (char c : lineSeparator) {
+      append(c);
+    }
+    return true;
+  }
+
+  private void appendValue(int column, String value, boolean isNullValue) {
+    int n = value.length();
+    if (n == 0) {
+      return;
+    }
+    if (!needsQuotes(column, value)
+        // a null value that is already quoted is written as is
+        || (isNullValue && n >= 2 && value.charAt(0) == quote && value.charAt(n - 1) == quote)) {
+      ensureCapacity(n);
+      value.getChars(0, n, buffer, length);
+      length += n;
+      return;
+    }
+    ensureCapacity(2 * n + 2);
+    buffer[length++] = quote;
+    for (int i = 0; i < n; i++) {
+      char c = value.charAt(i);
+      if (c == quote || c == escape) {
+        buffer[length++] = escape;
+      }
+      buffer[length++] = c;
+    }
+    buffer[length++] = quote;
+  }
+
+  private boolean needsQuotes(int column, String value) {
+    if (column == 0 && value.charAt(0) == comment) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == delimiter || c == quote || c == '\n' || c == '\r') {
+        return true;
+      }
+      for (char separator : lineSeparator) {
+        if (c == separator) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private void append(char c) {
+    ensureCapacity(1);
+    buffer[length++] = c;
+  }
+
+  private void ensureCapacity(int n) {
+    if (length + n > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + n));
+    }
+  }
+}
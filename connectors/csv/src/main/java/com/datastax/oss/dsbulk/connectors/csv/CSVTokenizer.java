@@ -0,0 +1,505 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+import com.univocity.parsers.csv.CsvFormat;
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A byte-oriented CSV tokenizer.
+ *
+ * <p>The tokenizer cuts its input into records and fields without decoding it first: it looks for
+ * delimiters, quotes and line separators eight bytes at a time (SWAR), records each field as a
+ * slice of its input buffer, and only decodes the slices into strings once a whole record was
+ * found. It thus only supports encodings where the line feed, the delimiter, the quote and the
+ * escape characters are encoded as single ASCII bytes that cannot appear inside multi-byte
+ * sequences, such as UTF-8 or ISO-8859-1.
+ *
+ * <p>Records are split and values are unquoted exactly like the CSV parser does with the same
+ * settings, provided that whitespace is not trimmed, comments are disabled and line endings in
+ * quoted values are not normalized. The tokenizer only handles records that follow the common
+ * grammar; when it finds a record that does not – a quoted value followed by other characters, an
+ * unterminated quoted value, a lone line feed inside an unquoted value when lines end with CRLF, a
+ * value longer than the maximum number of characters, or too many values – it hands this record and
+ * the rest of the input over to the CSV parser, whose behavior in such cases is hard to mimic.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class CSVTokenizer implements Closeable {
+
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  private static final int NEED_MORE = -1;
+  private static final int IRREGULAR = -2;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+
+  private final InputStream in;
+  private final Charset charset;
+  private final byte delimiter;
+  private final byte quote;
+  private final byte escape;
+  private final boolean crlf;
+  private final String nullValue;
+  private final String emptyValue;
+  private final int maxCharsPerColumn;
+  private final int maxColumns;
+  private final CsvParserSettings settings;
+
+  private byte[] buffer;
+  private ByteBuffer words;
+  private int start;
+  private int limit;
+  // the position of the first byte of the buffer in the input
+  private long position;
+  private long remaining;
+  private boolean eof;
+
+  // the fields of the current record
+  private int fields;
+  private int[] fieldStarts = new int[16];
+  private int[] fieldEnds = new int[16];
+  // 0: unquoted, 1: quoted, 2: quoted with escaped characters
+  private byte[] fieldTypes = new byte[16];
+
+  // the current record is decoded from the buffer only if its text is requested
+  private String source;
+  private int sourceStart;
+  private int sourceEnd;
+  private long sourcePosition;
+  private String[] values;
+
+  // the parser that handles the rest of the input after an irregular record
+  private CsvParser parser;
+
+  /**
+   * Creates a new tokenizer.
+   *
+   * @param in the input to tokenize.
+   * @param length the maximum number of bytes to read from the input.
+   * @param charset the charset of the input.
+   * @param settings the settings of the CSV parser; the line separator must be either LF or CRLF,
+   *     and the delimiter must be a single character.
+   */
+  CSVTokenizer(
+      @NonNull InputStream in,
+      long length,
+      @NonNull Charset charset,
+      @NonNull CsvParserSettings settings) {
+    this.in = in;
+    this.remaining = length;
+    this.charset = charset;
+    this.settings = settings;
+    CsvFormat format = settings.getFormat();
+    delimiter = (byte) format.getDelimiter();
+    quote = (byte) format.getQuote();
+    escape = (byte) format.getQuoteEscape();
+    crlf = format.getLineSeparatorString().equals("\r\n");
+    nullValue = settings.getNullValue();
+    emptyValue = settings.getEmptyValue();
+    maxCharsPerColumn = settings.getMaxCharsPerColumn();
+    maxColumns = settings.getMaxColumns();
+    setBuffer(new byte[BUFFER_SIZE]);
+  }
+
+  /**
+   * Advances to the next record.
+   *
+   * @return {@code true} if a record was found, {@code false} if the end of the input was reached.
+   */
+  boolean next() throws IOException {
+    if (parser != null) {
+      return parseNext();
+    }
+    while (true) {
+      int p = start;
+      if (p >= limit) {
+        if (eof) {
+          return false;
+        }
+        fill();
+        continue;
+      }
+      // skip empty lines
+      byte b = buffer[p];
+      if (b == '\n') {
+        start = p + 1;
+        continue;
+      }
+      if (crlf && b == '\r') {
+        if (p + 1 >= limit && !eof) {
+          fill();
+          continue;
+        }
+        if (p + 1 < limit && buffer[p + 1] == '\n') {
+          start = p + 2;
+          continue;
+        }
+      }
+      int end = tokenize(p);
+      if (end == NEED_MORE) {
+        fill();
+        continue;
+      }
+      if (end == IRREGULAR) {
+        start = p;
+        parser = new CsvParser(settings);
+        parser.beginParsing(new RemainingInputStream(), charset);
+        return parseNext();
+      }
+      source = null;
+      sourceStart = p;
+      sourceEnd = end;
+      sourcePosition = position + p;
+      values = decodeFields();
+      start = end;
+      return true;
+    }
+  }
+
+  /** @return the values of the current record. */
+  String[] getValues() {
+    return values;
+  }
+
+  /** @return the text of the current record, including its line separator if any. */
+  String getSource() {
+    if (source == null) {
+      source = new String(buffer, sourceStart, sourceEnd - sourceStart, charset);
+    }
+    return source;
+  }
+
+  /**
+   * @return the position of the first byte of the current record in the input, or -1 if it is
+   *     unknown because the record was parsed by the CSV parser.
+   */
+  long getSourcePosition() {
+    return sourcePosition;
+  }
+
+  /**
+   * @return the length in bytes of the current record, including its line separator if any; only
+   *     meaningful if {@link #getSourcePosition()} is known.
+   */
+  int getSourceLength() {
+    return sourceEnd - sourceStart;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (parser != null) {
+      parser.stopParsing();
+    }
+    in.close();
+  }
+
+  private boolean parseNext() {
+    values = parser.parseNext();
+    if (values == null) {
+      return false;
+    }
+    source = parser.getContext().currentParsedContent();
+    sourcePosition = -1;
+    return true;
+  }
+
+  /**
+   * Finds the fields of the record that starts at the given index.
+   *
+   * @return the index following the end of the record, or {@link #NEED_MORE} if more data is
+   *     required, or {@link #IRREGULAR} if the record must be handed over to the CSV parser.
+   */
+  private int tokenize(int p) {
+    fields = 0;
+    while (true) {
+      if (fields == maxColumns) {
+        return IRREGULAR;
+      }
+      int fieldStart = p;
+      if (p < limit && buffer[p] == quote) {
+        int contentStart = p + 1;
+        boolean escaped = false;
+        p = contentStart;
+        while (true) {
+          int q = escape == quote ? find(p, quote) : find(p, quote, escape);
+          if (q == -1) {
+            return eof ? IRREGULAR : NEED_MORE;
+          }
+          if (q + 1 >= limit && !eof) {
+            return NEED_MORE;
+          }
+          byte next = q + 1 < limit ? buffer[q + 1] : 0;
+          if (buffer[q] != quote) {
+            // escape character
+            if (q + 1 >= limit) {
+              return IRREGULAR;
+            }
+            if (next == quote || next == escape) {
+              escaped = true;
+              p = q + 2;
+            } else {
+              p = q + 1;
+            }
+            continue;
+          }
+          if (escape == quote && q + 1 < limit && next == quote) {
+            // doubled quote
+            escaped = true;
+            p = q + 2;
+            continue;
+          }
+          if (q - contentStart > maxCharsPerColumn && maxCharsPerColumn != -1) {
+            return IRREGULAR;
+          }
+          addField(contentStart, q, escaped ? 2 : 1);
+          // skip whitespace following the closing quote
+          p = q + 1;
+          while (p < limit && isSpace(buffer[p])) {
+            p++;
+          }
+          if (p >= limit) {
+            return eof ? limit : NEED_MORE;
+          }
+          if (buffer[p] == delimiter) {
+            p++;
+            break;
+          }
+          int lineEnd = lineEnd(p);
+          if (lineEnd == -1) {
+            return IRREGULAR;
+          }
+          return lineEnd;
+        }
+      } else {
+        int from = p;
+        while (true) {
+          int d = find(from, delimiter, (byte) '\n');
+          if (d == -1) {
+            if (!eof) {
+              return NEED_MORE;
+            }
+            d = limit;
+          } else if (buffer[d] == '\n' && crlf) {
+            if (d > fieldStart && buffer[d - 1] == '\r') {
+              if (!addUnquotedField(fieldStart, d - 1)) {
+                return IRREGULAR;
+              }
+              return d + 1;
+            }
+            if (d > fieldStart) {
+              // a lone line feed inside an unquoted value
+              return IRREGULAR;
+            }
+          }
+          if (!addUnquotedField(fieldStart, d)) {
+            return IRREGULAR;
+          }
+          if (d == limit) {
+            return limit;
+          }
+          if (buffer[d] == '\n') {
+            return d + 1;
+          }
+          p = d + 1;
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the index following the line separator that starts at the given index, or -1 if there
+   *     is no line separator at that index.
+   */
+  private int lineEnd(int p) {
+    byte b = buffer[p];
+    if (b == '\n') {
+      return p + 1;
+    }
+    if (crlf && b == '\r' && p + 1 < limit && buffer[p + 1] == '\n') {
+      return p + 2;
+    }
+    return -1;
+  }
+
+  private boolean isSpace(byte b) {
+    return b >= 0 && b <= ' ' && b != '\n' && b != '\r' && b != delimiter;
+  }
+
+  private boolean addUnquotedField(int start, int end) {
+    if (end - start > maxCharsPerColumn && maxCharsPerColumn != -1) {
+      return false;
+    }
+    addField(start, end, 0);
+    return true;
+  }
+
+  private void addField(int start, int end, int type) {
+    if (fields == fieldStarts.length) {
+      fieldStarts = Arrays.copyOf(fieldStarts, fields * 2);
+      fieldEnds = Arrays.copyOf(fieldEnds, fields * 2);
+      fieldTypes = Arrays.copyOf(fieldTypes, fields * 2);
+    }
+    fieldStarts[fields] = start;
+    fieldEnds[fields] = end;
+    fieldTypes[fields] = (byte) type;
+    fields++;
+  }
+
+  private String[] decodeFields() {
+    String[] values = new String[fields];
+    for (int i = 0; i < fields; i++) {
+      int start = fieldStarts[i];
+      int length = fieldEnds[i] - start;
+      int type = fieldTypes[i];
+      if (length == 0) {
+        values[i] = type == 0 ? nullValue : emptyValue;
+      } else if (type == 2) {
+        values[i] = unescape(start, fieldEnds[i]);
+      } else {
+        values[i] = new String(buffer, start, length, charset);
+      }
+    }
+    return values;
+  }
+
+  /** Decodes a quoted value containing escaped characters. */
+  private String unescape(int start, int end) {
+    byte[] bytes = new byte[end - start];
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      byte b = buffer[i];
+      if (b == escape && i + 1 < end && (buffer[i + 1] == quote || buffer[i + 1] == escape)) {
+        b = buffer[++i];
+      }
+      bytes[length++] = b;
+    }
+    return new String(bytes, 0, length, charset);
+  }
+
+  /** @return the index of the first occurrence of the given byte, or -1. */
+  private int find(int from, byte a) {
+    long pattern = ONES * (a & 0xff);
+    int i = from;
+    for (; i + 8 <= limit; i += 8) {
+      long x = words.getLong(i) ^ pattern;
+      long found = (x - ONES) & ~x & HIGHS;
+      if (found != 0) {
+        return i + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+    }
+    for (; i < limit; i++) {
+      if (buffer[i] == a) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** @return the index of the first occurrence of any of the given bytes, or -1. */
+  private int find(int from, byte a, byte b) {
+    long patternA = ONES * (a & 0xff);
+    long patternB = ONES * (b & 0xff);
+    int i = from;
+    for (; i + 8 <= limit; i += 8) {
+      long word = words.getLong(i);
+      long x = word ^ patternA;
+      long y = word ^ patternB;
+      long found = ((x - ONES) & ~x | (y - ONES) & ~y) & HIGHS;
+      if (found != 0) {
+        return i + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+    }
+    for (; i < limit; i++) {
+      byte c = buffer[i];
+      if (c == a || c == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Reads more data, keeping the bytes of the current record. */
+  private void fill() throws IOException {
+    if (start > 0) {
+      position += start;
+      System.arraycopy(buffer, start, buffer, 0, limit - start);
+      limit -= start;
+      start = 0;
+    }
+    if (limit == buffer.length) {
+      setBuffer(Arrays.copyOf(buffer, buffer.length * 2));
+    }
+    int length = (int) Math.min(buffer.length - limit, remaining);
+    int read = length == 0 ? -1 : in.read(buffer, limit, length);
+    if (read == -1) {
+      eof = true;
+    } else {
+      limit += read;
+      remaining -= read;
+    }
+  }
+
+  private void setBuffer(byte[] buffer) {
+    this.buffer = buffer;
+    words = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /** The input that was not tokenized yet: the unread part of the buffer, then the rest. */
+  private class RemainingInputStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(@NonNull byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (start < limit) {
+        int length = Math.min(len, limit - start);
+        System.arraycopy(buffer, start, b, off, length);
+        start += length;
+        return length;
+      }
+      int length = (int) Math.min(len, remaining);
+      int read = length == 0 ? -1 : in.read(b, off, length);
+      if (read > 0) {
+        remaining -= read;
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * The source of a record read from a local file, that only holds the location of the record in the
+ * file.
+ *
+ * <p>Keeping the text of every record in memory until the record is processed is wasteful, since it
+ * is only needed when the record is rejected, which is rare; this source reads the text again from
+ * the file, and only when {@link #toString()} is called.
+ */
+final class FileRecordSource {
+
+  private final Path file;
+  private final long position;
+  private final int length;
+  private final Charset charset;
+
+  /**
+   * @param file the file that contains the record.
+   * @param position the position of the first byte of the record in the file.
+   * @param length the length of the record in bytes.
+   * @param charset the charset of the file.
+   */
+  FileRecordSource(@NonNull Path file, long position, int length, @NonNull Charset charset) {
+    this.file = file;
+    this.position = position;
+    this.length = length;
+    this.charset = charset;
+  }
+
+  /**
+   * @return the text of the record, read from the file.
+   * @throws UncheckedIOException if the file cannot be read.
+   */
+  @Override
+  public String toString() {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    try (FileChannel channel = FileChannel.open(file)) {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, position + buffer.position()) == -1) {
+          throw new EOFException("File was truncated");
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          String.format(
+              "Could not read the record between bytes %d and %d of %s",
+              position, position + length, file),
+          e);
+    }
+    return new String(buffer.array(), 0, length, charset);
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class CSVBoundaryScannerTest {
+
+  private static final String[] TOKENS = {
+    "a", "bc", "def", " ", "  ", "\t", ",", ",", "\"", "\"", "\\", "\n", "\n", "\r\n", "\r", "é"
+  };
+
+  @Test
+  void should_count_records() {
+    assertThat(count("a,b\nc,d\n", '\\', false, false, false)).isEqualTo(2);
+    assertThat(count("a,b\nc,d", '\\', false, false, false)).isEqualTo(2);
+    assertThat(count("a,b\n\n\nc,d\n", '\\', false, false, false)).isEqualTo(2);
+    assertThat(count("a,\"b\nc\",d\n", '\\', false, false, false)).isEqualTo(1);
+    assertThat(count("a,b\"c\nd\n", '\\', false, false, false)).isEqualTo(2);
+    assertThat(count("\"a\\\"\nb\"\n", '\\', false, false, false)).isEqualTo(1);
+    assertThat(count("\"a\"\"\nb\"\n", '"', false, false, false)).isEqualTo(1);
+    assertThat(count("\"a\"\"\nb\"\n", '\\', false, false, false)).isEqualTo(2);
+    assertThat(count("a\n  \nb\n", '\\', false, false, false)).isEqualTo(3);
+    assertThat(count("a\n  \nb\n", '\\', true, true, false)).isEqualTo(2);
+    assertThat(count("a\r\n\r\nb\r\n", '\\', false, false, true)).isEqualTo(2);
+    assertThat(count("a\n \"b\nc\"\n", '\\', true, false, false)).isEqualTo(2);
+    assertThat(count("a\n \"b\nc\"\n", '\\', false, false, false)).isEqualTo(3);
+    // lone line feeds when lines end with CRLF
+    assertThat(count("a,b\nc\r\nd\r\n", '\\', false, false, true)).isEqualTo(2);
+    assertThat(count("a,\nb\r\nc\r\n", '\\', false, false, true)).isEqualTo(3);
+    assertThat(count("a,\"b\"\nc\r\n", '\\', false, false, true)).isEqualTo(2);
+    assertThat(count("\n\na\r\n", '\\', false, false, true)).isEqualTo(1);
+    assertThat(count("a,b\r\r\nc\r", '\\', false, false, true)).isEqualTo(2);
+  }
+
+  @Test
+  void should_track_last_line_end() {
+    CSVBoundaryScanner scanner = newScanner('\\', false, false, false);
+    byte[] bytes = "a,b\nc,\"d\ne\"\nf".getBytes(UTF_8);
+    scanner.scan(bytes, 0, 5);
+    assertThat(scanner.getLastLineEnd()).isEqualTo(4);
+    assertThat(scanner.getRecordsAtLastLineEnd()).isEqualTo(1);
+    // the line feed inside the quoted value does not end a line
+    scanner.scan(bytes, 5, 5);
+    assertThat(scanner.getLastLineEnd()).isEqualTo(-1);
+    assertThat(scanner.getRecordsAtLastLineEnd()).isEqualTo(1);
+    scanner.scan(bytes, 10, bytes.length - 10);
+    assertThat(scanner.getLastLineEnd()).isEqualTo(12);
+    assertThat(scanner.getRecordsAtLastLineEnd()).isEqualTo(2);
+    scanner.finish();
+    assertThat(scanner.getRecords()).isEqualTo(3);
+  }
+
+  @ParameterizedTest(name = "[{index}] escape {0}, ignore whitespace {1}/{2}, crlf {3}")
+  @MethodSource
+  void should_count_records_like_parser(
+      char escape, boolean ignoreLeading, boolean ignoreTrailing, boolean crlf) {
+    Random random = new Random(0);
+    for (int i = 0; i < 200; i++) {
+      String data = randomCsv(random, escape, crlf);
+      long expected = parse(data, escape, ignoreLeading, ignoreTrailing, crlf);
+      assertThat(count(data, escape, ignoreLeading, ignoreTrailing, crlf))
+          .as(data)
+          .isEqualTo(expected);
+      // split the data after each line separator: the sum of the records found in both parts must
+      // match, provided that the second part is scanned with the state of the first one
+      byte[] bytes = data.getBytes(UTF_8);
+      for (int j = 0; j < bytes.length - 1; j++) {
+        if (bytes[j] == '\n' && (!crlf || (j > 0 && bytes[j - 1] == '\r'))) {
+          CSVBoundaryScanner scanner = newScanner(escape, ignoreLeading, ignoreTrailing, crlf);
+          scanner.scan(bytes, 0, j + 1);
+          long first = scanner.getRecords();
+          scanner.reset(scanner.isInQuotes());
+          scanner.scan(bytes, j + 1, bytes.length - j - 1);
+          scanner.finish();
+          assertThat(first + scanner.getRecords()).as(data).isEqualTo(expected);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_count_records_like_parser() {
+    return Stream.of(
+        arguments('\\', false, false, false),
+        arguments('\\', true, true, false),
+        arguments('\\', true, true, true),
+        arguments('"', false, false, false),
+        arguments('"', true, true, false),
+        arguments('"', false, false, true));
+  }
+
+  private static long count(
+      String data, char escape, boolean ignoreLeading, boolean ignoreTrailing, boolean crlf) {
+    CSVBoundaryScanner scanner = newScanner(escape, ignoreLeading, ignoreTrailing, crlf);
+    byte[] bytes = data.getBytes(UTF_8);
+    scanner.scan(bytes, 0, bytes.length);
+    scanner.finish();
+    return scanner.getRecords();
+  }
+
+  private static CSVBoundaryScanner newScanner(
+      char escape, boolean ignoreLeading, boolean ignoreTrailing, boolean crlf) {
+    return new CSVBoundaryScanner(
+        ',', '"', escape, crlf, ignoreLeading, !ignoreLeading && !ignoreTrailing);
+  }
+
+  private static long parse(
+      String data, char escape, boolean ignoreLeading, boolean ignoreTrailing, boolean crlf) {
+    CsvParserSettings settings = new CsvParserSettings();
+    settings.getFormat().setQuoteEscape(escape);
+    settings.getFormat().setLineSeparator(crlf ? "\r\n" : "\n");
+    settings.setIgnoreLeadingWhitespaces(ignoreLeading);
+    settings.setIgnoreTrailingWhitespaces(ignoreTrailing);
+    settings.setNormalizeLineEndingsWithinQuotes(false);
+    settings.setReadInputOnSeparateThread(false);
+    CsvParser parser = new CsvParser(settings);
+    parser.beginParsing(new StringReader(data));
+    long records = 0;
+    while (parser.parseNext() != null) {
+      records++;
+    }
+    return records;
+  }
+
+  private static String randomCsv(Random random, char escape, boolean crlf) {
+    StringBuilder sb = new StringBuilder();
+    int lines = 1 + random.nextInt(10);
+    for (int i = 0; i < lines; i++) {
+      int values = 1 + random.nextInt(4);
+      for (int j = 0; j < values; j++) {
+        if (j > 0) {
+          sb.append(',');
+        }
+        if (random.nextInt(3) == 0) {
+          // well-formed quoted value
+          sb.append('"');
+          for (int k = random.nextInt(4); k > 0; k--) {
+            String token = TOKENS[random.nextInt(TOKENS.length)];
+            if (token.equals("\"") || (token.equals("\\") && escape == '\\')) {
+              sb.append(escape);
+            }
+            sb.append(token);
+          }
+          sb.append('"');
+        } else {
+          // unquoted value, possibly containing quotes
+          for (int k = random.nextInt(4); k > 0; k--) {
+            String token = TOKENS[random.nextInt(TOKENS.length)];
+            // lone line feeds are data in unquoted values when lines end with CRLF
+            if (!token.contains("\n") || (crlf && token.equals("\n"))) {
+              sb.append(token.equals("\"") ? "x\"" : token);
+            }
+          }
+        }
+      }
+      sb.append(crlf ? "\r\n" : "\n");
+      if (random.nextInt(5) == 0) {
+        sb.append(crlf ? "\r\n" : "\n");
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -29,6 +29,8 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 import com.datastax.oss.driver.shaded.guava.common.base.Charsets;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.CommittedPositions;
+import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
 import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
@@ -47,12 +49,14 @@ import com.datastax.oss.dsbulk.url.BulkLoaderURLStreamHandlerFactory;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.typesafe.config.Config;
 import com.univocity.parsers.common.TextParsingException;
+import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Method;
 import java.net.URI;
@@ -65,12 +69,15 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.assertj.core.util.Throwables;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -80,6 +87,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.reactivestreams.Publisher;
 import org.slf4j.event.Level;
 import reactor.core.publisher.Flux;
@@ -226,6 +234,230 @@ class CSVConnectorTest {
     assertThat(actual.get(4).getPosition()).isEqualTo(5L);
   }
 
+  @ParameterizedTest(name = "[{index}] header {0}, newline {1}, compression {2}, parser {3}")
+  @MethodSource
+  void should_read_file_in_splits(boolean header, String newline, String compression, String parser)
+      throws Exception {
+    Path file = Files.createTempFile("splits", ".csv");
+    try {
+      StringBuilder sb = new StringBuilder();
+      if (header) {
+        sb.append("id,value,comment").append(newline);
+      }
+      for (int i = 0; i < 1000; i++) {
+        sb.append(i).append(',');
+        switch (i % 4) {
+          case 0:
+            sb.append("\"multi").append(newline).append("line, with \\\"quotes\\\"\"");
+            break;
+          case 1:
+            sb.append("plain value");
+            break;
+          case 2:
+            sb.append("\"").append(newline).append(newline).append(newline).append('"');
+            break;
+          default:
+            sb.append(",");
+        }
+        sb.append(",é").append(newline);
+        if (i % 10 == 0) {
+          sb.append(newline);
+        }
+      }
+      if (CompressedIOUtils.isNoneCompression(compression)) {
+        Files.write(file, sb.toString().getBytes(UTF_8));
+      } else {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+          out.write(sb.toString().getBytes(UTF_8));
+        }
+      }
+      List<Record> expected = readFile(file, header, compression, 0, "univocity");
+      List<Record> actual = readFile(file, header, compression, 1024, parser);
+      assertThat(actual).hasSize(1000).hasSameSizeAs(expected);
+      // splits of files and chunks of streams are re-emitted in order
+      assertThat(actual).isSortedAccordingTo(Comparator.comparingLong(Record::getPosition));
+      assertSameRecords(actual, expected);
+      assertSameRecords(readFile(file, header, compression, 0, parser), expected);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_read_file_in_splits() {
+    return Stream.of(
+        arguments(true, "\n", "none", "univocity"),
+        arguments(false, "\n", "none", "univocity"),
+        arguments(true, "\r\n", "none", "univocity"),
+        arguments(false, "\r\n", "none", "univocity"),
+        arguments(true, "\n", "gzip", "univocity"),
+        arguments(false, "\n", "gzip", "univocity"),
+        arguments(true, "\r\n", "gzip", "univocity"),
+        arguments(false, "\r\n", "gzip", "univocity"),
+        arguments(true, "\n", "none", "fast"),
+        arguments(false, "\r\n", "none", "fast"),
+        arguments(false, "\n", "gzip", "fast"),
+        arguments(true, "\r\n", "gzip", "fast"));
+  }
+
+  @Test
+  void should_read_rest_of_file_sequentially_when_split_records_do_not_match(
+      @LogCapture(level = Level.WARN) LogInterceptor logs) throws Exception {
+    Path file = Files.createTempFile("mismatch", ".csv");
+    try {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 1000; i++) {
+        // only the second half of the file has multi-line values
+        sb.append(i).append(i < 500 ? ",plain" : ",\"multi\nline\"").append('\n');
+      }
+      Files.write(file, sb.toString().getBytes(UTF_8));
+      List<Record> expected = readFile(file, false, "none", 0, "univocity");
+      CSVConnector connector =
+          new CSVConnector() {
+            @Override
+            CSVBoundaryScanner newBoundaryScanner(@NonNull String lineSeparator) {
+              // a scanner that does not recognize quotes, and counts each line as a record
+              return new CSVBoundaryScanner(',', '\'', '\\', false, false, true);
+            }
+          };
+      Config settings =
+          TestConfigUtils.createTestConfig(
+              "dsbulk.connector.csv",
+              "url",
+              StringUtils.quoteJson(file),
+              "header",
+              false,
+              "splitSize",
+              1024);
+      connector.configure(settings, true);
+      connector.init();
+      List<Record> actual = Flux.merge(connector.read()).collectList().block();
+      connector.close();
+      assertThat(actual).hasSize(1000);
+      assertThat(actual).isSortedAccordingTo(Comparator.comparingLong(Record::getPosition));
+      assertSameRecords(actual, expected);
+      assertThat(logs.getAllMessagesAsString())
+          .contains("reading the rest of the file sequentially");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @ParameterizedTest(name = "[{index}] newline {0}")
+  @ValueSource(strings = {"\n", "\r\n"})
+  void should_hand_over_irregular_records_to_univocity_parser(String newline) throws Exception {
+    Path file = Files.createTempFile("irregular", ".csv");
+    try {
+      String data =
+          String.join(
+              newline,
+              "1,plain,\"quoted\"",
+              "2,\"quoted\" tail,x",
+              "3,\"stray \"quote\" inside\",y",
+              "4,lone\nline feed,z",
+              "5,\"unterminated");
+      Files.write(file, data.getBytes(UTF_8));
+      List<Record> expected = readFile(file, false, "none", 0, "univocity");
+      List<Record> actual = readFile(file, false, "none", 0, "fast");
+      assertThat(actual).hasSameSizeAs(expected);
+      assertSameRecords(actual, expected);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @ParameterizedTest(name = "[{index}] split size {0}")
+  @ValueSource(ints = {0, 16})
+  void should_read_record_sources_from_file_when_using_fast_parser(int splitSize) throws Exception {
+    Path file = Files.createTempFile("sources", ".csv");
+    try {
+      List<String> lines = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        lines.add(i + ",\"été\n" + i + "\"\n");
+      }
+      Files.write(file, String.join("", lines).getBytes(UTF_8));
+      List<Record> records = readFile(file, false, "none", splitSize, "fast");
+      assertThat(records).hasSize(100);
+      for (int i = 0; i < 100; i++) {
+        assertThat(records.get(i).getSource())
+            .isInstanceOf(FileRecordSource.class)
+            .hasToString(lines.get(i));
+      }
+      // records of compressed files keep their text
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+        out.write(String.join("", lines).getBytes(UTF_8));
+      }
+      records = readFile(file, false, "gzip", splitSize, "fast");
+      assertThat(records).hasSize(100);
+      for (int i = 0; i < 100; i++) {
+        assertThat(records.get(i).getSource()).isEqualTo(lines.get(i));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void should_use_univocity_parser_when_settings_not_supported_by_fast_parser(
+      @LogCapture(level = Level.WARN) LogInterceptor logs) throws Exception {
+    CSVConnector connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.csv",
+            "url",
+            url("/sample.csv"),
+            "normalizeLineEndingsInQuotes",
+            true,
+            "escape",
+            "\"\\\"\"",
+            "comment",
+            "\"#\"",
+            "parser",
+            "fast");
+    connector.configure(settings, true);
+    connector.init();
+    assertThat(logs.getLoggedMessages())
+        .contains(
+            "The fast CSV parser does not support the current settings, "
+                + "the univocity parser will be used instead. "
+                + "See the documentation of dsbulk.connector.csv.parser for details.");
+    assertRecords(Flux.merge(connector.read()).collectList().block());
+    connector.close();
+  }
+
+  private static void assertSameRecords(List<Record> actual, List<Record> expected) {
+    actual.sort(Comparator.comparingLong(Record::getPosition));
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(actual.get(i).getPosition()).isEqualTo(expected.get(i).getPosition());
+      assertThat(actual.get(i).getSource()).hasToString(expected.get(i).getSource().toString());
+      assertThat(actual.get(i).values()).containsExactlyElementsOf(expected.get(i).values());
+    }
+  }
+
+  private static List<Record> readFile(
+      Path file, boolean header, String compression, int splitSize, String parser)
+      throws Exception {
+    CSVConnector connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.csv",
+            "url",
+            StringUtils.quoteJson(file),
+            "header",
+            header,
+            "compression",
+            StringUtils.quoteJson(compression),
+            "splitSize",
+            splitSize,
+            "parser",
+            parser);
+    connector.configure(settings, true);
+    connector.init();
+    List<Record> records = Flux.merge(connector.read()).collectList().block();
+    connector.close();
+    return records;
+  }
+
   @Test
   void should_read_from_stdin_with_special_encoding() throws Exception {
     InputStream stdin = System.in;
@@ -347,6 +579,40 @@ class CSVConnectorTest {
     connector.close();
   }
 
+  @Test
+  void should_skip_committed_resources_and_records_when_resuming() throws Exception {
+    CSVConnector connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.csv", "url", url("/root"), "recursive", false);
+    connector.configure(settings, true);
+    assertThat(connector.supports(CommonConnectorFeature.RESUMABLE_READS)).isTrue();
+    URI committed = getClass().getResource("/root/ip-by-country-sample1.csv").toURI();
+    URI partial = getClass().getResource("/root/ip-by-country-sample2.csv").toURI();
+    connector.resumeFrom(
+        new CommittedPositions() {
+          @Override
+          public boolean isResourceCommitted(@NonNull URI resource) {
+            return resource.equals(committed);
+          }
+
+          @Override
+          public LongPredicate getCommittedPositions(@NonNull URI resource) {
+            return resource.equals(partial) ? position -> position <= 60 : null;
+          }
+        });
+    connector.init();
+    List<Record> records = Flux.merge(connector.read()).collectList().block();
+    assertThat(records)
+        .hasSize(140)
+        .noneMatch(record -> record.getResource().equals(committed))
+        .filteredOn(record -> record.getResource().equals(partial))
+        .extracting(Record::getPosition)
+        .hasSize(40)
+        .allMatch(position -> position > 60);
+    connector.close();
+  }
+
   @Test
   void should_read_all_resources_in_directory_with_path() throws Exception {
     CSVConnector connector = new CSVConnector();
@@ -1463,6 +1729,18 @@ class CSVConnectorTest {
     connector.close();
   }
 
+  @Test
+  void should_throw_exception_when_parser_not_valid() {
+    CSVConnector connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig("dsbulk.connector.csv", "parser", "\"jackson\"");
+    assertThatThrownBy(() -> connector.configure(settings, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Invalid value for dsbulk.connector.csv.parser: Expecting 'univocity' or 'fast', got: 'jackson'");
+    connector.close();
+  }
+
   @Test
   void should_throw_exception_when_delimiter_not_valid() {
     CSVConnector connector = new CSVConnector();
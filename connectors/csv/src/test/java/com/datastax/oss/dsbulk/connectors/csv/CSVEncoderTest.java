@@ -0,0 +1,172 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import com.univocity.parsers.csv.CsvWriter;
+import com.univocity.parsers.csv.CsvWriterSettings;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class CSVEncoderTest {
+
+  private static final String[] TOKENS = {
+    "a", "bc", " ", "\t", ",", "\"", "'", "\\", "#", "\n", "\r", "|", "é"
+  };
+
+  @Test
+  void should_encode_records() throws IOException {
+    CsvWriterSettings settings = settings('"', '\\', '#', "\n", "N");
+    assertThat(encode(settings, Arrays.asList("a", 1, 2.5))).isEqualTo("a,1,2.5\n");
+    assertThat(encode(settings, Arrays.asList("a,b", "c\"d", "e\\f", "g\\,h")))
+        .isEqualTo("\"a,b\",\"c\\\"d\",e\\f,\"g\\\\,h\"\n");
+    assertThat(encode(settings, Arrays.asList("#a", "#b", "c\nd", " e ")))
+        .isEqualTo("\"#a\",#b,\"c\nd\", e \n");
+    assertThat(encode(settings, Arrays.asList(null, "", null))).isEqualTo("N,,N\n");
+    assertThat(encode(settings('"', '"', '\0', "\r\n", null), Arrays.asList("a\"b", null, "c\\")))
+        .isEqualTo("\"a\"\"b\",,c\\\r\n");
+  }
+
+  @Test
+  void should_skip_empty_records() throws IOException {
+    CsvWriterSettings settings = settings('"', '\\', '\0', "\n", null);
+    assertThat(encode(settings, Collections.singletonList(""))).isEmpty();
+    assertThat(encode(settings, Collections.singletonList(null))).isEmpty();
+    assertThat(encode(settings, Collections.emptyList())).isEmpty();
+    assertThat(encode(settings, Arrays.asList(null, null))).isEqualTo(",\n");
+  }
+
+  @Test
+  void should_count_headers_and_records() throws IOException {
+    CSVEncoder encoder = new CSVEncoder(new StringWriter(), settings('"', '\\', '\0', "\n", null));
+    encoder.writeHeaders("a", "b");
+    encoder.writeRow(Arrays.asList("c", "d"));
+    encoder.writeRow(Collections.singletonList(""));
+    assertThat(encoder.getRecordCount()).isEqualTo(2);
+  }
+
+  @ParameterizedTest(name = "[{index}] quote {0}, escape {1}, newline {2}")
+  @MethodSource
+  void should_encode_records_like_writer(char quote, char escape, String newline)
+      throws IOException {
+    Random random = new Random(0);
+    String[] nullValues = {null, "", "N", "a,b", quote + "q" + quote, quote + "q"};
+    for (int i = 0; i < 200; i++) {
+      CsvWriterSettings settings =
+          settings(
+              quote,
+              escape,
+              random.nextBoolean() ? '#' : '\0',
+              newline,
+              nullValues[random.nextInt(nullValues.length)]);
+      assertThat(CSVEncoder.supports(settings)).isTrue();
+      List<List<String>> rows = randomRows(random);
+      StringWriter expected = new StringWriter();
+      CsvWriter writer = new CsvWriter(expected, settings);
+      StringWriter actual = new StringWriter();
+      CSVEncoder encoder = new CSVEncoder(actual, settings);
+      writer.writeHeaders("h1", "h,2");
+      encoder.writeHeaders("h1", "h,2");
+      for (List<String> row : rows) {
+        writer.writeRow(row);
+        encoder.writeRow(row);
+      }
+      writer.close();
+      encoder.close();
+      assertThat(actual.toString()).as(rows.toString()).isEqualTo(expected.toString());
+      assertThat(encoder.getRecordCount()).isEqualTo(writer.getRecordCount());
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_encode_records_like_writer() {
+    return Stream.of(
+        arguments('"', '\\', "\n"),
+        arguments('"', '"', "\r\n"),
+        arguments('\'', '\\', "|"),
+        arguments('\'', '\'', "\r"));
+  }
+
+  @Test
+  void should_reject_unsupported_settings() {
+    CsvWriterSettings settings = settings('"', '\\', '\0', "\n", null);
+    assertThat(CSVEncoder.supports(settings)).isTrue();
+    settings.setIgnoreLeadingWhitespaces(true);
+    assertThat(CSVEncoder.supports(settings)).isFalse();
+    settings = settings('"', '\\', '\0', "\n", null);
+    settings.setNormalizeLineEndingsWithinQuotes(true);
+    assertThat(CSVEncoder.supports(settings)).isFalse();
+    settings = settings('"', '\\', '\0', "\n", null);
+    settings.getFormat().setDelimiter("||");
+    assertThat(CSVEncoder.supports(settings)).isFalse();
+  }
+
+  private static String encode(CsvWriterSettings settings, List<?> values) throws IOException {
+    StringWriter out = new StringWriter();
+    try (CSVEncoder encoder = new CSVEncoder(out, settings)) {
+      encoder.writeRow(values);
+    }
+    return out.toString();
+  }
+
+  private static CsvWriterSettings settings(
+      char quote, char escape, char comment, String newline, String nullValue) {
+    CsvWriterSettings settings = new CsvWriterSettings();
+    settings.getFormat().setDelimiter(',');
+    settings.getFormat().setQuote(quote);
+    settings.getFormat().setQuoteEscape(escape);
+    settings.getFormat().setComment(comment);
+    settings.getFormat().setLineSeparator(newline);
+    settings.setNullValue(nullValue);
+    settings.setQuoteEscapingEnabled(true);
+    settings.setIgnoreLeadingWhitespaces(false);
+    settings.setIgnoreTrailingWhitespaces(false);
+    settings.setNormalizeLineEndingsWithinQuotes(false);
+    return settings;
+  }
+
+  private static List<List<String>> randomRows(Random random) {
+    List<List<String>> rows = new ArrayList<>();
+    for (int i = random.nextInt(5); i > 0; i--) {
+      List<String> row = new ArrayList<>();
+      for (int j = random.nextInt(4); j > 0; j--) {
+        if (random.nextInt(5) == 0) {
+          row.add(null);
+        } else {
+          StringBuilder sb = new StringBuilder();
+          for (int k = random.nextInt(4); k > 0; k--) {
+            sb.append(TOKENS[random.nextInt(TOKENS.length)]);
+          }
+          row.add(sb.toString());
+        }
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+}
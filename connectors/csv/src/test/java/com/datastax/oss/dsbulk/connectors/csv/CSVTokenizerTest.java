@@ -0,0 +1,193 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.csv;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class CSVTokenizerTest {
+
+  private static final String[] TOKENS = {
+    "a", "bc", "def", " ", "\t", ",", ",", "\"", "\"", "\\", "\n", "\r\n", "\r", "é"
+  };
+
+  @Test
+  void should_tokenize_records() throws IOException {
+    assertThat(tokenize("a,b\nc,d\n", '\\', false)).containsExactly("[a, b] a,b\n", "[c, d] c,d\n");
+    assertThat(tokenize("a,,\"\"\n,", '\\', false))
+        .containsExactly("[a, null, ] a,,\"\"\n", "[null, null] ,");
+    assertThat(tokenize("\n\na\n\n\nb", '\\', false)).containsExactly("[a] a\n", "[b] b");
+    assertThat(tokenize("\"a\\\"b\\\\c\\d\",\"e\nf\" \n", '\\', false))
+        .containsExactly("[a\"b\\c\\d, e\nf] \"a\\\"b\\\\c\\d\",\"e\nf\" \n");
+    assertThat(tokenize("\"a\"\"b\",\"\"\"\"\n", '"', false))
+        .containsExactly("[a\"b, \"] \"a\"\"b\",\"\"\"\"\n");
+    assertThat(tokenize("a\rb,c\r\n\r\n\"d\r\ne\"\r\n", '\\', true))
+        .containsExactly("[a\rb, c] a\rb,c\r\n", "[d\r\ne] \"d\r\ne\"\r\n");
+    assertThat(tokenize("  , é ,x\"y\n", '\\', false))
+        .containsExactly("[  ,  é , x\"y]   , é ,x\"y\n");
+  }
+
+  @Test
+  void should_hand_over_irregular_records_to_parser() throws IOException {
+    String data = "a,b\n\"c\" d,e\nf,g\n";
+    assertThat(tokenize(data, '\\', false)).containsExactlyElementsOf(parse(data, '\\', false));
+    data = "a,b\r\nc\nd,e\r\nf,g\r\n";
+    assertThat(tokenize(data, '\\', true)).containsExactlyElementsOf(parse(data, '\\', true));
+    data = "a,b\n\"c,d\n";
+    assertThat(tokenize(data, '\\', false)).containsExactlyElementsOf(parse(data, '\\', false));
+  }
+
+  @ParameterizedTest(name = "[{index}] escape {0}, crlf {1}")
+  @MethodSource
+  void should_tokenize_records_like_parser(char escape, boolean crlf) throws IOException {
+    Random random = new Random(0);
+    for (int i = 0; i < 200; i++) {
+      String data = randomCsv(random, escape);
+      assertThat(tokenize(data, escape, crlf)).as(data).isEqualTo(parse(data, escape, crlf));
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_tokenize_records_like_parser() {
+    return Stream.of(
+        arguments('\\', false), arguments('\\', true), arguments('"', false), arguments('"', true));
+  }
+
+  @Test
+  void should_read_records_larger_than_buffer_in_small_reads() throws IOException {
+    char[] chars = new char[3 * 1024 * 1024];
+    Arrays.fill(chars, 'x');
+    String large = new String(chars);
+    String data = "a,\"" + large + "\"\n" + large + ",b\n";
+    byte[] bytes = data.getBytes(UTF_8);
+    InputStream in =
+        new ByteArrayInputStream(bytes) {
+          @Override
+          public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 1000));
+          }
+        };
+    try (CSVTokenizer tokenizer =
+        new CSVTokenizer(in, Long.MAX_VALUE, UTF_8, settings('\\', false, -1))) {
+      assertThat(tokenizer.next()).isTrue();
+      assertThat(tokenizer.getValues()).containsExactly("a", large);
+      assertThat(tokenizer.next()).isTrue();
+      assertThat(tokenizer.getValues()).containsExactly(large, "b");
+      assertThat(tokenizer.next()).isFalse();
+    }
+  }
+
+  @Test
+  void should_stop_at_given_length() throws IOException {
+    byte[] bytes = "a,b\nc,d\ne,f\n".getBytes(UTF_8);
+    try (CSVTokenizer tokenizer =
+        new CSVTokenizer(new ByteArrayInputStream(bytes), 8, UTF_8, settings('\\', false, 4096))) {
+      assertThat(tokenizer.next()).isTrue();
+      assertThat(tokenizer.getValues()).containsExactly("a", "b");
+      assertThat(tokenizer.next()).isTrue();
+      assertThat(tokenizer.getValues()).containsExactly("c", "d");
+      assertThat(tokenizer.next()).isFalse();
+    }
+  }
+
+  @Test
+  void should_report_source_positions() throws IOException {
+    byte[] bytes = "a,b\n\n\"é\",c\n\"d\" e\n".getBytes(UTF_8);
+    try (CSVTokenizer tokenizer =
+        new CSVTokenizer(
+            new ByteArrayInputStream(bytes), 100, UTF_8, settings('\\', false, 4096))) {
+      assertThat(tokenizer.next()).isTrue();
+      assertThat(tokenizer.getSourcePosition()).isEqualTo(0);
+      assertThat(tokenizer.getSourceLength()).isEqualTo(4);
+      assertThat(tokenizer.next()).isTrue();
+      assertThat(tokenizer.getSourcePosition()).isEqualTo(5);
+      assertThat(tokenizer.getSourceLength()).isEqualTo(7);
+      assertThat(tokenizer.getSource()).isEqualTo("\"é\",c\n");
+      // irregular record, handed over to the parser
+      assertThat(tokenizer.next()).isTrue();
+      assertThat(tokenizer.getSourcePosition()).isEqualTo(-1);
+      assertThat(tokenizer.getSource()).isEqualTo("\"d\" e\n");
+    }
+  }
+
+  private static List<String> tokenize(String data, char escape, boolean crlf) throws IOException {
+    List<String> records = new ArrayList<>();
+    try (CSVTokenizer tokenizer =
+        new CSVTokenizer(
+            new ByteArrayInputStream(data.getBytes(UTF_8)),
+            Long.MAX_VALUE,
+            UTF_8,
+            settings(escape, crlf, 4096))) {
+      while (tokenizer.next()) {
+        records.add(Arrays.toString(tokenizer.getValues()) + " " + tokenizer.getSource());
+      }
+    }
+    return records;
+  }
+
+  private static List<String> parse(String data, char escape, boolean crlf) {
+    CsvParser parser = new CsvParser(settings(escape, crlf, 4096));
+    parser.beginParsing(new StringReader(data));
+    List<String> records = new ArrayList<>();
+    String[] values;
+    while ((values = parser.parseNext()) != null) {
+      records.add(Arrays.toString(values) + " " + parser.getContext().currentParsedContent());
+    }
+    return records;
+  }
+
+  private static CsvParserSettings settings(char escape, boolean crlf, int maxCharsPerColumn) {
+    CsvParserSettings settings = new CsvParserSettings();
+    settings.getFormat().setQuoteEscape(escape);
+    settings.getFormat().setLineSeparator(crlf ? "\r\n" : "\n");
+    settings.setEmptyValue("");
+    settings.setIgnoreLeadingWhitespaces(false);
+    settings.setIgnoreTrailingWhitespaces(false);
+    settings.setNormalizeLineEndingsWithinQuotes(false);
+    settings.setMaxCharsPerColumn(maxCharsPerColumn);
+    settings.setReadInputOnSeparateThread(false);
+    return settings;
+  }
+
+  private static String randomCsv(Random random, char escape) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = random.nextInt(20); i > 0; i--) {
+      String token = TOKENS[random.nextInt(TOKENS.length)];
+      if (token.equals("\"") && random.nextBoolean()) {
+        sb.append(escape);
+      }
+      sb.append(token);
+    }
+    return sb.toString();
+  }
+}
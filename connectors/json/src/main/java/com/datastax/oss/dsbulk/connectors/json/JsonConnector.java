@@ -15,15 +15,20 @@
  */
 package com.datastax.oss.dsbulk.connectors.json;
 
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.ConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
-import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.MappedField;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -33,29 +38,35 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.io.SerializedString;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.JsonSerializable;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.SynchronousSink;
@@ -81,6 +92,23 @@ public class JsonConnector extends AbstractFileBasedConnector {
 
   private static final GenericType<JsonNode> JSON_NODE_TYPE_TOKEN = GenericType.of(JsonNode.class);
 
+  /**
+   * The CQL types whose values are written as JSON numbers or booleans, and that can therefore be
+   * written as is, without being converted to JSON nodes first. Bigint is not included because
+   * writetime columns are bigints that must be converted to timestamps.
+   */
+  private static final ImmutableMap<DataType, GenericType<?>> WRITABLE_TYPES =
+      ImmutableMap.<DataType, GenericType<?>>builder()
+          .put(DataTypes.BOOLEAN, GenericType.BOOLEAN)
+          .put(DataTypes.TINYINT, GenericType.BYTE)
+          .put(DataTypes.SMALLINT, GenericType.SHORT)
+          .put(DataTypes.INT, GenericType.INTEGER)
+          .put(DataTypes.VARINT, GenericType.BIG_INTEGER)
+          .put(DataTypes.FLOAT, GenericType.FLOAT)
+          .put(DataTypes.DOUBLE, GenericType.DOUBLE)
+          .put(DataTypes.DECIMAL, GenericType.BIG_DECIMAL)
+          .build();
+
   private static final String MODE = "mode";
   private static final String PARSER_FEATURES = "parserFeatures";
   private static final String GENERATOR_FEATURES = "generatorFeatures";
@@ -89,18 +117,15 @@ public class JsonConnector extends AbstractFileBasedConnector {
   private static final String SERIALIZATION_STRATEGY = "serializationStrategy";
   private static final String PRETTY_PRINT = "prettyPrint";
 
-  private static final TypeReference<Map<String, JsonNode>> JSON_NODE_MAP_TYPE_REFERENCE =
-      new TypeReference<Map<String, JsonNode>>() {};
-
   private DocumentMode mode;
   private ObjectMapper objectMapper;
-  private JavaType jsonNodeMapType;
   private Map<JsonParser.Feature, Boolean> parserFeatures;
   private Map<JsonGenerator.Feature, Boolean> generatorFeatures;
   private Map<SerializationFeature, Boolean> serializationFeatures;
   private Map<DeserializationFeature, Boolean> deserializationFeatures;
   private JsonInclude.Include serializationStrategy;
   private boolean prettyPrint;
+  private SerializerProvider serializers;
 
   @Override
   @NonNull
@@ -132,7 +157,6 @@ public class JsonConnector extends AbstractFileBasedConnector {
     super.init();
     objectMapper = new ObjectMapper();
     objectMapper.setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
-    jsonNodeMapType = objectMapper.constructType(JSON_NODE_MAP_TYPE_REFERENCE.getType());
     if (read) {
       for (JsonParser.Feature parserFeature : parserFeatures.keySet()) {
         objectMapper.configure(parserFeature, parserFeatures.get(parserFeature));
@@ -153,13 +177,17 @@ public class JsonConnector extends AbstractFileBasedConnector {
         objectMapper.setDefaultPrettyPrinter(new DefaultPrettyPrinter(System.lineSeparator()));
       }
       objectMapper.setSerializationInclusion(serializationStrategy);
+      serializers = objectMapper.getSerializerProviderInstance();
     }
   }
 
   @NonNull
   @Override
   public RecordMetadata getRecordMetadata() {
-    return (field, cqlType) -> JSON_NODE_TYPE_TOKEN;
+    if (read) {
+      return (field, cqlType) -> JSON_NODE_TYPE_TOKEN;
+    }
+    return (field, cqlType) -> WRITABLE_TYPES.getOrDefault(cqlType, JSON_NODE_TYPE_TOKEN);
   }
 
   @Override
@@ -171,6 +199,8 @@ public class JsonConnector extends AbstractFileBasedConnector {
           return true;
         case INDEXED_RECORDS:
           return false;
+        case RESUMABLE_READS:
+          return true;
       }
     }
     return false;
@@ -187,10 +217,15 @@ public class JsonConnector extends AbstractFileBasedConnector {
     private final URL url;
     private final URI resource;
     private final JsonParser parser;
-    private final MappingIterator<JsonNode> nodesIterator;
+    private final DeserializationContext context;
+    private final JsonDeserializer<Object> valueDeserializer;
 
     private long recordNumber = 1;
 
+    // documents of a same resource usually have the same fields in the same order
+    private String[] lastNames;
+    private RecordSchema lastSchema;
+
     private JsonRecordReader(URL url) throws IOException {
       this.url = url;
       resource = URI.create(url.toExternalForm());
@@ -202,9 +237,16 @@ public class JsonConnector extends AbstractFileBasedConnector {
           do {
             parser.nextToken();
           } while (parser.currentToken() != JsonToken.START_ARRAY && parser.currentToken() != null);
-          parser.nextToken();
         }
-        nodesIterator = objectMapper.readValues(parser, JsonNode.class);
+        // values are read one after the other from the same parser, with the same context
+        context =
+            ((DefaultDeserializationContext) objectMapper.getDeserializationContext())
+                .createInstance(
+                    objectMapper.getDeserializationConfig(),
+                    parser,
+                    objectMapper.getInjectableValues());
+        valueDeserializer =
+            context.findRootValueDeserializer(objectMapper.constructType(JsonNode.class));
       } catch (Exception e) {
         throw new IOException(String.format("Error reading from %s", url), e);
       }
@@ -214,21 +256,17 @@ public class JsonConnector extends AbstractFileBasedConnector {
     @Override
     public RecordReader readNext(@NonNull SynchronousSink<Record> sink) {
       try {
-        if (nodesIterator.hasNext()) {
-          if (parser.currentToken() != JsonToken.START_OBJECT) {
+        JsonToken token = parser.nextToken();
+        if (token != null
+            && (token != JsonToken.END_ARRAY || mode != DocumentMode.SINGLE_DOCUMENT)) {
+          if (token != JsonToken.START_OBJECT) {
             throw new JsonParseException(
                 parser,
                 String.format(
                     "Expecting START_OBJECT, got %s. Did you forget to set connector.json.mode to SINGLE_DOCUMENT?",
-                    parser.currentToken()));
+                    token));
           }
-          JsonNode node = nodesIterator.next();
-          Map<String, JsonNode> values = objectMapper.convertValue(node, jsonNodeMapType);
-          Map<MappedField, JsonNode> fields =
-              values.entrySet().stream()
-                  .collect(
-                      Collectors.toMap(e -> new DefaultMappedField(e.getKey()), Entry::getValue));
-          Record record = DefaultRecord.mapped(node, resource, recordNumber++, fields);
+          Record record = readDocument();
           LOGGER.trace("Emitting record {}", record);
           sink.next(record);
         } else {
@@ -241,6 +279,55 @@ public class JsonConnector extends AbstractFileBasedConnector {
       return this;
     }
 
+    /**
+     * Reads the fields of the document that starts at the current token, without building a tree
+     * for the whole document: only the values of the fields are read as trees.
+     */
+    private Record readDocument() throws IOException {
+      int capacity = lastNames == null ? 16 : lastNames.length;
+      List<String> names = new ArrayList<>(capacity);
+      List<JsonNode> values = new ArrayList<>(capacity);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        JsonNode value = (JsonNode) valueDeserializer.deserialize(parser, context);
+        int index = names.indexOf(name);
+        if (index == -1) {
+          names.add(name);
+          values.add(value);
+        } else if (objectMapper.isEnabled(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY)) {
+          throw new JsonParseException(
+              parser,
+              String.format(
+                  "Duplicate field '%s' for ObjectNode: not allowed when FAIL_ON_READING_DUP_TREE_KEY enabled",
+                  name));
+        } else {
+          // like in an ObjectNode, the last value wins
+          values.set(index, value);
+        }
+      }
+      String[] fieldNames = names.toArray(new String[0]);
+      JsonNode[] fieldValues = values.toArray(new JsonNode[0]);
+      return new ArrayBackedRecord(
+          new JsonRecordSource(objectMapper.getNodeFactory(), fieldNames, fieldValues),
+          resource,
+          recordNumber++,
+          schema(fieldNames),
+          (Object[]) fieldValues);
+    }
+
+    private RecordSchema schema(String[] names) {
+      if (!Arrays.equals(names, lastNames)) {
+        MappedField[] fields = new MappedField[names.length];
+        for (int i = 0; i < names.length; i++) {
+          fields[i] = new DefaultMappedField(names[i]);
+        }
+        lastSchema = RecordSchema.of(fields);
+        lastNames = names;
+      }
+      return lastSchema;
+    }
+
     @Override
     public void close() throws IOException {
       if (parser != null) {
@@ -274,8 +361,7 @@ public class JsonConnector extends AbstractFileBasedConnector {
         if (mode == DocumentMode.SINGLE_DOCUMENT && currentLine > 0) {
           writer.writeRaw(',');
         }
-
-        writer.writeObject(record);
+        writeRecord(record);
         currentLine++;
       } catch (ClosedChannelException e) {
         // OK, happens when the channel was closed due to interruption
@@ -284,6 +370,66 @@ public class JsonConnector extends AbstractFileBasedConnector {
       }
     }
 
+    /**
+     * Writes the given record as a JSON object, field by field, as the object mapper would
+     * serialize a map of fields to values, but without looking up a serializer for each value.
+     */
+    private void writeRecord(Record record) throws IOException {
+      writer.writeStartObject();
+      Iterator<Object> values = record.values().iterator();
+      for (Field field : record.fields()) {
+        Object value = values.next();
+        if (isIncluded(value)) {
+          writer.writeFieldName(field.toString());
+          writeValue(value);
+        }
+      }
+      writer.writeEndObject();
+    }
+
+    /**
+     * @return whether the given value should be written, according to the serialization strategy.
+     */
+    private boolean isIncluded(Object value) {
+      switch (serializationStrategy) {
+        case NON_NULL:
+        case NON_ABSENT:
+        case NON_DEFAULT:
+          return value != null;
+        case NON_EMPTY:
+          if (value instanceof JsonNode) {
+            JsonNode node = (JsonNode) value;
+            return !node.isContainerNode() || node.size() > 0;
+          }
+          return value != null && !"".equals(value);
+        default:
+          return true;
+      }
+    }
+
+    private void writeValue(Object value) throws IOException {
+      if (value == null) {
+        writer.writeNull();
+      } else if (value instanceof JsonSerializable) {
+        // JSON nodes
+        ((JsonSerializable) value).serialize(writer, serializers);
+      } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        writer.writeNumber(((Number) value).intValue());
+      } else if (value instanceof Double) {
+        writer.writeNumber((Double) value);
+      } else if (value instanceof Float) {
+        writer.writeNumber((Float) value);
+      } else if (value instanceof BigDecimal) {
+        writer.writeNumber((BigDecimal) value);
+      } else if (value instanceof BigInteger) {
+        writer.writeNumber((BigInteger) value);
+      } else if (value instanceof Boolean) {
+        writer.writeBoolean((Boolean) value);
+      } else {
+        serializers.defaultSerializeValue(value, writer);
+      }
+    }
+
     private boolean shouldRoll() {
       return !roots.isEmpty() && currentLine == maxRecords;
     }
@@ -342,6 +488,11 @@ public class JsonConnector extends AbstractFileBasedConnector {
     JsonGenerator generator =
         factory.createGenerator(CompressedIOUtils.newBufferedWriter(url, encoding, compression));
     generator.setRootValueSeparator(new SerializedString(System.lineSeparator()));
+    if (objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+      // records are not written through the object mapper, which would set this printer
+      generator.setPrettyPrinter(
+          objectMapper.getSerializationConfig().constructDefaultPrettyPrinter());
+    }
     return generator;
   }
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * The source of a record read from a JSON document.
+ *
+ * <p>Documents are read field by field, without building a tree for the whole document; the
+ * document is only rebuilt from the fields of the record when {@link #toString()} is called, e.g.
+ * when the record is rejected and written to a bad file.
+ */
+final class JsonRecordSource {
+
+  private final JsonNodeFactory nodeFactory;
+  private final String[] names;
+  private final JsonNode[] values;
+
+  JsonRecordSource(
+      @NonNull JsonNodeFactory nodeFactory, @NonNull String[] names, @NonNull JsonNode[] values) {
+    this.nodeFactory = nodeFactory;
+    this.names = names;
+    this.values = values;
+  }
+
+  /** @return the document, as a tree. */
+  @NonNull
+  ObjectNode toNode() {
+    ObjectNode node = nodeFactory.objectNode();
+    for (int i = 0; i < names.length; i++) {
+      node.set(names[i], values[i]);
+    }
+    return node;
+  }
+
+  @Override
+  public String toString() {
+    return toNode().toString();
+  }
+}
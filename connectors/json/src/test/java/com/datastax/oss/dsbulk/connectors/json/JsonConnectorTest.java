@@ -22,6 +22,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.any;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.util.Throwables.getRootCause;
@@ -29,12 +30,16 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.shaded.guava.common.base.Charsets;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
 import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
 import com.datastax.oss.dsbulk.tests.logging.LogCapture;
 import com.datastax.oss.dsbulk.tests.logging.LogInterceptingExtension;
@@ -45,6 +50,7 @@ import com.datastax.oss.dsbulk.tests.utils.StringUtils;
 import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
 import com.datastax.oss.dsbulk.url.BulkLoaderURLStreamHandlerFactory;
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.github.tomakehurst.wiremock.WireMockServer;
@@ -57,6 +63,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -260,7 +267,8 @@ class JsonConnectorTest {
       assertThat(connector.readConcurrency()).isOne();
       List<Record> actual = Flux.merge(connector.read()).collectList().block();
       assertThat(actual).hasSize(1);
-      assertThat(actual.get(0).getSource()).isEqualTo(objectMapper.readTree(line));
+      assertThat(((JsonRecordSource) actual.get(0).getSource()).toNode())
+          .isEqualTo(objectMapper.readTree(line));
       assertThat(actual.get(0).getResource()).isEqualTo(URI.create("std:/"));
       assertThat(actual.get(0).getPosition()).isEqualTo(1L);
       assertThat(actual.get(0).getFieldValue(new DefaultMappedField("fóô")))
@@ -273,6 +281,40 @@ class JsonConnectorTest {
     }
   }
 
+  @Test
+  void should_read_nested_values_and_duplicate_fields() throws Exception {
+    InputStream stdin = System.in;
+    try {
+      String doc1 = "{\"a\":1,\"b\":{\"c\":[1,{\"d\":null}]},\"a\":2.5}";
+      String doc2 = "{\"b\":[],\"e\":\"x\"} {}";
+      InputStream is = new ByteArrayInputStream((doc1 + "\n" + doc2).getBytes(UTF_8));
+      System.setIn(is);
+      JsonConnector connector = new JsonConnector();
+      Config settings = TestConfigUtils.createTestConfig("dsbulk.connector.json");
+      connector.configure(settings, true);
+      connector.init();
+      List<Record> actual = Flux.merge(connector.read()).collectList().block();
+      assertThat(actual).hasSize(3);
+      DefaultMappedField a = new DefaultMappedField("a");
+      DefaultMappedField b = new DefaultMappedField("b");
+      DefaultMappedField e = new DefaultMappedField("e");
+      assertThat(actual.get(0).fields()).containsExactly(a, b);
+      assertThat(actual.get(0).getFieldValue(a))
+          .isEqualTo(factory.numberNode(new BigDecimal("2.5")));
+      assertThat(actual.get(0).getFieldValue(b))
+          .isEqualTo(objectMapper.readTree("{\"c\":[1,{\"d\":null}]}"));
+      assertThat(actual.get(0).getSource()).hasToString(objectMapper.readTree(doc1).toString());
+      assertThat(actual.get(1).fields()).containsExactly(b, e);
+      assertThat(actual.get(1).getFieldValue(b)).isEqualTo(factory.arrayNode());
+      assertThat(actual.get(1).getPosition()).isEqualTo(2L);
+      assertThat(actual.get(2).fields()).isEmpty();
+      assertThat(actual.get(2).getSource()).hasToString("{}");
+      connector.close();
+    } finally {
+      System.setIn(stdin);
+    }
+  }
+
   @Test
   void should_write_to_stdout_with_special_encoding() throws Exception {
     PrintStream stdout = System.out;
@@ -692,6 +734,64 @@ class JsonConnectorTest {
     }
   }
 
+  @Test
+  void should_write_native_values_and_skip_empty_values() throws Exception {
+    JsonConnector connector = new JsonConnector();
+    Path dir = Files.createTempDirectory("test");
+    try {
+      Config settings =
+          TestConfigUtils.createTestConfig(
+              "dsbulk.connector.json",
+              "url",
+              StringUtils.quoteJson(dir),
+              "maxConcurrentFiles",
+              1,
+              "serializationStrategy",
+              "NON_EMPTY");
+      connector.configure(settings, false);
+      connector.init();
+      assertThat(
+              connector
+                  .getRecordMetadata()
+                  .getFieldType(new DefaultMappedField("f1"), DataTypes.INT))
+          .isEqualTo(GenericType.INTEGER);
+      assertThat(
+              connector
+                  .getRecordMetadata()
+                  .getFieldType(new DefaultMappedField("f1"), DataTypes.BIGINT))
+          .isEqualTo(GenericType.of(JsonNode.class));
+      Field[] fields =
+          Stream.of(
+                  "int", "tinyint", "double", "decimal", "boolean", "null", "list", "empty", "text")
+              .map(DefaultMappedField::new)
+              .toArray(Field[]::new);
+      Record record =
+          new ArrayBackedRecord(
+              "source",
+              resource,
+              1,
+              RecordSchema.of(fields),
+              42,
+              (byte) -1,
+              1.5d,
+              new BigDecimal("1.50"),
+              true,
+              null,
+              factory.arrayNode().add(1).add(factory.objectNode().put("a", "b")),
+              factory.arrayNode(),
+              factory.textNode(""));
+      Flux.just(record).transform(connector.write()).blockLast();
+      connector.close();
+      List<String> actual = Files.readAllLines(dir.resolve("output-000001.json"));
+      assertThat(actual)
+          .containsExactly(
+              "{\"int\":42,\"tinyint\":-1,\"double\":1.5,\"decimal\":1.50,\"boolean\":true,"
+                  + "\"list\":[1,{\"a\":\"b\"}],\"text\":\"\"}");
+    } finally {
+      deleteDirectory(dir);
+    }
+  }
+
   @Test
   void should_write_multiple_files() throws Exception {
     JsonConnector connector = new JsonConnector();
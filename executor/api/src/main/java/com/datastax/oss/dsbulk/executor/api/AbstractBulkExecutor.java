@@ -15,9 +15,13 @@
  */
 package com.datastax.oss.dsbulk.executor.api;
 
+import com.codahale.metrics.MetricRegistry;
 import com.datastax.oss.driver.api.core.CqlSession;
-import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.throttling.AsyncSemaphore;
+import com.datastax.oss.dsbulk.executor.api.throttling.PerNodeInFlightLimiter;
+import com.datastax.oss.dsbulk.executor.api.throttling.RequestLimiters;
+import com.datastax.oss.dsbulk.executor.api.throttling.TokenBucketRateLimiter;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Objects;
@@ -38,12 +42,28 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
 
   protected final @Nullable Semaphore maxConcurrentRequests;
 
-  protected final @Nullable RateLimiter rateLimiter;
+  protected final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+
+  protected final @Nullable TokenBucketRateLimiter rateLimiter;
+
+  protected final @Nullable TokenBucketRateLimiter bytesRateLimiter;
+
+  /** All the limiters above, as handed over to publishers and subscriptions. */
+  protected final @NonNull RequestLimiters limiters;
 
   protected final @Nullable ExecutionListener listener;
 
   protected AbstractBulkExecutor(CqlSession session) {
-    this(session, true, DEFAULT_MAX_IN_FLIGHT_REQUESTS, DEFAULT_MAX_REQUESTS_PER_SECOND, null);
+    this(
+        session,
+        true,
+        DEFAULT_MAX_IN_FLIGHT_REQUESTS,
+        -1,
+        DEFAULT_MAX_REQUESTS_PER_SECOND,
+        -1,
+        -1,
+        null,
+        null);
   }
 
   protected AbstractBulkExecutor(AbstractBulkExecutorBuilder<?> builder) {
@@ -51,27 +71,85 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
         builder.session,
         builder.failFast,
         builder.maxInFlightRequests,
+        builder.maxInFlightRequestsPerNode,
         builder.maxRequestsPerSecond,
-        builder.listener);
+        builder.maxRequestsBurst,
+        builder.maxBytesPerSecond,
+        builder.listener,
+        builder.registry);
   }
 
   private AbstractBulkExecutor(
       @NonNull CqlSession session,
       boolean failFast,
       int maxInFlightRequests,
+      int maxInFlightRequestsPerNode,
       int maxRequestsPerSecond,
-      @Nullable ExecutionListener listener) {
+      int maxRequestsBurst,
+      long maxBytesPerSecond,
+      @Nullable ExecutionListener listener,
+      @Nullable MetricRegistry registry) {
     Objects.requireNonNull(session, "session cannot be null");
     this.session = session;
     this.failFast = failFast;
     this.maxConcurrentRequests =
-        maxInFlightRequests <= 0 ? null : new Semaphore(maxInFlightRequests);
-    this.rateLimiter = maxRequestsPerSecond <= 0 ? null : RateLimiter.create(maxRequestsPerSecond);
+        maxInFlightRequests <= 0 ? null : new AsyncSemaphore(maxInFlightRequests);
+    this.maxConcurrentRequestsPerNode =
+        maxInFlightRequestsPerNode <= 0
+            ? null
+            : new PerNodeInFlightLimiter(session, maxInFlightRequestsPerNode, registry);
+    this.rateLimiter =
+        maxRequestsPerSecond <= 0
+            ? null
+            : new TokenBucketRateLimiter(maxRequestsPerSecond, maxRequestsBurst, registry);
+    this.bytesRateLimiter =
+        maxBytesPerSecond <= 0
+            ? null
+            : new TokenBucketRateLimiter(
+                maxBytesPerSecond, -1, registry, "executor/bytes/throttled-time");
+    this.limiters =
+        new RequestLimiters(
+            maxConcurrentRequests, maxConcurrentRequestsPerNode, rateLimiter, bytesRateLimiter);
     this.listener = listener;
   }
 
+  /**
+   * Changes the maximum number of requests per second while the executor is running.
+   *
+   * @param maxRequestsPerSecond the new maximum number of requests per second.
+   * @throws IllegalStateException if the executor was created without a maximum number of requests
+   *     per second.
+   */
+  public void setMaxRequestsPerSecond(int maxRequestsPerSecond) {
+    if (rateLimiter == null) {
+      throw new IllegalStateException(
+          "Cannot change the maximum number of requests per second: rate limiting is disabled");
+    }
+    rateLimiter.setRate(maxRequestsPerSecond);
+  }
+
+  /**
+   * Changes the maximum number of bytes per second while the executor is running.
+   *
+   * @param maxBytesPerSecond the new maximum number of bytes per second.
+   * @throws IllegalStateException if the executor was created without a maximum number of bytes per
+   *     second.
+   */
+  public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+    if (bytesRateLimiter == null) {
+      throw new IllegalStateException(
+          "Cannot change the maximum number of bytes per second: rate limiting is disabled");
+    }
+    bytesRateLimiter.setRate(maxBytesPerSecond);
+  }
+
   @Override
   public void close() {
-    // no-op
+    if (rateLimiter != null) {
+      rateLimiter.close();
+    }
+    if (bytesRateLimiter != null) {
+      bytesRateLimiter.close();
+    }
   }
 }
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.dsbulk.executor.api;
 
+import com.codahale.metrics.MetricRegistry;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 
@@ -28,10 +29,18 @@ public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
 
   protected int maxInFlightRequests = AbstractBulkExecutor.DEFAULT_MAX_IN_FLIGHT_REQUESTS;
 
+  protected int maxInFlightRequestsPerNode = -1;
+
   protected int maxRequestsPerSecond = AbstractBulkExecutor.DEFAULT_MAX_REQUESTS_PER_SECOND;
 
+  protected int maxRequestsBurst = -1;
+
+  protected long maxBytesPerSecond = -1;
+
   protected ExecutionListener listener;
 
+  protected MetricRegistry registry;
+
   protected AbstractBulkExecutorBuilder(CqlSession session) {
     this.session = session;
   }
@@ -50,6 +59,14 @@ public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
     return this;
   }
 
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withMaxInFlightRequestsPerNode(
+      int maxInFlightRequestsPerNode) {
+    this.maxInFlightRequestsPerNode = maxInFlightRequestsPerNode;
+    return this;
+  }
+
   @Override
   @SuppressWarnings("UnusedReturnValue")
   public AbstractBulkExecutorBuilder<T> withMaxRequestsPerSecond(int maxRequestsPerSecond) {
@@ -57,10 +74,31 @@ public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
     return this;
   }
 
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withMaxRequestsBurst(int maxRequestsBurst) {
+    this.maxRequestsBurst = maxRequestsBurst;
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withMaxBytesPerSecond(long maxBytesPerSecond) {
+    this.maxBytesPerSecond = maxBytesPerSecond;
+    return this;
+  }
+
   @Override
   @SuppressWarnings("UnusedReturnValue")
   public AbstractBulkExecutorBuilder<T> withExecutionListener(ExecutionListener listener) {
     this.listener = listener;
     return this;
   }
+
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withMetricRegistry(MetricRegistry registry) {
+    this.registry = registry;
+    return this;
+  }
 }
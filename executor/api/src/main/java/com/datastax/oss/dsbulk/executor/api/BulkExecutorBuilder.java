@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.dsbulk.executor.api;
 
+import com.codahale.metrics.MetricRegistry;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
@@ -67,10 +68,26 @@ public interface BulkExecutorBuilder<T extends BulkExecutor> {
   @SuppressWarnings("UnusedReturnValue")
   BulkExecutorBuilder<T> withMaxInFlightRequests(int maxInFlightRequests);
 
+  /**
+   * Sets the maximum number of in-flight requests per replica set. The replicas of each request are
+   * determined from its routing information; if that limit is reached for a given replica set, the
+   * executor will block until the number of in-flight requests for that replica set drops below the
+   * threshold, even if the global limit set with {@link #withMaxInFlightRequests(int)} is not
+   * reached. <em>This feature should not be used in a fully non-blocking application</em>.
+   *
+   * <p>This prevents a slow replica from consuming the whole in-flight budget. The default is -1.
+   * Setting this option to any negative value or zero will disable it.
+   *
+   * @param maxInFlightRequestsPerNode the maximum number of in-flight requests per replica set.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withMaxInFlightRequestsPerNode(int maxInFlightRequestsPerNode);
+
   /**
    * Sets the maximum number of concurrent requests per second. If that limit is reached, the
-   * executor will block until the number of requests per second drops below the threshold. <em>This
-   * feature should not be used in a fully non-blocking application</em>.
+   * executor will delay new requests, and the emission of rows for reads, until the number of
+   * requests per second drops below the threshold. The delay does not block any thread.
    *
    * <p>This acts as a safeguard against workflows that could overwhelm the cluster with more
    * requests than it can handle. The default is {@link
@@ -83,6 +100,36 @@ public interface BulkExecutorBuilder<T extends BulkExecutor> {
   @SuppressWarnings("UnusedReturnValue")
   BulkExecutorBuilder<T> withMaxRequestsPerSecond(int maxRequestsPerSecond);
 
+  /**
+   * Sets the maximum number of requests that can be executed in a burst, without being delayed,
+   * after a period of inactivity. Only applicable if a maximum number of requests per second is set
+   * with {@link #withMaxRequestsPerSecond(int)}.
+   *
+   * <p>The default is -1, which allows bursts of up to one second's worth of requests. Setting this
+   * option to any negative value or zero will restore the default.
+   *
+   * @param maxRequestsBurst the maximum number of requests in a burst.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withMaxRequestsBurst(int maxRequestsBurst);
+
+  /**
+   * Sets the maximum number of bytes per second. Writes are charged the encoded size of their
+   * statement before they are sent; reads are charged the size of each response before its rows are
+   * emitted. If that limit is reached, the executor will delay new requests and the emission of
+   * rows until the number of bytes per second drops below the threshold. The delay does not block
+   * any thread.
+   *
+   * <p>This limit applies in addition to the one set with {@link #withMaxRequestsPerSecond(int)}.
+   * The default is -1. Setting this option to any negative value or zero will disable it.
+   *
+   * @param maxBytesPerSecond the maximum number of bytes per second.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withMaxBytesPerSecond(long maxBytesPerSecond);
+
   /**
    * Sets an optional {@link ExecutionListener}.
    *
@@ -92,6 +139,16 @@ public interface BulkExecutorBuilder<T extends BulkExecutor> {
   @SuppressWarnings("UnusedReturnValue")
   BulkExecutorBuilder<T> withExecutionListener(ExecutionListener listener);
 
+  /**
+   * Sets an optional {@link MetricRegistry} where the executor will register its own metrics, such
+   * as per-node in-flight requests.
+   *
+   * @param registry the {@link MetricRegistry} to use.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withMetricRegistry(MetricRegistry registry);
+
   /**
    * Builds a new instance.
    *
@@ -17,11 +17,12 @@ package com.datastax.oss.dsbulk.executor.api.publisher;
 
 import com.datastax.dse.driver.api.core.cql.continuous.ContinuousSession;
 import com.datastax.oss.driver.api.core.cql.Statement;
-import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.subscription.ContinuousReadResultSubscription;
+import com.datastax.oss.dsbulk.executor.api.throttling.RequestLimiters;
+import com.datastax.oss.dsbulk.executor.api.throttling.TokenBucketRateLimiter;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Objects;
@@ -40,8 +41,7 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
   private final @NonNull Statement<?> statement;
   private final @NonNull ContinuousSession session;
   private final @Nullable ExecutionListener listener;
-  private final @Nullable Semaphore maxConcurrentRequests;
-  private final @Nullable RateLimiter rateLimiter;
+  private final RequestLimiters limiters;
   private final boolean failFast;
 
   /**
@@ -66,7 +66,7 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
    * @param listener The {@link ExecutionListener} to use.
    * @param maxConcurrentRequests The {@link Semaphore} to use to regulate the amount of in-flight
    *     requests.
-   * @param rateLimiter The {@link RateLimiter} to use to regulate throughput.
+   * @param rateLimiter The {@link TokenBucketRateLimiter} to use to regulate throughput.
    */
   public ContinuousReadResultPublisher(
       @NonNull Statement<?> statement,
@@ -74,12 +74,34 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
       boolean failFast,
       @Nullable ExecutionListener listener,
       @Nullable Semaphore maxConcurrentRequests,
-      @Nullable RateLimiter rateLimiter) {
+      @Nullable TokenBucketRateLimiter rateLimiter) {
+    this(
+        statement,
+        session,
+        failFast,
+        listener,
+        new RequestLimiters(maxConcurrentRequests, null, rateLimiter, null));
+  }
+
+  /**
+   * Creates a new {@link ContinuousReadResultPublisher}.
+   *
+   * @param statement The {@link Statement} to execute.
+   * @param session The {@link ContinuousSession} to use.
+   * @param failFast whether to fail-fast in case of error.
+   * @param listener The {@link ExecutionListener} to use.
+   * @param limiters The {@link RequestLimiters} to use to regulate throughput.
+   */
+  public ContinuousReadResultPublisher(
+      @NonNull Statement<?> statement,
+      @NonNull ContinuousSession session,
+      boolean failFast,
+      @Nullable ExecutionListener listener,
+      @NonNull RequestLimiters limiters) {
     this.statement = statement;
     this.session = session;
     this.listener = listener;
-    this.maxConcurrentRequests = maxConcurrentRequests;
-    this.rateLimiter = rateLimiter;
+    this.limiters = limiters;
     this.failFast = failFast;
   }
 
@@ -91,8 +113,7 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
     // i.e., each subscriber triggers an independent execution/subscription and gets its own copy
     // of the results.
     ContinuousReadResultSubscription subscription =
-        new ContinuousReadResultSubscription(
-            subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+        new ContinuousReadResultSubscription(subscriber, statement, listener, limiters, failFast);
     try {
       subscriber.onSubscribe(subscription);
       // must be called after onSubscribe
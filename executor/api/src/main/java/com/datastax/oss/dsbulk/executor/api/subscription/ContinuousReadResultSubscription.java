@@ -19,16 +19,15 @@ import com.datastax.dse.driver.api.core.cql.continuous.ContinuousAsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.collect.AbstractIterator;
-import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.executor.api.throttling.RequestLimiters;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Iterator;
-import java.util.concurrent.Semaphore;
 import org.reactivestreams.Subscriber;
 
 public class ContinuousReadResultSubscription
@@ -38,10 +37,9 @@ public class ContinuousReadResultSubscription
       @NonNull Subscriber<? super ReadResult> subscriber,
       @NonNull Statement<?> statement,
       @Nullable ExecutionListener listener,
-      @Nullable Semaphore maxConcurrentRequests,
-      @Nullable RateLimiter rateLimiter,
+      @NonNull RequestLimiters limiters,
       boolean failFast) {
-    super(subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+    super(subscriber, statement, listener, limiters, failFast);
   }
 
   @Override
@@ -97,10 +95,14 @@ public class ContinuousReadResultSubscription
   }
 
   @Override
-  void onBeforeResultEmitted(ReadResult result) {
-    if (rateLimiter != null) {
-      rateLimiter.acquire();
-    }
+  long responsePermits(ContinuousAsyncResultSet page) {
+    return page.remaining();
+  }
+
+  @Override
+  long responseBytes(ContinuousAsyncResultSet page) {
+    // the size of the response frame, as reported by the driver; -1 if unknown
+    return Math.max(0, page.getExecutionInfo().getResponseSizeInBytes());
   }
 
   @Override
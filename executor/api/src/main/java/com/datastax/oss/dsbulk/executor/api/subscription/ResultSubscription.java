@@ -20,7 +20,6 @@ import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.Statement;
-import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.DefaultExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
@@ -28,6 +27,11 @@ import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.Result;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.api.throttling.AsyncSemaphore;
+import com.datastax.oss.dsbulk.executor.api.throttling.PerNodeInFlightLimiter;
+import com.datastax.oss.dsbulk.executor.api.throttling.PerNodeInFlightLimiter.ReplicaSetPermits;
+import com.datastax.oss.dsbulk.executor.api.throttling.RequestLimiters;
+import com.datastax.oss.dsbulk.executor.api.throttling.TokenBucketRateLimiter;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Collections;
@@ -77,7 +81,9 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
 
   final @Nullable ExecutionListener listener;
   private final @Nullable Semaphore maxConcurrentRequests;
-  final @Nullable RateLimiter rateLimiter;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  private final @Nullable TokenBucketRateLimiter rateLimiter;
+  private final @Nullable TokenBucketRateLimiter bytesRateLimiter;
   private final boolean failFast;
 
   /** The number of writes in the batch. 1 for other types of statement. */
@@ -141,18 +147,27 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
    */
   private volatile boolean cancelled = false;
 
+  /**
+   * The per-node permits held by the current request, if any.
+   *
+   * <p>Requests for successive pages are never in flight at the same time, so this field is only
+   * accessed by one request at a time.
+   */
+  private volatile ReplicaSetPermits replicaSetPermits;
+
   ResultSubscription(
       @NonNull Subscriber<? super R> subscriber,
       @NonNull Statement<?> statement,
       @Nullable ExecutionListener listener,
-      @Nullable Semaphore maxConcurrentRequests,
-      @Nullable RateLimiter rateLimiter,
+      @NonNull RequestLimiters limiters,
       boolean failFast) {
     this.statement = statement;
     this.subscriber = subscriber;
     this.listener = listener;
-    this.maxConcurrentRequests = maxConcurrentRequests;
-    this.rateLimiter = rateLimiter;
+    this.maxConcurrentRequests = limiters.getMaxConcurrentRequests();
+    this.maxConcurrentRequestsPerNode = limiters.getMaxConcurrentRequestsPerNode();
+    this.rateLimiter = limiters.getRateLimiter();
+    this.bytesRateLimiter = limiters.getBytesRateLimiter();
     this.failFast = failFast;
     if (statement instanceof BatchStatement) {
       batchSize = ((BatchStatement) statement).size();
@@ -337,20 +352,49 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
    * the fact that one can only fetch the next page when the current one is arrived and enqueued.
    */
   private void fetchNextPage(Page current) {
+    CompletionStage<Void> throttled =
+        throttle(
+            rateLimiter == null ? 0 : requestPermits(),
+            bytesRateLimiter == null ? 0 : requestBytes());
+    if (throttled == null) {
+      onBeforeRequestStarted();
+      sendRequest(current);
+    } else {
+      // if a rate limit is reached, the request is sent later by a rate limiter worker thread,
+      // which must not block: in-flight permits are then acquired asynchronously. Failures,
+      // including the rate limiter being closed, must be signaled since no page will ever be
+      // enqueued otherwise.
+      throttled
+          .thenCompose(v -> onBeforeRequestStartedAsync())
+          .thenRun(() -> sendRequest(current))
+          .whenComplete(
+              (v, t) -> {
+                if (t != null) {
+                  doOnError(t instanceof CompletionException ? t.getCause() : t);
+                }
+              });
+    }
+  }
+
+  private void sendRequest(Page current) {
     // A local execution context to record metrics for this specific request-response cycle.
     DefaultExecutionContext local = new DefaultExecutionContext();
-    onBeforeRequestStarted();
     local.start();
     onRequestStarted(local);
     current
         .nextPage()
         // as soon as the response arrives, notify our listener and
-        // update maxConcurrentRequests.
+        // update maxConcurrentRequests and maxConcurrentRequestsPerNode.
         .whenComplete(
             (rs, t) -> {
               if (maxConcurrentRequests != null) {
                 maxConcurrentRequests.release();
               }
+              ReplicaSetPermits permits = replicaSetPermits;
+              if (permits != null) {
+                replicaSetPermits = null;
+                permits.release();
+              }
               local.stop();
               if (t == null) {
                 onRequestSuccessful(rs, local);
@@ -361,18 +405,36 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
         // create the new page
         .handle(
             (rs, t) -> {
-              Page page;
               if (t == null) {
-                page = toPage(rs, local);
+                Page page = toPage(rs, local);
+                CompletionStage<Void> throttled =
+                    throttle(
+                        rateLimiter == null ? 0 : responsePermits(rs),
+                        bytesRateLimiter == null ? 0 : responseBytes(rs));
+                if (throttled == null) {
+                  return CompletableFuture.completedFuture(page);
+                }
+                // if a rate limit is reached, delay the page until enough permits are available
+                return throttled.handle(
+                    (v, error) -> {
+                      if (error == null) {
+                        return page;
+                      }
+                      // the rate limiter was closed: report the error instead of the page
+                      if (error instanceof CompletionException) {
+                        error = error.getCause();
+                      }
+                      return toErrorPage(error);
+                    });
               } else {
                 // Unwrap CompletionExceptions created by combined futures
                 if (t instanceof CompletionException) {
                   t = t.getCause();
                 }
-                page = toErrorPage(t);
+                return CompletableFuture.completedFuture(toErrorPage(t));
               }
-              return page;
             })
+        .thenCompose(page -> page)
         // wait until there is free space in the queue
         // before enqueueing the new page
         .thenCombine(current.fullyConsumed, (rs, v) -> rs)
@@ -388,12 +450,84 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
             });
   }
 
+  /**
+   * Acquires permits from both rate limiters at once, so that the caller is delayed by the longest
+   * of the two waits, and not by their sum.
+   *
+   * @return a stage that completes when all permits are available, or null if there was nothing to
+   *     acquire.
+   */
+  @Nullable
+  private CompletionStage<Void> throttle(long permits, long bytes) {
+    CompletionStage<Void> throttled = null;
+    if (permits > 0) {
+      throttled = rateLimiter.acquireAsync(permits);
+    }
+    if (bytes > 0) {
+      CompletionStage<Void> bytesThrottled = bytesRateLimiter.acquireAsync(bytes);
+      throttled =
+          throttled == null
+              ? bytesThrottled
+              : throttled.thenCombine(bytesThrottled, (a, b) -> null);
+    }
+    return throttled;
+  }
+
+  /** @return the number of rate limiter permits to acquire before sending a request. */
+  long requestPermits() {
+    return 0;
+  }
+
+  /** @return the number of bytes to acquire before sending a request. */
+  long requestBytes() {
+    return 0;
+  }
+
+  /** @return the number of rate limiter permits to acquire before emitting a page of results. */
+  long responsePermits(P page) {
+    return 0;
+  }
+
+  /** @return the number of bytes to acquire before emitting a page of results. */
+  long responseBytes(P page) {
+    return 0;
+  }
+
   void onBeforeRequestStarted() {
+    // Acquire the per-node permit first, so that requests waiting for a busy replica set
+    // do not hold global permits that requests targeting other replicas could use.
+    if (maxConcurrentRequestsPerNode != null) {
+      replicaSetPermits = maxConcurrentRequestsPerNode.acquire(statement);
+    }
     if (maxConcurrentRequests != null) {
       maxConcurrentRequests.acquireUninterruptibly();
     }
   }
 
+  /**
+   * Same as {@link #onBeforeRequestStarted()}, but without blocking, for requests that are sent by
+   * a rate limiter thread.
+   *
+   * <p>Only an {@link AsyncSemaphore} can be acquired without blocking; other semaphores, which can
+   * only be supplied directly to publishers, are still acquired by blocking.
+   */
+  private CompletionStage<Void> onBeforeRequestStartedAsync() {
+    CompletionStage<Void> acquired = CompletableFuture.completedFuture(null);
+    if (maxConcurrentRequestsPerNode != null) {
+      acquired =
+          maxConcurrentRequestsPerNode
+              .acquireAsync(statement)
+              .thenAccept(permits -> replicaSetPermits = permits);
+    }
+    if (maxConcurrentRequests instanceof AsyncSemaphore) {
+      AsyncSemaphore semaphore = (AsyncSemaphore) maxConcurrentRequests;
+      acquired = acquired.thenCompose(v -> semaphore.acquireAsync());
+    } else if (maxConcurrentRequests != null) {
+      acquired = acquired.thenRun(maxConcurrentRequests::acquireUninterruptibly);
+    }
+    return acquired;
+  }
+
   /*
   The 3 methods below should trigger notifications to our listener,
   using the "local" execution context that records metrics for a single
@@ -446,7 +580,6 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
 
   private void doOnNext(R result) {
     try {
-      onBeforeResultEmitted(result);
       subscriber.onNext(result);
     } catch (Throwable t) {
       LOG.error(
@@ -457,10 +590,6 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
     }
   }
 
-  void onBeforeResultEmitted(R result) {
-    // nothing to do by default
-  }
-
   private void stop(@Nullable BulkExecutionException error) {
     global.stop();
     if (listener != null) {
@@ -15,31 +15,36 @@
  */
 package com.datastax.oss.dsbulk.executor.api.subscription;
 
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.Statement;
-import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultWriteResult;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.api.throttling.RequestLimiters;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.concurrent.Semaphore;
 import org.reactivestreams.Subscriber;
 
 public class WriteResultSubscription extends ResultSubscription<WriteResult, AsyncResultSet> {
 
+  private final CqlSession session;
+
   public WriteResultSubscription(
       @NonNull Subscriber<? super WriteResult> subscriber,
       @NonNull Statement<?> statement,
+      @NonNull CqlSession session,
       @Nullable ExecutionListener listener,
-      @Nullable Semaphore maxConcurrentRequests,
-      @Nullable RateLimiter rateLimiter,
+      @NonNull RequestLimiters limiters,
       boolean failFast) {
-    super(subscriber, statement, listener, maxConcurrentRequests, rateLimiter, failFast);
+    super(subscriber, statement, listener, limiters, failFast);
+    this.session = session;
   }
 
   @Override
@@ -55,11 +60,24 @@ public class WriteResultSubscription extends ResultSubscription<WriteResult, Asy
   }
 
   @Override
-  void onBeforeRequestStarted() {
-    if (rateLimiter != null) {
-      rateLimiter.acquire(batchSize);
+  long requestPermits() {
+    return batchSize;
+  }
+
+  @Override
+  long requestBytes() {
+    // Bound statements, the common case, are sized from their serialized values; the protocol
+    // version and the codec registry are only used to serialize the values of simple statements.
+    DriverContext context = session.getContext();
+    try {
+      return DataSizes.getDataSize(
+          statement, context.getProtocolVersion(), context.getCodecRegistry());
+    } catch (RuntimeException e) {
+      // The statement cannot be sized, e.g. a simple statement with a value that has no codec, or
+      // an unknown statement type: do not charge it, the request itself will report the error if
+      // the statement is invalid.
+      return 0;
     }
-    super.onBeforeRequestStarted();
   }
 
   @Override
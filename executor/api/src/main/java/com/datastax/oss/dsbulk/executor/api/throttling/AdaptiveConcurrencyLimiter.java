@@ -0,0 +1,347 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.driver.api.core.AllNodesFailedException;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.MoreExecutors;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A concurrency limiter for writes that adjusts its limit over time using an AIMD (additive
+ * increase, multiplicative decrease) feedback loop.
+ *
+ * <p>This class is also an {@link ExecutionListener}; it must be registered with the bulk executor
+ * so that it can observe write latencies and errors. At each adjustment interval, the limiter
+ * inspects the requests that completed during that interval:
+ *
+ * <ol>
+ *   <li>If any of them failed with a timeout or an overload error, or if their 99th percentile
+ *       latency exceeded the lowest p99 observed so far by more than the configured tolerance, the
+ *       limit is multiplied by the backoff ratio;
+ *   <li>Otherwise, if the limit was reached during the interval, the limit is increased by the
+ *       configured increment.
+ * </ol>
+ *
+ * The limit always stays between the configured minimum and maximum. The current limit is exposed
+ * as a gauge named {@code executor/concurrency-limit}.
+ *
+ * <p>Permits are acquired without blocking: {@link #acquireAsync()} returns a future that completes
+ * when a permit is handed over to the caller, either by {@link #release()} or when the limit is
+ * increased.
+ */
+public class AdaptiveConcurrencyLimiter implements ExecutionListener, AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+  /** The default interval between two adjustments. */
+  static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+  /** The default ratio applied to the limit when congestion is detected. */
+  static final double DEFAULT_BACKOFF_RATIO = 0.75;
+
+  /**
+   * The default latency tolerance: congestion is assumed when the p99 latency gets higher than the
+   * baseline p99 multiplied by this value.
+   */
+  static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final int increment;
+  private final double backoffRatio;
+  private final double latencyTolerance;
+  private final Duration interval;
+
+  private final Recorder latencies = new Recorder(2);
+  private final AtomicLong congestionErrors = new AtomicLong();
+
+  /** Guards {@link #waiters}, {@link #inFlight} and {@link #peakInFlight}. */
+  private final Object lock = new Object();
+
+  private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+  private int inFlight;
+  private int peakInFlight;
+
+  private volatile int limit;
+
+  private ScheduledExecutorService scheduler;
+  private Histogram intervalHistogram;
+  private long baselineP99 = Long.MAX_VALUE;
+
+  /**
+   * Creates a new limiter with default adjustment settings.
+   *
+   * @param initialLimit the initial limit.
+   * @param minLimit the minimum limit.
+   * @param maxLimit the maximum limit.
+   * @param increment the amount by which the limit is increased when there is no congestion.
+   * @param registry the {@link MetricRegistry} where the current limit will be exposed.
+   */
+  public AdaptiveConcurrencyLimiter(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      int increment,
+      @NonNull MetricRegistry registry) {
+    this(
+        initialLimit,
+        minLimit,
+        maxLimit,
+        increment,
+        DEFAULT_BACKOFF_RATIO,
+        DEFAULT_LATENCY_TOLERANCE,
+        DEFAULT_INTERVAL,
+        registry);
+  }
+
+  AdaptiveConcurrencyLimiter(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      int increment,
+      double backoffRatio,
+      double latencyTolerance,
+      @NonNull Duration interval,
+      @NonNull MetricRegistry registry) {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException(
+          String.format("Invalid concurrency limits: min %d, max %d", minLimit, maxLimit));
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("Invalid backoff ratio: " + backoffRatio);
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.increment = Math.max(1, increment);
+    this.backoffRatio = backoffRatio;
+    this.latencyTolerance = latencyTolerance;
+    this.interval = interval;
+    this.limit = clamp(initialLimit);
+    intervalHistogram = latencies.getIntervalHistogram();
+    registry.gauge("executor/concurrency-limit", () -> this::getLimit);
+  }
+
+  /** Starts the periodic adjustment of the limit. */
+  public void start() {
+    scheduler =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("adaptive-concurrency-%d")
+                .build());
+    long millis = interval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::adjust, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      MoreExecutors.shutdownAndAwaitTermination(scheduler, 1, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Acquires a permit, without blocking.
+   *
+   * <p>Once the returned future completes, the caller owns a permit and must call {@link
+   * #release()} when the write completes. Cancelling the future before it completes withdraws the
+   * request; if the cancellation fails because the future has already completed, the permit must be
+   * released.
+   *
+   * @return a future that completes when a permit is available; it is already completed if a permit
+   *     was available immediately.
+   */
+  @NonNull
+  public CompletableFuture<Void> acquireAsync() {
+    synchronized (lock) {
+      if (inFlight < limit) {
+        inFlight++;
+        peakInFlight = Math.max(peakInFlight, inFlight);
+        return CompletableFuture.completedFuture(null);
+      }
+      CompletableFuture<Void> waiter = new CompletableFuture<>();
+      waiters.add(waiter);
+      return waiter;
+    }
+  }
+
+  /**
+   * Releases a permit previously obtained with {@link #acquireAsync()}. If callers are waiting and
+   * the limit allows it, the permit is handed over to the oldest one.
+   */
+  public void release() {
+    while (true) {
+      CompletableFuture<Void> next;
+      synchronized (lock) {
+        next = inFlight > limit ? null : waiters.poll();
+        if (next == null) {
+          inFlight--;
+          return;
+        }
+      }
+      // completed outside the lock; if the waiter was cancelled, try the next one
+      if (next.complete(null)) {
+        return;
+      }
+    }
+  }
+
+  /** @return the current concurrency limit. */
+  public int getLimit() {
+    return limit;
+  }
+
+  /** @return the maximum concurrency limit. */
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  @Override
+  public void onWriteRequestSuccessful(Statement<?> statement, ExecutionContext context) {
+    recordLatency(context);
+  }
+
+  @Override
+  public void onWriteRequestFailed(
+      Statement<?> statement, Throwable error, ExecutionContext context) {
+    if (isCongestionError(error)) {
+      congestionErrors.incrementAndGet();
+    } else {
+      recordLatency(context);
+    }
+  }
+
+  /**
+   * Computes the new limit from the latencies and errors observed since the last invocation.
+   *
+   * <p>Invoked periodically after {@link #start()}; never invoked concurrently.
+   */
+  synchronized void adjust() {
+    intervalHistogram = latencies.getIntervalHistogram(intervalHistogram);
+    long errors = congestionErrors.getAndSet(0);
+    int peak;
+    synchronized (lock) {
+      peak = peakInFlight;
+      peakInFlight = inFlight;
+    }
+    int current = limit;
+    int next = current;
+    if (errors > 0) {
+      next = clamp((int) (current * backoffRatio));
+      LOGGER.debug(
+          "{} timeout or overload errors detected, decreasing concurrency limit from {} to {}",
+          errors,
+          current,
+          next);
+    } else if (intervalHistogram.getTotalCount() > 0) {
+      long p99 = intervalHistogram.getValueAtPercentile(99);
+      baselineP99 = Math.min(baselineP99, p99);
+      if (p99 > baselineP99 * latencyTolerance) {
+        next = clamp((int) (current * backoffRatio));
+        LOGGER.debug(
+            "p99 latency {} ms above threshold {} ms, decreasing concurrency limit from {} to {}",
+            TimeUnit.NANOSECONDS.toMillis(p99),
+            TimeUnit.NANOSECONDS.toMillis((long) (baselineP99 * latencyTolerance)),
+            current,
+            next);
+      } else if (peak >= current) {
+        next = clamp(current + increment);
+        LOGGER.trace("Increasing concurrency limit from {} to {}", current, next);
+      }
+    }
+    if (next != current) {
+      setLimit(next);
+    }
+  }
+
+  private void setLimit(int next) {
+    List<CompletableFuture<Void>> granted = new ArrayList<>();
+    synchronized (lock) {
+      limit = next;
+      // when the limit decreases, in-flight requests are not interrupted: instead, the permits they
+      // release are not handed over to waiters until the number of in-flight requests drops
+      // below the new limit
+      while (inFlight < limit && !waiters.isEmpty()) {
+        inFlight++;
+        granted.add(waiters.poll());
+      }
+      peakInFlight = Math.max(peakInFlight, inFlight);
+    }
+    for (CompletableFuture<Void> waiter : granted) {
+      if (!waiter.complete(null)) {
+        // cancelled
+        release();
+      }
+    }
+  }
+
+  private void recordLatency(ExecutionContext context) {
+    long elapsed = context.elapsedTimeNanos();
+    if (elapsed >= 0) {
+      latencies.recordValue(elapsed);
+    }
+  }
+
+  private int clamp(int value) {
+    return Math.max(minLimit, Math.min(maxLimit, value));
+  }
+
+  private static boolean isCongestionError(Throwable error) {
+    while (error != null) {
+      if (error instanceof WriteTimeoutException
+          || error instanceof ReadTimeoutException
+          || error instanceof DriverTimeoutException
+          || error instanceof OverloadedException) {
+        return true;
+      }
+      if (error instanceof AllNodesFailedException) {
+        for (List<Throwable> errors : ((AllNodesFailedException) error).getAllErrors().values()) {
+          for (Throwable e : errors) {
+            if (isCongestionError(e)) {
+              return true;
+            }
+          }
+        }
+      }
+      error = error.getCause();
+    }
+    return false;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A {@link Semaphore} whose permits can also be acquired without blocking.
+ *
+ * <p>{@link #acquireAsync()} returns a stage that completes when a permit is handed over to the
+ * caller. Released permits are handed over to pending callers by the releasing thread; callers
+ * blocked in one of the {@code acquire} methods compete with them for released permits.
+ */
+public class AsyncSemaphore extends Semaphore {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+  private final transient Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+  /** @param permits the initial number of permits available. */
+  public AsyncSemaphore(int permits) {
+    super(permits);
+  }
+
+  /**
+   * Acquires a permit, without blocking.
+   *
+   * @return a stage that completes when a permit is available; it is already completed if a permit
+   *     was available immediately.
+   */
+  @NonNull
+  public CompletionStage<Void> acquireAsync() {
+    if (waiters.isEmpty() && tryAcquire()) {
+      return ACQUIRED;
+    }
+    CompletableFuture<Void> waiter = new CompletableFuture<>();
+    waiters.add(waiter);
+    // a permit may have been released before the waiter was added
+    handOver();
+    return waiter;
+  }
+
+  @Override
+  public void release() {
+    super.release();
+    handOver();
+  }
+
+  @Override
+  public void release(int permits) {
+    super.release(permits);
+    handOver();
+  }
+
+  private void handOver() {
+    // every release and every new waiter is followed by this loop, so that a waiter cannot be left
+    // pending while a permit is available
+    while (!waiters.isEmpty() && tryAcquire()) {
+      CompletableFuture<Void> waiter = waiters.poll();
+      if (waiter == null || !waiter.complete(null)) {
+        // taken by a concurrent hand-over, or cancelled: give the permit back and try again
+        super.release();
+      }
+    }
+  }
+}
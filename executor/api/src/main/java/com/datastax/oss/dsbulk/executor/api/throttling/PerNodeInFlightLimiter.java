@@ -0,0 +1,224 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the number of in-flight requests per replica set.
+ *
+ * <p>Each request is routed to the set of replicas that own its routing token, as computed by the
+ * session's {@link TokenMap}; a distinct pool of permits is maintained for each replica set, so
+ * that a slow replica only exhausts the permits of the requests that target it, instead of the
+ * permits of the whole operation.
+ *
+ * <p>A pool only lives as long as it has requests in flight or waiting for a permit: it is evicted
+ * once its last permit is released, so that replica sets that disappear with topology changes do
+ * not accumulate.
+ *
+ * <p>Requests whose replicas cannot be determined (no routing information, or token metadata
+ * disabled) are not limited by this class.
+ *
+ * <p>If a {@link MetricRegistry} is provided, one gauge per node is registered with the name {@code
+ * executor/in-flight-per-node/<node>}. Its value is the number of in-flight requests targeting a
+ * replica set that includes that node.
+ */
+public class PerNodeInFlightLimiter {
+
+  private final CqlSession session;
+  private final int maxInFlightPerReplicaSet;
+  private final @Nullable MetricRegistry registry;
+
+  private final ConcurrentMap<Set<Node>, ReplicaSetPermits> pools = new ConcurrentHashMap<>();
+
+  private final Set<Node> gaugedNodes = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates a new limiter.
+   *
+   * @param session the session to use to determine the replicas of each request.
+   * @param maxInFlightPerReplicaSet the maximum number of in-flight requests per replica set.
+   * @param registry the registry where per-node gauges should be registered, or {@code null} to
+   *     disable gauges.
+   */
+  public PerNodeInFlightLimiter(
+      @NonNull CqlSession session,
+      int maxInFlightPerReplicaSet,
+      @Nullable MetricRegistry registry) {
+    if (maxInFlightPerReplicaSet < 1) {
+      throw new IllegalArgumentException(
+          "Invalid max in-flight requests per node: " + maxInFlightPerReplicaSet);
+    }
+    this.session = session;
+    this.maxInFlightPerReplicaSet = maxInFlightPerReplicaSet;
+    this.registry = registry;
+  }
+
+  /**
+   * Acquires a permit for the given statement, blocking until one is available.
+   *
+   * @param statement the statement about to be executed.
+   * @return the permits that were acquired, to be released when the request completes; or {@code
+   *     null}, if the statement's replicas could not be determined.
+   */
+  @Nullable
+  public ReplicaSetPermits acquire(@NonNull Statement<?> statement) {
+    ReplicaSetPermits permits = getPermits(statement);
+    if (permits != null) {
+      permits.semaphore.acquireUninterruptibly();
+    }
+    return permits;
+  }
+
+  /**
+   * Acquires a permit for the given statement, without blocking.
+   *
+   * @param statement the statement about to be executed.
+   * @return a stage that completes with the permits that were acquired, to be released when the
+   *     request completes; or with {@code null}, if the statement's replicas could not be
+   *     determined.
+   */
+  @NonNull
+  public CompletionStage<ReplicaSetPermits> acquireAsync(@NonNull Statement<?> statement) {
+    ReplicaSetPermits permits = getPermits(statement);
+    if (permits == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return permits.semaphore.acquireAsync().thenApply(v -> permits);
+  }
+
+  /**
+   * Returns the number of in-flight requests targeting a replica set that includes the given node.
+   *
+   * @param node the node to inspect.
+   * @return the number of in-flight requests for the node.
+   */
+  public int getInFlightRequests(@NonNull Node node) {
+    int total = 0;
+    for (ReplicaSetPermits permits : pools.values()) {
+      if (permits.replicas.contains(node)) {
+        total += permits.getInFlightRequests();
+      }
+    }
+    return total;
+  }
+
+  @Nullable
+  private ReplicaSetPermits getPermits(@NonNull Statement<?> statement) {
+    Set<Node> replicas = getReplicas(statement);
+    if (replicas.isEmpty()) {
+      return null;
+    }
+    // the number of users of a pool is only modified while holding its map entry, so that a pool
+    // cannot be evicted between the moment it is looked up and the moment it is used
+    ReplicaSetPermits permits =
+        pools.compute(
+            replicas,
+            (key, existing) -> {
+              ReplicaSetPermits pool = existing == null ? new ReplicaSetPermits(key) : existing;
+              pool.users++;
+              return pool;
+            });
+    registerGauges(replicas);
+    return permits;
+  }
+
+  @NonNull
+  private Set<Node> getReplicas(@NonNull Statement<?> statement) {
+    Node node = statement.getNode();
+    if (node != null) {
+      return ImmutableSet.of(node);
+    }
+    Optional<TokenMap> maybeTokenMap = session.getMetadata().getTokenMap();
+    if (!maybeTokenMap.isPresent()) {
+      return ImmutableSet.of();
+    }
+    TokenMap tokenMap = maybeTokenMap.get();
+    CqlIdentifier keyspace = statement.getKeyspace();
+    if (keyspace == null) {
+      keyspace = statement.getRoutingKeyspace();
+    }
+    if (keyspace == null) {
+      keyspace = session.getKeyspace().orElse(null);
+    }
+    if (keyspace == null) {
+      return ImmutableSet.of();
+    }
+    Token token = statement.getRoutingToken();
+    if (token != null) {
+      return tokenMap.getReplicas(keyspace, token);
+    }
+    ByteBuffer key = statement.getRoutingKey();
+    if (key != null) {
+      return tokenMap.getReplicas(keyspace, key);
+    }
+    return ImmutableSet.of();
+  }
+
+  private void registerGauges(Set<Node> replicas) {
+    if (registry != null) {
+      for (Node node : replicas) {
+        if (gaugedNodes.add(node)) {
+          registry.gauge(
+              "executor/in-flight-per-node/" + node.getEndPoint().asMetricPrefix(),
+              () -> () -> getInFlightRequests(node));
+        }
+      }
+    }
+  }
+
+  /** The pool of permits for one replica set. */
+  public class ReplicaSetPermits {
+
+    private final Set<Node> replicas;
+    private final AsyncSemaphore semaphore;
+
+    /** The number of requests holding or waiting for a permit; guarded by the pool's map entry. */
+    private int users;
+
+    private ReplicaSetPermits(Set<Node> replicas) {
+      this.replicas = replicas;
+      this.semaphore = new AsyncSemaphore(maxInFlightPerReplicaSet);
+    }
+
+    /** Releases the permit acquired for a request. */
+    public void release() {
+      semaphore.release();
+      pools.computeIfPresent(replicas, (key, pool) -> --pool.users == 0 ? null : pool);
+    }
+
+    /** @return the number of in-flight requests for this replica set. */
+    public int getInFlightRequests() {
+      return maxInFlightPerReplicaSet - semaphore.availablePermits();
+    }
+  }
+}
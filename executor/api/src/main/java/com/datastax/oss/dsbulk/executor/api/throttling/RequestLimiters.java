@@ -0,0 +1,80 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The limiters regulating the requests of a bulk executor.
+ *
+ * <p>Each limiter is optional: a {@code null} limiter means that the corresponding regulation is
+ * disabled. Instances are immutable and meant to be shared by all the publishers and subscriptions
+ * created by a same executor.
+ */
+public final class RequestLimiters {
+
+  /** An instance with all limiters disabled. */
+  public static final RequestLimiters NONE = new RequestLimiters(null, null, null, null);
+
+  private final @Nullable Semaphore maxConcurrentRequests;
+  private final @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode;
+  private final @Nullable TokenBucketRateLimiter rateLimiter;
+  private final @Nullable TokenBucketRateLimiter bytesRateLimiter;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxConcurrentRequests The {@link Semaphore} to use to regulate the amount of in-flight
+   *     requests; use an {@link AsyncSemaphore} so that requests delayed by a rate limiter can
+   *     acquire it without blocking.
+   * @param maxConcurrentRequestsPerNode The {@link PerNodeInFlightLimiter} to use to regulate the
+   *     amount of in-flight requests per replica set.
+   * @param rateLimiter The {@link TokenBucketRateLimiter} to use to regulate throughput.
+   * @param bytesRateLimiter The {@link TokenBucketRateLimiter} to use to regulate throughput in
+   *     bytes.
+   */
+  public RequestLimiters(
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable PerNodeInFlightLimiter maxConcurrentRequestsPerNode,
+      @Nullable TokenBucketRateLimiter rateLimiter,
+      @Nullable TokenBucketRateLimiter bytesRateLimiter) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+    this.rateLimiter = rateLimiter;
+    this.bytesRateLimiter = bytesRateLimiter;
+  }
+
+  @Nullable
+  public Semaphore getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  @Nullable
+  public PerNodeInFlightLimiter getMaxConcurrentRequestsPerNode() {
+    return maxConcurrentRequestsPerNode;
+  }
+
+  @Nullable
+  public TokenBucketRateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  @Nullable
+  public TokenBucketRateLimiter getBytesRateLimiter() {
+    return bytesRateLimiter;
+  }
+}
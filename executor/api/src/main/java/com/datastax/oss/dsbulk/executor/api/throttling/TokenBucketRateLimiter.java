@@ -0,0 +1,303 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.MoreExecutors;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A non-blocking rate limiter based on a token bucket.
+ *
+ * <p>Permits are added to the bucket at a fixed rate, and the bucket holds at most {@code maxBurst}
+ * unused permits; after a period of inactivity, up to that many permits can therefore be acquired
+ * without delay. Like Guava's {@code RateLimiter}, a caller that acquires more permits than
+ * available is not delayed itself: the missing permits are borrowed from the future, and the next
+ * callers are delayed until they are paid back. This allows to acquire more permits than the bucket
+ * can hold, e.g. for a large page of results.
+ *
+ * <p>Unlike Guava's {@code RateLimiter}, this class never parks the calling thread: {@link
+ * #acquireAsync(long)} returns a stage that completes when the permits are available. Wake-ups are
+ * triggered by a single timer thread, started the first time a caller needs to be delayed, but
+ * delayed stages are completed on a separate, bounded pool of worker threads, so that dependent
+ * actions do not delay the wake-ups of other callers. Dependent actions should not block: a worker
+ * thread that blocks delays all the stages queued behind it.
+ *
+ * <p>When the rate limiter is closed, stages that are still pending are completed exceptionally
+ * with an {@link IllegalStateException}, and so are stages returned by subsequent calls to {@link
+ * #acquireAsync(long)} that need to be delayed.
+ *
+ * <p>The rate can be changed at any time with {@link #setRate(long)}.
+ *
+ * <p>If a {@link MetricRegistry} is provided, the total time callers were delayed, in milliseconds,
+ * is exposed as a gauge, named {@code executor/throttled-time} by default.
+ */
+public class TokenBucketRateLimiter implements AutoCloseable {
+
+  private static final CompletableFuture<Void> NO_DELAY = CompletableFuture.completedFuture(null);
+
+  private static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+  private final boolean defaultBurst;
+  private final LongSupplier clock;
+
+  private final LongAdder throttledNanos = new LongAdder();
+
+  private volatile double permitsPerSecond;
+  private volatile double maxBurst;
+  private double nanosPerPermit;
+
+  /** The number of permits currently in the bucket. */
+  private double storedPermits;
+
+  /** The time when the next permit will be available; may be in the past. */
+  private long nextFreeNanos;
+
+  private final Set<CompletableFuture<Void>> pending = ConcurrentHashMap.newKeySet();
+
+  private volatile ScheduledExecutorService scheduler;
+  private volatile ExecutorService workers;
+  private volatile boolean closed;
+
+  /**
+   * Creates a new rate limiter.
+   *
+   * @param permitsPerSecond the rate at which permits are added to the bucket.
+   * @param maxBurst the maximum number of permits held by the bucket; if zero or negative, the
+   *     bucket holds one second's worth of permits.
+   * @param registry the registry where the throttled time gauge should be registered, or {@code
+   *     null} to disable the gauge.
+   */
+  public TokenBucketRateLimiter(
+      long permitsPerSecond, long maxBurst, @Nullable MetricRegistry registry) {
+    this(permitsPerSecond, maxBurst, registry, "executor/throttled-time");
+  }
+
+  /**
+   * Creates a new rate limiter.
+   *
+   * @param permitsPerSecond the rate at which permits are added to the bucket.
+   * @param maxBurst the maximum number of permits held by the bucket; if zero or negative, the
+   *     bucket holds one second's worth of permits.
+   * @param registry the registry where the throttled time gauge should be registered, or {@code
+   *     null} to disable the gauge.
+   * @param throttledTimeMetric the name of the throttled time gauge.
+   */
+  public TokenBucketRateLimiter(
+      long permitsPerSecond,
+      long maxBurst,
+      @Nullable MetricRegistry registry,
+      @NonNull String throttledTimeMetric) {
+    this(permitsPerSecond, maxBurst, registry, throttledTimeMetric, System::nanoTime);
+  }
+
+  TokenBucketRateLimiter(
+      long permitsPerSecond,
+      long maxBurst,
+      @Nullable MetricRegistry registry,
+      @NonNull String throttledTimeMetric,
+      @NonNull LongSupplier clock) {
+    this.defaultBurst = maxBurst <= 0;
+    this.clock = clock;
+    this.nextFreeNanos = clock.getAsLong();
+    setRate(permitsPerSecond);
+    if (!defaultBurst) {
+      this.maxBurst = maxBurst;
+    }
+    if (registry != null) {
+      registry.gauge(throttledTimeMetric, () -> () -> getThrottledTime(TimeUnit.MILLISECONDS));
+    }
+  }
+
+  /** @return the rate at which permits are added to the bucket, in permits per second. */
+  public double getRate() {
+    return permitsPerSecond;
+  }
+
+  /**
+   * Changes the rate at which permits are added to the bucket. Permits accumulated so far are kept,
+   * and the new rate applies to permits acquired from now on. If the bucket was created without an
+   * explicit maximum burst, it keeps holding one second's worth of permits at the new rate.
+   *
+   * @param permitsPerSecond the new rate, in permits per second.
+   */
+  public synchronized void setRate(long permitsPerSecond) {
+    if (permitsPerSecond < 1) {
+      throw new IllegalArgumentException("Invalid permits per second: " + permitsPerSecond);
+    }
+    refill(clock.getAsLong());
+    this.permitsPerSecond = permitsPerSecond;
+    this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / (double) permitsPerSecond;
+    if (defaultBurst) {
+      this.maxBurst = permitsPerSecond;
+    }
+  }
+
+  /** @return the maximum number of permits held by the bucket. */
+  public double getMaxBurst() {
+    return maxBurst;
+  }
+
+  /**
+   * @param unit the unit to use.
+   * @return the total time callers were delayed so far.
+   */
+  public long getThrottledTime(@NonNull TimeUnit unit) {
+    return unit.convert(throttledNanos.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Acquires the given number of permits, without blocking.
+   *
+   * @param permits the number of permits to acquire.
+   * @return a stage that completes when the permits are available; it is already completed if no
+   *     delay is required.
+   */
+  @NonNull
+  public CompletionStage<Void> acquireAsync(long permits) {
+    long delay = reserve(permits);
+    if (delay <= 0) {
+      return NO_DELAY;
+    }
+    throttledNanos.add(delay);
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    pending.add(future);
+    // check after adding the future, so that it cannot be missed by a concurrent call to close()
+    if (closed) {
+      fail(future);
+      return future;
+    }
+    try {
+      getScheduler().schedule(() -> wakeUp(future), delay, TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // closed concurrently
+      fail(future);
+    }
+    return future;
+  }
+
+  private void wakeUp(CompletableFuture<Void> future) {
+    if (pending.remove(future)) {
+      try {
+        workers.execute(() -> future.complete(null));
+      } catch (RejectedExecutionException e) {
+        // closed concurrently
+        future.completeExceptionally(closedException());
+      }
+    }
+  }
+
+  private void fail(CompletableFuture<Void> future) {
+    if (pending.remove(future)) {
+      future.completeExceptionally(closedException());
+    }
+  }
+
+  private static IllegalStateException closedException() {
+    return new IllegalStateException("Rate limiter was closed");
+  }
+
+  /**
+   * Reserves the given number of permits.
+   *
+   * @param permits the number of permits to reserve.
+   * @return the time in nanoseconds until the permits are available; zero if they are available
+   *     immediately.
+   */
+  synchronized long reserve(long permits) {
+    long now = clock.getAsLong();
+    refill(now);
+    long delay = nextFreeNanos - now;
+    double fromBucket = Math.min(permits, storedPermits);
+    storedPermits -= fromBucket;
+    nextFreeNanos += (long) ((permits - fromBucket) * nanosPerPermit);
+    return delay;
+  }
+
+  private void refill(long now) {
+    if (now > nextFreeNanos) {
+      if (nanosPerPermit > 0) {
+        storedPermits = Math.min(maxBurst, storedPermits + (now - nextFreeNanos) / nanosPerPermit);
+      }
+      nextFreeNanos = now;
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    ScheduledExecutorService scheduler;
+    ExecutorService workers;
+    synchronized (this) {
+      scheduler = this.scheduler;
+      workers = this.workers;
+    }
+    if (scheduler != null) {
+      // pending wake-ups are not needed anymore, since pending stages are failed below
+      scheduler.shutdownNow();
+    }
+    for (CompletableFuture<Void> future : pending) {
+      fail(future);
+    }
+    if (workers != null) {
+      MoreExecutors.shutdownAndAwaitTermination(workers, 1, TimeUnit.SECONDS);
+    }
+  }
+
+  private ScheduledExecutorService getScheduler() {
+    ScheduledExecutorService scheduler = this.scheduler;
+    if (scheduler == null) {
+      synchronized (this) {
+        scheduler = this.scheduler;
+        if (scheduler == null) {
+          if (closed) {
+            throw new RejectedExecutionException("Rate limiter was closed");
+          }
+          workers =
+              Executors.newFixedThreadPool(
+                  WORKERS,
+                  new ThreadFactoryBuilder()
+                      .setDaemon(true)
+                      .setNameFormat("rate-limiter-worker-%d")
+                      .build());
+          scheduler =
+              new ScheduledThreadPoolExecutor(
+                  1,
+                  new ThreadFactoryBuilder()
+                      .setDaemon(true)
+                      .setNameFormat("rate-limiter-%d")
+                      .build());
+          this.scheduler = scheduler;
+        }
+      }
+    }
+    return scheduler;
+  }
+}
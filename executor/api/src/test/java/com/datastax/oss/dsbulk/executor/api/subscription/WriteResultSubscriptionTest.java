@@ -0,0 +1,66 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.api.throttling.RequestLimiters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+
+class WriteResultSubscriptionTest {
+
+  private final CqlSession session = mock(CqlSession.class);
+
+  @BeforeEach
+  void setUp() {
+    DriverContext context = mock(DriverContext.class);
+    when(session.getContext()).thenReturn(context);
+    when(context.getProtocolVersion()).thenReturn(ProtocolVersion.V4);
+    when(context.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT);
+  }
+
+  @Test
+  void should_size_simple_statement_with_session_codecs() {
+    WriteResultSubscription subscription =
+        newSubscription(SimpleStatement.newInstance("irrelevant", 42, "abc"));
+    assertThat(subscription.requestBytes()).isEqualTo(4 + 3);
+  }
+
+  @Test
+  void should_not_charge_statement_that_cannot_be_sized() {
+    WriteResultSubscription subscription =
+        newSubscription(SimpleStatement.newInstance("irrelevant", new Object()));
+    assertThat(subscription.requestBytes()).isZero();
+  }
+
+  private WriteResultSubscription newSubscription(Statement<?> statement) {
+    @SuppressWarnings("unchecked")
+    Subscriber<? super WriteResult> subscriber = mock(Subscriber.class);
+    return new WriteResultSubscription(
+        subscriber, statement, session, null, RequestLimiters.NONE, true);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteType;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private final Statement<?> statement = SimpleStatement.newInstance("irrelevant");
+
+  private final MetricRegistry registry = new MetricRegistry();
+
+  private final AdaptiveConcurrencyLimiter limiter =
+      new AdaptiveConcurrencyLimiter(10, 2, 20, 2, 0.5, 2.0, Duration.ofSeconds(1), registry);
+
+  @Test
+  void should_expose_limit_as_gauge() {
+    @SuppressWarnings("unchecked")
+    Gauge<Integer> gauge = registry.getGauges().get("executor/concurrency-limit");
+    assertThat(gauge.getValue()).isEqualTo(10);
+  }
+
+  @Test
+  void should_increase_limit_when_saturated_and_latencies_stable() {
+    saturate();
+    succeed(10);
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(12);
+    saturate();
+    succeed(10);
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(14);
+  }
+
+  @Test
+  void should_not_increase_limit_when_not_saturated() {
+    assertThat(limiter.acquireAsync()).isDone();
+    limiter.release();
+    succeed(10);
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  void should_decrease_limit_when_timeouts_detected() {
+    limiter.onWriteRequestFailed(
+        statement,
+        new WriteTimeoutException(mock(Node.class), ConsistencyLevel.ONE, 0, 1, WriteType.SIMPLE),
+        context(10));
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(5);
+    limiter.onWriteRequestFailed(
+        statement,
+        new RuntimeException(
+            new WriteTimeoutException(
+                mock(Node.class), ConsistencyLevel.ONE, 0, 1, WriteType.SIMPLE)),
+        context(10));
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(2);
+  }
+
+  @Test
+  void should_decrease_limit_when_latencies_increase() {
+    succeed(10);
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(10);
+    succeed(100);
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(5);
+  }
+
+  @Test
+  void should_not_exceed_max_limit() {
+    for (int i = 0; i < 10; i++) {
+      saturate();
+      succeed(10);
+      limiter.adjust();
+    }
+    assertThat(limiter.getLimit()).isEqualTo(20);
+  }
+
+  @Test
+  void should_apply_new_limit_to_permits() {
+    limiter.onWriteRequestFailed(
+        statement,
+        new WriteTimeoutException(mock(Node.class), ConsistencyLevel.ONE, 0, 1, WriteType.SIMPLE),
+        context(10));
+    limiter.adjust();
+    for (int i = 0; i < 5; i++) {
+      assertThat(limiter.acquireAsync()).isDone();
+    }
+    CompletableFuture<Void> waiter = limiter.acquireAsync();
+    assertThat(waiter).isNotDone();
+    limiter.release();
+    assertThat(waiter).isDone();
+  }
+
+  @Test
+  void should_not_hand_over_permits_above_decreased_limit() {
+    for (int i = 0; i < 10; i++) {
+      assertThat(limiter.acquireAsync()).isDone();
+    }
+    CompletableFuture<Void> waiter = limiter.acquireAsync();
+    limiter.onWriteRequestFailed(
+        statement,
+        new WriteTimeoutException(mock(Node.class), ConsistencyLevel.ONE, 0, 1, WriteType.SIMPLE),
+        context(10));
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(5);
+    // 10 in flight: the waiter must wait until only 4 remain
+    for (int i = 0; i < 5; i++) {
+      limiter.release();
+      assertThat(waiter).isNotDone();
+    }
+    limiter.release();
+    assertThat(waiter).isDone();
+  }
+
+  @Test
+  void should_grant_permits_to_waiters_when_limit_increases() {
+    for (int i = 0; i < 10; i++) {
+      assertThat(limiter.acquireAsync()).isDone();
+    }
+    CompletableFuture<Void> waiter = limiter.acquireAsync();
+    assertThat(waiter).isNotDone();
+    succeed(10);
+    limiter.adjust();
+    assertThat(limiter.getLimit()).isEqualTo(12);
+    assertThat(waiter).isDone();
+  }
+
+  @Test
+  void should_skip_cancelled_waiters() {
+    for (int i = 0; i < 10; i++) {
+      assertThat(limiter.acquireAsync()).isDone();
+    }
+    CompletableFuture<Void> cancelled = limiter.acquireAsync();
+    CompletableFuture<Void> waiter = limiter.acquireAsync();
+    assertThat(cancelled.cancel(false)).isTrue();
+    limiter.release();
+    assertThat(waiter).isDone();
+    // the permit was handed over, so the limit is still reached
+    assertThat(limiter.acquireAsync()).isNotDone();
+  }
+
+  private void saturate() {
+    int limit = limiter.getLimit();
+    for (int i = 0; i < limit; i++) {
+      assertThat(limiter.acquireAsync()).isDone();
+    }
+    for (int i = 0; i < limit; i++) {
+      limiter.release();
+    }
+  }
+
+  private void succeed(long latencyMillis) {
+    for (int i = 0; i < 100; i++) {
+      limiter.onWriteRequestSuccessful(statement, context(latencyMillis));
+    }
+  }
+
+  private static ExecutionContext context(long latencyMillis) {
+    ExecutionContext context = mock(ExecutionContext.class);
+    when(context.elapsedTimeNanos()).thenReturn(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+    return context;
+  }
+}
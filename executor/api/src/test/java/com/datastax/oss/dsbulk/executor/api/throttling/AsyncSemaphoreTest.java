@@ -0,0 +1,73 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class AsyncSemaphoreTest {
+
+  @Test
+  void should_acquire_immediately_when_permits_are_available() {
+    AsyncSemaphore semaphore = new AsyncSemaphore(2);
+    assertThat(semaphore.acquireAsync().toCompletableFuture()).isCompleted();
+    assertThat(semaphore.acquireAsync().toCompletableFuture()).isCompleted();
+    assertThat(semaphore.availablePermits()).isZero();
+  }
+
+  @Test
+  void should_hand_over_released_permits_to_waiters_in_order() {
+    AsyncSemaphore semaphore = new AsyncSemaphore(1);
+    semaphore.acquireAsync();
+    CompletableFuture<Void> waiter1 = semaphore.acquireAsync().toCompletableFuture();
+    CompletableFuture<Void> waiter2 = semaphore.acquireAsync().toCompletableFuture();
+    assertThat(waiter1).isNotDone();
+    assertThat(waiter2).isNotDone();
+    semaphore.release();
+    assertThat(waiter1).isCompleted();
+    assertThat(waiter2).isNotDone();
+    assertThat(semaphore.availablePermits()).isZero();
+    semaphore.release();
+    assertThat(waiter2).isCompleted();
+    semaphore.release();
+    assertThat(semaphore.availablePermits()).isOne();
+  }
+
+  @Test
+  void should_skip_cancelled_waiters() {
+    AsyncSemaphore semaphore = new AsyncSemaphore(1);
+    semaphore.acquireAsync();
+    CompletableFuture<Void> cancelled = semaphore.acquireAsync().toCompletableFuture();
+    CompletableFuture<Void> waiter = semaphore.acquireAsync().toCompletableFuture();
+    cancelled.cancel(false);
+    semaphore.release();
+    assertThat(waiter).isCompleted();
+    assertThat(semaphore.availablePermits()).isZero();
+  }
+
+  @Test
+  void should_hand_over_permits_released_through_blocking_api() throws Exception {
+    AsyncSemaphore semaphore = new AsyncSemaphore(1);
+    semaphore.acquire();
+    CompletableFuture<Void> waiter = semaphore.acquireAsync().toCompletableFuture();
+    Thread releaser = new Thread(semaphore::release);
+    releaser.start();
+    releaser.join();
+    assertThat(waiter).isCompleted();
+  }
+}
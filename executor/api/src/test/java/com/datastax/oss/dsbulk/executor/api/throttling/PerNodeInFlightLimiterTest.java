@@ -0,0 +1,185 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.dsbulk.executor.api.throttling.PerNodeInFlightLimiter.ReplicaSetPermits;
+import com.datastax.oss.dsbulk.tests.utils.ReflectionUtils;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PerNodeInFlightLimiterTest {
+
+  private static final CqlIdentifier KS = CqlIdentifier.fromInternal("ks");
+
+  private final ByteBuffer key1 = ByteBuffer.wrap(new byte[] {1});
+  private final ByteBuffer key2 = ByteBuffer.wrap(new byte[] {2});
+
+  private final Node node1 = mockNode("node1");
+  private final Node node2 = mockNode("node2");
+  private final Node node3 = mockNode("node3");
+
+  private final MetricRegistry registry = new MetricRegistry();
+
+  private PerNodeInFlightLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    CqlSession session = mock(CqlSession.class);
+    Metadata metadata = mock(Metadata.class);
+    TokenMap tokenMap = mock(TokenMap.class);
+    when(session.getMetadata()).thenReturn(metadata);
+    when(session.getKeyspace()).thenReturn(Optional.empty());
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    when(tokenMap.getReplicas(KS, key1)).thenReturn(ImmutableSet.of(node1, node2));
+    when(tokenMap.getReplicas(KS, key2)).thenReturn(ImmutableSet.of(node2, node3));
+    limiter = new PerNodeInFlightLimiter(session, 2, registry);
+  }
+
+  @Test
+  void should_limit_in_flight_requests_per_replica_set() throws Exception {
+    limiter.acquire(statement(key1));
+    ReplicaSetPermits permits = limiter.acquire(statement(key1));
+    assertThat(permits).isNotNull();
+    assertThat(permits.getInFlightRequests()).isEqualTo(2);
+    Thread blocked = new Thread(() -> limiter.acquire(statement(key1)));
+    blocked.start();
+    blocked.join(100);
+    assertThat(blocked.isAlive()).isTrue();
+    // other replica sets are not affected
+    Thread notBlocked = new Thread(() -> limiter.acquire(statement(key2)));
+    notBlocked.start();
+    notBlocked.join(1000);
+    assertThat(notBlocked.isAlive()).isFalse();
+    permits.release();
+    blocked.join(1000);
+    assertThat(blocked.isAlive()).isFalse();
+  }
+
+  @Test
+  void should_acquire_permits_without_blocking() {
+    ReplicaSetPermits permits1 = limiter.acquire(statement(key1));
+    ReplicaSetPermits permits2 = limiter.acquire(statement(key1));
+    assertThat(permits1).isNotNull();
+    CompletableFuture<ReplicaSetPermits> waiter =
+        limiter.acquireAsync(statement(key1)).toCompletableFuture();
+    assertThat(waiter).isNotDone();
+    // other replica sets are not affected
+    assertThat(limiter.acquireAsync(statement(key2)).toCompletableFuture()).isCompleted();
+    permits1.release();
+    assertThat(waiter).isCompletedWithValue(permits2);
+    assertThat(limiter.getInFlightRequests(node1)).isEqualTo(2);
+    assertThat(
+            limiter.acquireAsync(SimpleStatement.newInstance("irrelevant")).toCompletableFuture())
+        .isCompletedWithValue(null);
+  }
+
+  @Test
+  void should_not_limit_statements_without_routing_information() {
+    assertThat(limiter.acquire(SimpleStatement.newInstance("irrelevant"))).isNull();
+    assertThat(limiter.acquire(SimpleStatement.newInstance("irrelevant").setRoutingKey(key1)))
+        .isNull();
+  }
+
+  @Test
+  void should_use_target_node_when_set() {
+    ReplicaSetPermits permits =
+        limiter.acquire(SimpleStatement.newInstance("irrelevant").setNode(node3));
+    assertThat(permits).isNotNull();
+    assertThat(limiter.getInFlightRequests(node3)).isEqualTo(1);
+    assertThat(limiter.getInFlightRequests(node1)).isZero();
+  }
+
+  @Test
+  void should_expose_in_flight_requests_per_node_as_gauges() {
+    ReplicaSetPermits permits1 = limiter.acquire(statement(key1));
+    ReplicaSetPermits permits2 = limiter.acquire(statement(key2));
+    assertThat(gauge("node1").getValue()).isEqualTo(1);
+    assertThat(gauge("node2").getValue()).isEqualTo(2);
+    assertThat(gauge("node3").getValue()).isEqualTo(1);
+    assertThat(permits1).isNotNull();
+    assertThat(permits2).isNotNull();
+    permits1.release();
+    permits2.release();
+    assertThat(gauge("node1").getValue()).isZero();
+    assertThat(gauge("node2").getValue()).isZero();
+    assertThat(gauge("node3").getValue()).isZero();
+  }
+
+  @Test
+  void should_evict_pools_once_all_permits_are_released() {
+    ReplicaSetPermits permits1 = limiter.acquire(statement(key1));
+    ReplicaSetPermits permits2 = limiter.acquire(statement(key1));
+    ReplicaSetPermits permits3 = limiter.acquire(statement(key2));
+    assertThat(permits1).isNotNull().isSameAs(permits2);
+    assertThat(permits3).isNotNull();
+    assertThat(pools())
+        .containsOnlyKeys(ImmutableSet.of(node1, node2), ImmutableSet.of(node2, node3));
+    permits1.release();
+    assertThat(pools())
+        .containsOnlyKeys(ImmutableSet.of(node1, node2), ImmutableSet.of(node2, node3));
+    permits2.release();
+    permits3.release();
+    assertThat(pools()).isEmpty();
+    // a new pool is created on demand, and gauges keep reporting
+    ReplicaSetPermits permits4 = limiter.acquire(statement(key1));
+    assertThat(permits4).isNotNull().isNotSameAs(permits1);
+    assertThat(gauge("node1").getValue()).isEqualTo(1);
+    permits4.release();
+    assertThat(pools()).isEmpty();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<Set<Node>, ReplicaSetPermits> pools() {
+    return (Map<Set<Node>, ReplicaSetPermits>) ReflectionUtils.getInternalState(limiter, "pools");
+  }
+
+  @SuppressWarnings("unchecked")
+  private Gauge<Integer> gauge(String node) {
+    return registry.getGauges().get("executor/in-flight-per-node/" + node);
+  }
+
+  private static Statement<?> statement(ByteBuffer key) {
+    return SimpleStatement.newInstance("irrelevant").setRoutingKeyspace(KS).setRoutingKey(key);
+  }
+
+  private static Node mockNode(String name) {
+    Node node = mock(Node.class);
+    EndPoint endPoint = mock(EndPoint.class);
+    when(node.getEndPoint()).thenReturn(endPoint);
+    when(endPoint.asMetricPrefix()).thenReturn(name);
+    return node;
+  }
+}
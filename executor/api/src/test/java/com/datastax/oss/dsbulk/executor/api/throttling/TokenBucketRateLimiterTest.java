@@ -0,0 +1,142 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  void should_delay_callers_beyond_rate() {
+    // 1000 permits per second, i.e. one permit per millisecond
+    TokenBucketRateLimiter limiter = newLimiter(1000, 10, null);
+    assertThat(limiter.reserve(1)).isZero();
+    assertThat(limiter.reserve(1)).isEqualTo(MILLIS);
+    assertThat(limiter.reserve(5)).isEqualTo(2 * MILLIS);
+    assertThat(limiter.reserve(1)).isEqualTo(7 * MILLIS);
+    clock.set(8 * MILLIS);
+    assertThat(limiter.reserve(1)).isZero();
+  }
+
+  @Test
+  void should_allow_bursts_after_inactivity() {
+    TokenBucketRateLimiter limiter = newLimiter(1000, 10, null);
+    clock.set(100 * MILLIS);
+    // only 10 permits were stored
+    for (int i = 0; i < 10; i++) {
+      assertThat(limiter.reserve(1)).isZero();
+    }
+    assertThat(limiter.reserve(1)).isZero();
+    assertThat(limiter.reserve(1)).isEqualTo(MILLIS);
+  }
+
+  @Test
+  void should_allow_one_second_burst_by_default() {
+    TokenBucketRateLimiter limiter = newLimiter(1000, -1, null);
+    assertThat(limiter.getRate()).isEqualTo(1000);
+    assertThat(limiter.getMaxBurst()).isEqualTo(1000);
+  }
+
+  @Test
+  void should_complete_immediately_when_permits_available() {
+    TokenBucketRateLimiter limiter = newLimiter(1000, 10, null);
+    assertThat(limiter.acquireAsync(1).toCompletableFuture()).isDone();
+    assertThat(limiter.getThrottledTime(TimeUnit.NANOSECONDS)).isZero();
+  }
+
+  @Test
+  void should_complete_later_and_record_throttled_time() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    // the first caller borrows 50 permits, so that the next one waits 50 milliseconds
+    try (TokenBucketRateLimiter limiter = newLimiter(1000, 10, registry)) {
+      assertThat(limiter.acquireAsync(50).toCompletableFuture()).isDone();
+      CompletableFuture<Void> delayed = limiter.acquireAsync(1).toCompletableFuture();
+      assertThat(delayed).isNotDone();
+      delayed.get(5, TimeUnit.SECONDS);
+      assertThat(limiter.getThrottledTime(TimeUnit.MILLISECONDS)).isEqualTo(50);
+      @SuppressWarnings("unchecked")
+      Gauge<Long> gauge = registry.getGauges().get("executor/throttled-time");
+      assertThat(gauge.getValue()).isEqualTo(50);
+    }
+  }
+
+  @Test
+  void should_complete_delayed_stages_on_worker_thread() throws Exception {
+    try (TokenBucketRateLimiter limiter = newLimiter(1000, 10, null)) {
+      assertThat(limiter.acquireAsync(10).toCompletableFuture()).isDone();
+      CompletableFuture<String> thread =
+          limiter
+              .acquireAsync(1)
+              .thenApply(v -> Thread.currentThread().getName())
+              .toCompletableFuture();
+      assertThat(thread.get(5, TimeUnit.SECONDS)).startsWith("rate-limiter-worker-");
+    }
+  }
+
+  @Test
+  void should_fail_pending_stages_when_closed() {
+    TokenBucketRateLimiter limiter = newLimiter(1, 1, null);
+    assertThat(limiter.acquireAsync(100).toCompletableFuture()).isDone();
+    CompletableFuture<Void> pending = limiter.acquireAsync(1).toCompletableFuture();
+    assertThat(pending).isNotDone();
+    limiter.close();
+    assertThat(pending)
+        .hasFailedWithThrowableThat()
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Rate limiter was closed");
+    assertThat(limiter.acquireAsync(1).toCompletableFuture())
+        .hasFailedWithThrowableThat()
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void should_change_rate() {
+    TokenBucketRateLimiter limiter = newLimiter(1000, -1, null);
+    assertThat(limiter.reserve(1)).isZero();
+    assertThat(limiter.reserve(1)).isEqualTo(MILLIS);
+    // the permit borrowed at the old rate is still owed
+    limiter.setRate(100);
+    assertThat(limiter.getRate()).isEqualTo(100);
+    assertThat(limiter.getMaxBurst()).isEqualTo(100);
+    assertThat(limiter.reserve(1)).isEqualTo(2 * MILLIS);
+    assertThat(limiter.reserve(1)).isEqualTo(12 * MILLIS);
+  }
+
+  @Test
+  void should_reject_invalid_rate() {
+    assertThatThrownBy(() -> new TokenBucketRateLimiter(0, 10, null))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid permits per second: 0");
+  }
+
+  private TokenBucketRateLimiter newLimiter(
+      long permitsPerSecond, long maxBurst, MetricRegistry registry) {
+    return new TokenBucketRateLimiter(
+        permitsPerSecond, maxBurst, registry, "executor/throttled-time", clock::get);
+  }
+}
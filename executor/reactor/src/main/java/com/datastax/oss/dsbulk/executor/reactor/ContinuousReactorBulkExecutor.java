@@ -68,7 +68,6 @@ public class ContinuousReactorBulkExecutor extends DefaultReactorBulkExecutor
   public Flux<ReadResult> readReactive(Statement<?> statement) {
     Objects.requireNonNull(statement);
     return Flux.from(
-        new ContinuousReadResultPublisher(
-            statement, cqlSession, failFast, listener, maxConcurrentRequests, rateLimiter));
+        new ContinuousReadResultPublisher(statement, cqlSession, failFast, listener, limiters));
   }
 }
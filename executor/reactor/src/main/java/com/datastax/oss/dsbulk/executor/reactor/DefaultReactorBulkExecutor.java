@@ -121,9 +121,7 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
   @Override
   public Mono<WriteResult> writeReactive(Statement<?> statement) {
     Objects.requireNonNull(statement);
-    return Mono.from(
-        new WriteResultPublisher(
-            statement, session, failFast, listener, maxConcurrentRequests, rateLimiter));
+    return Mono.from(new WriteResultPublisher(statement, session, failFast, listener, limiters));
   }
 
   @Override
@@ -199,9 +197,7 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
   @Override
   public Flux<ReadResult> readReactive(Statement<?> statement) {
     Objects.requireNonNull(statement);
-    return Flux.from(
-        new ReadResultPublisher(
-            statement, session, failFast, listener, maxConcurrentRequests, rateLimiter));
+    return Flux.from(new ReadResultPublisher(statement, session, failFast, listener, limiters));
   }
 
   @Override
@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.io;
 
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -28,7 +29,6 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.compress.compressors.CompressorException;
-import org.apache.commons.compress.compressors.CompressorInputStream;
 import org.apache.commons.compress.compressors.CompressorOutputStream;
 import org.apache.commons.compress.compressors.CompressorStreamFactory;
 
@@ -77,6 +77,10 @@ public final class CompressedIOUtils {
           .put(Z_COMPRESSION, CompressorStreamFactory.Z)
           .build();
 
+  // output compressions whose units can be concatenated, and thus compressed concurrently
+  private static final ImmutableSet<String> PARALLEL_OUTPUT_COMPRESSIONS =
+      ImmutableSet.of(GZIP_COMPRESSION, ZSTD_COMPRESSION, BZIP2_COMPRESSION);
+
   private static final ImmutableMap<String, String> COMPRESSION_EXTENSIONS =
       ImmutableMap.<String, String>builder()
           .put(XZ_COMPRESSION, ".xz")
@@ -95,22 +99,66 @@ public final class CompressedIOUtils {
     if (compression == null || isNoneCompression(compression)) {
       reader = IOUtils.newBufferedReader(url, charset);
     } else {
-      String compressor = INPUT_COMPRESSORS.get(compression.toLowerCase());
-      if (compressor == null) {
-        throw new IOException("Unsupported compression format: " + compression);
-      }
-      InputStream in = IOUtils.newBufferedInputStream(url);
-      try {
-        CompressorInputStream cin =
-            new CompressorStreamFactory().createCompressorInputStream(compressor, in);
-        reader = new BufferedReader(new InputStreamReader(cin, charset), BUFFER_SIZE);
-      } catch (CompressorException ex) {
-        throw new IOException("Can't instantiate class for compression: " + compression, ex);
-      }
+      InputStream in = newBufferedInputStream(url, compression);
+      reader = new BufferedReader(new InputStreamReader(in, charset), BUFFER_SIZE);
     }
     return reader;
   }
 
+  /**
+   * Opens the given URL for reading, decompressing its contents if required.
+   *
+   * <p>Gzip, bzip2, zstd and LZ4 contents made of several independent members, streams, frames or
+   * blocks are decompressed concurrently, see {@link ParallelDecompressingInputStream}.
+   * Concatenated members, streams or frames are always decompressed entirely.
+   *
+   * @param url the URL to read.
+   * @param compression the compression format, or {@code null} or {@code "none"} if the contents
+   *     are not compressed.
+   * @return a stream of the (decompressed) bytes of the resource.
+   * @throws IOException if the URL cannot be opened, or the compression format is not supported.
+   */
+  public static InputStream newBufferedInputStream(final URL url, final String compression)
+      throws IOException {
+    if (compression == null || isNoneCompression(compression)) {
+      return IOUtils.newBufferedInputStream(url);
+    }
+    String compressor = INPUT_COMPRESSORS.get(compression.toLowerCase());
+    if (compressor == null) {
+      throw new IOException("Unsupported compression format: " + compression);
+    }
+    ParallelDecompressingInputStream.SerialDecompressor serial =
+        source -> {
+          try {
+            return new CompressorStreamFactory(true)
+                .createCompressorInputStream(compressor, source);
+          } catch (CompressorException ex) {
+            throw new IOException("Can't instantiate class for compression: " + compression, ex);
+          }
+        };
+    InputStream in = IOUtils.newBufferedInputStream(url);
+    ParallelDecompressingInputStream.UnitSplitter splitter =
+        ParallelDecompressingInputStream.newSplitter(compression);
+    if (splitter != null) {
+      return new ParallelDecompressingInputStream(in, splitter, serial);
+    }
+    return serial.open(in);
+  }
+
+  /**
+   * Opens the given URL for writing, compressing its contents if required.
+   *
+   * <p>Gzip, zstd and bzip2 contents are compressed concurrently, see {@link
+   * ParallelCompressingOutputStream}; the resulting file is made of several members, frames or
+   * streams.
+   *
+   * @param url the URL to write.
+   * @param charset the charset to use.
+   * @param compression the compression format, or {@code null} or {@code "none"} if the contents
+   *     should not be compressed.
+   * @return a writer for the resource.
+   * @throws IOException if the URL cannot be opened, or the compression format is not supported.
+   */
   public static BufferedWriter newBufferedWriter(
       final URL url, final Charset charset, final String compression) throws IOException {
     final BufferedWriter writer;
@@ -122,6 +170,12 @@ public final class CompressedIOUtils {
         throw new IOException("Unsupported compression format: " + compression);
       }
       OutputStream os = IOUtils.newBufferedOutputStream(url);
+      if (PARALLEL_OUTPUT_COMPRESSIONS.contains(compression.toLowerCase())) {
+        OutputStream pcos =
+            new ParallelCompressingOutputStream(
+                os, ParallelCompressingOutputStream.newBlockCompressor(compressor));
+        return new BufferedWriter(new OutputStreamWriter(pcos, charset), BUFFER_SIZE);
+      }
       try {
         CompressorOutputStream cos =
             new CompressorStreamFactory().createCompressorOutputStream(compressor, os);
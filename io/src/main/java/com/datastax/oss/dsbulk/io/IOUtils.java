@@ -31,6 +31,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -70,7 +71,21 @@ public final class IOUtils {
         : new BufferedOutputStream(out, BUFFER_SIZE);
   }
 
+  /**
+   * Opens the given URL for reading.
+   *
+   * <p>Regular local files are read through memory-mapped windows, see {@link MappedFileReader}.
+   *
+   * @param url the URL to read.
+   * @param charset the charset of the resource.
+   * @return a reader for the resource.
+   * @throws IOException if the URL cannot be opened.
+   */
   public static BufferedReader newBufferedReader(URL url, Charset charset) throws IOException {
+    Path file = toRegularFile(url);
+    if (file != null) {
+      return new BufferedReader(new MappedFileReader(file, charset), BUFFER_SIZE);
+    }
     return new BufferedReader(
         new InputStreamReader(newBufferedInputStream(url), charset), BUFFER_SIZE);
   }
@@ -80,6 +95,19 @@ public final class IOUtils {
         new OutputStreamWriter(newBufferedOutputStream(url), charset), BUFFER_SIZE);
   }
 
+  private static Path toRegularFile(URL url) {
+    if (!url.getProtocol().equals("file")) {
+      return null;
+    }
+    try {
+      Path file = Paths.get(url.toURI());
+      // pipes, devices and such cannot be mapped
+      return Files.isRegularFile(file) ? file : null;
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      return null;
+    }
+  }
+
   public static boolean isDirectoryNonEmpty(Path path) {
     try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(path)) {
       return dirStream.iterator().hasNext();
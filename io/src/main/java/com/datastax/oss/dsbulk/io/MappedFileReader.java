@@ -0,0 +1,255 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+
+/**
+ * A {@link Reader} that decodes a range of bytes of a local file through memory-mapped windows of
+ * at most {@value #WINDOW_SIZE} bytes, remapping the next window when the current one is exhausted;
+ * files of any size can thus be read.
+ *
+ * <p>Bytes are decoded straight from the mapped windows, without intermediate heap buffers. When
+ * the charset is US-ASCII, ISO-8859-1 or UTF-8, runs of ASCII bytes are converted to characters
+ * directly; other bytes are decoded with a {@link CharsetDecoder} that replaces malformed input,
+ * like {@link java.io.InputStreamReader} does.
+ *
+ * <p>The reader never decodes ahead of the characters it returns, so {@link #getPosition()} is the
+ * exact file offset of the next character to read; this can be used to resume reading at a given
+ * offset.
+ *
+ * <p>This class is not thread-safe.
+ */
+public final class MappedFileReader extends Reader {
+
+  /** The maximum size of a mapped window. */
+  static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private final FileChannel channel;
+  private final long end;
+  private final int windowSize;
+  private final CharsetDecoder decoder;
+  private final boolean asciiCompatible;
+
+  private MappedByteBuffer window;
+  private long windowStart;
+  private boolean endOfInput;
+  private int pendingChar = -1;
+  private boolean closed;
+
+  /**
+   * Creates a reader for the whole file.
+   *
+   * @param file the file to read.
+   * @param charset the charset of the file.
+   * @throws IOException if the file cannot be opened.
+   */
+  public MappedFileReader(Path file, Charset charset) throws IOException {
+    this(file, charset, 0, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a reader for a range of bytes of the file.
+   *
+   * @param file the file to read.
+   * @param charset the charset of the file.
+   * @param start the offset of the first byte to read.
+   * @param end the offset after the last byte to read; if greater than the size of the file, the
+   *     file is read until its end.
+   * @throws IOException if the file cannot be opened.
+   */
+  public MappedFileReader(Path file, Charset charset, long start, long end) throws IOException {
+    this(file, charset, start, end, WINDOW_SIZE);
+  }
+
+  MappedFileReader(Path file, Charset charset, long start, long end, int windowSize)
+      throws IOException {
+    if (start < 0 || end < start) {
+      throw new IllegalArgumentException(String.format("Invalid range: [%d, %d)", start, end));
+    }
+    channel = FileChannel.open(file);
+    try {
+      this.end = Math.min(end, channel.size());
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    this.windowSize = windowSize;
+    decoder =
+        charset
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    asciiCompatible =
+        charset.equals(UTF_8) || charset.equals(US_ASCII) || charset.equals(ISO_8859_1);
+    windowStart = Math.min(start, this.end);
+    window = channel.map(MapMode.READ_ONLY, windowStart, 0);
+  }
+
+  /** @return the file offset of the next byte to decode. */
+  public long getPosition() {
+    return windowStart + window.position();
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (off < 0 || len < 0 || len > cbuf.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+    if (pendingChar != -1) {
+      out.put((char) pendingChar);
+      pendingChar = -1;
+    }
+    while (out.hasRemaining()) {
+      if (asciiCompatible) {
+        copyAscii(out);
+        if (!out.hasRemaining()) {
+          break;
+        }
+      }
+      if (!window.hasRemaining() && !remap()) {
+        finish(out);
+        break;
+      }
+      if (!decode(out)) {
+        break;
+      }
+    }
+    int read = out.position() - off;
+    return read == 0 ? -1 : read;
+  }
+
+  @Override
+  public boolean ready() {
+    return pendingChar != -1 || getPosition() < end;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    channel.close();
+  }
+
+  /** Converts the run of ASCII bytes at the current position to characters. */
+  private void copyAscii(CharBuffer out) {
+    char[] chars = out.array();
+    int offset = out.arrayOffset() + out.position();
+    int position = window.position();
+    int max = Math.min(window.remaining(), out.remaining());
+    int i = 0;
+    while (i < max) {
+      byte b = window.get(position + i);
+      if (b < 0) {
+        break;
+      }
+      chars[offset + i++] = (char) b;
+    }
+    window.position(position + i);
+    out.position(out.position() + i);
+  }
+
+  /**
+   * Decodes bytes at the current position with the charset decoder.
+   *
+   * @return {@code true} if more characters could be decoded, {@code false} if the output is full.
+   */
+  private boolean decode(CharBuffer out) throws IOException {
+    int limit = window.limit();
+    if (asciiCompatible) {
+      // only decode the run of non-ASCII bytes, plus enough bytes to detect truncated sequences
+      int runEnd = window.position();
+      while (runEnd < limit && window.get(runEnd) < 0) {
+        runEnd++;
+      }
+      window.limit(Math.min(limit, runEnd + 3));
+    }
+    int decodeLimit = window.limit();
+    CoderResult result = decoder.decode(window, out, false);
+    int stop = window.position();
+    window.limit(limit);
+    if (result.isOverflow()) {
+      if (out.remaining() == 1) {
+        // the next character is a surrogate pair, which does not fit in the output
+        CharBuffer pair = CharBuffer.allocate(2);
+        decoder.decode(window, pair, false);
+        pair.flip();
+        if (pair.hasRemaining()) {
+          out.put(pair.get());
+        }
+        if (pair.hasRemaining()) {
+          pendingChar = pair.get();
+        }
+      }
+      return false;
+    }
+    if (stop < decodeLimit) {
+      // an incomplete sequence at the end of the window
+      if (decodeLimit == limit && windowStart + limit == end) {
+        decoder.decode(window, out, true);
+        return out.hasRemaining();
+      }
+      return remap();
+    }
+    return true;
+  }
+
+  /** Signals the end of input to the decoder, once. */
+  private void finish(CharBuffer out) {
+    if (!endOfInput) {
+      CoderResult result = decoder.decode(EMPTY, out, true);
+      if (!result.isOverflow()) {
+        result = decoder.flush(out);
+      }
+      endOfInput = !result.isOverflow();
+    }
+  }
+
+  /** Maps the next window, starting at the current position. */
+  private boolean remap() throws IOException {
+    long position = getPosition();
+    if (position >= end) {
+      return false;
+    }
+    long size = Math.min(windowSize, end - position);
+    window = channel.map(MapMode.READ_ONLY, position, size);
+    windowStart = position;
+    return true;
+  }
+}
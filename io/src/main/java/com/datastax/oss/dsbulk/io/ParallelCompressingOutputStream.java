@@ -0,0 +1,211 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+
+/**
+ * An {@link OutputStream} that compresses its data concurrently.
+ *
+ * <p>Data is cut into blocks of {@value #BLOCK_SIZE} bytes; each block is compressed by a shared
+ * pool of threads into a self-contained unit – a gzip member, a bzip2 stream or a zstd frame – and
+ * units are written to the target in order. The result is a standard multi-member (or multi-stream,
+ * or multi-frame) file that any tool supporting the format can read.
+ *
+ * <p>Flushing this stream only writes the units that are already compressed, then flushes the
+ * target; it neither cuts the current block short nor waits for pending blocks. Callers flush at
+ * the end of every small batch of records, and cutting blocks there would produce many tiny units,
+ * compressed one at a time and with a poor ratio. The current block is only cut when it is full or
+ * when the stream is closed.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class ParallelCompressingOutputStream extends OutputStream {
+
+  /** The number of uncompressed bytes in each block. */
+  static final int BLOCK_SIZE = 1024 * 1024;
+
+  private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  private static ExecutorService executor;
+
+  /** Compresses a block into a self-contained unit. */
+  interface BlockCompressor {
+
+    byte[] compress(byte[] bytes, int offset, int length) throws IOException;
+  }
+
+  private final OutputStream target;
+  private final BlockCompressor compressor;
+  private final int blockSize;
+  private final Deque<Future<byte[]>> tasks = new ArrayDeque<>();
+
+  private byte[] block;
+  private int blockLength;
+  private boolean empty = true;
+  private boolean closed;
+
+  ParallelCompressingOutputStream(OutputStream target, BlockCompressor compressor) {
+    this(target, compressor, BLOCK_SIZE);
+  }
+
+  ParallelCompressingOutputStream(OutputStream target, BlockCompressor compressor, int blockSize) {
+    this.target = target;
+    this.compressor = compressor;
+    this.blockSize = blockSize;
+    block = new byte[blockSize];
+  }
+
+  /**
+   * Creates a compressor that writes blocks with the given commons-compress compressor.
+   *
+   * @param compressor the name of a commons-compress compressor whose output can be concatenated.
+   * @return a new compressor.
+   */
+  static BlockCompressor newBlockCompressor(String compressor) {
+    return (bytes, offset, length) -> {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+      try (CompressorOutputStream cos =
+          new CompressorStreamFactory().createCompressorOutputStream(compressor, out)) {
+        cos.write(bytes, offset, length);
+      } catch (CompressorException e) {
+        throw new IOException("Can't instantiate class for compression: " + compressor, e);
+      }
+      return out.toByteArray();
+    };
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    block[blockLength++] = (byte) b;
+    if (blockLength == blockSize) {
+      submit();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      int length = Math.min(len, blockSize - blockLength);
+      System.arraycopy(b, off, block, blockLength, length);
+      blockLength += length;
+      off += length;
+      len -= length;
+      if (blockLength == blockSize) {
+        submit();
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    writeCompleted();
+    target.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (blockLength > 0 || empty) {
+        // an empty stream still needs one unit to be valid
+        submit();
+      }
+      while (!tasks.isEmpty()) {
+        writeNext();
+      }
+    } finally {
+      for (Future<byte[]> task : tasks) {
+        task.cancel(true);
+      }
+      tasks.clear();
+      target.close();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /** Submits the current block for compression, then writes the units that are ready. */
+  private void submit() throws IOException {
+    while (tasks.size() >= PARALLELISM) {
+      writeNext();
+    }
+    byte[] bytes = block;
+    int length = blockLength;
+    tasks.add(getExecutor().submit(() -> compressor.compress(bytes, 0, length)));
+    block = new byte[blockSize];
+    blockLength = 0;
+    empty = false;
+    writeCompleted();
+  }
+
+  /** Writes the units that are already compressed, in order, without waiting for the others. */
+  private void writeCompleted() throws IOException {
+    while (!tasks.isEmpty() && tasks.peek().isDone()) {
+      writeNext();
+    }
+  }
+
+  /** Waits for the oldest pending block to be compressed, then writes it to the target. */
+  private void writeNext() throws IOException {
+    Future<byte[]> task = tasks.remove();
+    try {
+      target.write(task.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing data");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Error compressing data", cause);
+    }
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              PARALLELISM,
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat("compressor-%d").build());
+    }
+    return executor;
+  }
+}
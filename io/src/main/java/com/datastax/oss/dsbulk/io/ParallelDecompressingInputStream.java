@@ -0,0 +1,1040 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import net.jpountz.xxhash.StreamingXXHash32;
+import net.jpountz.xxhash.XXHash32;
+import net.jpountz.xxhash.XXHashFactory;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+
+/**
+ * An {@link InputStream} that decompresses its source concurrently.
+ *
+ * <p>The compressed source is cut into units that can be decompressed independently of each other:
+ * gzip members, bzip2 streams, zstd frames, and LZ4 frames or, when an LZ4 frame is made of
+ * independent blocks, LZ4 blocks. Consecutive units are grouped into tasks of approximately {@value
+ * #TASK_SIZE} compressed bytes; tasks are decompressed by a shared pool of threads, and their
+ * output is returned in order.
+ *
+ * <p>Unit boundaries are found without decompressing the data: zstd and LZ4 frames, as well as the
+ * BGZF blocks produced by bgzip, record their own size. Other gzip members and bzip2 streams do
+ * not, so a unit is assumed to end where the header of another unit is found; if that assumption
+ * turns out to be wrong, because the header bytes were actually part of compressed data, the
+ * remainder of the source is decompressed serially.
+ *
+ * <p>The source is also decompressed serially when a unit is larger than the maximum unit size,
+ * which is typically the case when the whole source is a single frame, and when its contents are
+ * not recognized.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class ParallelDecompressingInputStream extends InputStream {
+
+  /** The approximate number of compressed bytes in each task. */
+  static final int TASK_SIZE = 1024 * 1024;
+
+  /** The default maximum size of a unit; larger units are decompressed serially. */
+  static final int MAX_UNIT_SIZE = 32 * 1024 * 1024;
+
+  private static final int READ_SIZE = 256 * 1024;
+
+  private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  private static ExecutorService executor;
+
+  /** Opens a stream that decompresses its source serially. */
+  interface SerialDecompressor {
+
+    InputStream open(InputStream source) throws IOException;
+  }
+
+  private final InputStream source;
+  private final UnitSplitter splitter;
+  private final SerialDecompressor serialDecompressor;
+  private final int maxUnitSize;
+  private final int maxPendingTasks = PARALLELISM * 2;
+  private final Deque<Task> tasks = new ArrayDeque<>();
+  private final List<Unit> units = new ArrayList<>();
+
+  // compressed bytes that have not been dispatched yet are stored in buffer[start, limit);
+  // units were found in buffer[start, scanned)
+  private byte[] buffer = new byte[READ_SIZE];
+  private int start;
+  private int scanned;
+  private int limit;
+  private boolean eof;
+
+  private InputStream serial;
+  private byte[] output;
+  private int outputPosition;
+
+  /**
+   * Creates a new stream.
+   *
+   * @param source the compressed source.
+   * @param splitter the splitter that finds units in the compressed source.
+   * @param serialDecompressor the decompressor to use when the source cannot be decompressed
+   *     concurrently.
+   */
+  ParallelDecompressingInputStream(
+      InputStream source, UnitSplitter splitter, SerialDecompressor serialDecompressor) {
+    this(source, splitter, serialDecompressor, MAX_UNIT_SIZE);
+  }
+
+  ParallelDecompressingInputStream(
+      InputStream source,
+      UnitSplitter splitter,
+      SerialDecompressor serialDecompressor,
+      int maxUnitSize) {
+    this.source = source;
+    this.splitter = splitter;
+    this.serialDecompressor = serialDecompressor;
+    this.maxUnitSize = maxUnitSize;
+  }
+
+  /**
+   * Returns a splitter for the given compression format, or {@code null} if the format cannot be
+   * decompressed concurrently.
+   */
+  static UnitSplitter newSplitter(String compression) {
+    switch (compression.toLowerCase()) {
+      case CompressedIOUtils.GZIP_COMPRESSION:
+        return new GzipSplitter();
+      case CompressedIOUtils.BZIP2_COMPRESSION:
+        return new Bzip2Splitter();
+      case CompressedIOUtils.ZSTD_COMPRESSION:
+        return new ZstdSplitter();
+      case CompressedIOUtils.LZ4_COMPRESSION:
+        return new Lz4Splitter();
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    while (output == null || outputPosition == output.length) {
+      output = null;
+      dispatch();
+      Task task = tasks.poll();
+      if (task == null) {
+        return serial == null ? -1 : serial.read(b, off, len);
+      }
+      output = complete(task);
+      outputPosition = 0;
+    }
+    int length = Math.min(len, output.length - outputPosition);
+    System.arraycopy(output, outputPosition, b, off, length);
+    outputPosition += length;
+    return length;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (Task task : tasks) {
+      task.future.cancel(true);
+    }
+    tasks.clear();
+    try {
+      source.close();
+    } finally {
+      if (serial != null) {
+        serial.close();
+      }
+    }
+  }
+
+  /** Finds units in the source and submits them for decompression, until enough are pending. */
+  private void dispatch() throws IOException {
+    while (serial == null && tasks.size() < maxPendingTasks) {
+      int taskLength = findUnits();
+      if (serial != null) {
+        return;
+      }
+      if (units.isEmpty()) {
+        if (start < limit) {
+          // the remaining data could not be split
+          switchToSerial(Collections.emptyList());
+        }
+        return;
+      }
+      submit(taskLength);
+    }
+  }
+
+  /**
+   * Finds units until there are enough of them to fill a task, or the end of the source is reached.
+   *
+   * @return the length of the next task.
+   */
+  private int findUnits() throws IOException {
+    while (true) {
+      int taskLength = getTaskLength();
+      if (taskLength >= TASK_SIZE || taskLength < scanned - start) {
+        return taskLength;
+      }
+      if (eof && scanned == limit) {
+        return taskLength;
+      }
+      Unit unit = scanned == limit ? null : splitter.next(buffer, scanned, limit, eof);
+      if (unit == Unit.UNSPLITTABLE) {
+        if (units.isEmpty()) {
+          switchToSerial(Collections.emptyList());
+        }
+        return taskLength;
+      }
+      if (unit != null) {
+        units.add(unit);
+        scanned += unit.length;
+      } else if (limit - scanned >= maxUnitSize) {
+        if (units.isEmpty()) {
+          switchToSerial(Collections.emptyList());
+        }
+        return taskLength;
+      } else if (eof) {
+        // the splitter cannot handle the remaining data
+        if (units.isEmpty()) {
+          switchToSerial(Collections.emptyList());
+        }
+        return taskLength;
+      } else {
+        fill();
+      }
+    }
+  }
+
+  /**
+   * @return the length of the first units that can be decompressed by the same task: they must
+   *     share the same decoder and checksum, and their total length must not exceed the task size,
+   *     unless the task contains only one unit.
+   */
+  private int getTaskLength() {
+    if (units.isEmpty()) {
+      return 0;
+    }
+    Unit first = units.get(0);
+    int length = 0;
+    for (Unit unit : units) {
+      if (unit.decoder != first.decoder
+          || unit.checksum != first.checksum
+          || (length > 0 && length + unit.length > TASK_SIZE)) {
+        break;
+      }
+      length += unit.length;
+      if (unit.expectedChecksum != -1) {
+        break;
+      }
+    }
+    return length;
+  }
+
+  /** Reads more data from the source. */
+  private void fill() throws IOException {
+    if (start > 0 && limit - start < buffer.length / 2) {
+      // discard the bytes that were dispatched already
+      System.arraycopy(buffer, start, buffer, 0, limit - start);
+      scanned -= start;
+      limit -= start;
+      start = 0;
+    }
+    if (buffer.length - limit < READ_SIZE) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, limit + READ_SIZE));
+    }
+    int read = source.read(buffer, limit, READ_SIZE);
+    if (read == -1) {
+      eof = true;
+    } else {
+      limit += read;
+    }
+  }
+
+  /** Submits the first units, up to the given length, for decompression. */
+  private void submit(int length) {
+    Unit first = units.get(0);
+    long expectedChecksum = -1;
+    boolean speculative = false;
+    int total = 0;
+    while (total < length) {
+      Unit unit = units.remove(0);
+      total += unit.length;
+      speculative |= unit.speculative;
+      if (unit.expectedChecksum != -1) {
+        expectedChecksum = unit.expectedChecksum;
+      }
+    }
+    byte[] bytes = Arrays.copyOfRange(buffer, start, start + length);
+    start += length;
+    Decoder decoder = first.decoder;
+    Future<byte[]> future = getExecutor().submit(() -> decoder.decode(bytes, 0, bytes.length));
+    tasks.add(new Task(bytes, future, speculative, first.checksum, expectedChecksum));
+  }
+
+  /**
+   * Waits for the given task to complete.
+   *
+   * @return the decompressed bytes, or {@code null} if the task failed and the remainder of the
+   *     source must be decompressed serially.
+   */
+  private byte[] complete(Task task) throws IOException {
+    byte[] bytes;
+    try {
+      bytes = task.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while decompressing data");
+    } catch (ExecutionException e) {
+      if (task.speculative) {
+        // unit boundaries were probably wrong
+        switchToSerial(Collections.singletonList(task.bytes));
+        return null;
+      }
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Error decompressing data", cause);
+    }
+    if (task.checksum != null) {
+      task.checksum.update(bytes, 0, bytes.length);
+      if (task.expectedChecksum != -1
+          && (int) task.checksum.getValue() != (int) task.expectedChecksum) {
+        throw new IOException("Content checksum mismatch");
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Decompresses the remainder of the source serially.
+   *
+   * @param prefix the compressed bytes, not yet decompressed, that precede the pending tasks.
+   */
+  private void switchToSerial(List<byte[]> prefix) throws IOException {
+    List<InputStream> inputs = new ArrayList<>();
+    for (byte[] bytes : prefix) {
+      inputs.add(new ByteArrayInputStream(bytes));
+    }
+    for (Task task : tasks) {
+      task.future.cancel(true);
+      inputs.add(new ByteArrayInputStream(task.bytes));
+    }
+    tasks.clear();
+    units.clear();
+    inputs.add(new ByteArrayInputStream(buffer, start, limit - start));
+    start = scanned = limit;
+    inputs.add(source);
+    serial = serialDecompressor.open(new SequenceInputStream(Collections.enumeration(inputs)));
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              PARALLELISM,
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat("decompressor-%d").build());
+    }
+    return executor;
+  }
+
+  /** A group of units submitted for decompression. */
+  private static class Task {
+
+    private final byte[] bytes;
+    private final Future<byte[]> future;
+    private final boolean speculative;
+    private final Checksum checksum;
+    private final long expectedChecksum;
+
+    private Task(
+        byte[] bytes,
+        Future<byte[]> future,
+        boolean speculative,
+        Checksum checksum,
+        long expectedChecksum) {
+      this.bytes = bytes;
+      this.future = future;
+      this.speculative = speculative;
+      this.checksum = checksum;
+      this.expectedChecksum = expectedChecksum;
+    }
+  }
+
+  /** Decompresses one or more consecutive units. Implementations must be thread-safe. */
+  interface Decoder {
+
+    byte[] decode(byte[] bytes, int offset, int length) throws IOException;
+  }
+
+  /** A part of the compressed source that can be decompressed independently. */
+  static final class Unit {
+
+    /** Signals that the data cannot be split into units. */
+    static final Unit UNSPLITTABLE = new Unit(0, null, false);
+
+    final int length;
+    final Decoder decoder;
+    final boolean speculative;
+    final Checksum checksum;
+    final long expectedChecksum;
+
+    /**
+     * Creates a new unit.
+     *
+     * @param length the length of the unit.
+     * @param decoder the decoder for this unit.
+     * @param speculative whether the end of the unit was guessed.
+     */
+    Unit(int length, Decoder decoder, boolean speculative) {
+      this(length, decoder, speculative, null, -1);
+    }
+
+    /**
+     * Creates a new unit whose decompressed output is verified, in order, with a content checksum.
+     *
+     * @param length the length of the unit.
+     * @param decoder the decoder for this unit.
+     * @param speculative whether the end of the unit was guessed.
+     * @param checksum the content checksum to update with the decompressed output.
+     * @param expectedChecksum the expected value of the content checksum once the output of this
+     *     unit was added to it, or -1 if it should not be verified yet.
+     */
+    Unit(
+        int length,
+        Decoder decoder,
+        boolean speculative,
+        Checksum checksum,
+        long expectedChecksum) {
+      this.length = length;
+      this.decoder = decoder;
+      this.speculative = speculative;
+      this.checksum = checksum;
+      this.expectedChecksum = expectedChecksum;
+    }
+  }
+
+  /** Finds units in compressed data. Implementations may be stateful. */
+  interface UnitSplitter {
+
+    /**
+     * Finds the unit starting at the given offset. The splitter's state may only change if a unit
+     * is returned.
+     *
+     * @param bytes the compressed data.
+     * @param offset the start of the unit.
+     * @param limit the end of the available data.
+     * @param eof whether the source ends at {@code limit}.
+     * @return the unit; or {@code null}, if more data is needed to find its end; or {@link
+     *     Unit#UNSPLITTABLE}, if the data cannot be split into units.
+     */
+    Unit next(byte[] bytes, int offset, int limit, boolean eof);
+  }
+
+  private static final Decoder EMPTY = (bytes, offset, length) -> new byte[0];
+
+  /** Finds gzip members. */
+  private static class GzipSplitter implements UnitSplitter {
+
+    private static final Decoder DECODER = ParallelDecompressingInputStream::gunzip;
+
+    // how far the search for the next header went, relative to the start of the unit
+    private int searched;
+
+    @Override
+    public Unit next(byte[] bytes, int offset, int limit, boolean eof) {
+      int header = gzipHeaderLength(bytes, offset, limit);
+      if (header == -1) {
+        return eof ? Unit.UNSPLITTABLE : null;
+      }
+      if (header == -2) {
+        return Unit.UNSPLITTABLE;
+      }
+      int blockSize = bgzfBlockSize(bytes, offset, header);
+      if (blockSize != -1) {
+        if (offset + blockSize > limit) {
+          return eof ? Unit.UNSPLITTABLE : null;
+        }
+        return new Unit(blockSize, DECODER, false);
+      }
+      // the smallest member has an empty deflate block and a trailer
+      int from = Math.max(offset + header + 10, offset + searched);
+      for (int i = from; i + 10 <= limit; i++) {
+        if (isGzipHeader(bytes, i)) {
+          searched = 0;
+          return new Unit(i - offset, DECODER, true);
+        }
+      }
+      if (eof) {
+        searched = 0;
+        return new Unit(limit - offset, DECODER, true);
+      }
+      searched = Math.max(searched, limit - 10 + 1 - offset);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the length of the gzip member header at the given offset; or -1 if more data is needed;
+   * or -2 if the data is not a gzip header.
+   */
+  private static int gzipHeaderLength(byte[] bytes, int offset, int limit) {
+    if (limit - offset < 10) {
+      return -1;
+    }
+    if (!isGzipHeader(bytes, offset)) {
+      return -2;
+    }
+    int flags = bytes[offset + 3];
+    int position = offset + 10;
+    if ((flags & 0x04) != 0) {
+      // FEXTRA
+      if (limit - position < 2) {
+        return -1;
+      }
+      position += 2 + readUnsignedShortLE(bytes, position);
+    }
+    if ((flags & 0x08) != 0) {
+      // FNAME
+      position = skipZeroTerminated(bytes, position, limit);
+    }
+    if ((flags & 0x10) != 0 && position != -1) {
+      // FCOMMENT
+      position = skipZeroTerminated(bytes, position, limit);
+    }
+    if ((flags & 0x02) != 0 && position != -1) {
+      // FHCRC
+      position += 2;
+    }
+    if (position == -1 || position > limit) {
+      return -1;
+    }
+    return position - offset;
+  }
+
+  private static int skipZeroTerminated(byte[] bytes, int position, int limit) {
+    for (int i = position; i < limit; i++) {
+      if (bytes[i] == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /** Whether the 10 bytes at the given offset look like the beginning of a gzip member. */
+  private static boolean isGzipHeader(byte[] bytes, int offset) {
+    if (bytes[offset] != 0x1f || bytes[offset + 1] != (byte) 0x8b || bytes[offset + 2] != 8) {
+      return false;
+    }
+    // reserved flags must be zero
+    if ((bytes[offset + 3] & 0xe0) != 0) {
+      return false;
+    }
+    int xfl = bytes[offset + 8] & 0xff;
+    int os = bytes[offset + 9] & 0xff;
+    return (xfl == 0 || xfl == 2 || xfl == 4) && (os <= 13 || os == 255);
+  }
+
+  /**
+   * Returns the size of the BGZF block whose header starts at the given offset, or -1 if the gzip
+   * member is not a BGZF block.
+   */
+  private static int bgzfBlockSize(byte[] bytes, int offset, int headerLength) {
+    if ((bytes[offset + 3] & 0x04) == 0) {
+      return -1;
+    }
+    int position = offset + 12;
+    int end = position + readUnsignedShortLE(bytes, offset + 10);
+    while (position + 4 <= end && end <= offset + headerLength) {
+      int length = readUnsignedShortLE(bytes, position + 2);
+      if (bytes[position] == 'B' && bytes[position + 1] == 'C' && length == 2) {
+        return readUnsignedShortLE(bytes, position + 4) + 1;
+      }
+      position += 4 + length;
+    }
+    return -1;
+  }
+
+  /** Decompresses one or more complete gzip members. */
+  private static byte[] gunzip(byte[] bytes, int offset, int length) throws IOException {
+    OutputBuffer out = new OutputBuffer(length * 4);
+    Inflater inflater = new Inflater(true);
+    CRC32 crc = new CRC32();
+    try {
+      int position = offset;
+      int end = offset + length;
+      while (position < end) {
+        int header = gzipHeaderLength(bytes, position, end);
+        if (header < 0) {
+          throw new IOException("Not in GZIP format");
+        }
+        position += header;
+        inflater.reset();
+        inflater.setInput(bytes, position, end - position);
+        crc.reset();
+        int start = out.length;
+        while (!inflater.finished()) {
+          out.ensureCapacity(64 * 1024);
+          int inflated = inflater.inflate(out.bytes, out.length, out.bytes.length - out.length);
+          if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new EOFException("Unexpected end of GZIP member");
+          }
+          out.length += inflated;
+        }
+        crc.update(out.bytes, start, out.length - start);
+        position = end - inflater.getRemaining();
+        if (end - position < 8) {
+          throw new EOFException("Unexpected end of GZIP member");
+        }
+        if (readIntLE(bytes, position) != (int) crc.getValue()
+            || readIntLE(bytes, position + 4) != out.length - start) {
+          throw new IOException("Corrupt GZIP trailer");
+        }
+        position += 8;
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt GZIP data", e);
+    } finally {
+      inflater.end();
+    }
+    return out.toByteArray();
+  }
+
+  /** Finds bzip2 streams. */
+  private static class Bzip2Splitter implements UnitSplitter {
+
+    private static final Decoder DECODER =
+        (bytes, offset, length) ->
+            readFully(
+                new BZip2CompressorInputStream(
+                    new ByteArrayInputStream(bytes, offset, length), true),
+                length * 4);
+
+    // how far the search for the next header went, relative to the start of the unit
+    private int searched;
+
+    @Override
+    public Unit next(byte[] bytes, int offset, int limit, boolean eof) {
+      if (limit - offset < 10) {
+        return eof ? Unit.UNSPLITTABLE : null;
+      }
+      if (!isBzip2Header(bytes, offset)) {
+        return Unit.UNSPLITTABLE;
+      }
+      int from = Math.max(offset + 10, offset + searched);
+      for (int i = from; i + 10 <= limit; i++) {
+        if (isBzip2Header(bytes, i)) {
+          searched = 0;
+          return new Unit(i - offset, DECODER, true);
+        }
+      }
+      if (eof) {
+        searched = 0;
+        return new Unit(limit - offset, DECODER, true);
+      }
+      searched = Math.max(searched, limit - 10 + 1 - offset);
+      return null;
+    }
+  }
+
+  /**
+   * Whether the 10 bytes at the given offset look like the beginning of a bzip2 stream: the stream
+   * header, followed by the magic number of a block or of the end of the stream.
+   */
+  private static boolean isBzip2Header(byte[] bytes, int offset) {
+    if (bytes[offset] != 'B'
+        || bytes[offset + 1] != 'Z'
+        || bytes[offset + 2] != 'h'
+        || bytes[offset + 3] < '1'
+        || bytes[offset + 3] > '9') {
+      return false;
+    }
+    return (bytes[offset + 4] == 0x31
+            && bytes[offset + 5] == 0x41
+            && bytes[offset + 6] == 0x59
+            && bytes[offset + 7] == 0x26
+            && bytes[offset + 8] == 0x53
+            && bytes[offset + 9] == 0x59)
+        || (bytes[offset + 4] == 0x17
+            && bytes[offset + 5] == 0x72
+            && bytes[offset + 6] == 0x45
+            && bytes[offset + 7] == 0x38
+            && bytes[offset + 8] == 0x50
+            && bytes[offset + 9] == (byte) 0x90);
+  }
+
+  /** Finds zstd frames. */
+  private static class ZstdSplitter implements UnitSplitter {
+
+    private static final Decoder DECODER =
+        (bytes, offset, length) ->
+            readFully(
+                new ZstdCompressorInputStream(new ByteArrayInputStream(bytes, offset, length)),
+                length * 4);
+
+    private static final int[] DICTIONARY_ID_SIZES = {0, 1, 2, 4};
+    private static final int[] CONTENT_SIZE_SIZES = {0, 2, 4, 8};
+
+    @Override
+    public Unit next(byte[] bytes, int offset, int limit, boolean eof) {
+      int length = frameLength(bytes, offset, limit);
+      if (length == -1) {
+        return eof ? Unit.UNSPLITTABLE : null;
+      }
+      if (length == -2) {
+        return Unit.UNSPLITTABLE;
+      }
+      return new Unit(length, DECODER, false);
+    }
+
+    /**
+     * Returns the length of the frame at the given offset; or -1 if more data is needed; or -2 if
+     * the data is not a zstd frame.
+     */
+    private static int frameLength(byte[] bytes, int offset, int limit) {
+      if (limit - offset < 8) {
+        return -1;
+      }
+      int magic = readIntLE(bytes, offset);
+      if ((magic & 0xfffffff0) == 0x184d2a50) {
+        // skippable frame
+        long length = 8 + (readIntLE(bytes, offset + 4) & 0xffffffffL);
+        if (length > Integer.MAX_VALUE) {
+          return -2;
+        }
+        return offset + length > limit ? -1 : (int) length;
+      }
+      if (magic != 0xfd2fb528) {
+        return -2;
+      }
+      int descriptor = bytes[offset + 4] & 0xff;
+      boolean singleSegment = (descriptor & 0x20) != 0;
+      boolean checksum = (descriptor & 0x04) != 0;
+      int contentSizeFlag = descriptor >> 6;
+      int position =
+          offset
+              + 5
+              + (singleSegment ? 0 : 1)
+              + DICTIONARY_ID_SIZES[descriptor & 0x03]
+              + (contentSizeFlag == 0 && singleSegment ? 1 : CONTENT_SIZE_SIZES[contentSizeFlag]);
+      while (true) {
+        if (limit - position < 3) {
+          return -1;
+        }
+        int header =
+            (bytes[position] & 0xff)
+                | (bytes[position + 1] & 0xff) << 8
+                | (bytes[position + 2] & 0xff) << 16;
+        boolean last = (header & 1) != 0;
+        int type = (header >> 1) & 0x03;
+        if (type == 3) {
+          return -2;
+        }
+        // RLE blocks store a single byte
+        int size = type == 1 ? 1 : header >>> 3;
+        if ((long) position + 3 + size > limit) {
+          return -1;
+        }
+        position += 3 + size;
+        if (last) {
+          break;
+        }
+      }
+      if (checksum) {
+        position += 4;
+      }
+      return position > limit ? -1 : position - offset;
+    }
+  }
+
+  /**
+   * Finds LZ4 frames; frames made of independent blocks are split into their header, their blocks
+   * and their end mark.
+   */
+  private static class Lz4Splitter implements UnitSplitter {
+
+    private static final Decoder FRAME_DECODER =
+        (bytes, offset, length) ->
+            readFully(
+                new FramedLZ4CompressorInputStream(
+                    new ByteArrayInputStream(bytes, offset, length), true),
+                length * 4);
+
+    private static final XXHash32 HASH = XXHashFactory.fastestInstance().hash32();
+
+    private Lz4Frame frame;
+
+    @Override
+    public Unit next(byte[] bytes, int offset, int limit, boolean eof) {
+      Unit unit = frame == null ? nextFrame(bytes, offset, limit) : nextBlock(bytes, offset, limit);
+      return unit == null && eof ? Unit.UNSPLITTABLE : unit;
+    }
+
+    private Unit nextFrame(byte[] bytes, int offset, int limit) {
+      if (limit - offset < 8) {
+        return null;
+      }
+      int magic = readIntLE(bytes, offset);
+      if ((magic & 0xfffffff0) == 0x184d2a50) {
+        // skippable frame
+        long length = 8 + (readIntLE(bytes, offset + 4) & 0xffffffffL);
+        if (length > Integer.MAX_VALUE) {
+          return Unit.UNSPLITTABLE;
+        }
+        return offset + length > limit ? null : new Unit((int) length, EMPTY, false);
+      }
+      if (magic != 0x184d2204) {
+        return Unit.UNSPLITTABLE;
+      }
+      int flags = bytes[offset + 4] & 0xff;
+      int blockDescriptor = bytes[offset + 5] & 0xff;
+      if ((flags >> 6) != 1 || (flags & 0x01) != 0) {
+        // unsupported version, or dictionary
+        return Unit.UNSPLITTABLE;
+      }
+      boolean independentBlocks = (flags & 0x20) != 0;
+      boolean blockChecksum = (flags & 0x10) != 0;
+      boolean contentSize = (flags & 0x08) != 0;
+      boolean contentChecksum = (flags & 0x04) != 0;
+      int headerLength = 4 + 2 + (contentSize ? 8 : 0) + 1;
+      if (limit - offset < headerLength) {
+        return null;
+      }
+      int headerChecksum = (HASH.hash(bytes, offset + 4, headerLength - 5, 0) >> 8) & 0xff;
+      if (headerChecksum != (bytes[offset + headerLength - 1] & 0xff)) {
+        return Unit.UNSPLITTABLE;
+      }
+      if (!independentBlocks) {
+        // blocks depend on each other, the frame must be decompressed as a whole
+        int position = offset + headerLength;
+        while (true) {
+          if (limit - position < 4) {
+            return null;
+          }
+          int size = readIntLE(bytes, position);
+          if (size == 0) {
+            position += 4 + (contentChecksum ? 4 : 0);
+            break;
+          }
+          position += 4 + (size & 0x7fffffff) + (blockChecksum ? 4 : 0);
+          if (position < 0) {
+            return Unit.UNSPLITTABLE;
+          }
+        }
+        return position > limit ? null : new Unit(position - offset, FRAME_DECODER, false);
+      }
+      int maxBlockSizeId = (blockDescriptor >> 4) & 0x07;
+      if (maxBlockSizeId < 4) {
+        return Unit.UNSPLITTABLE;
+      }
+      frame =
+          new Lz4Frame(
+              1 << (8 + 2 * maxBlockSizeId),
+              blockChecksum,
+              contentChecksum ? new ContentChecksum() : null);
+      return new Unit(headerLength, EMPTY, false);
+    }
+
+    private Unit nextBlock(byte[] bytes, int offset, int limit) {
+      if (limit - offset < 4) {
+        return null;
+      }
+      int size = readIntLE(bytes, offset);
+      if (size == 0) {
+        // end mark
+        Lz4Frame frame = this.frame;
+        if (frame.checksum == null) {
+          this.frame = null;
+          return new Unit(4, EMPTY, false);
+        }
+        if (limit - offset < 8) {
+          return null;
+        }
+        this.frame = null;
+        return new Unit(
+            8, EMPTY, false, frame.checksum, readIntLE(bytes, offset + 4) & 0xffffffffL);
+      }
+      int dataSize = size & 0x7fffffff;
+      if (dataSize > frame.maxBlockSize) {
+        return Unit.UNSPLITTABLE;
+      }
+      int length = 4 + dataSize + (frame.blockChecksum ? 4 : 0);
+      if (limit - offset < length) {
+        return null;
+      }
+      return new Unit(length, frame.decoder, false, frame.checksum, -1);
+    }
+  }
+
+  /** The parameters of an LZ4 frame made of independent blocks. */
+  private static class Lz4Frame {
+
+    private static final LZ4SafeDecompressor DECOMPRESSOR =
+        LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final int maxBlockSize;
+    private final boolean blockChecksum;
+    private final Checksum checksum;
+    private final Decoder decoder = this::decodeBlocks;
+
+    private Lz4Frame(int maxBlockSize, boolean blockChecksum, Checksum checksum) {
+      this.maxBlockSize = maxBlockSize;
+      this.blockChecksum = blockChecksum;
+      this.checksum = checksum;
+    }
+
+    /** Decompresses one or more consecutive blocks. */
+    private byte[] decodeBlocks(byte[] bytes, int offset, int length) throws IOException {
+      OutputBuffer out = new OutputBuffer(length * 2);
+      int position = offset;
+      int end = offset + length;
+      while (position < end) {
+        int size = readIntLE(bytes, position);
+        int dataSize = size & 0x7fffffff;
+        position += 4;
+        if (blockChecksum
+            && Lz4Splitter.HASH.hash(bytes, position, dataSize, 0)
+                != readIntLE(bytes, position + dataSize)) {
+          throw new IOException("LZ4 block checksum mismatch");
+        }
+        out.ensureCapacity(maxBlockSize);
+        if (size < 0) {
+          // uncompressed block
+          System.arraycopy(bytes, position, out.bytes, out.length, dataSize);
+          out.length += dataSize;
+        } else {
+          try {
+            out.length +=
+                DECOMPRESSOR.decompress(
+                    bytes, position, dataSize, out.bytes, out.length, maxBlockSize);
+          } catch (LZ4Exception e) {
+            throw new IOException("Corrupt LZ4 block", e);
+          }
+        }
+        position += dataSize + (blockChecksum ? 4 : 0);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * The content checksum of an LZ4 frame. {@link StreamingXXHash32#asChecksum()} is not used
+   * because it truncates the hash to 28 bits.
+   */
+  private static class ContentChecksum implements Checksum {
+
+    private final StreamingXXHash32 hash = XXHashFactory.fastestInstance().newStreamingHash32(0);
+
+    @Override
+    public void update(int b) {
+      hash.update(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+      hash.update(b, off, len);
+    }
+
+    @Override
+    public long getValue() {
+      return hash.getValue() & 0xffffffffL;
+    }
+
+    @Override
+    public void reset() {
+      hash.reset();
+    }
+  }
+
+  /** A growable byte array. */
+  private static class OutputBuffer {
+
+    private byte[] bytes;
+    private int length;
+
+    private OutputBuffer(int initialCapacity) {
+      bytes = new byte[Math.max(initialCapacity, 1024)];
+    }
+
+    private void ensureCapacity(int additional) {
+      if (bytes.length - length < additional) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+      }
+    }
+
+    private byte[] toByteArray() {
+      return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+    }
+  }
+
+  private static byte[] readFully(InputStream in, int initialCapacity) throws IOException {
+    OutputBuffer out = new OutputBuffer(initialCapacity);
+    try (InputStream stream = in) {
+      while (true) {
+        out.ensureCapacity(64 * 1024);
+        int read = stream.read(out.bytes, out.length, out.bytes.length - out.length);
+        if (read == -1) {
+          return out.toByteArray();
+        }
+        out.length += read;
+      }
+    }
+  }
+
+  private static int readUnsignedShortLE(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8;
+  }
+
+  private static int readIntLE(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xff)
+        | (bytes[offset + 1] & 0xff) << 8
+        | (bytes[offset + 2] & 0xff) << 16
+        | (bytes[offset + 3] & 0xff) << 24;
+  }
+}
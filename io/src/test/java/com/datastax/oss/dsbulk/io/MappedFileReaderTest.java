@@ -0,0 +1,138 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class MappedFileReaderTest {
+
+  private static final String TEXT = "id,name\n1,Aßcd\n2,日本語\n3,😀 smile 😀\n4,plain ascii text\n";
+
+  private Path file;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    file = Files.createTempFile("dsbulk-", ".csv");
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @ParameterizedTest(name = "[{index}] {0}, window size {1}, buffer size {2}")
+  @MethodSource
+  void should_read_file(Charset charset, int windowSize, int bufferSize) throws IOException {
+    byte[] bytes = TEXT.getBytes(charset);
+    Files.write(file, bytes);
+    try (Reader reader = new MappedFileReader(file, charset, 0, Long.MAX_VALUE, windowSize)) {
+      assertThat(read(reader, bufferSize)).isEqualTo(new String(bytes, charset));
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_read_file() {
+    return Stream.of(
+        arguments(UTF_8, MappedFileReader.WINDOW_SIZE, 8192),
+        arguments(UTF_8, 5, 8192),
+        arguments(UTF_8, 7, 1),
+        arguments(UTF_8, 4, 3),
+        arguments(ISO_8859_1, 5, 8192),
+        arguments(UTF_16, MappedFileReader.WINDOW_SIZE, 8192),
+        arguments(UTF_16, 6, 1));
+  }
+
+  @Test
+  void should_read_malformed_input_like_input_stream_reader() throws IOException {
+    byte[] valid = "aéb".getBytes(UTF_8);
+    // a truncated sequence in the middle, an invalid byte, and a truncated sequence at the end
+    byte[] bytes = {
+      'x',
+      (byte) 0xe2,
+      (byte) 0x82,
+      'y',
+      (byte) 0xff,
+      valid[0],
+      valid[1],
+      valid[2],
+      valid[3],
+      (byte) 0xf0,
+      (byte) 0x9f
+    };
+    Files.write(file, bytes);
+    String expected = read(new InputStreamReader(new ByteArrayInputStream(bytes), UTF_8), 8192);
+    for (int windowSize : new int[] {3, 4, 100}) {
+      try (Reader reader = new MappedFileReader(file, UTF_8, 0, Long.MAX_VALUE, windowSize)) {
+        assertThat(read(reader, 8192)).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  void should_read_range_and_report_position() throws IOException {
+    byte[] bytes = TEXT.getBytes(UTF_8);
+    Files.write(file, bytes);
+    int start = TEXT.substring(0, TEXT.indexOf('2')).getBytes(UTF_8).length;
+    int end = TEXT.substring(0, TEXT.indexOf('4')).getBytes(UTF_8).length;
+    try (MappedFileReader reader = new MappedFileReader(file, UTF_8, start, end, 4)) {
+      assertThat(reader.getPosition()).isEqualTo(start);
+      char[] chars = new char[4];
+      assertThat(reader.read(chars)).isEqualTo(4);
+      assertThat(new String(chars)).isEqualTo("2,日本");
+      assertThat(reader.getPosition()).isEqualTo(start + "2,日本".getBytes(UTF_8).length);
+      assertThat(read(reader, 100)).isEqualTo(TEXT.substring(TEXT.indexOf('語'), TEXT.indexOf('4')));
+      assertThat(reader.getPosition()).isEqualTo(end);
+      assertThat(reader.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void should_read_empty_file() throws IOException {
+    try (Reader reader = new MappedFileReader(file, UTF_8)) {
+      assertThat(reader.read(new char[10])).isEqualTo(-1);
+    }
+  }
+
+  private static String read(Reader reader, int bufferSize) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    char[] buffer = new char[bufferSize];
+    int read;
+    while ((read = reader.read(buffer)) != -1) {
+      assertThat(read).isPositive();
+      sb.append(buffer, 0, read);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import static org.apache.commons.compress.compressors.CompressorStreamFactory.GZIP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import com.datastax.oss.dsbulk.io.ParallelCompressingOutputStream.BlockCompressor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ParallelCompressingOutputStreamTest {
+
+  private static final int BLOCK_SIZE = 64 * 1024;
+
+  private final byte[] data = randomData(BLOCK_SIZE * 20 + 123);
+
+  @ParameterizedTest(name = "[{index}] {0} written in chunks of {1} bytes")
+  @MethodSource
+  void should_compress_blocks_into_concatenated_units(String compressor, int chunkSize)
+      throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream pcos = newStream(out, compressor)) {
+      for (int i = 0; i < data.length; i += chunkSize) {
+        if (chunkSize == 1) {
+          pcos.write(data[i]);
+        } else {
+          pcos.write(data, i, Math.min(chunkSize, data.length - i));
+        }
+      }
+    }
+    byte[] compressed = out.toByteArray();
+    assertThat(decompress(compressor, compressed, true)).isEqualTo(data);
+    if (!compressor.equals(CompressorStreamFactory.ZSTANDARD)) {
+      // the first unit contains only the first block (zstd always reads all frames)
+      assertThat(decompress(compressor, compressed, false)).hasSize(BLOCK_SIZE);
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_compress_blocks_into_concatenated_units() {
+    return Stream.of(
+        arguments(CompressorStreamFactory.GZIP, 1),
+        arguments(CompressorStreamFactory.GZIP, 1000),
+        arguments(CompressorStreamFactory.GZIP, BLOCK_SIZE * 3),
+        arguments(CompressorStreamFactory.ZSTANDARD, 1000),
+        arguments(CompressorStreamFactory.BZIP2, 1000));
+  }
+
+  @Test
+  void should_write_valid_empty_stream() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    newStream(out, CompressorStreamFactory.GZIP).close();
+    assertThat(out.toByteArray()).isNotEmpty();
+    assertThat(decompress(CompressorStreamFactory.GZIP, out.toByteArray(), true)).isEmpty();
+  }
+
+  @Test
+  void should_not_cut_partial_blocks_when_flushed() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputStream pcos = newStream(out, CompressorStreamFactory.GZIP);
+    pcos.write(data, 0, 100);
+    pcos.flush();
+    assertThat(out.toByteArray()).isEmpty();
+    pcos.close();
+    assertThat(decompress(CompressorStreamFactory.GZIP, out.toByteArray(), true))
+        .isEqualTo(Arrays.copyOf(data, 100));
+  }
+
+  @Test
+  void should_compress_full_blocks_in_parallel_when_flushed_often() throws Exception {
+    AtomicInteger units = new AtomicInteger();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    BlockCompressor gzip = ParallelCompressingOutputStream.newBlockCompressor(GZIP);
+    BlockCompressor compressor =
+        (bytes, offset, length) -> {
+          units.incrementAndGet();
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          try {
+            // give other blocks a chance to be compressed concurrently
+            Thread.sleep(20);
+            return gzip.compress(bytes, offset, length);
+          } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+          } finally {
+            running.decrementAndGet();
+          }
+        };
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream pcos = new ParallelCompressingOutputStream(out, compressor, BLOCK_SIZE)) {
+      // flush after every small batch, as connectors do
+      for (int i = 0; i < data.length; i += 1000) {
+        pcos.write(data, i, Math.min(1000, data.length - i));
+        pcos.flush();
+      }
+    }
+    assertThat(decompress(GZIP, out.toByteArray(), true)).isEqualTo(data);
+    // one unit per block, regardless of the number of flushes
+    assertThat(units).hasValue(data.length / BLOCK_SIZE + 1);
+    assertThat(maxRunning.get())
+        .isGreaterThanOrEqualTo(Math.min(2, Runtime.getRuntime().availableProcessors()));
+  }
+
+  @Test
+  void should_report_compression_errors() {
+    OutputStream pcos =
+        new ParallelCompressingOutputStream(
+            new ByteArrayOutputStream(),
+            (bytes, offset, length) -> {
+              throw new IOException("boom");
+            },
+            BLOCK_SIZE);
+    Throwable error = catchThrowable(() -> pcos.write(data));
+    if (error == null) {
+      error = catchThrowable(pcos::close);
+    }
+    assertThat(error).isInstanceOf(IOException.class).hasMessage("boom");
+  }
+
+  private static OutputStream newStream(OutputStream out, String compressor) {
+    return new ParallelCompressingOutputStream(
+        out, ParallelCompressingOutputStream.newBlockCompressor(compressor), BLOCK_SIZE);
+  }
+
+  private static byte[] decompress(String compressor, byte[] compressed, boolean concatenated)
+      throws Exception {
+    try (InputStream in =
+        new CompressorStreamFactory(concatenated)
+            .createCompressorInputStream(compressor, new ByteArrayInputStream(compressed))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  private static byte[] randomData(int length) {
+    Random random = new Random(0);
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) ('a' + random.nextInt(8));
+    }
+    return data;
+  }
+}
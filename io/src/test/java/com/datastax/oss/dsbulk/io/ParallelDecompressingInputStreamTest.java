@@ -0,0 +1,315 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.io;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream.BLOCKSIZE;
+import net.jpountz.lz4.LZ4FrameOutputStream.FLG;
+import net.jpountz.xxhash.XXHashFactory;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ParallelDecompressingInputStreamTest {
+
+  private static final Map<String, String> COMPRESSORS =
+      ImmutableMap.of(
+          "gzip", CompressorStreamFactory.GZIP,
+          "bzip2", CompressorStreamFactory.BZIP2,
+          "zstd", CompressorStreamFactory.ZSTANDARD,
+          "lz4", CompressorStreamFactory.LZ4_FRAMED);
+
+  private final byte[] data = randomData(3 * 1024 * 1024);
+
+  @ParameterizedTest(name = "[{index}] {0}")
+  @MethodSource
+  void should_decompress_concatenated_units(String format, Compressor compressor, int parts)
+      throws IOException {
+    byte[] compressed = compress(compressor, parts);
+    assertThat(decompress(format, compressed, ParallelDecompressingInputStream.MAX_UNIT_SIZE))
+        .isEqualTo(data);
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_decompress_concatenated_units() {
+    return Stream.of(
+        arguments("gzip", (Compressor) GZIPOutputStream::new, 1),
+        arguments("gzip", (Compressor) GZIPOutputStream::new, 50),
+        arguments("gzip", (Compressor) ParallelDecompressingInputStreamTest::bgzf, 1),
+        arguments("bzip2", (Compressor) BZip2CompressorOutputStream::new, 1),
+        arguments("bzip2", (Compressor) BZip2CompressorOutputStream::new, 10),
+        arguments("zstd", (Compressor) ZstdCompressorOutputStream::new, 1),
+        arguments("zstd", (Compressor) ZstdCompressorOutputStream::new, 50),
+        arguments(
+            "lz4", (Compressor) ParallelDecompressingInputStreamTest::lz4IndependentBlocks, 1),
+        arguments(
+            "lz4", (Compressor) ParallelDecompressingInputStreamTest::lz4IndependentBlocks, 5),
+        arguments(
+            "lz4", (Compressor) ParallelDecompressingInputStreamTest::lz4DependentBlocks, 20));
+  }
+
+  @Test
+  void should_decompress_serially_when_unit_too_large() throws IOException {
+    byte[] compressed = compress(ZstdCompressorOutputStream::new, 1);
+    assertThat(decompress("zstd", compressed, 1024)).isEqualTo(data);
+    compressed = compress(GZIPOutputStream::new, 2);
+    assertThat(decompress("gzip", compressed, 1024)).isEqualTo(data);
+  }
+
+  @Test
+  void should_decompress_serially_when_header_found_in_compressed_data() throws IOException {
+    // stored deflate blocks contain the data verbatim, including what looks like gzip headers
+    byte[] header = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0};
+    byte[] data = Arrays.copyOf(this.data, this.data.length);
+    for (int i = 1000; i < data.length - header.length; i += 100_000) {
+      System.arraycopy(header, 0, data, i, header.length);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < 3; i++) {
+      try (OutputStream gzip =
+          new GZIPOutputStream(new NonClosingOutputStream(out)) {
+            {
+              def.setLevel(Deflater.NO_COMPRESSION);
+            }
+          }) {
+        gzip.write(data);
+      }
+    }
+    byte[] expected = new byte[data.length * 3];
+    for (int i = 0; i < 3; i++) {
+      System.arraycopy(data, 0, expected, i * data.length, data.length);
+    }
+    assertThat(
+            decompress("gzip", out.toByteArray(), ParallelDecompressingInputStream.MAX_UNIT_SIZE))
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void should_not_decompress_truncated_data() throws IOException {
+    byte[] compressed = compress(ZstdCompressorOutputStream::new, 10);
+    byte[] truncated = Arrays.copyOf(compressed, compressed.length - 10);
+    Throwable error =
+        catchThrowable(
+            () -> decompress("zstd", truncated, ParallelDecompressingInputStream.MAX_UNIT_SIZE));
+    assertThat(error).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void should_detect_corrupt_lz4_content() throws IOException {
+    byte[] compressed = compress(ParallelDecompressingInputStreamTest::lz4IndependentBlocks, 1);
+    // corrupt the content checksum
+    compressed[compressed.length - 1] ^= 1;
+    Throwable error =
+        catchThrowable(
+            () -> decompress("lz4", compressed, ParallelDecompressingInputStream.MAX_UNIT_SIZE));
+    assertThat(error).isInstanceOf(IOException.class).hasMessage("Content checksum mismatch");
+  }
+
+  private byte[] compress(Compressor compressor, int parts) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int partSize = data.length / parts;
+    for (int i = 0; i < parts; i++) {
+      int end = i == parts - 1 ? data.length : (i + 1) * partSize;
+      try (OutputStream part = compressor.open(new NonClosingOutputStream(out))) {
+        part.write(data, i * partSize, end - i * partSize);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] decompress(String format, byte[] compressed, int maxUnitSize)
+      throws IOException {
+    String compressor = COMPRESSORS.get(format);
+    try (InputStream in =
+        new ParallelDecompressingInputStream(
+            new ByteArrayInputStream(compressed),
+            ParallelDecompressingInputStream.newSplitter(format),
+            source -> {
+              try {
+                return new CompressorStreamFactory(true)
+                    .createCompressorInputStream(compressor, source);
+              } catch (Exception e) {
+                throw new IOException(e);
+              }
+            },
+            maxUnitSize)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  private static OutputStream lz4IndependentBlocks(OutputStream out) throws IOException {
+    return new LZ4FrameOutputStream(
+        out,
+        BLOCKSIZE.SIZE_64KB,
+        FLG.Bits.BLOCK_INDEPENDENCE,
+        FLG.Bits.BLOCK_CHECKSUM,
+        FLG.Bits.CONTENT_CHECKSUM);
+  }
+
+  /**
+   * Creates a stream that compresses its data into an LZ4 frame whose blocks are declared as
+   * dependent; the blocks are actually independent, which is still a valid frame.
+   */
+  private static OutputStream lz4DependentBlocks(OutputStream out) throws IOException {
+    ByteArrayOutputStream frame =
+        new ByteArrayOutputStream() {
+          @Override
+          public void close() throws IOException {
+            // clear the block independence flag, then update the header checksum
+            buf[4] &= ~0x20;
+            buf[6] = (byte) (XXHashFactory.fastestInstance().hash32().hash(buf, 4, 2, 0) >> 8);
+            writeTo(out);
+          }
+        };
+    return new LZ4FrameOutputStream(
+        frame, BLOCKSIZE.SIZE_64KB, FLG.Bits.BLOCK_INDEPENDENCE, FLG.Bits.CONTENT_CHECKSUM);
+  }
+
+  /** Creates a stream that compresses its data into BGZF blocks, like bgzip does. */
+  private static OutputStream bgzf(OutputStream out) {
+    return new OutputStream() {
+
+      private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+          int length = Math.min(len, 60_000 - block.size());
+          block.write(b, off, length);
+          off += length;
+          len -= length;
+          if (block.size() == 60_000) {
+            flushBlock();
+          }
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (block.size() > 0) {
+          flushBlock();
+        }
+        // empty end-of-file block
+        flushBlock();
+        out.close();
+      }
+
+      private void flushBlock() throws IOException {
+        byte[] input = block.toByteArray();
+        block.reset();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(input);
+        deflater.finish();
+        byte[] deflated = new byte[input.length + 1024];
+        int length = deflater.deflate(deflated);
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(input);
+        int blockSize = 18 + length + 8;
+        out.write(new byte[] {0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0});
+        out.write(new byte[] {'B', 'C', 2, 0});
+        writeShortLE(blockSize - 1);
+        out.write(deflated, 0, length);
+        writeIntLE((int) crc.getValue());
+        writeIntLE(input.length);
+      }
+
+      private void writeShortLE(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+      }
+
+      private void writeIntLE(int value) throws IOException {
+        writeShortLE(value & 0xffff);
+        writeShortLE((value >> 16) & 0xffff);
+      }
+    };
+  }
+
+  private static byte[] randomData(int length) {
+    Random random = new Random(0);
+    String[] words = {"foo", "bar", "qix", "1234", "2020-01-01", "\n", ",", "lorem", "ipsum"};
+    StringBuilder sb = new StringBuilder(length);
+    while (sb.length() < length) {
+      sb.append(words[random.nextInt(words.length)]);
+      if (random.nextInt(10) == 0) {
+        sb.append(random.nextLong());
+      }
+    }
+    return sb.substring(0, length).getBytes(US_ASCII);
+  }
+
+  @FunctionalInterface
+  private interface Compressor {
+
+    OutputStream open(OutputStream out) throws IOException;
+  }
+
+  private static class NonClosingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+
+    private NonClosingOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -20,14 +20,20 @@ import static com.datastax.oss.dsbulk.partitioner.utils.TokenUtils.getTokenValue
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
 import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.RelationMetadata;
 import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
 import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
+import com.datastax.oss.dsbulk.partitioner.murmur3.Murmur3BulkTokenFactory;
+import com.datastax.oss.dsbulk.partitioner.yugabyte.TabletPartitionGenerator;
+import com.yugabyte.oss.driver.api.core.TableSplitMetadata;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -35,6 +41,7 @@ import java.util.stream.Collectors;
 public class TokenRangeReadStatementGenerator {
 
   private final RelationMetadata table;
+  private final Metadata metadata;
   private final TokenMap tokenMap;
 
   /**
@@ -44,6 +51,7 @@ public class TokenRangeReadStatementGenerator {
   public TokenRangeReadStatementGenerator(
       @NonNull RelationMetadata table, @NonNull Metadata metadata) {
     this.table = table;
+    this.metadata = metadata;
     tokenMap =
         metadata
             .getTokenMap()
@@ -87,6 +95,10 @@ public class TokenRangeReadStatementGenerator {
    * in the ring and how contiguous token ranges are distributed across the ring. In particular with
    * vnodes, the total number of statements can be much higher than {@code splitCount}.
    *
+   * <p>When the driver reports the tablets of the table, i.e. when connected to YugabyteDB, splits
+   * are aligned to tablets instead, and each statement is sent to the tablet leader, if it is up;
+   * see {@link TabletPartitionGenerator}.
+   *
    * @param splitCount The minimum desired number of statements to generate (on a best-effort
    *     basis).
    * @param statementFactory The factory to use to generate statements for each split.
@@ -98,11 +110,18 @@ public class TokenRangeReadStatementGenerator {
     BulkTokenFactory tokenFactory =
         BulkTokenFactory.forPartitioner(
             ((DefaultTokenMap) tokenMap).getTokenFactory().getPartitionerName());
-    PartitionGenerator generator =
-        new PartitionGenerator(table.getKeyspace(), tokenMap, tokenFactory);
-    List<BulkTokenRange> partitions = generator.partition(splitCount);
+    Optional<TableSplitMetadata> tableSplits = tableSplits(tokenFactory);
+    List<BulkTokenRange> partitions;
+    if (tableSplits.isPresent()) {
+      partitions =
+          new TabletPartitionGenerator(tableSplits.get(), tokenFactory).partition(splitCount);
+    } else {
+      PartitionGenerator generator =
+          new PartitionGenerator(table.getKeyspace(), tokenMap, tokenFactory);
+      partitions = generator.partition(splitCount);
+    }
     List<Statement<?>> statements = new ArrayList<>();
-    for (TokenRange range : partitions) {
+    for (BulkTokenRange range : partitions) {
       Statement<?> stmt = statementFactory.apply(range);
       if (stmt.getKeyspace() != null) {
         if (!stmt.getKeyspace().equals(table.getKeyspace())) {
@@ -115,11 +134,40 @@ public class TokenRangeReadStatementGenerator {
         stmt = stmt.setRoutingKeyspace(table.getKeyspace());
       }
       stmt = stmt.setRoutingToken(range.getEnd());
+      if (tableSplits.isPresent()) {
+        // The driver token map doesn't know about tablets, so routing by token would not reach the
+        // tablet leader; target the leader directly instead, unless it is down.
+        Optional<Node> leader =
+            range.replicas().stream()
+                .findFirst()
+                .flatMap(metadata::findNode)
+                .filter(node -> node.getState() == NodeState.UP);
+        if (leader.isPresent()) {
+          stmt = stmt.setNode(leader.get());
+        }
+      }
       statements.add(stmt);
     }
     return statements;
   }
 
+  /**
+   * @return The tablets of the table, if the driver reports them and the table tokens are
+   *     compatible with them; empty otherwise.
+   */
+  private Optional<TableSplitMetadata> tableSplits(BulkTokenFactory tokenFactory) {
+    if (!(tokenFactory instanceof Murmur3BulkTokenFactory)) {
+      return Optional.empty();
+    }
+    return metadata
+        .getDefaultPartitionMetadata()
+        .map(
+            partitionMetadata ->
+                partitionMetadata.getTableSplitMetadata(
+                    table.getKeyspace().asInternal(), table.getName().asInternal()))
+        .filter(tableSplits -> !tableSplits.getPartitionMap().isEmpty());
+  }
+
   private Statement<?> generateSimpleStatement(TokenRange range) {
     String all =
         table.getColumns().keySet().stream()
@@ -0,0 +1,146 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.partitioner.yugabyte;
+
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
+import com.datastax.oss.dsbulk.partitioner.BulkTokenFactory;
+import com.datastax.oss.dsbulk.partitioner.BulkTokenRange;
+import com.yugabyte.oss.driver.api.core.PartitionMetadata;
+import com.yugabyte.oss.driver.api.core.TableSplitMetadata;
+import com.yugabyte.oss.driver.internal.core.loadbalancing.PartitionAwarePolicy;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Partitions a YugabyteDB table along the boundaries of its tablets.
+ *
+ * <p>YugabyteDB hash-partitions tables into tablets, each of them owning a contiguous range of
+ * 16-bit partition hashes; the driver reads these ranges, along with the tablet replicas, from the
+ * {@code system.partitions} table. The ring ranges that the driver exposes in its token map do not
+ * match tablets, so a split computed from them may straddle several tablets, and be served by
+ * several tablet leaders. The splits generated here never do: each split covers one tablet, or a
+ * part of it, and its only replica is the tablet leader.
+ *
+ * <p>Partition hashes map to CQL tokens as follows: hash {@code h} is token {@code (h ^ 0x8000) <<
+ * 48}, so hash 0 is the minimum token, and the order of hashes is the order of tokens. A tablet
+ * owning the hashes {@code [start, end)} is thus read with {@code token(...) >= T(start) AND
+ * token(...) < T(end)}, where the end of the last tablet is the minimum token.
+ */
+public class TabletPartitionGenerator {
+
+  /** The number of partition hashes in a YugabyteDB table. */
+  private static final int HASH_COUNT = 1 << 16;
+
+  private final TableSplitMetadata tableSplits;
+  private final BulkTokenFactory tokenFactory;
+
+  /**
+   * @param tableSplits The tablets of the table to partition, as read by the driver.
+   * @param tokenFactory The token factory; tablets are only supported with the Murmur3 partitioner.
+   */
+  public TabletPartitionGenerator(
+      @NonNull TableSplitMetadata tableSplits, @NonNull BulkTokenFactory tokenFactory) {
+    this.tableSplits = tableSplits;
+    this.tokenFactory = tokenFactory;
+  }
+
+  /**
+   * Partitions the table into at least {@code splitCount} splits, or one split per tablet if the
+   * table has more tablets than that.
+   *
+   * <p>When more splits than tablets are requested, each tablet is divided evenly into sub-ranges
+   * of partition hashes; a tablet owning less hashes than required yields one split per hash.
+   *
+   * @param splitCount The desired number of splits.
+   */
+  @NonNull
+  public List<BulkTokenRange> partition(int splitCount) {
+    List<PartitionMetadata> tablets = new ArrayList<>(tableSplits.getPartitionMap().values());
+    if (tablets.isEmpty()) {
+      throw new IllegalStateException("No tablets found");
+    }
+    int splitsPerTablet = Math.max(1, (splitCount + tablets.size() - 1) / tablets.size());
+    List<BulkTokenRange> splits = new ArrayList<>();
+    for (PartitionMetadata tablet : tablets) {
+      int start = tablet.getStartKey();
+      // the end key of the last tablet is empty, which the driver reports as 0
+      int end = tablet.getEndKey() == 0 ? HASH_COUNT : tablet.getEndKey();
+      Set<EndPoint> replicas = leader(tablet);
+      int hashCount = end - start;
+      int count = Math.min(splitsPerTablet, hashCount);
+      for (int i = 0; i < count; i++) {
+        // multiply and divide at each step to create splits of sizes as even as possible
+        int splitStart = start + (int) ((long) hashCount * i / count);
+        int splitEnd = start + (int) ((long) hashCount * (i + 1) / count);
+        splits.add(tokenFactory.range(token(splitStart), token(splitEnd), replicas));
+      }
+    }
+    checkRing(splits);
+    return splits;
+  }
+
+  /**
+   * @return The token of the first row with the given partition hash; the hash right past the
+   *     greatest one maps to the minimum token.
+   */
+  @NonNull
+  private static Murmur3Token token(int hash) {
+    return new Murmur3Token(PartitionAwarePolicy.YBToCqlHashCode(hash & (HASH_COUNT - 1)));
+  }
+
+  /**
+   * @return The tablet leader, or an empty set if the tablet has no known replicas. The driver
+   *     lists the leader first among the tablet replicas, if it knows it; otherwise the first
+   *     follower is returned, which forwards reads to the leader.
+   */
+  @NonNull
+  private static Set<EndPoint> leader(PartitionMetadata tablet) {
+    List<Node> hosts = tablet.getHosts();
+    return hosts.isEmpty()
+        ? Collections.emptySet()
+        : Collections.singleton(hosts.get(0).getEndPoint());
+  }
+
+  /** Checks that the splits cover the entire ring, each split starting where the previous ends. */
+  private void checkRing(List<BulkTokenRange> splits) {
+    Token end = tokenFactory.minToken();
+    for (BulkTokenRange split : splits) {
+      if (!split.getStart().equals(end)) {
+        throw new IllegalStateException(
+            String.format(
+                "Incomplete tablet partition detected: no split starts at %s. "
+                    + "The table tablets were probably being split, please retry. "
+                    + "Generated splits: %s.",
+                end, splits));
+      }
+      end = split.getEnd();
+    }
+    if (!end.equals(tokenFactory.minToken())) {
+      throw new IllegalStateException(
+          String.format(
+              "Incomplete tablet partition detected: the last split ends at %s. "
+                  + "The table tablets were probably being split, please retry. "
+                  + "Generated splits: %s.",
+              end, splits));
+    }
+  }
+}
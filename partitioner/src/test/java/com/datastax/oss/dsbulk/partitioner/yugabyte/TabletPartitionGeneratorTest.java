@@ -0,0 +1,164 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.partitioner.yugabyte;
+
+import static com.datastax.oss.dsbulk.partitioner.assertions.PartitionerAssertions.assertThat;
+import static java.net.InetSocketAddress.createUnresolved;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
+import com.datastax.oss.dsbulk.partitioner.BulkTokenRange;
+import com.datastax.oss.dsbulk.partitioner.murmur3.Murmur3BulkTokenFactory;
+import com.yugabyte.oss.driver.api.core.PartitionMetadata;
+import com.yugabyte.oss.driver.api.core.TableSplitMetadata;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TabletPartitionGeneratorTest {
+
+  private final Murmur3BulkTokenFactory tokenFactory = new Murmur3BulkTokenFactory();
+
+  @Mock private Node host1;
+  @Mock private Node host2;
+  @Mock private Node host3;
+
+  @BeforeEach
+  void setUp() {
+    when(host1.getEndPoint())
+        .thenReturn(new DefaultEndPoint(createUnresolved("192.168.1.1", 9042)));
+    when(host2.getEndPoint())
+        .thenReturn(new DefaultEndPoint(createUnresolved("192.168.1.2", 9042)));
+    when(host3.getEndPoint())
+        .thenReturn(new DefaultEndPoint(createUnresolved("192.168.1.3", 9042)));
+  }
+
+  @Test
+  void should_align_splits_to_tablets() {
+    // A typical table with 3 tablets, as reported by system.partitions; the leader comes first.
+    TableSplitMetadata tableSplits =
+        tableSplits(
+            tablet(0x0000, 0x5555, host1, host2, host3),
+            tablet(0x5555, 0xAAAA, host2, host3, host1),
+            tablet(0xAAAA, 0x0000, host3, host1, host2));
+    List<BulkTokenRange> splits =
+        new TabletPartitionGenerator(tableSplits, tokenFactory).partition(3);
+    assertThat(splits).hasSize(3);
+    assertThat(splits.get(0))
+        .startsWith(Long.MIN_VALUE)
+        .endsWith(0xD555_0000_0000_0000L)
+        .hasReplicas(host1)
+        .hasFraction(0.3333d, offset(.0001d));
+    assertThat(splits.get(1))
+        .startsWith(0xD555_0000_0000_0000L)
+        .endsWith(0x2AAA_0000_0000_0000L)
+        .hasReplicas(host2)
+        .hasFraction(0.3333d, offset(.0001d));
+    assertThat(splits.get(2))
+        .startsWith(0x2AAA_0000_0000_0000L)
+        .endsWith(Long.MIN_VALUE)
+        .hasReplicas(host3)
+        .hasFraction(0.3333d, offset(.0001d));
+  }
+
+  @Test
+  void should_split_tablets_evenly() {
+    TableSplitMetadata tableSplits =
+        tableSplits(tablet(0x0000, 0x8000, host1, host2), tablet(0x8000, 0x0000, host2, host1));
+    List<BulkTokenRange> splits =
+        new TabletPartitionGenerator(tableSplits, tokenFactory).partition(3);
+    assertThat(splits).hasSize(4);
+    assertThat(splits.get(0)).startsWith(Long.MIN_VALUE).endsWith(0xC000_0000_0000_0000L);
+    assertThat(splits.get(1)).startsWith(0xC000_0000_0000_0000L).endsWith(0L);
+    assertThat(splits.get(2)).startsWith(0L).endsWith(0x4000_0000_0000_0000L);
+    assertThat(splits.get(3)).startsWith(0x4000_0000_0000_0000L).endsWith(Long.MIN_VALUE);
+    assertThat(splits.get(0)).hasReplicas(host1);
+    assertThat(splits.get(1)).hasReplicas(host1);
+    assertThat(splits.get(2)).hasReplicas(host2);
+    assertThat(splits.get(3)).hasReplicas(host2);
+  }
+
+  @Test
+  void should_not_split_below_one_hash() {
+    TableSplitMetadata tableSplits =
+        tableSplits(tablet(0x0000, 0x0002, host1), tablet(0x0002, 0x0000, host2));
+    List<BulkTokenRange> splits =
+        new TabletPartitionGenerator(tableSplits, tokenFactory).partition(8);
+    assertThat(splits).hasSize(6);
+    assertThat(splits.get(0)).startsWith(Long.MIN_VALUE).endsWith(0x8001_0000_0000_0000L);
+    assertThat(splits.get(1))
+        .startsWith(0x8001_0000_0000_0000L)
+        .endsWith(0x8002_0000_0000_0000L)
+        .hasReplicas(host1);
+    assertThat(splits.get(2)).startsWith(0x8002_0000_0000_0000L).hasReplicas(host2);
+    assertThat(splits.get(5)).endsWith(Long.MIN_VALUE).hasReplicas(host2);
+  }
+
+  @Test
+  void should_cover_entire_ring_with_single_tablet() {
+    TableSplitMetadata tableSplits = tableSplits(tablet(0x0000, 0x0000, host1));
+    List<BulkTokenRange> splits =
+        new TabletPartitionGenerator(tableSplits, tokenFactory).partition(1);
+    assertThat(splits).hasSize(1);
+    assertThat(splits.get(0))
+        .startsWith(Long.MIN_VALUE)
+        .endsWith(Long.MIN_VALUE)
+        .hasReplicas(host1)
+        .hasFraction(1d, offset(.0001d));
+  }
+
+  @Test
+  void should_leave_replicas_empty_when_tablet_has_no_hosts() {
+    TableSplitMetadata tableSplits = tableSplits(tablet(0x0000, 0x0000));
+    List<BulkTokenRange> splits =
+        new TabletPartitionGenerator(tableSplits, tokenFactory).partition(1);
+    assertThat(splits.get(0).replicas()).isEmpty();
+  }
+
+  @Test
+  void should_detect_missing_tablet() {
+    TableSplitMetadata tableSplits =
+        tableSplits(tablet(0x0000, 0x4000, host1), tablet(0x8000, 0x0000, host2));
+    assertThatThrownBy(() -> new TabletPartitionGenerator(tableSplits, tokenFactory).partition(2))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Incomplete tablet partition detected");
+  }
+
+  private static TableSplitMetadata tableSplits(PartitionMetadata... tablets) {
+    TableSplitMetadata tableSplits = new TableSplitMetadata();
+    for (PartitionMetadata tablet : tablets) {
+      tableSplits.getPartitionMap().put(tablet.getStartKey(), tablet);
+    }
+    return tableSplits;
+  }
+
+  private static PartitionMetadata tablet(int startKey, int endKey, Node... hosts) {
+    return new PartitionMetadata(
+        startKey, endKey, hosts.length == 0 ? Collections.emptyList() : Arrays.asList(hosts));
+  }
+}
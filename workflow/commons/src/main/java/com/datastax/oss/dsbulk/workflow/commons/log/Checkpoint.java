@@ -0,0 +1,235 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.datastax.oss.dsbulk.connectors.api.CommittedPositions;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.LongPredicate;
+
+/**
+ * A snapshot of the positions committed by a load operation, used to resume it.
+ *
+ * <p>Checkpoints are stored in the operation directory, in a text file with one line per resource.
+ * Each line contains the resource URI, its status ({@code COMPLETE} if all its records were
+ * committed, {@code PARTIAL} otherwise) and the ranges of committed positions, separated by tabs,
+ * e.g.:
+ *
+ * <pre>
+ * file:/data/file1.csv	COMPLETE	1-1000
+ * file:/data/file2.csv	PARTIAL	1-500,502-800
+ * </pre>
+ *
+ * Checkpoint files are always replaced atomically, so that a crash while saving a checkpoint leaves
+ * the previous checkpoint intact.
+ */
+public class Checkpoint implements CommittedPositions {
+
+  static final String CHECKPOINT_FILE = "checkpoint.txt";
+
+  private static final String COMPLETE = "COMPLETE";
+  private static final String PARTIAL = "PARTIAL";
+
+  private final Map<URI, List<Range>> positions;
+  private final Set<URI> committedResources;
+
+  /**
+   * Creates a new checkpoint.
+   *
+   * @param positions the committed positions, as sorted, non-overlapping ranges per resource.
+   * @param committedResources the resources whose records were all committed.
+   */
+  public Checkpoint(
+      @NonNull Map<URI, List<Range>> positions, @NonNull Set<URI> committedResources) {
+    this.positions = new TreeMap<>(positions);
+    this.committedResources = new TreeSet<>(committedResources);
+  }
+
+  /**
+   * Loads the checkpoint stored in the given operation directory.
+   *
+   * @param operationDirectory the directory of the operation to resume.
+   * @return the checkpoint.
+   * @throws IllegalArgumentException if the directory does not contain a valid checkpoint file.
+   * @throws IOException if the checkpoint file cannot be read.
+   */
+  @NonNull
+  public static Checkpoint load(@NonNull Path operationDirectory) throws IOException {
+    Path file = operationDirectory.resolve(CHECKPOINT_FILE);
+    if (!Files.isRegularFile(file)) {
+      throw new IllegalArgumentException(
+          String.format("Checkpoint file %s does not exist or is not a regular file.", file));
+    }
+    Map<URI, List<Range>> positions = new TreeMap<>();
+    Set<URI> committedResources = new TreeSet<>();
+    try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isEmpty()) {
+          continue;
+        }
+        try {
+          String[] tokens = line.split("\t", -1);
+          if (tokens.length != 3) {
+            throw new IllegalArgumentException("expecting 3 tab-separated fields");
+          }
+          URI resource = new URI(tokens[0]);
+          if (tokens[1].equals(COMPLETE)) {
+            committedResources.add(resource);
+          } else if (!tokens[1].equals(PARTIAL)) {
+            throw new IllegalArgumentException("unknown status " + tokens[1]);
+          }
+          positions.put(resource, parseRanges(tokens[2]));
+        } catch (Exception e) {
+          throw new IllegalArgumentException(
+              String.format("Invalid checkpoint file %s, line %d: %s", file, lineNumber, line), e);
+        }
+      }
+    }
+    return new Checkpoint(positions, committedResources);
+  }
+
+  /**
+   * Saves this checkpoint to the given operation directory, replacing any previous checkpoint.
+   *
+   * @param operationDirectory the directory of the current operation.
+   * @throws IOException if the checkpoint file cannot be written.
+   */
+  public void save(@NonNull Path operationDirectory) throws IOException {
+    Path file = operationDirectory.resolve(CHECKPOINT_FILE);
+    Path tempFile = operationDirectory.resolve(CHECKPOINT_FILE + ".tmp");
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(tempFile, UTF_8))) {
+      positions.forEach(
+          (resource, ranges) -> {
+            writer.print(resource);
+            writer.print('\t');
+            writer.print(committedResources.contains(resource) ? COMPLETE : PARTIAL);
+            writer.print('\t');
+            printRanges(ranges, writer);
+            writer.println();
+          });
+    }
+    try {
+      Files.move(tempFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile, file, REPLACE_EXISTING);
+    }
+  }
+
+  /** @return the committed positions, as sorted, non-overlapping ranges per resource. */
+  @NonNull
+  public Map<URI, List<Range>> getPositions() {
+    return Collections.unmodifiableMap(positions);
+  }
+
+  /** @return the resources whose records were all committed. */
+  @NonNull
+  public Set<URI> getCommittedResources() {
+    return Collections.unmodifiableSet(committedResources);
+  }
+
+  @Override
+  public boolean isResourceCommitted(@NonNull URI resource) {
+    return committedResources.contains(resource);
+  }
+
+  @Nullable
+  @Override
+  public LongPredicate getCommittedPositions(@NonNull URI resource) {
+    List<Range> ranges = positions.get(resource);
+    if (ranges == null || ranges.isEmpty()) {
+      return null;
+    }
+    int size = ranges.size();
+    long[] lowers = new long[size];
+    long[] uppers = new long[size];
+    for (int i = 0; i < size; i++) {
+      lowers[i] = ranges.get(i).getLower();
+      uppers[i] = ranges.get(i).getUpper();
+    }
+    return position -> {
+      int i = Arrays.binarySearch(lowers, position);
+      if (i >= 0) {
+        return true;
+      }
+      // index of the last range whose lower bound is less than position
+      i = -i - 2;
+      return i >= 0 && position <= uppers[i];
+    };
+  }
+
+  @NonNull
+  private static List<Range> parseRanges(@NonNull String text) {
+    List<Range> ranges = new ArrayList<>();
+    if (!text.isEmpty()) {
+      long previous = Long.MIN_VALUE;
+      for (String token : text.split(",")) {
+        int dash = token.indexOf('-');
+        Range range;
+        if (dash == -1) {
+          range = new Range(Long.parseLong(token));
+        } else {
+          range =
+              new Range(
+                  Long.parseLong(token.substring(0, dash)),
+                  Long.parseLong(token.substring(dash + 1)));
+        }
+        if (range.getLower() > range.getUpper() || range.getLower() <= previous) {
+          throw new IllegalArgumentException("ranges must be sorted and non-overlapping");
+        }
+        previous = range.getUpper();
+        ranges.add(range);
+      }
+    }
+    return ranges;
+  }
+
+  private static void printRanges(@NonNull List<Range> ranges, @NonNull PrintWriter writer) {
+    boolean first = true;
+    for (Range range : ranges) {
+      if (!first) {
+        writer.print(',');
+      }
+      first = false;
+      writer.print(range.getLower());
+      if (range.getUpper() != range.getLower()) {
+        writer.print('-');
+        writer.print(range.getUpper());
+      }
+    }
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jctools.queues.MpscArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A journal that writes entries to log files asynchronously, on a dedicated writer thread.
+ *
+ * <p>Entries are appended to a bounded, lock-free queue by any number of producers; the writer
+ * thread drains the queue in batches, writes each entry to its destination file, and flushes the
+ * files that were written to at most once per flush interval. When the queue is empty, the writer
+ * thread parks until the next flush is due, or indefinitely if there is nothing to flush; producers
+ * wake it up when they append an entry.
+ *
+ * <p>When the queue is full, entries appended with {@link #append(Path, Consumer, boolean)} are
+ * either dropped or block the producer until the writer thread makes room, depending on {@link
+ * #isDropWhenFull()} and on whether the entry itself is droppable: bad file entries must never be
+ * dropped, since they are needed to replay the rejected records.
+ */
+public class ErrorJournal implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ErrorJournal.class);
+
+  /** The default maximum number of pending entries. */
+  public static final int DEFAULT_MAX_PENDING_ENTRIES = 8192;
+
+  /** The default flush interval. */
+  public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+
+  private static final int DRAIN_BATCH_SIZE = 1024;
+
+  /**
+   * The maximum time a blocked producer waits before checking the queue again; producers are
+   * normally notified as soon as room is made, this only guards against a missed notification.
+   */
+  private static final long FULL_WAIT_MILLIS = 10;
+
+  private final MpscArrayQueue<Entry> queue;
+  private final long flushIntervalNanos;
+  private final boolean dropWhenFull;
+
+  private final LongAdder droppedEntries = new LongAdder();
+  private final AtomicInteger blockedProducers = new AtomicInteger();
+  private final Object notFull = new Object();
+  private final Set<PrintWriter> dirtyWriters = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private Function<Path, PrintWriter> writers;
+  private Consumer<Throwable> errorHandler;
+  private volatile Thread writerThread;
+
+  private volatile boolean writerParked;
+  private volatile boolean closed;
+
+  /**
+   * Creates a new journal.
+   *
+   * @param maxPendingEntries the maximum number of entries waiting to be written.
+   * @param flushInterval the maximum interval between two flushes of a file that was written to.
+   * @param dropWhenFull whether droppable entries should be dropped when the journal is full,
+   *     instead of blocking the producer.
+   */
+  public ErrorJournal(
+      int maxPendingEntries, @NonNull Duration flushInterval, boolean dropWhenFull) {
+    if (maxPendingEntries < 1) {
+      throw new IllegalArgumentException("Invalid max pending entries: " + maxPendingEntries);
+    }
+    if (flushInterval.isNegative()) {
+      throw new IllegalArgumentException("Invalid flush interval: " + flushInterval);
+    }
+    this.queue = new MpscArrayQueue<>(maxPendingEntries);
+    this.flushIntervalNanos = flushInterval.toNanos();
+    this.dropWhenFull = dropWhenFull;
+  }
+
+  /**
+   * Starts the writer thread.
+   *
+   * @param writers a function that returns the writer for a given file; only invoked by the writer
+   *     thread.
+   * @param errorHandler the handler to notify when an entry cannot be written.
+   */
+  public void start(
+      @NonNull Function<Path, PrintWriter> writers, @NonNull Consumer<Throwable> errorHandler) {
+    this.writers = writers;
+    this.errorHandler = errorHandler;
+    writerThread = new Thread(this::run, "error-journal");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Appends an entry to the journal.
+   *
+   * @param file the file to write the entry to.
+   * @param action the action that writes the entry; it is invoked by the writer thread.
+   * @param droppable whether the entry can be dropped when the journal is full.
+   */
+  public void append(@NonNull Path file, @NonNull Consumer<PrintWriter> action, boolean droppable) {
+    offer(new Entry(file, action, null), droppable && dropWhenFull);
+  }
+
+  /**
+   * Requests a flush of all the entries appended so far.
+   *
+   * @return a future that completes when all the entries appended before this call have been
+   *     written and flushed.
+   */
+  @NonNull
+  public CompletableFuture<Void> flush() {
+    CompletableFuture<Void> barrier = new CompletableFuture<>();
+    offer(new Entry(null, null, barrier), false);
+    return barrier;
+  }
+
+  /** @return whether droppable entries are dropped when the journal is full. */
+  public boolean isDropWhenFull() {
+    return dropWhenFull;
+  }
+
+  /** @return the number of entries that were dropped because the journal was full. */
+  public long getDroppedEntries() {
+    return droppedEntries.sum();
+  }
+
+  /**
+   * Writes all pending entries, flushes the files that were written to, then stops the writer
+   * thread. The files themselves are not closed.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    closed = true;
+    if (writerThread != null) {
+      LockSupport.unpark(writerThread);
+      writerThread.join();
+    }
+    long dropped = droppedEntries.sum();
+    if (dropped > 0) {
+      LOGGER.warn(
+          "{} error log entries were dropped because the error journal was full; "
+              + "consider increasing log.journal.maxPendingEntries.",
+          dropped);
+    }
+  }
+
+  private void offer(Entry entry, boolean drop) {
+    if (closed) {
+      throw new IllegalStateException("Error journal is closed");
+    }
+    if (!queue.offer(entry)) {
+      if (drop) {
+        droppedEntries.increment();
+        return;
+      }
+      awaitRoom(entry);
+    }
+    if (writerParked) {
+      LockSupport.unpark(writerThread);
+    }
+  }
+
+  private void awaitRoom(Entry entry) {
+    boolean interrupted = false;
+    synchronized (notFull) {
+      blockedProducers.incrementAndGet();
+      try {
+        while (!queue.offer(entry)) {
+          try {
+            notFull.wait(FULL_WAIT_MILLIS);
+          } catch (InterruptedException e) {
+            // bad file entries must not be lost: keep waiting, and restore the flag afterwards
+            interrupted = true;
+          }
+        }
+      } finally {
+        blockedProducers.decrementAndGet();
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    long nextFlush = System.nanoTime() + flushIntervalNanos;
+    while (true) {
+      int drained = queue.drain(this::write, DRAIN_BATCH_SIZE);
+      if (drained > 0) {
+        if (blockedProducers.get() > 0) {
+          synchronized (notFull) {
+            notFull.notifyAll();
+          }
+        }
+      } else {
+        if (closed && queue.isEmpty()) {
+          break;
+        }
+        awaitEntries(nextFlush);
+      }
+      long now = System.nanoTime();
+      if (now - nextFlush >= 0) {
+        flushDirtyWriters();
+        nextFlush = now + flushIntervalNanos;
+      }
+    }
+    flushDirtyWriters();
+  }
+
+  private void awaitEntries(long nextFlush) {
+    writerParked = true;
+    // check again after publishing the flag, so that an entry appended concurrently, or a
+    // concurrent call to close(), cannot be missed
+    if (queue.isEmpty() && !closed) {
+      if (dirtyWriters.isEmpty()) {
+        LockSupport.park(this);
+      } else {
+        LockSupport.parkNanos(this, nextFlush - System.nanoTime());
+      }
+    }
+    writerParked = false;
+  }
+
+  private void write(Entry entry) {
+    if (entry.barrier != null) {
+      flushDirtyWriters();
+      entry.barrier.complete(null);
+      return;
+    }
+    try {
+      PrintWriter writer = writers.apply(entry.file);
+      entry.action.accept(writer);
+      dirtyWriters.add(writer);
+    } catch (Throwable t) {
+      errorHandler.accept(t);
+    }
+  }
+
+  private void flushDirtyWriters() {
+    for (PrintWriter writer : dirtyWriters) {
+      writer.flush();
+    }
+    dirtyWriters.clear();
+  }
+
+  private static class Entry {
+
+    private final Path file;
+    private final Consumer<PrintWriter> action;
+    private final CompletableFuture<Void> barrier;
+
+    private Entry(
+        @Nullable Path file,
+        @Nullable Consumer<PrintWriter> action,
+        @Nullable CompletableFuture<Void> barrier) {
+      this.file = file;
+      this.action = action;
+      this.barrier = barrier;
+    }
+  }
+}
@@ -39,6 +39,8 @@ import com.datastax.oss.driver.api.core.servererrors.QueryExecutionException;
 import com.datastax.oss.driver.api.core.servererrors.ServerError;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.driver.shaded.guava.common.base.Joiner;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.MoreExecutors;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
 import com.datastax.oss.dsbulk.connectors.api.ErrorRecord;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
@@ -66,12 +68,21 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -103,9 +114,11 @@ public class LogManager implements AutoCloseable {
   private final ErrorThreshold errorThreshold;
   private final ErrorThreshold queryWarningsThreshold;
   private final boolean trackPositions;
+  private final Duration checkpointInterval;
   private final StatementFormatter statementFormatter;
   private final StatementFormatVerbosity statementFormatVerbosity;
   private final RowFormatter rowFormatter;
+  private final ErrorJournal journal;
 
   private final AtomicInteger errors = new AtomicInteger(0);
   private final LongAdder totalItems = new LongAdder();
@@ -125,6 +138,10 @@ public class LogManager implements AutoCloseable {
   private PositionsTracker positionsTracker;
   private PrintWriter positionsPrinter;
 
+  private Checkpoint resumedCheckpoint;
+  private ScheduledExecutorService checkpointScheduler;
+  private final ConcurrentMap<URI, Range> readResources = new ConcurrentHashMap<>();
+
   private FluxSink<ErrorRecord> failedRecordSink;
   private FluxSink<ErrorRecord> unmappableRecordSink;
   private FluxSink<UnmappableStatement> unmappableStatementSink;
@@ -147,14 +164,63 @@ public class LogManager implements AutoCloseable {
       StatementFormatter statementFormatter,
       StatementFormatVerbosity statementFormatVerbosity,
       RowFormatter rowFormatter) {
+    this(
+        session,
+        operationDirectory,
+        errorThreshold,
+        queryWarningsThreshold,
+        trackPositions,
+        Duration.ZERO,
+        statementFormatter,
+        statementFormatVerbosity,
+        rowFormatter);
+  }
+
+  public LogManager(
+      CqlSession session,
+      Path operationDirectory,
+      ErrorThreshold errorThreshold,
+      ErrorThreshold queryWarningsThreshold,
+      boolean trackPositions,
+      Duration checkpointInterval,
+      StatementFormatter statementFormatter,
+      StatementFormatVerbosity statementFormatVerbosity,
+      RowFormatter rowFormatter) {
+    this(
+        session,
+        operationDirectory,
+        errorThreshold,
+        queryWarningsThreshold,
+        trackPositions,
+        checkpointInterval,
+        statementFormatter,
+        statementFormatVerbosity,
+        rowFormatter,
+        new ErrorJournal(
+            ErrorJournal.DEFAULT_MAX_PENDING_ENTRIES, ErrorJournal.DEFAULT_FLUSH_INTERVAL, false));
+  }
+
+  public LogManager(
+      CqlSession session,
+      Path operationDirectory,
+      ErrorThreshold errorThreshold,
+      ErrorThreshold queryWarningsThreshold,
+      boolean trackPositions,
+      Duration checkpointInterval,
+      StatementFormatter statementFormatter,
+      StatementFormatVerbosity statementFormatVerbosity,
+      RowFormatter rowFormatter,
+      ErrorJournal journal) {
     this.session = session;
     this.operationDirectory = operationDirectory;
     this.errorThreshold = errorThreshold;
     this.queryWarningsThreshold = queryWarningsThreshold;
     this.trackPositions = trackPositions;
+    this.checkpointInterval = checkpointInterval;
     this.statementFormatter = statementFormatter;
     this.statementFormatVerbosity = statementFormatVerbosity;
     this.rowFormatter = rowFormatter;
+    this.journal = journal;
   }
 
   public void init() {
@@ -163,7 +229,10 @@ public class LogManager implements AutoCloseable {
     stackTracePrinter = new StackTracePrinter();
     stackTracePrinter.setOptionList(LogSettings.STACK_TRACE_PRINTER_OPTIONS);
     stackTracePrinter.start();
-    positionsTracker = new PositionsTracker();
+    positionsTracker =
+        resumedCheckpoint == null
+            ? new PositionsTracker()
+            : new PositionsTracker(resumedCheckpoint.getPositions());
     failedRecordSink = newFailedRecordSink();
     unmappableRecordSink = newUnmappableRecordSink();
     unmappableStatementSink = newUnmappableStatementSink();
@@ -181,6 +250,27 @@ public class LogManager implements AutoCloseable {
     // workflow will receive these error signals and stop as expected.
     Hooks.onErrorDropped(t -> uncaughtExceptionSink.error(t));
     Thread.setDefaultUncaughtExceptionHandler((thread, t) -> uncaughtExceptionSink.error(t));
+    journal.start(openFiles::get, t -> uncaughtExceptionSink.error(t));
+    if (isCheckpointEnabled()) {
+      checkpointScheduler =
+          new ScheduledThreadPoolExecutor(
+              1, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("checkpoint-%d").build());
+      long millis = checkpointInterval.toMillis();
+      checkpointScheduler.scheduleWithFixedDelay(
+          this::saveCheckpointQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Resumes the operation that produced the given checkpoint: the positions committed by that
+   * operation will be included in the checkpoints and positions saved by this one.
+   *
+   * <p>Must be called before {@link #init()}.
+   *
+   * @param checkpoint the checkpoint of the operation to resume.
+   */
+  public void resumeFrom(@NonNull Checkpoint checkpoint) {
+    resumedCheckpoint = checkpoint;
   }
 
   public Path getOperationDirectory() {
@@ -193,6 +283,9 @@ public class LogManager implements AutoCloseable {
 
   @Override
   public void close() throws IOException {
+    if (checkpointScheduler != null) {
+      MoreExecutors.shutdownAndAwaitTermination(checkpointScheduler, 1, TimeUnit.SECONDS);
+    }
     failedRecordSink.complete();
     unmappableRecordSink.complete();
     unmappableStatementSink.complete();
@@ -200,6 +293,12 @@ public class LogManager implements AutoCloseable {
     failedCASWriteSink.complete();
     failedReadSink.complete();
     uncaughtExceptionSink.complete();
+    // Write all pending entries before closing the files
+    try {
+      journal.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
     stackTracePrinter.stop();
     // Forcibly close all open files on the thread that invokes close()
     // Using a cache removal listener is not an option because cache listeners
@@ -213,13 +312,17 @@ public class LogManager implements AutoCloseable {
               pw.close();
             });
     positionsSink.complete();
+    if (checkpointScheduler != null) {
+      saveCheckpoint(false);
+    }
     if (trackPositions && !positionsTracker.isEmpty()) {
       positionsPrinter =
           new PrintWriter(
               Files.newBufferedWriter(
                   operationDirectory.resolve(POSITIONS_FILE), UTF_8, CREATE_NEW, WRITE));
-      // sort positions by URI
-      new TreeMap<>(positionsTracker.getPositions())
+      // positions are sorted by URI
+      positionsTracker
+          .getPositions()
           .forEach((resource, ranges) -> appendToPositionsFile(resource, ranges, positionsPrinter));
       positionsPrinter.flush();
       positionsPrinter.close();
@@ -248,6 +351,11 @@ public class LogManager implements AutoCloseable {
     if (positionsTracker != null) {
       LOGGER.info("Last processed positions can be found in {}", POSITIONS_FILE);
     }
+    if (isCheckpointEnabled()) {
+      LOGGER.info(
+          "To resume this operation, re-run it with --dsbulk.engine.resumeFrom {}",
+          operationDirectory);
+    }
   }
 
   /**
@@ -373,7 +481,7 @@ public class LogManager implements AutoCloseable {
   /**
    * Handler for unsuccessful {@link WriteResult}s.
    *
-   * <p>Used only by the load workflow.
+   * <p>Used by the load and copy workflows.
    *
    * <p>Increments the number of errors and forwards unsuccessful write results to the write result
    * processor for further processing.
@@ -408,7 +516,7 @@ public class LogManager implements AutoCloseable {
   /**
    * Handler for unsuccessful {@link ReadResult}s.
    *
-   * <p>Used only by the unload workflow.
+   * <p>Used by the unload and copy workflows.
    *
    * <p>Increments the number of errors and forwards unsuccessful read results to the read result
    * processor for further processing.
@@ -475,6 +583,50 @@ public class LogManager implements AutoCloseable {
             .flux();
   }
 
+  /**
+   * Handler for resources read by the connector.
+   *
+   * <p>Used only by the load workflow; must be applied to each flow of records emitted by the
+   * connector for a single resource.
+   *
+   * <p>When the resource has been entirely read, records the range of positions that were read, so
+   * that checkpoints can determine whether all the records in the resource were committed.
+   *
+   * @return A handler for resources read by the connector.
+   */
+  public Function<Flux<Record>, Flux<Record>> newResourceCompletionHandler() {
+    if (!isCheckpointEnabled()) {
+      return Function.identity();
+    }
+    return upstream ->
+        Flux.defer(
+            () -> {
+              Range[] extent = new Range[1];
+              URI[] resource = new URI[1];
+              return upstream
+                  .doOnNext(
+                      record -> {
+                        long position = record.getPosition();
+                        if (position > 0) {
+                          if (extent[0] == null) {
+                            resource[0] = record.getResource();
+                            extent[0] = new Range(position);
+                          } else if (position > extent[0].getUpper()) {
+                            extent[0].setUpper(position);
+                          } else if (position < extent[0].getLower()) {
+                            extent[0].setLower(position);
+                          }
+                        }
+                      })
+                  .doOnComplete(
+                      () -> {
+                        if (extent[0] != null) {
+                          readResources.put(resource[0], extent[0]);
+                        }
+                      });
+            });
+  }
+
   public <T> Function<Flux<T>, Flux<T>> newTotalItemsCounter() {
     return upstream -> upstream.doOnNext(r -> totalItems.increment());
   }
@@ -573,55 +725,61 @@ public class LogManager implements AutoCloseable {
   /**
    * A processor for failed write results.
    *
-   * <p>Used only in the load workflow.
+   * <p>Used in the load and copy workflows.
    *
-   * <p>Appends the failed result to the debug file, then extracts its statement, then extracts its
-   * record, then appends it to the bad file, then forwards the record's position to the position
-   * tracker.
+   * <p>Appends the failed result to the debug file, then (for load workflows only) extracts its
+   * statement, then extracts its record, then appends it to the bad file, then forwards the
+   * record's position to the position tracker.
    *
    * @return A processor for failed write results.
    */
   @NonNull
   private FluxSink<WriteResult> newFailedWriteResultSink() {
     UnicastProcessor<WriteResult> processor = UnicastProcessor.create();
-    processor
-        .doOnNext(this::appendFailedWriteResultToDebugFile)
-        .map(Result::getStatement)
-        .transform(newStatementToRecordMapper())
-        .doOnNext(record -> appendToBadFile(record, LOAD_BAD_FILE))
-        .doOnNext(record -> positionsSink.next(record))
-        .subscribe();
+    Flux<WriteResult> flux = processor.doOnNext(this::appendFailedWriteResultToDebugFile);
+    if (trackPositions) {
+      flux.map(Result::getStatement)
+          .transform(newStatementToRecordMapper())
+          .doOnNext(record -> appendToBadFile(record, LOAD_BAD_FILE))
+          .doOnNext(record -> positionsSink.next(record))
+          .subscribe();
+    } else {
+      flux.subscribe();
+    }
     return processor.sink();
   }
 
   /**
    * A processor for failed CAS write results.
    *
-   * <p>Used only in the load workflow.
+   * <p>Used in the load and copy workflows.
    *
-   * <p>Appends the failed result to the debug file, then extracts its statement, then extracts its
-   * record, then appends it to the bad file, then forwards the record's position to the position
-   * tracker.
+   * <p>Appends the failed result to the debug file, then (for load workflows only) extracts its
+   * statement, then extracts its record, then appends it to the bad file, then forwards the
+   * record's position to the position tracker.
    *
    * @return A processor for failed CAS write results.
    */
   @NonNull
   private FluxSink<WriteResult> newFailedCASWriteSink() {
     UnicastProcessor<WriteResult> processor = UnicastProcessor.create();
-    processor
-        .doOnNext(this::appendFailedCASWriteResultToDebugFile)
-        .map(Result::getStatement)
-        .transform(newStatementToRecordMapper())
-        .doOnNext(record -> appendToBadFile(record, CAS_BAD_FILE))
-        .doOnNext(record -> positionsSink.next(record))
-        .subscribe();
+    Flux<WriteResult> flux = processor.doOnNext(this::appendFailedCASWriteResultToDebugFile);
+    if (trackPositions) {
+      flux.map(Result::getStatement)
+          .transform(newStatementToRecordMapper())
+          .doOnNext(record -> appendToBadFile(record, CAS_BAD_FILE))
+          .doOnNext(record -> positionsSink.next(record))
+          .subscribe();
+    } else {
+      flux.subscribe();
+    }
     return processor.sink();
   }
 
   /**
    * A processor for failed read results.
    *
-   * <p>Used only in the unload workflow.
+   * <p>Used in the unload and copy workflows.
    *
    * <p>Extracts the statement, then appends it to the debug file.
    *
@@ -656,36 +814,36 @@ public class LogManager implements AutoCloseable {
 
   // Bad file management
 
+  // Bad file entries are never dropped, since they are required to replay the rejected records.
   private void appendToBadFile(Record record, String file) {
     Path logFile = operationDirectory.resolve(file);
-    PrintWriter writer = openFiles.get(logFile);
-    assert writer != null;
-    Object source = record.getSource();
-    LogManagerUtils.printAndMaybeAddNewLine(source.toString(), writer);
-    writer.flush();
+    journal.append(
+        logFile,
+        writer -> {
+          Object source = record.getSource();
+          LogManagerUtils.printAndMaybeAddNewLine(source.toString(), writer);
+        },
+        false);
   }
 
   // Executor errors (read/write failures)
 
   // write query failed
   private void appendFailedWriteResultToDebugFile(WriteResult result) {
-    appendStatement(result, LOAD_ERRORS_FILE, true);
+    appendToDebugFile(LOAD_ERRORS_FILE, writer -> appendStatement(result, writer, true));
   }
 
   // CAS write query failed
   private void appendFailedCASWriteResultToDebugFile(WriteResult result) {
-    appendStatement(result, CAS_ERRORS_FILE, true);
+    appendToDebugFile(CAS_ERRORS_FILE, writer -> appendStatement(result, writer, true));
   }
 
   // read query failed
   private void appendFailedReadResultToDebugFile(ReadResult result) {
-    appendStatement(result, UNLOAD_ERRORS_FILE, true);
+    appendToDebugFile(UNLOAD_ERRORS_FILE, writer -> appendStatement(result, writer, true));
   }
 
-  private void appendStatement(Result result, String logFileName, boolean appendNewLine) {
-    Path logFile = operationDirectory.resolve(logFileName);
-    PrintWriter writer = openFiles.get(logFile);
-    assert writer != null;
+  private void appendStatement(Result result, PrintWriter writer, boolean appendNewLine) {
     writer.print("Statement: ");
     String format =
         statementFormatter.format(
@@ -716,50 +874,106 @@ public class LogManager implements AutoCloseable {
 
   // record -> statement failed (load workflow)
   private void appendUnmappableStatementToDebugFile(UnmappableStatement statement) {
-    Path logFile = operationDirectory.resolve(MAPPING_ERRORS_FILE);
-    PrintWriter writer = openFiles.get(logFile);
-    assert writer != null;
-    Record record = statement.getSource();
-    writer.println("Resource: " + record.getResource());
-    writer.println("Position: " + record.getPosition());
-    writer.println("Source: " + LogManagerUtils.formatSource(record));
-    stackTracePrinter.printStackTrace(statement.getError(), writer);
-    writer.println();
+    appendToDebugFile(
+        MAPPING_ERRORS_FILE,
+        writer -> {
+          Record record = statement.getSource();
+          writer.println("Resource: " + record.getResource());
+          writer.println("Position: " + record.getPosition());
+          writer.println("Source: " + LogManagerUtils.formatSource(record));
+          stackTracePrinter.printStackTrace(statement.getError(), writer);
+          writer.println();
+        });
   }
 
   // row -> record failed (unload workflow)
   private void appendUnmappableReadResultToDebugFile(ErrorRecord record) {
-    Path logFile = operationDirectory.resolve(MAPPING_ERRORS_FILE);
-    PrintWriter writer = openFiles.get(logFile);
-    assert writer != null;
-    writer.println("Resource: " + record.getResource());
-    if (record.getSource() instanceof ReadResult) {
-      ReadResult source = (ReadResult) record.getSource();
-      appendStatement(source, MAPPING_ERRORS_FILE, false);
-      source
-          .getRow()
-          .ifPresent(
-              row -> {
-                writer.print("Row: ");
-                String format = rowFormatter.format(row, protocolVersion, codecRegistry);
-                LogManagerUtils.printAndMaybeAddNewLine(format, writer);
-              });
-    }
-    stackTracePrinter.printStackTrace(record.getError(), writer);
-    writer.println();
+    appendToDebugFile(
+        MAPPING_ERRORS_FILE,
+        writer -> {
+          writer.println("Resource: " + record.getResource());
+          if (record.getSource() instanceof ReadResult) {
+            ReadResult source = (ReadResult) record.getSource();
+            appendStatement(source, writer, false);
+            source
+                .getRow()
+                .ifPresent(
+                    row -> {
+                      writer.print("Row: ");
+                      String format = rowFormatter.format(row, protocolVersion, codecRegistry);
+                      LogManagerUtils.printAndMaybeAddNewLine(format, writer);
+                    });
+          }
+          stackTracePrinter.printStackTrace(record.getError(), writer);
+          writer.println();
+        });
   }
 
   // Connector errors
 
   private void appendFailedRecordToDebugFile(ErrorRecord record) {
-    Path logFile = operationDirectory.resolve(CONNECTOR_ERRORS_FILE);
-    PrintWriter writer = openFiles.get(logFile);
-    assert writer != null;
-    writer.println("Resource: " + record.getResource());
-    writer.println("Position: " + record.getPosition());
-    writer.println("Source: " + LogManagerUtils.formatSource(record));
-    stackTracePrinter.printStackTrace(record.getError(), writer);
-    writer.println();
+    appendToDebugFile(
+        CONNECTOR_ERRORS_FILE,
+        writer -> {
+          writer.println("Resource: " + record.getResource());
+          writer.println("Position: " + record.getPosition());
+          writer.println("Source: " + LogManagerUtils.formatSource(record));
+          stackTracePrinter.printStackTrace(record.getError(), writer);
+          writer.println();
+        });
+  }
+
+  // Debug file entries are formatted by the journal's writer thread, and may be dropped if the
+  // journal is full.
+  private void appendToDebugFile(String file, Consumer<PrintWriter> action) {
+    journal.append(operationDirectory.resolve(file), action, true);
+  }
+
+  // Checkpoints
+
+  private boolean isCheckpointEnabled() {
+    return trackPositions && !checkpointInterval.isZero() && !checkpointInterval.isNegative();
+  }
+
+  private void saveCheckpointQuietly() {
+    try {
+      saveCheckpoint(true);
+    } catch (Exception e) {
+      LOGGER.warn("Could not save checkpoint: " + e.getMessage(), e);
+    }
+  }
+
+  private void saveCheckpoint(boolean flushJournal) throws IOException {
+    Map<URI, List<Range>> positions = positionsTracker.getPositions();
+    if (flushJournal) {
+      // The positions of rejected records are tracked after their bad file entries are appended
+      // to the journal; make sure these entries are on disk before committing their positions.
+      try {
+        journal.flush().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        throw new IOException("Could not flush error journal", e.getCause());
+      }
+    }
+    Set<URI> committedResources = new HashSet<>();
+    if (resumedCheckpoint != null) {
+      committedResources.addAll(resumedCheckpoint.getCommittedResources());
+    }
+    // A resource is fully committed if it has been entirely read, and all the positions read
+    // are covered by a single committed range.
+    readResources.forEach(
+        (resource, extent) -> {
+          List<Range> ranges = positions.get(resource);
+          if (ranges != null
+              && ranges.size() == 1
+              && ranges.get(0).getLower() <= extent.getLower()
+              && ranges.get(0).getUpper() >= extent.getUpper()) {
+            committedResources.add(resource);
+          }
+        });
+    new Checkpoint(positions, committedResources).save(operationDirectory);
   }
 
   // Utility methods
@@ -843,7 +1057,6 @@ public class LogManager implements AutoCloseable {
     private void printStackTrace(Throwable t, PrintWriter writer) {
       // throwableProxyToString already appends a line break at the end
       writer.print(throwableProxyToString(new ThrowableProxy(t)));
-      writer.flush();
     }
   }
 }
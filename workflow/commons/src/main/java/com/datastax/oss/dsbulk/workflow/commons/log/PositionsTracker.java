@@ -17,68 +17,67 @@ package com.datastax.oss.dsbulk.workflow.commons.log;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
+import java.util.TreeMap;
 
+/**
+ * Tracks the positions of the records processed so far, per resource.
+ *
+ * <p>Positions are stored as disjoint {@linkplain Range ranges}; tracking a position costs O(log
+ * n), where n is the number of ranges for the resource, even when positions are tracked in a very
+ * different order than the one in which they were read – which is the norm with high write
+ * concurrency.
+ *
+ * <p>This class is thread-safe.
+ */
 public class PositionsTracker {
 
-  private final Map<URI, List<Range>> positions = new HashMap<>();
+  private final Map<URI, RangeSet> positions = new HashMap<>();
+
+  public PositionsTracker() {}
 
-  public Map<URI, List<Range>> getPositions() {
-    return positions;
+  /**
+   * Creates a tracker that starts with the given positions, typically those of a {@linkplain
+   * Checkpoint checkpoint} being resumed.
+   *
+   * @param initialPositions the initial positions, as ranges per resource.
+   */
+  public PositionsTracker(@NonNull Map<URI, List<Range>> initialPositions) {
+    initialPositions.forEach(
+        (resource, ranges) -> {
+          RangeSet set = new RangeSet();
+          for (Range range : ranges) {
+            set.add(range.getLower(), range.getUpper());
+          }
+          positions.put(resource, set);
+        });
   }
 
-  public boolean isEmpty() {
-    return positions.isEmpty();
+  /**
+   * Returns a copy of the current positions, as sorted, disjoint ranges per resource; resources are
+   * sorted as well. This method can be safely invoked while positions are being updated.
+   */
+  @NonNull
+  public synchronized Map<URI, List<Range>> getPositions() {
+    Map<URI, List<Range>> copy = new TreeMap<>();
+    positions.forEach((resource, ranges) -> copy.put(resource, ranges.toList()));
+    return copy;
   }
 
-  public void update(URI resource, long position) {
-    if (position > 0) {
-      positions.compute(
-          resource,
-          (res, positions) -> {
-            if (positions == null) {
-              positions = new ArrayList<>(100);
-              positions.add(new Range(position));
-              return positions;
-            } else {
-              return addPosition(positions, position);
-            }
-          });
-    }
+  public synchronized boolean isEmpty() {
+    return positions.isEmpty();
   }
 
-  @NonNull
-  private static List<Range> addPosition(@NonNull List<Range> positions, long position) {
-    ListIterator<Range> iterator = positions.listIterator();
-    while (iterator.hasNext()) {
-      Range range = iterator.next();
-      if (range.contains(position)) {
-        return positions;
-      } else if (range.getUpper() + 1L == position) {
-        range.setUpper(position);
-        if (iterator.hasNext()) {
-          Range next = iterator.next();
-          if (range.getUpper() == next.getLower() - 1L) {
-            iterator.remove();
-            range = iterator.previous();
-            range.setUpper(next.getUpper());
-          }
-        }
-        return positions;
-      } else if (range.getLower() - 1L == position) {
-        range.setLower(position);
-        return positions;
-      } else if (position < range.getLower()) {
-        iterator.previous();
-        iterator.add(new Range(position));
-        return positions;
+  public synchronized void update(URI resource, long position) {
+    if (position > 0) {
+      RangeSet ranges = positions.get(resource);
+      if (ranges == null) {
+        ranges = new RangeSet();
+        positions.put(resource, ranges);
       }
+      ranges.add(position);
     }
-    iterator.add(new Range(position));
-    return positions;
   }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A set of positions, stored as disjoint, non-adjacent closed ranges in an AVL tree keyed by their
+ * lower bounds.
+ *
+ * <p>Adding a position costs O(log n), where n is the number of ranges currently in the set,
+ * regardless of the order in which positions are added. Bounds are stored as primitive longs, and
+ * adding a position only allocates when it cannot be merged into an existing range.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class RangeSet {
+
+  private Node root;
+  private int size;
+
+  /** @return the number of disjoint ranges in this set. */
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Adds the given position to this set. */
+  void add(long position) {
+    Node floor = floor(position);
+    if (floor != null && floor.upper >= position) {
+      return;
+    }
+    Node higher = higher(position);
+    boolean joinsFloor = floor != null && floor.upper + 1L == position;
+    boolean joinsHigher = higher != null && higher.lower - 1L == position;
+    if (joinsFloor && joinsHigher) {
+      floor.upper = higher.upper;
+      root = delete(root, higher.lower);
+      size--;
+    } else if (joinsFloor) {
+      floor.upper = position;
+    } else if (joinsHigher) {
+      // the new lower bound is still greater than the floor's upper bound,
+      // so the tree ordering is preserved
+      higher.lower = position;
+    } else {
+      root = insert(root, position, position);
+      size++;
+    }
+  }
+
+  /** Adds all the positions in the given closed range to this set. */
+  void add(long lower, long upper) {
+    Node floor = floor(lower);
+    if (floor != null && floor.upper + 1L >= lower) {
+      lower = floor.lower;
+      upper = Math.max(upper, floor.upper);
+      root = delete(root, floor.lower);
+      size--;
+    }
+    Node higher = higher(lower);
+    while (higher != null && higher.lower - 1L <= upper) {
+      upper = Math.max(upper, higher.upper);
+      root = delete(root, higher.lower);
+      size--;
+      higher = higher(lower);
+    }
+    root = insert(root, lower, upper);
+    size++;
+  }
+
+  /** @return the ranges in this set, in ascending order. */
+  @NonNull
+  List<Range> toList() {
+    List<Range> ranges = new ArrayList<>(size);
+    Deque<Node> stack = new ArrayDeque<>();
+    Node node = root;
+    while (node != null || !stack.isEmpty()) {
+      while (node != null) {
+        stack.push(node);
+        node = node.left;
+      }
+      node = stack.pop();
+      ranges.add(new Range(node.lower, node.upper));
+      node = node.right;
+    }
+    return ranges;
+  }
+
+  /** Returns the node with the greatest lower bound less than or equal to the position. */
+  private Node floor(long position) {
+    Node node = root;
+    Node result = null;
+    while (node != null) {
+      if (node.lower <= position) {
+        result = node;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return result;
+  }
+
+  /** Returns the node with the least lower bound strictly greater than the position. */
+  private Node higher(long position) {
+    Node node = root;
+    Node result = null;
+    while (node != null) {
+      if (node.lower > position) {
+        result = node;
+        node = node.left;
+      } else {
+        node = node.right;
+      }
+    }
+    return result;
+  }
+
+  private static Node insert(Node node, long lower, long upper) {
+    if (node == null) {
+      return new Node(lower, upper);
+    }
+    if (lower < node.lower) {
+      node.left = insert(node.left, lower, upper);
+    } else {
+      node.right = insert(node.right, lower, upper);
+    }
+    return rebalance(node);
+  }
+
+  private static Node delete(Node node, long lower) {
+    if (node == null) {
+      return null;
+    }
+    if (lower < node.lower) {
+      node.left = delete(node.left, lower);
+    } else if (lower > node.lower) {
+      node.right = delete(node.right, lower);
+    } else if (node.left == null) {
+      return node.right;
+    } else if (node.right == null) {
+      return node.left;
+    } else {
+      Node successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      node.lower = successor.lower;
+      node.upper = successor.upper;
+      node.right = delete(node.right, successor.lower);
+    }
+    return rebalance(node);
+  }
+
+  private static Node rebalance(Node node) {
+    updateHeight(node);
+    int balance = height(node.left) - height(node.right);
+    if (balance > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (balance < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private static Node rotateRight(Node node) {
+    Node left = node.left;
+    node.left = left.right;
+    left.right = node;
+    updateHeight(node);
+    updateHeight(left);
+    return left;
+  }
+
+  private static Node rotateLeft(Node node) {
+    Node right = node.right;
+    node.right = right.left;
+    right.left = node;
+    updateHeight(node);
+    updateHeight(right);
+    return right;
+  }
+
+  private static void updateHeight(Node node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static final class Node {
+
+    private long lower;
+    private long upper;
+    private int height = 1;
+    private Node left;
+    private Node right;
+
+    private Node(long lower, long upper) {
+      this.lower = lower;
+      this.upper = upper;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.workflow.commons.statement.BulkBoundStatement;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ReadResultCopier} that binds the cells of each row, as raw bytes, to an insert statement
+ * prepared against the target table.
+ *
+ * <p>The variables of the insert statement must match the columns of the rows being read, in the
+ * same order and with the same types; no codec is involved, so cells are written exactly as they
+ * were read.
+ */
+public class DefaultReadResultCopier implements ReadResultCopier {
+
+  private final PreparedStatement insertStatement;
+  private final boolean nullToUnset;
+
+  public DefaultReadResultCopier(PreparedStatement insertStatement, boolean nullToUnset) {
+    this.insertStatement = insertStatement;
+    this.nullToUnset = nullToUnset;
+  }
+
+  @NonNull
+  @Override
+  public BatchableStatement<?> copy(@NonNull ReadResult result) {
+    Row row = result.getRow().orElseThrow(IllegalStateException::new);
+    BoundStatementBuilder builder = insertStatement.boundStatementBuilder();
+    int size = row.getColumnDefinitions().size();
+    for (int i = 0; i < size; i++) {
+      ByteBuffer bb = row.getBytesUnsafe(i);
+      if (bb != null || !nullToUnset) {
+        builder = builder.setBytesUnsafe(i, bb);
+      }
+    }
+    return new BulkBoundStatement<>(result, builder.build());
+  }
+}
@@ -72,6 +72,7 @@ public class DefaultReadResultCounter implements ReadResultCounter {
   private final boolean countRanges;
   private final boolean countPartitions;
   private final boolean multiCount;
+  private final boolean pushDown;
 
   @VisibleForTesting long totalRows;
   @VisibleForTesting Map<TokenRange, Long> totalsByRange;
@@ -85,6 +86,22 @@ public class DefaultReadResultCounter implements ReadResultCounter {
       int numPartitions,
       ProtocolVersion protocolVersion,
       ConvertingCodecFactory codecFactory) {
+    this(keyspace, metadata, modes, numPartitions, protocolVersion, codecFactory, false);
+  }
+
+  /**
+   * @param pushDown whether rows are counted server-side; if true, only global statistics can be
+   *     computed, and each result is expected to contain one single column containing the number of
+   *     rows in a token range.
+   */
+  public DefaultReadResultCounter(
+      CqlIdentifier keyspace,
+      Metadata metadata,
+      EnumSet<StatisticsMode> modes,
+      int numPartitions,
+      ProtocolVersion protocolVersion,
+      ConvertingCodecFactory codecFactory,
+      boolean pushDown) {
     this.tokenMap =
         metadata
             .getTokenMap()
@@ -97,6 +114,11 @@ public class DefaultReadResultCounter implements ReadResultCounter {
     countRanges = modes.contains(StatisticsMode.ranges);
     countPartitions = modes.contains(StatisticsMode.partitions);
     multiCount = modes.size() > 1;
+    if (pushDown && (countNodes || countRanges || countPartitions)) {
+      throw new IllegalArgumentException(
+          "Cannot push down counting when computing statistics other than global ones");
+    }
+    this.pushDown = pushDown;
     if (countNodes || countRanges) {
       // Store required metadata in two data structures that will speed up lookups by token:
       // 1) 'ring' stores the range start tokens of all ranges, contents are identical to
@@ -157,13 +179,33 @@ public class DefaultReadResultCounter implements ReadResultCounter {
     totalsByRange = new HashMap<>();
     totalsByNode = new HashMap<>();
     totalsByPartitionKey = new ArrayList<>();
+    long[] totalsByRingPosition = replicaSets == null ? null : new long[replicaSets.length];
     for (DefaultCountingUnit unit : units) {
       unit.close();
       totalRows += unit.total;
-      unit.totalsByNode.forEach((key, value) -> totalsByNode.merge(key, value, SUM));
-      unit.totalsByRange.forEach((key, value) -> totalsByRange.merge(key, value, SUM));
+      if (totalsByRingPosition != null) {
+        for (int i = 0; i < totalsByRingPosition.length; i++) {
+          totalsByRingPosition[i] += unit.totalsByRingPosition[i];
+        }
+      }
       totalsByPartitionKey.addAll(unit.totalsByPartitionKey);
     }
+    if (totalsByRingPosition != null) {
+      for (int i = 0; i < totalsByRingPosition.length; i++) {
+        long total = totalsByRingPosition[i];
+        if (total > 0) {
+          ReplicaSet replicaSet = replicaSets[i];
+          if (countRanges) {
+            totalsByRange.merge(replicaSet.range, total, SUM);
+          }
+          if (countNodes) {
+            for (EndPoint address : replicaSet.addresses) {
+              totalsByNode.merge(address, total, SUM);
+            }
+          }
+        }
+      }
+    }
     totalsByPartitionKey.sort(Collections.reverseOrder());
     totalsByPartitionKey =
         totalsByPartitionKey.size() > numPartitions
@@ -232,8 +274,9 @@ public class DefaultReadResultCounter implements ReadResultCounter {
   class DefaultCountingUnit implements CountingUnit {
 
     long total = 0;
-    final Map<TokenRange, Long> totalsByRange = new HashMap<>();
-    final Map<EndPoint, Long> totalsByNode = new HashMap<>();
+    // Rows per range, indexed like 'replicaSets'; totals per range and per node are only computed
+    // when consolidating counts, to avoid boxing and hashing for every row.
+    final long[] totalsByRingPosition = replicaSets == null ? null : new long[replicaSets.length];
     final List<PartitionKeyCount> totalsByPartitionKey = new ArrayList<>(numPartitions + 1);
     long currentPkCount = 0;
     PartitionKey currentPk;
@@ -241,9 +284,16 @@ public class DefaultReadResultCounter implements ReadResultCounter {
     @Override
     public void update(ReadResult result) {
       Row row = result.getRow().orElseThrow(IllegalStateException::new);
+      if (pushDown) {
+        // When counting is pushed down, the result set is expected to contain one single row
+        // per token range, with one single column containing the number of rows in the range
+        total += row.getLong(0);
+        return;
+      }
       // First compute the partition key and the token for this row.
       Token token = null;
       PartitionKey pk = null;
+      boolean samePartition = false;
       if (countPartitions) {
         // When counting partitions, the result set is expected to contain
         // the row's partition key, in proper order
@@ -256,7 +306,12 @@ public class DefaultReadResultCounter implements ReadResultCounter {
           // compute the token client-side from the partition keys
           token = tokenMap.newToken(bbs);
         }
-        pk = new PartitionKey(row.getColumnDefinitions(), bbs);
+        // Rows of the same partition come in sequence: only create a new partition key
+        // when the partition changes.
+        samePartition = currentPk != null && Arrays.equals(currentPk.components, bbs);
+        if (!samePartition) {
+          pk = new PartitionKey(row.getColumnDefinitions(), bbs);
+        }
       } else if (countRanges || countNodes) {
         // When counting hosts or ranges, without counting partitions,
         // the result set is expected to contain one single column containing
@@ -268,30 +323,19 @@ public class DefaultReadResultCounter implements ReadResultCounter {
       // percentages for other stats.
       total++;
       if (countRanges || countNodes) {
-        ReplicaSet replicaSet = getReplicaSet(token);
-        if (countRanges) {
-          totalsByRange.merge(replicaSet.range, 1L, SUM);
-        }
-        if (countNodes) {
-          for (EndPoint address : replicaSet.addresses) {
-            totalsByNode.merge(address, 1L, SUM);
-          }
-        }
+        totalsByRingPosition[getRingPosition(token)]++;
       }
       if (countPartitions) {
-        if (currentPk == null) {
-          currentPk = pk;
-        }
         // Note: the counting algorithm relies on the fact that any given
         // partition will be entirely counted by the same unit,
         // and that partitions will be returned in order, i.e.,
         // all rows belonging to the same partition will appear in sequence.
-        if (!currentPk.equals(pk)) {
+        if (samePartition) {
+          currentPkCount++;
+        } else {
           rotatePk();
           currentPk = pk;
           currentPkCount = 1;
-        } else {
-          currentPkCount++;
         }
       }
     }
@@ -302,12 +346,12 @@ public class DefaultReadResultCounter implements ReadResultCounter {
     }
 
     /**
-     * Locate the end token of the range containing the given token then use it to lookup the entire
-     * range and its replicas. This search is identical to the search performed by
-     * Metadata.TokenMap.getReplicas(String keyspace, Token token). Only used when counting ranges
-     * or nodes.
+     * Locate the end token of the range containing the given token then return the index of the
+     * entire range and its replicas in 'replicaSets'. This search is identical to the search
+     * performed by Metadata.TokenMap.getReplicas(String keyspace, Token token). Only used when
+     * counting ranges or nodes.
      */
-    private ReplicaSet getReplicaSet(Token token) {
+    private int getRingPosition(Token token) {
       assert ring != null;
       assert replicaSets != null;
       int i = Arrays.binarySearch(ring, token);
@@ -317,7 +361,7 @@ public class DefaultReadResultCounter implements ReadResultCounter {
           i = 0;
         }
       }
-      return replicaSets[i];
+      return i;
     }
 
     /**
@@ -15,7 +15,6 @@
  */
 package com.datastax.oss.dsbulk.workflow.commons.schema;
 
-import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
 import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
 import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
@@ -24,18 +23,20 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.type.DataType;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.DefaultErrorRecord;
-import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.mapping.CQLWord;
 import com.datastax.oss.dsbulk.mapping.Mapping;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.net.InetSocketAddress;
 import java.net.URI;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +49,8 @@ public class DefaultReadResultMapper implements ReadResultMapper {
   private final Mapping mapping;
   private final RecordMetadata recordMetadata;
 
+  private volatile Layout layout;
+
   public DefaultReadResultMapper(Mapping mapping, RecordMetadata recordMetadata) {
     this.mapping = mapping;
     this.recordMetadata = recordMetadata;
@@ -61,34 +64,45 @@ public class DefaultReadResultMapper implements ReadResultMapper {
         () ->
             getRowResource(row, result.getExecutionInfo().orElseThrow(IllegalStateException::new));
     try {
-      DefaultRecord record = new DefaultRecord(result, resource, -1);
-      for (ColumnDefinition def : row.getColumnDefinitions()) {
-        CQLWord variable = CQLWord.fromInternal(def.getName().asInternal());
-        CqlIdentifier name = variable.asIdentifier();
-        DataType cqlType = def.getType();
-        Set<Field> fields = mapping.variableToFields(variable);
-        for (Field field : fields) {
-          GenericType<?> fieldType = null;
-          try {
-            fieldType = recordMetadata.getFieldType(field, cqlType);
-            TypeCodec<?> codec = mapping.codec(variable, cqlType, fieldType);
-            Object value = row.get(name, codec);
-            record.setFieldValue(field, value);
-          } catch (Exception e) {
-            String msg =
-                String.format(
-                    "Could not deserialize column %s of type %s as %s",
-                    name.asCql(true), cqlType, fieldType);
-            throw new IllegalArgumentException(msg, e);
-          }
+      Layout layout = layout(row.getColumnDefinitions());
+      Object[] values = new Object[layout.schema.size()];
+      for (int i = 0; i < values.length; i++) {
+        CQLWord variable = layout.variables[i];
+        DataType cqlType = layout.cqlTypes[i];
+        Field field = layout.schema.getField(i);
+        GenericType<?> fieldType = null;
+        try {
+          fieldType = recordMetadata.getFieldType(field, cqlType);
+          TypeCodec<?> codec = mapping.codec(variable, cqlType, fieldType);
+          values[i] = row.get(variable.asIdentifier(), codec);
+        } catch (Exception e) {
+          String msg =
+              String.format(
+                  "Could not deserialize column %s of type %s as %s",
+                  variable.asIdentifier().asCql(true), cqlType, fieldType);
+          throw new IllegalArgumentException(msg, e);
         }
       }
-      return record;
+      return new ArrayBackedRecord(result, resource, -1, layout.schema, values);
     } catch (Exception e) {
       return new DefaultErrorRecord(result, resource, -1, e);
     }
   }
 
+  /**
+   * Returns the layout of rows with the given columns. All the rows of a same query share the same
+   * column definitions, so the last layout is cached and reused as long as the columns don't
+   * change.
+   */
+  private Layout layout(ColumnDefinitions definitions) {
+    Layout layout = this.layout;
+    if (layout == null || layout.definitions != definitions) {
+      layout = new Layout(definitions, mapping);
+      this.layout = layout;
+    }
+    return layout;
+  }
+
   /**
    * Returns the resource {@link URI} of a row in a read result.
    *
@@ -131,4 +145,38 @@ public class DefaultReadResultMapper implements ReadResultMapper {
       return UNKNOWN_ROW_RESOURCE;
     }
   }
+
+  /** The fields of the records created from rows with given columns, and where to find them. */
+  private static final class Layout {
+
+    private final ColumnDefinitions definitions;
+    private final RecordSchema schema;
+    private final CQLWord[] variables;
+    private final DataType[] cqlTypes;
+
+    private Layout(ColumnDefinitions definitions, Mapping mapping) {
+      this.definitions = definitions;
+      List<Field> fields = new ArrayList<>();
+      List<CQLWord> variables = new ArrayList<>();
+      List<DataType> cqlTypes = new ArrayList<>();
+      for (ColumnDefinition def : definitions) {
+        CQLWord variable = CQLWord.fromInternal(def.getName().asInternal());
+        for (Field field : mapping.variableToFields(variable)) {
+          int index = fields.indexOf(field);
+          if (index == -1) {
+            fields.add(field);
+            variables.add(variable);
+            cqlTypes.add(def.getType());
+          } else {
+            // a field mapped to several columns gets the value of the last one
+            variables.set(index, variable);
+            cqlTypes.set(index, def.getType());
+          }
+        }
+      }
+      this.schema = RecordSchema.of(fields);
+      this.variables = variables.toArray(new CQLWord[0]);
+      this.cqlTypes = cqlTypes.toArray(new DataType[0]);
+    }
+  }
 }
@@ -19,7 +19,6 @@ import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.ASCI
 import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BLOB;
 import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.VARCHAR;
 
-import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
 import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.cql.BatchableStatement;
@@ -33,9 +32,11 @@ import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.mapping.CQLWord;
 import com.datastax.oss.dsbulk.mapping.InvalidMappingException;
 import com.datastax.oss.dsbulk.mapping.Mapping;
@@ -45,15 +46,37 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 
+/**
+ * The default {@link RecordMapper}.
+ *
+ * <p>Each field mapped to a variable of the insert statement is assigned a slot when the mapper is
+ * created. The mapping between the field and its bound variables is compiled once into a {@link
+ * FieldPlan}, stored at the field's slot: the variables' CQL types, codecs and bind indices are
+ * resolved when the field is first encountered. Fields that are not mapped are never cached.
+ *
+ * <p>{@linkplain ArrayBackedRecord Array-backed records} are mapped through a {@link SchemaLayout}
+ * computed once per {@link RecordSchema}, which gives the slot and the value index of each mapped
+ * field, so that mapping such a record requires no lookup per field. Primary key checks are done
+ * with bitmasks of bind indices.
+ */
 public class DefaultRecordMapper implements RecordMapper {
 
+  /**
+   * The maximum number of record schemas whose layout is cached; records of a same resource
+   * normally share their schema, so this is only reached if schemas change from record to record.
+   */
+  private static final int MAX_CACHED_LAYOUTS = 64;
+
   private final PreparedStatement insertStatement;
   private final ImmutableSet<CQLWord> partitionKeyVariables;
   private final ImmutableSet<CQLWord> clusteringColumnVariables;
@@ -64,7 +87,14 @@ public class DefaultRecordMapper implements RecordMapper {
   private final boolean allowExtraFields;
   private final boolean allowMissingFields;
   private final Function<PreparedStatement, BoundStatementBuilder> boundStatementBuilderFactory;
-  private final ImmutableMap<CQLWord, List<Integer>> variablesToIndices;
+
+  private final int variablesCount;
+  private final long[] primaryKeyMask;
+  private final ImmutableMap<Field, Integer> fieldSlots;
+  private final Field[] slotFields;
+  private final AtomicReferenceArray<FieldPlan> fieldPlans;
+  private final RequiredField[] requiredFields;
+  private final ConcurrentMap<RecordSchema, SchemaLayout> layouts = new ConcurrentHashMap<>();
 
   public DefaultRecordMapper(
       PreparedStatement insertStatement,
@@ -111,36 +141,52 @@ public class DefaultRecordMapper implements RecordMapper {
     this.allowExtraFields = allowExtraFields;
     this.allowMissingFields = allowMissingFields;
     this.boundStatementBuilderFactory = boundStatementBuilderFactory;
-    this.variablesToIndices = buildVariablesToIndices();
+    ColumnDefinitions variables = insertStatement.getVariableDefinitions();
+    this.variablesCount = variables.size();
+    this.primaryKeyMask = new long[words(variablesCount)];
+    for (int i = 0; i < variablesCount; i++) {
+      CQLWord variable = CQLWord.fromCqlIdentifier(variables.get(i).getName());
+      if (this.partitionKeyVariables.contains(variable)
+          || this.clusteringColumnVariables.contains(variable)) {
+        primaryKeyMask[i >>> 6] |= 1L << i;
+      }
+    }
+    // Note: in practice, there can be only one field mapped to a given variable when loading
+    Map<Field, CQLWord> fields = new LinkedHashMap<>();
+    for (int i = 0; i < variablesCount; i++) {
+      CQLWord variable = CQLWord.fromCqlIdentifier(variables.get(i).getName());
+      for (Field field : mapping.variableToFields(variable)) {
+        fields.putIfAbsent(field, variable);
+      }
+    }
+    ImmutableMap.Builder<Field, Integer> fieldSlots = ImmutableMap.builder();
+    this.slotFields = new Field[fields.size()];
+    this.requiredFields = new RequiredField[fields.size()];
+    int slot = 0;
+    for (Map.Entry<Field, CQLWord> entry : fields.entrySet()) {
+      fieldSlots.put(entry.getKey(), slot);
+      slotFields[slot] = entry.getKey();
+      requiredFields[slot] = new RequiredField(entry.getKey(), entry.getValue());
+      slot++;
+    }
+    this.fieldSlots = fieldSlots.build();
+    this.fieldPlans = new AtomicReferenceArray<>(slotFields.length);
   }
 
   @NonNull
   @Override
   public BatchableStatement<?> map(@NonNull Record record) {
     try {
-      if (!allowMissingFields) {
-        ensureAllFieldsPresent(record.fields());
-      }
       BoundStatementBuilder builder = boundStatementBuilderFactory.apply(insertStatement);
-      ColumnDefinitions variableDefinitions = insertStatement.getVariableDefinitions();
-      for (Field field : record.fields()) {
-        Set<CQLWord> variables = mapping.fieldToVariables(field);
-        if (!variables.isEmpty()) {
-          for (CQLWord variable : variables) {
-            CqlIdentifier name = variable.asIdentifier();
-            DataType cqlType = variableDefinitions.get(name).getType();
-            GenericType<?> fieldType = recordMetadata.getFieldType(field, cqlType);
-            Object raw = record.getFieldValue(field);
-            builder = bindColumn(builder, variable, raw, cqlType, fieldType);
-          }
-        } else if (!allowExtraFields) {
-          // the field wasn't mapped to any known variable
-          throw InvalidMappingException.extraneousField(field);
-        }
+      long[] bound = new long[primaryKeyMask.length];
+      if (record instanceof ArrayBackedRecord) {
+        builder = bindFields((ArrayBackedRecord) record, builder, bound);
+      } else {
+        builder = bindFields(record, builder, bound);
       }
-      ensurePrimaryKeySet(builder);
+      ensurePrimaryKeySet(builder, bound);
       if (protocolVersion.getCode() < DefaultProtocolVersion.V4.getCode()) {
-        ensureAllVariablesSet(builder);
+        builder = ensureAllVariablesSet(builder, bound);
       }
       record.clear();
       BoundStatement bs = builder.build();
@@ -150,104 +196,273 @@ public class DefaultRecordMapper implements RecordMapper {
     }
   }
 
-  private <T> BoundStatementBuilder bindColumn(
-      BoundStatementBuilder builder,
-      CQLWord variable,
-      @Nullable T raw,
-      DataType cqlType,
-      GenericType<? extends T> javaType) {
-    TypeCodec<T> codec = mapping.codec(variable, cqlType, javaType);
-    ByteBuffer bb = codec.encode(raw, builder.protocolVersion());
-    boolean isNull = isNull(bb, cqlType);
-    if (isNull || isEmpty(bb)) {
-      if (partitionKeyVariables.contains(variable)) {
-        throw isNull
-            ? InvalidMappingException.nullPrimaryKey(variable)
-            : InvalidMappingException.emptyPrimaryKey(variable);
+  private BoundStatementBuilder bindFields(
+      ArrayBackedRecord record, BoundStatementBuilder builder, long[] bound) {
+    SchemaLayout layout = layout(record.getSchema());
+    if (!allowMissingFields && layout.missingField != null) {
+      throw InvalidMappingException.missingField(
+          layout.missingField.field, layout.missingField.variable);
+    }
+    if (!allowExtraFields && layout.extraField != null) {
+      throw InvalidMappingException.extraneousField(layout.extraField);
+    }
+    for (int i = 0; i < layout.slots.length; i++) {
+      int slot = layout.slots[i];
+      builder = bindField(builder, slot, record.getValue(layout.valueIndices[i]), bound);
+    }
+    return builder;
+  }
+
+  private BoundStatementBuilder bindFields(
+      Record record, BoundStatementBuilder builder, long[] bound) {
+    Set<Field> recordFields = record.fields();
+    if (!allowMissingFields) {
+      ensureAllFieldsPresent(recordFields);
+    }
+    for (Field field : recordFields) {
+      Integer slot = fieldSlots.get(field);
+      if (slot != null) {
+        builder = bindField(builder, slot, record.getFieldValue(field), bound);
+      } else if (!allowExtraFields) {
+        // the field wasn't mapped to any known variable
+        throw InvalidMappingException.extraneousField(field);
       }
     }
+    return builder;
+  }
+
+  private BoundStatementBuilder bindField(
+      BoundStatementBuilder builder, int slot, @Nullable Object raw, long[] bound) {
+    FieldPlan plan = fieldPlan(slot);
+    if (plan.bindings.length == 0 && !allowExtraFields) {
+      // the field wasn't mapped to any variable of the insert statement
+      throw InvalidMappingException.extraneousField(slotFields[slot]);
+    }
+    for (VariableBinding binding : plan.bindings) {
+      builder = bindColumn(builder, binding, raw, bound);
+    }
+    return builder;
+  }
+
+  private BoundStatementBuilder bindColumn(
+      BoundStatementBuilder builder, VariableBinding binding, @Nullable Object raw, long[] bound) {
+    ByteBuffer bb = binding.codec.encode(raw, builder.protocolVersion());
+    boolean isEmpty = bb == null || !bb.hasRemaining();
+    boolean isNull = bb == null || (isEmpty && binding.emptyIsNull);
+    if (isEmpty && binding.partitionKey) {
+      throw isNull
+          ? InvalidMappingException.nullPrimaryKey(binding.variable)
+          : InvalidMappingException.emptyPrimaryKey(binding.variable);
+    }
     if (isNull) {
-      if (clusteringColumnVariables.contains(variable)) {
-        throw InvalidMappingException.nullPrimaryKey(variable);
+      if (binding.clusteringColumn) {
+        throw InvalidMappingException.nullPrimaryKey(binding.variable);
       }
       if (nullToUnset) {
         return builder;
       }
     }
-    for (int index : variablesToIndices.get(variable)) {
+    for (int index : binding.indices) {
       builder = builder.setBytesUnsafe(index, bb);
+      bound[index >>> 6] |= 1L << index;
     }
     return builder;
   }
 
-  private boolean isNull(ByteBuffer bb, DataType cqlType) {
-    if (bb == null) {
-      return true;
+  private void ensureAllFieldsPresent(Set<Field> recordFields) {
+    for (RequiredField required : requiredFields) {
+      if (!recordFields.contains(required.field)) {
+        throw InvalidMappingException.missingField(required.field, required.variable);
+      }
     }
-    switch (cqlType.getProtocolCode()) {
-      case VARCHAR:
-      case ASCII:
-      case BLOB:
-        // zero-length buffers should not be considered as nulls for
-        // these CQL types.
-        return false;
-      default:
-        return !bb.hasRemaining();
+  }
+
+  private void ensurePrimaryKeySet(BoundStatementBuilder bs, long[] bound) {
+    for (int i = 0; i < primaryKeyMask.length; i++) {
+      long unset = primaryKeyMask[i] & ~bound[i];
+      while (unset != 0) {
+        int index = (i << 6) + Long.numberOfTrailingZeros(unset);
+        // the builder may have been initialized with values that were not bound by this mapper
+        if (!bs.isSet(index)) {
+          CQLWord variable =
+              CQLWord.fromCqlIdentifier(
+                  insertStatement.getVariableDefinitions().get(index).getName());
+          throw InvalidMappingException.unsetPrimaryKey(variable);
+        }
+        unset &= unset - 1;
+      }
     }
   }
 
-  private boolean isEmpty(ByteBuffer bb) {
-    return bb == null || !bb.hasRemaining();
+  private BoundStatementBuilder ensureAllVariablesSet(BoundStatementBuilder bs, long[] bound) {
+    for (int i = 0; i < variablesCount; i++) {
+      if ((bound[i >>> 6] & (1L << i)) == 0 && !bs.isSet(i)) {
+        bs = bs.setToNull(i);
+      }
+    }
+    return bs;
   }
 
-  private void ensureAllFieldsPresent(Set<Field> recordFields) {
+  @NonNull
+  private SchemaLayout layout(@NonNull RecordSchema schema) {
+    SchemaLayout layout = layouts.get(schema);
+    if (layout == null) {
+      layout = new SchemaLayout(schema);
+      if (layouts.size() < MAX_CACHED_LAYOUTS) {
+        layouts.putIfAbsent(schema, layout);
+      }
+    }
+    return layout;
+  }
+
+  @NonNull
+  private FieldPlan fieldPlan(int slot) {
+    FieldPlan plan = fieldPlans.get(slot);
+    if (plan == null) {
+      // Note: if the plan cannot be compiled, the error is not cached and the record is rejected;
+      // the next record containing the same field will attempt to compile it again. Concurrent
+      // compilations of the same plan are harmless.
+      plan = compileFieldPlan(slotFields[slot]);
+      fieldPlans.set(slot, plan);
+    }
+    return plan;
+  }
+
+  @NonNull
+  private FieldPlan compileFieldPlan(@NonNull Field field) {
+    Set<CQLWord> variables = mapping.fieldToVariables(field);
+    ColumnDefinitions variableDefinitions = insertStatement.getVariableDefinitions();
+    List<VariableBinding> bindings = new ArrayList<>(variables.size());
+    for (CQLWord variable : variables) {
+      DataType cqlType = variableDefinitions.get(variable.asIdentifier()).getType();
+      GenericType<?> fieldType = recordMetadata.getFieldType(field, cqlType);
+      TypeCodec<Object> codec = mapping.codec(variable, cqlType, fieldType);
+      bindings.add(
+          new VariableBinding(
+              variable,
+              cqlType,
+              codec,
+              indicesOf(variable),
+              partitionKeyVariables.contains(variable),
+              clusteringColumnVariables.contains(variable)));
+    }
+    return new FieldPlan(bindings.toArray(new VariableBinding[0]));
+  }
+
+  private int[] indicesOf(CQLWord variable) {
     ColumnDefinitions variables = insertStatement.getVariableDefinitions();
-    for (int i = 0; i < variables.size(); i++) {
-      CQLWord variable = CQLWord.fromCqlIdentifier(variables.get(i).getName());
-      Collection<Field> fields = mapping.variableToFields(variable);
-      // Note: in practice, there can be only one field mapped to a given variable when loading
-      for (Field field : fields) {
-        if (!recordFields.contains(field)) {
-          throw InvalidMappingException.missingField(field, variable);
-        }
+    List<Integer> indices = new ArrayList<>();
+    for (int i = 0; i < variablesCount; i++) {
+      if (CQLWord.fromCqlIdentifier(variables.get(i).getName()).equals(variable)) {
+        indices.add(i);
       }
     }
+    return indices.stream().mapToInt(Integer::intValue).toArray();
   }
 
-  private void ensurePrimaryKeySet(BoundStatementBuilder bs) {
-    for (CQLWord variable : partitionKeyVariables) {
-      for (int index : variablesToIndices.get(variable)) {
-        if (!bs.isSet(index)) {
-          throw InvalidMappingException.unsetPrimaryKey(variable);
+  private static int words(int bits) {
+    return Math.max(1, (bits + 63) >>> 6);
+  }
+
+  /** The slots and value indices of the mapped fields of a record schema. */
+  private final class SchemaLayout {
+
+    private final int[] slots;
+    private final int[] valueIndices;
+
+    /** The first field of the schema that is not mapped, if any. */
+    @Nullable private final Field extraField;
+
+    /** The first required field that is absent from the schema, if any. */
+    @Nullable private final RequiredField missingField;
+
+    private SchemaLayout(RecordSchema schema) {
+      Set<Field> fields = schema.getFields();
+      int[] slots = new int[fields.size()];
+      int[] valueIndices = new int[fields.size()];
+      int count = 0;
+      Field extraField = null;
+      for (Field field : fields) {
+        Integer slot = fieldSlots.get(field);
+        if (slot != null) {
+          slots[count] = slot;
+          valueIndices[count] = schema.indexOf(field);
+          count++;
+        } else if (extraField == null) {
+          extraField = field;
         }
       }
-    }
-    for (CQLWord variable : clusteringColumnVariables) {
-      for (int index : variablesToIndices.get(variable)) {
-        if (!bs.isSet(index)) {
-          throw InvalidMappingException.unsetPrimaryKey(variable);
+      this.slots = Arrays.copyOf(slots, count);
+      this.valueIndices = Arrays.copyOf(valueIndices, count);
+      this.extraField = extraField;
+      RequiredField missingField = null;
+      for (RequiredField required : requiredFields) {
+        if (schema.indexOf(required.field) == -1) {
+          missingField = required;
+          break;
         }
       }
+      this.missingField = missingField;
     }
   }
 
-  private void ensureAllVariablesSet(BoundStatementBuilder bs) {
-    ColumnDefinitions variables = insertStatement.getVariableDefinitions();
-    for (int i = 0; i < variables.size(); i++) {
-      if (!bs.isSet(i)) {
-        bs = bs.setToNull(i);
+  /** The compiled bindings of a field. */
+  private static final class FieldPlan {
+
+    private final VariableBinding[] bindings;
+
+    private FieldPlan(VariableBinding[] bindings) {
+      this.bindings = bindings;
+    }
+  }
+
+  /** The compiled binding of a field to a variable. */
+  private static final class VariableBinding {
+
+    private final CQLWord variable;
+    private final TypeCodec<Object> codec;
+    private final int[] indices;
+    private final boolean emptyIsNull;
+    private final boolean partitionKey;
+    private final boolean clusteringColumn;
+
+    private VariableBinding(
+        CQLWord variable,
+        DataType cqlType,
+        TypeCodec<Object> codec,
+        int[] indices,
+        boolean partitionKey,
+        boolean clusteringColumn) {
+      this.variable = variable;
+      this.codec = codec;
+      this.indices = indices;
+      this.emptyIsNull = emptyIsNull(cqlType);
+      this.partitionKey = partitionKey;
+      this.clusteringColumn = clusteringColumn;
+    }
+
+    private static boolean emptyIsNull(DataType cqlType) {
+      switch (cqlType.getProtocolCode()) {
+        case VARCHAR:
+        case ASCII:
+        case BLOB:
+          // zero-length buffers should not be considered as nulls for
+          // these CQL types.
+          return false;
+        default:
+          return true;
       }
     }
   }
 
-  private ImmutableMap<CQLWord, List<Integer>> buildVariablesToIndices() {
-    Map<CQLWord, List<Integer>> variablesToIndices = new HashMap<>();
-    ColumnDefinitions variables = insertStatement.getVariableDefinitions();
-    for (int i = 0; i < variables.size(); i++) {
-      CQLWord name = CQLWord.fromCqlIdentifier(variables.get(i).getName());
-      List<Integer> indices = variablesToIndices.computeIfAbsent(name, k -> new ArrayList<>());
-      indices.add(i);
+  private static final class RequiredField {
+
+    private final Field field;
+    private final CQLWord variable;
+
+    private RequiredField(Field field, CQLWord variable) {
+      this.field = field;
+      this.variable = variable;
     }
-    return ImmutableMap.copyOf(variablesToIndices);
   }
 }
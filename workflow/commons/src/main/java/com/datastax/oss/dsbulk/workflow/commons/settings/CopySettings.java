@@ -0,0 +1,71 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.settings;
+
+import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import java.util.Optional;
+
+public class CopySettings {
+
+  private static final String KEYSPACE = "keyspace";
+  private static final String TABLE = "table";
+  private static final String DRIVER = "driver";
+
+  private final Config config;
+
+  private String keyspace;
+  private String table;
+  private Config targetDriverConfig;
+
+  public CopySettings(Config config) {
+    this.config = config;
+  }
+
+  public void init() {
+    try {
+      keyspace = config.hasPath(KEYSPACE) ? config.getString(KEYSPACE) : null;
+      table = config.hasPath(TABLE) ? config.getString(TABLE) : null;
+      targetDriverConfig = config.getConfig(DRIVER);
+      if (targetDriverConfig.isEmpty() && keyspace == null && table == null) {
+        throw new IllegalArgumentException(
+            "Settings copy.keyspace or copy.table must be defined when copy.driver is empty, "
+                + "otherwise rows would be copied into the table they are read from");
+      }
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.copy");
+    }
+  }
+
+  /** @return the target keyspace, or empty if rows are copied into the keyspace being read. */
+  public Optional<String> getKeyspace() {
+    return Optional.ofNullable(keyspace);
+  }
+
+  /** @return the target table, or empty if rows are copied into a table with the same name. */
+  public Optional<String> getTable() {
+    return Optional.ofNullable(table);
+  }
+
+  /**
+   * @return the driver settings to connect to the target cluster, or empty if the target cluster is
+   *     the source cluster.
+   */
+  public Optional<Config> getTargetDriverConfig() {
+    return targetDriverConfig.isEmpty() ? Optional.empty() : Optional.of(targetDriverConfig);
+  }
+}
@@ -18,6 +18,8 @@ package com.datastax.oss.dsbulk.workflow.commons.settings;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.OptionalInt;
 
@@ -26,12 +28,15 @@ public class EngineSettings {
   private static final String DRY_RUN = "dryRun";
   private static final String EXECUTION_ID = "executionId";
   private static final String MAX_CONCURRENT_QUERIES = "maxConcurrentQueries";
+  private static final String RESUME_FROM = "resumeFrom";
 
   private final Config config;
 
   private boolean dryRun;
   private String executionId;
   private int maxConcurrentQueries;
+  private boolean adaptiveConcurrency;
+  private Path resumeFrom;
 
   EngineSettings(Config config) {
     this.config = config;
@@ -41,10 +46,21 @@ public class EngineSettings {
     try {
       dryRun = config.getBoolean(DRY_RUN);
       executionId = config.hasPath(EXECUTION_ID) ? config.getString(EXECUTION_ID) : null;
+      String maxConcurrentQueriesStr = config.getString(MAX_CONCURRENT_QUERIES);
+      adaptiveConcurrency = maxConcurrentQueriesStr.equalsIgnoreCase("ADAPTIVE");
       maxConcurrentQueries =
-          config.getString(MAX_CONCURRENT_QUERIES).equalsIgnoreCase("AUTO")
+          maxConcurrentQueriesStr.equalsIgnoreCase("AUTO") || adaptiveConcurrency
               ? -1
               : ConfigUtils.getThreads(config, MAX_CONCURRENT_QUERIES);
+      if (ConfigUtils.isPathPresentAndNotEmpty(config, RESUME_FROM)) {
+        resumeFrom = ConfigUtils.getPath(config, RESUME_FROM);
+        if (!Files.isDirectory(resumeFrom)) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "Invalid value for dsbulk.engine.%s: %s is not a directory.",
+                  RESUME_FROM, resumeFrom));
+        }
+      }
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.engine");
     }
@@ -58,6 +74,22 @@ public class EngineSettings {
     return Optional.ofNullable(executionId);
   }
 
+  /**
+   * Whether the number of concurrent queries should be adjusted dynamically during the operation.
+   * When this is true, {@link #getMaxConcurrentQueries()} returns an empty value.
+   */
+  public boolean isAdaptiveConcurrency() {
+    return adaptiveConcurrency;
+  }
+
+  /**
+   * The operation directory of a previous operation to resume, if any. Only applicable when
+   * loading.
+   */
+  public Optional<Path> getResumeFrom() {
+    return Optional.ofNullable(resumeFrom);
+  }
+
   public OptionalInt getMaxConcurrentQueries() {
     return maxConcurrentQueries == -1 ? OptionalInt.empty() : OptionalInt.of(maxConcurrentQueries);
   }
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.dsbulk.workflow.commons.settings;
 
+import com.codahale.metrics.MetricRegistry;
 import com.datastax.dse.driver.api.core.DseProtocolVersion;
 import com.datastax.dse.driver.api.core.metadata.DseNodeProperties;
 import com.datastax.oss.driver.api.core.CqlSession;
@@ -33,6 +34,7 @@ import com.datastax.oss.dsbulk.executor.api.writer.BulkWriter;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.ServiceLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,7 +46,10 @@ public class ExecutorSettings {
   private final Config config;
 
   private int maxPerSecond;
+  private int maxBurst;
+  private long maxBytesPerSecond;
   private int maxInFlight;
+  private int maxInFlightPerNode;
   private boolean continuousPagingEnabled;
 
   ExecutorSettings(Config config) {
@@ -54,7 +59,10 @@ public class ExecutorSettings {
   public void init() {
     try {
       maxPerSecond = config.getInt("maxPerSecond");
+      maxBurst = config.getInt("maxBurst");
+      maxBytesPerSecond = config.getBytes("maxBytesPerSecond");
       maxInFlight = config.getInt("maxInFlight");
+      maxInFlightPerNode = config.getInt("maxInFlightPerNode");
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.executor");
     }
@@ -79,7 +87,15 @@ public class ExecutorSettings {
   @NonNull
   public BulkWriter newWriteExecutor(
       @NonNull CqlSession session, @NonNull ExecutionListener executionListener) {
-    return newBulkExecutor(session, executionListener, false, false);
+    return newWriteExecutor(session, executionListener, null);
+  }
+
+  @NonNull
+  public BulkWriter newWriteExecutor(
+      @NonNull CqlSession session,
+      @NonNull ExecutionListener executionListener,
+      @Nullable MetricRegistry registry) {
+    return newBulkExecutor(session, executionListener, registry, false, false);
   }
 
   @NonNull
@@ -87,13 +103,19 @@ public class ExecutorSettings {
       @NonNull CqlSession session,
       @NonNull MetricsCollectingExecutionListener executionListener,
       boolean searchQuery) {
-    return newBulkExecutor(session, executionListener, true, searchQuery);
+    return newBulkExecutor(
+        session,
+        executionListener,
+        executionListener == null ? null : executionListener.getRegistry(),
+        true,
+        searchQuery);
   }
 
   @NonNull
   protected BulkExecutor newBulkExecutor(
       @NonNull CqlSession session,
       @NonNull ExecutionListener executionListener,
+      @Nullable MetricRegistry registry,
       boolean read,
       boolean searchQuery) {
     boolean useContinuousPagingForReads = read && checkContinuousPaging(session, searchQuery);
@@ -104,7 +126,11 @@ public class ExecutorSettings {
     builder
         .withExecutionListener(executionListener)
         .withMaxInFlightRequests(maxInFlight)
+        .withMaxInFlightRequestsPerNode(maxInFlightPerNode)
         .withMaxRequestsPerSecond(maxPerSecond)
+        .withMaxRequestsBurst(maxBurst)
+        .withMaxBytesPerSecond(maxBytesPerSecond)
+        .withMetricRegistry(registry)
         .failSafe();
     return builder.build();
   }
@@ -37,6 +37,7 @@ import com.datastax.oss.dsbulk.workflow.api.log.OperationDirectory;
 import com.datastax.oss.dsbulk.workflow.api.log.OperationDirectoryResolver;
 import com.datastax.oss.dsbulk.workflow.api.utils.WorkflowUtils;
 import com.datastax.oss.dsbulk.workflow.commons.format.statement.BulkBoundStatementPrinter;
+import com.datastax.oss.dsbulk.workflow.commons.log.ErrorJournal;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
@@ -45,6 +46,7 @@ import com.typesafe.config.ConfigValue;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -112,6 +114,7 @@ public class LogSettings {
   // Path Constants
   private static final String STMT = "stmt";
   private static final String ROW = "row";
+  private static final String JOURNAL = "journal";
   private static final String MAX_QUERY_STRING_LENGTH = STMT + '.' + "maxQueryStringLength";
   private static final String MAX_BOUND_VALUE_LENGTH = STMT + '.' + "maxBoundValueLength";
   private static final String MAX_BOUND_VALUES = STMT + '.' + "maxBoundValues";
@@ -122,6 +125,10 @@ public class LogSettings {
   private static final String MAX_ERRORS = "maxErrors";
   private static final String MAX_QUERY_WARNINGS = "maxQueryWarnings";
   private static final String VERBOSITY = "verbosity";
+  private static final String CHECKPOINT_INTERVAL = "checkpointInterval";
+  private static final String JOURNAL_MAX_PENDING_ENTRIES = JOURNAL + '.' + "maxPendingEntries";
+  private static final String JOURNAL_FLUSH_INTERVAL = JOURNAL + '.' + "flushInterval";
+  private static final String JOURNAL_DROP_WHEN_FULL = JOURNAL + '.' + "dropWhenFull";
 
   private final Config config;
   private final String executionId;
@@ -137,6 +144,10 @@ public class LogSettings {
   @VisibleForTesting ErrorThreshold errorThreshold;
   @VisibleForTesting ErrorThreshold queryWarningsThreshold;
   private Verbosity verbosity;
+  private Duration checkpointInterval;
+  private int journalMaxPendingEntries;
+  private Duration journalFlushInterval;
+  private boolean journalDropWhenFull;
 
   public LogSettings(Config config, String executionId) {
     this.config = config;
@@ -177,6 +188,16 @@ public class LogSettings {
       } else {
         queryWarningsThreshold = ErrorThreshold.forAbsoluteValue(maxQueryWarnings);
       }
+      checkpointInterval = config.getDuration(CHECKPOINT_INTERVAL);
+      journalMaxPendingEntries = config.getInt(JOURNAL_MAX_PENDING_ENTRIES);
+      if (journalMaxPendingEntries < 1) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Value for log.journal.maxPendingEntries (%d) must be positive.",
+                journalMaxPendingEntries));
+      }
+      journalFlushInterval = config.getDuration(JOURNAL_FLUSH_INTERVAL);
+      journalDropWhenFull = config.getBoolean(JOURNAL_DROP_WHEN_FULL);
       Path mainLogFile =
           operationDirectory.resolve(MAIN_LOG_FILE_NAME).normalize().toAbsolutePath();
       createMainLogFileAppender(mainLogFile);
@@ -242,9 +263,11 @@ public class LogSettings {
         errorThreshold,
         queryWarningsThreshold,
         trackPositions,
+        checkpointInterval,
         statementFormatter,
         level,
-        rowFormatter);
+        rowFormatter,
+        new ErrorJournal(journalMaxPendingEntries, journalFlushInterval, journalDropWhenFull));
   }
 
   public Verbosity getVerbosity() {
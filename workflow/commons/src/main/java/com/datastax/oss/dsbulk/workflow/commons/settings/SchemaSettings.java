@@ -37,10 +37,13 @@ import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
 import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
 import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.IndexMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
@@ -48,6 +51,7 @@ import com.datastax.oss.driver.api.core.metadata.schema.RelationMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.ViewMetadata;
 import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
 import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMultimap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
@@ -67,11 +71,15 @@ import com.datastax.oss.dsbulk.mapping.MappedMappingField;
 import com.datastax.oss.dsbulk.mapping.MappingField;
 import com.datastax.oss.dsbulk.mapping.MappingInspector;
 import com.datastax.oss.dsbulk.mapping.MappingPreference;
+import com.datastax.oss.dsbulk.partitioner.BulkTokenFactory;
+import com.datastax.oss.dsbulk.partitioner.BulkTokenRange;
 import com.datastax.oss.dsbulk.partitioner.TokenRangeReadStatementGenerator;
+import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultCopier;
 import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultCounter;
 import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultRecordMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.QueryInspector;
+import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCopier;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCounter;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
@@ -80,8 +88,10 @@ import com.datastax.oss.dsbulk.workflow.commons.utils.GraphUtils;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -140,6 +150,7 @@ public class SchemaSettings {
   private ImmutableSet<CQLFragment> writeTimeVariables;
   private MappingPreference mappingPreference;
   private ProtocolVersion protocolVersion;
+  private boolean countPushDown;
 
   public SchemaSettings(Config config) {
     this.config = config;
@@ -480,7 +491,49 @@ public class SchemaSettings {
       ConvertingCodecFactory codecFactory,
       EnumSet<StatsSettings.StatisticsMode> modes,
       int numPartitions) {
+    return createReadResultCounter(session, codecFactory, modes, numPartitions, false);
+  }
+
+  /**
+   * Creates a counter for the read results of the statements returned by {@link
+   * #createReadStatements(CqlSession)}.
+   *
+   * @param pushDown whether to count rows server-side, with {@code SELECT count(*)} queries; only
+   *     allowed when counting global rows.
+   */
+  public ReadResultCounter createReadResultCounter(
+      CqlSession session,
+      ConvertingCodecFactory codecFactory,
+      EnumSet<StatsSettings.StatisticsMode> modes,
+      int numPartitions,
+      boolean pushDown) {
+    if (pushDown && !modes.equals(EnumSet.of(StatisticsMode.global))) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Cannot push down counting with stats.modes = %s; "
+                  + "only stats.modes = [global] is allowed",
+              modes));
+    }
+    if (pushDown && config.hasPath(QUERY)) {
+      throw new IllegalArgumentException(
+          "Cannot push down counting when schema.query is provided; "
+              + "set stats.pushDown to false or remove schema.query");
+    }
+    countPushDown = pushDown;
     prepareStatementAndCreateMapping(session, null, SchemaGenerationType.READ_AND_COUNT, modes);
+    if (pushDown) {
+      // the counter sums the first column of each row: make sure it is the row count
+      ColumnDefinitions definitions = preparedStatement.getResultSetDefinitions();
+      if (definitions.size() != 1
+          || !definitions.get(0).getName().asInternal().equals("count")
+          || !definitions.get(0).getType().equals(DataTypes.BIGINT)) {
+        throw new IllegalArgumentException(
+            "Cannot push down counting: expecting a single count column of type bigint, got "
+                + StreamSupport.stream(definitions.spliterator(), false)
+                    .map(def -> def.getName().asCql(true) + " " + def.getType().asCql(true, true))
+                    .collect(Collectors.joining(", ", "[", "]")));
+      }
+    }
     ProtocolVersion protocolVersion = session.getContext().getProtocolVersion();
     Metadata metadata = session.getMetadata();
     if (modes.contains(StatisticsMode.partitions) && table.getClusteringColumns().isEmpty()) {
@@ -490,7 +543,96 @@ public class SchemaSettings {
               tableName.render(VARIABLE)));
     }
     return new DefaultReadResultCounter(
-        keyspace.getName(), metadata, modes, numPartitions, protocolVersion, codecFactory);
+        keyspace.getName(),
+        metadata,
+        modes,
+        numPartitions,
+        protocolVersion,
+        codecFactory,
+        pushDown);
+  }
+
+  public ReadResultCopier createReadResultCopier(
+      CqlSession session,
+      CqlSession targetSession,
+      @Nullable String targetKeyspaceName,
+      @Nullable String targetTableName) {
+    prepareStatementAndCreateMapping(
+        session, null, SchemaGenerationType.READ_AND_MAP, EnumSet.noneOf(StatisticsMode.class));
+    KeyspaceMetadata targetKeyspace =
+        locateKeyspace(
+            targetSession.getMetadata(),
+            targetKeyspaceName == null ? keyspace.getName().asInternal() : targetKeyspaceName);
+    RelationMetadata targetTable =
+        locateTable(
+            targetKeyspace,
+            targetTableName == null ? table.getName().asInternal() : targetTableName,
+            SchemaGenerationType.MAP_AND_WRITE);
+    String target =
+        CQLWord.fromCqlIdentifier(targetKeyspace.getName()).render(VARIABLE)
+            + '.'
+            + CQLWord.fromCqlIdentifier(targetTable.getName()).render(VARIABLE);
+    if (targetTable.getColumns().values().stream()
+        .anyMatch(c -> c.getType().equals(DataTypes.COUNTER))) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Cannot copy rows into table %s: counter tables are not supported", target));
+    }
+    // the insert statement binds the columns in the order they are read, so that each cell can be
+    // bound at the same index it was read from
+    StringBuilder columns = new StringBuilder();
+    StringBuilder values = new StringBuilder();
+    Set<CqlIdentifier> copied = new HashSet<>();
+    for (ColumnDefinition definition : preparedStatement.getResultSetDefinitions()) {
+      CQLWord name = CQLWord.fromCqlIdentifier(definition.getName());
+      ColumnMetadata column =
+          targetTable
+              .getColumn(definition.getName())
+              .orElseThrow(
+                  () ->
+                      new IllegalArgumentException(
+                          String.format(
+                              "Cannot copy column %s: table %s has no such column",
+                              name.render(VARIABLE), target)));
+      if (!column.getType().equals(definition.getType())) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Cannot copy column %s of type %s into column of type %s of table %s",
+                name.render(VARIABLE), definition.getType(), column.getType(), target));
+      }
+      if (!copied.add(definition.getName())) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Cannot copy column %s: it is read more than once", name.render(VARIABLE)));
+      }
+      if (columns.length() > 0) {
+        columns.append(", ");
+        values.append(", ");
+      }
+      columns.append(name.render(VARIABLE));
+      values.append(name.render(NAMED_ASSIGNMENT));
+    }
+    for (ColumnMetadata column : targetTable.getPrimaryKey()) {
+      if (!copied.contains(column.getName())) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Cannot copy rows into table %s: primary key column %s is not being read",
+                target, CQLWord.fromCqlIdentifier(column.getName()).render(VARIABLE)));
+      }
+    }
+    String insert = "INSERT INTO " + target + " (" + columns + ") VALUES (" + values + ")";
+    LOGGER.debug("Inferred copy query: {}", insert);
+    ProtocolVersion targetProtocolVersion = targetSession.getContext().getProtocolVersion();
+    boolean nullToUnset = this.nullToUnset;
+    if (targetProtocolVersion.getCode() < DefaultProtocolVersion.V4.getCode() && nullToUnset) {
+      LOGGER.warn(
+          String.format(
+              "Protocol version in use (%s) does not support unset bound variables; "
+                  + "forcing schema.nullToUnset to false",
+              targetProtocolVersion));
+      nullToUnset = false;
+    }
+    return new DefaultReadResultCopier(targetSession.prepare(insert), nullToUnset);
   }
 
   public List<Statement<?>> createReadStatements(CqlSession session) {
@@ -541,6 +683,47 @@ public class SchemaSettings {
     return statements;
   }
 
+  /**
+   * Splits the given read statement, as returned by {@link #createReadStatements(CqlSession)}, into
+   * two statements, each reading one half of its token range.
+   *
+   * @return the two halves, or an empty list if the statement does not read a token range, or if
+   *     its token range cannot be split any further.
+   */
+  @NonNull
+  public List<Statement<?>> splitReadStatement(CqlSession session, Statement<?> statement) {
+    if (!(statement instanceof BoundStatement)
+        || !queryInspector.getTokenRangeRestrictionStartVariable().isPresent()
+        || !queryInspector.getTokenRangeRestrictionEndVariable().isPresent()) {
+      return Collections.emptyList();
+    }
+    BoundStatement bs = (BoundStatement) statement;
+    int startIndex = queryInspector.getTokenRangeRestrictionStartVariableIndex();
+    int endIndex = queryInspector.getTokenRangeRestrictionEndVariableIndex();
+    TokenMap tokenMap =
+        session
+            .getMetadata()
+            .getTokenMap()
+            .orElseThrow(() -> new IllegalStateException("Token metadata not present"));
+    BulkTokenFactory tokenFactory =
+        BulkTokenFactory.forPartitioner(
+            ((DefaultTokenMap) tokenMap).getTokenFactory().getPartitionerName());
+    BulkTokenRange range =
+        tokenFactory.range(bs.getToken(startIndex), bs.getToken(endIndex), Collections.emptySet());
+    List<BulkTokenRange> halves = tokenFactory.splitter().split(range, 2);
+    if (halves.size() < 2) {
+      return Collections.emptyList();
+    }
+    List<Statement<?>> statements = new ArrayList<>(halves.size());
+    for (BulkTokenRange half : halves) {
+      statements.add(
+          bs.setToken(startIndex, half.getStart())
+              .setToken(endIndex, half.getEnd())
+              .setRoutingToken(half.getEnd()));
+    }
+    return statements;
+  }
+
   @NonNull
   public RowType getRowType() {
     boolean isTable = table instanceof DseTableMetadata;
@@ -1188,6 +1371,9 @@ public class SchemaSettings {
 
   @NonNull
   private String getGlobalCountSelector() {
+    if (countPushDown) {
+      return "count(*)";
+    }
     // When counting global rows we can select anything; we use the first partition key column.
     return table.getPartitionKey().get(0).getName().asCql(true);
   }
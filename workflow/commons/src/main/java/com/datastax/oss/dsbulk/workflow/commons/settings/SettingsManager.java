@@ -34,6 +34,7 @@ public class SettingsManager {
   private MonitoringSettings monitoringSettings;
   private EngineSettings engineSettings;
   private StatsSettings statsSettings;
+  private CopySettings copySettings;
 
   public SettingsManager(Config config) {
     this.config = config;
@@ -62,6 +63,7 @@ public class SettingsManager {
     monitoringSettings =
         new MonitoringSettings(config.getConfig("dsbulk.monitoring"), this.executionId);
     statsSettings = new StatsSettings(config.getConfig("dsbulk.stats"));
+    copySettings = new CopySettings(config.getConfig("dsbulk.copy"));
   }
 
   public String getExecutionId() {
@@ -108,6 +110,23 @@ public class SettingsManager {
     return statsSettings;
   }
 
+  public CopySettings getCopySettings() {
+    return copySettings;
+  }
+
+  /**
+   * Creates the driver settings to connect to the target cluster of a copy operation.
+   *
+   * @param targetDriverConfig the driver settings that override those of the source cluster.
+   * @return the driver settings of the target cluster.
+   */
+  public DriverSettings newTargetDriverSettings(Config targetDriverConfig) {
+    return new DriverSettings(
+        config.getConfig("dsbulk.driver"),
+        config.getConfig("dsbulk.executor.continuousPaging"),
+        targetDriverConfig.withFallback(config.getConfig("datastax-java-driver")));
+  }
+
   public Config getEffectiveBulkLoaderConfig() {
     // must be called after connector settings initialized
     Config dsbulkConfig =
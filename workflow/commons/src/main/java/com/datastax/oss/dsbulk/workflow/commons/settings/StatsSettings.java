@@ -32,11 +32,13 @@ public class StatsSettings {
 
   private static final String MODES = "modes";
   private static final String NUM_PARTITIONS = "numPartitions";
+  private static final String PUSH_DOWN = "pushDown";
 
   private final Config config;
 
   private List<StatisticsMode> statisticsModes;
   private int numPartitions;
+  private boolean pushDown;
 
   public StatsSettings(Config config) {
     this.config = config;
@@ -46,6 +48,7 @@ public class StatsSettings {
     try {
       statisticsModes = config.getEnumList(StatisticsMode.class, MODES);
       numPartitions = config.getInt(NUM_PARTITIONS);
+      pushDown = config.getBoolean(PUSH_DOWN);
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.stats");
     }
@@ -58,4 +61,12 @@ public class StatsSettings {
   public int getNumPartitions() {
     return numPartitions;
   }
+
+  /**
+   * @return whether rows should be counted server-side; always false unless only global statistics
+   *     are computed.
+   */
+  public boolean isPushDown() {
+    return pushDown && getStatisticsModes().equals(EnumSet.of(StatisticsMode.global));
+  }
 }
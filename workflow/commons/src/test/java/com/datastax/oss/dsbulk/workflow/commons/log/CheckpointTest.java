@@ -0,0 +1,101 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongPredicate;
+import org.junit.jupiter.api.Test;
+
+class CheckpointTest {
+
+  private static final URI RESOURCE1 = URI.create("file:///data1.csv");
+  private static final URI RESOURCE2 = URI.create("file:///data2.csv");
+  private static final URI RESOURCE3 = URI.create("file:///data3.csv");
+
+  @Test
+  void should_save_and_load_checkpoint() throws Exception {
+    Path dir = Files.createTempDirectory("test");
+    Checkpoint checkpoint =
+        new Checkpoint(
+            ImmutableMap.of(
+                RESOURCE2,
+                Lists.newArrayList(new Range(1, 10), new Range(12), new Range(20, 30)),
+                RESOURCE1,
+                Lists.newArrayList(new Range(1, 100))),
+            ImmutableSet.of(RESOURCE1));
+    checkpoint.save(dir);
+    assertThat(Files.readAllLines(dir.resolve("checkpoint.txt"), UTF_8))
+        .containsExactly(
+            "file:///data1.csv\tCOMPLETE\t1-100", "file:///data2.csv\tPARTIAL\t1-10,12,20-30");
+    assertThat(dir.resolve("checkpoint.txt.tmp")).doesNotExist();
+    Checkpoint loaded = Checkpoint.load(dir);
+    assertThat(loaded.getPositions()).isEqualTo(checkpoint.getPositions());
+    assertThat(loaded.getCommittedResources()).containsOnly(RESOURCE1);
+    // saving again replaces the previous checkpoint
+    new Checkpoint(ImmutableMap.of(), ImmutableSet.of()).save(dir);
+    assertThat(Checkpoint.load(dir).getPositions()).isEmpty();
+  }
+
+  @Test
+  void should_test_committed_positions() {
+    Checkpoint checkpoint =
+        new Checkpoint(
+            ImmutableMap.of(
+                RESOURCE1, Lists.newArrayList(new Range(2, 10), new Range(12), new Range(20, 30))),
+            ImmutableSet.of());
+    assertThat(checkpoint.isResourceCommitted(RESOURCE1)).isFalse();
+    assertThat(checkpoint.getCommittedPositions(RESOURCE2)).isNull();
+    LongPredicate committed = checkpoint.getCommittedPositions(RESOURCE1);
+    assertThat(committed).isNotNull();
+    assertThat(committed.test(1)).isFalse();
+    assertThat(committed.test(2)).isTrue();
+    assertThat(committed.test(10)).isTrue();
+    assertThat(committed.test(11)).isFalse();
+    assertThat(committed.test(12)).isTrue();
+    assertThat(committed.test(13)).isFalse();
+    assertThat(committed.test(25)).isTrue();
+    assertThat(committed.test(31)).isFalse();
+  }
+
+  @Test
+  void should_throw_when_checkpoint_file_missing() throws Exception {
+    Path dir = Files.createTempDirectory("test");
+    assertThatThrownBy(() -> Checkpoint.load(dir))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("does not exist");
+  }
+
+  @Test
+  void should_throw_when_checkpoint_file_invalid() throws Exception {
+    Path dir = Files.createTempDirectory("test");
+    Files.write(
+        dir.resolve("checkpoint.txt"),
+        Lists.newArrayList(RESOURCE1 + "\tCOMPLETE\t1-10", RESOURCE3 + "\tPARTIAL\t5-3"),
+        UTF_8);
+    assertThatThrownBy(() -> Checkpoint.load(dir))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("line 2");
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.dsbulk.tests.utils.ReflectionUtils;
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ErrorJournalTest {
+
+  private final Path file1 = Paths.get("file1");
+  private final Path file2 = Paths.get("file2");
+
+  private final StringWriter out1 = new StringWriter();
+  private final StringWriter out2 = new StringWriter();
+  private final PrintWriter writer1 = new PrintWriter(out1);
+  private final PrintWriter writer2 = new PrintWriter(out2);
+
+  private final List<Throwable> errors = new ArrayList<>();
+
+  @Test
+  void should_write_entries_in_order() throws Exception {
+    ErrorJournal journal = new ErrorJournal(4, Duration.ofMinutes(1), false);
+    journal.start(this::writer, errors::add);
+    for (int i = 0; i < 100; i++) {
+      int n = i;
+      journal.append(n % 2 == 0 ? file1 : file2, writer -> writer.println(n), n % 3 == 0);
+    }
+    journal.close();
+    assertThat(out1.toString().split(System.lineSeparator())).containsExactly(expected(0, 100, 2));
+    assertThat(out2.toString().split(System.lineSeparator())).containsExactly(expected(1, 100, 2));
+    assertThat(journal.getDroppedEntries()).isZero();
+    assertThat(errors).isEmpty();
+  }
+
+  @Test
+  void should_flush_pending_entries_on_demand() throws Exception {
+    ErrorJournal journal = new ErrorJournal(16, Duration.ofMinutes(1), false);
+    PrintWriter buffered = new PrintWriter(new BufferedWriter(out1, 8192));
+    journal.start(file -> buffered, errors::add);
+    journal.append(file1, writer -> writer.println("entry"), false);
+    journal.flush().get(5, TimeUnit.SECONDS);
+    assertThat(out1.toString()).isEqualTo("entry" + System.lineSeparator());
+    journal.close();
+  }
+
+  @Test
+  void should_drop_and_count_entries_when_full() throws Exception {
+    ErrorJournal journal = new ErrorJournal(2, Duration.ZERO, true);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    journal.start(this::writer, errors::add);
+    journal.append(
+        file1,
+        writer -> {
+          blocked.countDown();
+          awaitQuietly(release);
+          writer.println("first");
+        },
+        true);
+    assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+    // the writer thread is blocked: fill the queue, then overflow it
+    journal.append(file1, writer -> writer.println("second"), true);
+    journal.append(file1, writer -> writer.println("third"), true);
+    journal.append(file1, writer -> writer.println("dropped"), true);
+    assertThat(journal.getDroppedEntries()).isEqualTo(1);
+    release.countDown();
+    journal.close();
+    assertThat(out1.toString().split(System.lineSeparator()))
+        .containsExactly("first", "second", "third");
+  }
+
+  @Test
+  void should_block_producer_until_room_is_made_when_full() throws Exception {
+    ErrorJournal journal = new ErrorJournal(1, Duration.ZERO, false);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    journal.start(this::writer, errors::add);
+    journal.append(
+        file1,
+        writer -> {
+          blocked.countDown();
+          awaitQuietly(release);
+          writer.println("first");
+        },
+        false);
+    assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+    journal.append(file1, writer -> writer.println("second"), false);
+    Thread producer =
+        new Thread(() -> journal.append(file1, writer -> writer.println("third"), false));
+    producer.start();
+    producer.join(100);
+    assertThat(producer.isAlive()).isTrue();
+    release.countDown();
+    producer.join(5000);
+    assertThat(producer.isAlive()).isFalse();
+    journal.close();
+    assertThat(out1.toString().split(System.lineSeparator()))
+        .containsExactly("first", "second", "third");
+    assertThat(journal.getDroppedEntries()).isZero();
+  }
+
+  @Test
+  void should_park_writer_thread_when_idle() throws Exception {
+    ErrorJournal journal = new ErrorJournal(16, Duration.ofMinutes(1), false);
+    journal.start(this::writer, errors::add);
+    journal.append(file1, writer -> writer.println("entry"), false);
+    journal.flush().get(5, TimeUnit.SECONDS);
+    Thread writerThread = (Thread) ReflectionUtils.getInternalState(journal, "writerThread");
+    // nothing to flush: the writer thread parks without timeout
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (writerThread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(writerThread.getState()).isEqualTo(Thread.State.WAITING);
+    // appending wakes it up
+    journal.append(file1, writer -> writer.println("next"), false);
+    journal.flush().get(5, TimeUnit.SECONDS);
+    assertThat(out1.toString())
+        .isEqualTo("entry" + System.lineSeparator() + "next" + System.lineSeparator());
+    journal.close();
+  }
+
+  @Test
+  void should_report_errors_to_handler() throws Exception {
+    ErrorJournal journal = new ErrorJournal(16, Duration.ZERO, false);
+    journal.start(this::writer, errors::add);
+    journal.append(
+        file1,
+        writer -> {
+          throw new IllegalStateException("boom");
+        },
+        false);
+    journal.append(file1, writer -> writer.println("next"), false);
+    journal.close();
+    assertThat(errors).hasSize(1);
+    assertThat(errors.get(0)).isInstanceOf(IllegalStateException.class);
+    assertThat(out1.toString()).isEqualTo("next" + System.lineSeparator());
+    assertThatThrownBy(() -> journal.append(file1, writer -> {}, false))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Error journal is closed");
+  }
+
+  private PrintWriter writer(Path file) {
+    return file.equals(file1) ? writer1 : writer2;
+  }
+
+  private static String[] expected(int start, int end, int step) {
+    List<String> expected = new ArrayList<>();
+    for (int i = start; i < end; i += step) {
+      expected.add(String.valueOf(i));
+    }
+    return expected.toArray(new String[0]);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -45,6 +45,7 @@ import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultWriteResult;
+import com.datastax.oss.dsbulk.executor.api.result.EmptyWriteResult;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
 import com.datastax.oss.dsbulk.format.row.RowFormatter;
@@ -64,6 +65,7 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.util.Lists;
@@ -965,6 +967,65 @@ class LogManagerTest {
                 + "subsequent warnings will not be logged.");
   }
 
+  @Test
+  void should_save_checkpoint_and_resume_from_it() throws Exception {
+    Record record11 = DefaultRecord.indexed(source1, resource1, 1, "foo");
+    Record record12 = DefaultRecord.indexed(source2, resource1, 2, "bar");
+    Record record21 = DefaultRecord.indexed(source1, resource2, 1, "foo");
+    Record record22 = DefaultRecord.indexed(source2, resource2, 2, "bar");
+    Record record23 = DefaultRecord.indexed(source3, resource2, 3, "qix");
+    Path outputDir1 = Files.createTempDirectory("test");
+    LogManager logManager1 = newCheckpointingLogManager(outputDir1);
+    logManager1.init();
+    // both resources are read entirely, but record 2 of resource 2 is never committed
+    Flux.just(record11, record12).transform(logManager1.newResourceCompletionHandler()).blockLast();
+    Flux.just(record21, record22, record23)
+        .transform(logManager1.newResourceCompletionHandler())
+        .blockLast();
+    commit(logManager1, record11, record12, record21, record23);
+    logManager1.close();
+    Path checkpoint1 = outputDir1.resolve("checkpoint.txt");
+    assertThat(Files.readAllLines(checkpoint1, UTF_8))
+        .containsExactly("file:///file1.csv\tCOMPLETE\t1-2", "file:///file2.csv\tPARTIAL\t1,3");
+    Checkpoint resumed = Checkpoint.load(outputDir1);
+    assertThat(resumed.isResourceCommitted(resource1)).isTrue();
+    assertThat(resumed.isResourceCommitted(resource2)).isFalse();
+    // resume: the connector only emits the uncommitted record
+    Path outputDir2 = Files.createTempDirectory("test");
+    LogManager logManager2 = newCheckpointingLogManager(outputDir2);
+    logManager2.resumeFrom(resumed);
+    logManager2.init();
+    Flux.just(record22).transform(logManager2.newResourceCompletionHandler()).blockLast();
+    commit(logManager2, record22);
+    logManager2.close();
+    Path checkpoint2 = outputDir2.resolve("checkpoint.txt");
+    assertThat(Files.readAllLines(checkpoint2, UTF_8))
+        .containsExactly("file:///file1.csv\tCOMPLETE\t1-2", "file:///file2.csv\tCOMPLETE\t1-3");
+  }
+
+  private LogManager newCheckpointingLogManager(Path outputDir) {
+    return new LogManager(
+        session,
+        outputDir,
+        ErrorThreshold.forAbsoluteValue(10),
+        ErrorThreshold.forAbsoluteValue(0),
+        true,
+        Duration.ofMinutes(1),
+        statementFormatter,
+        EXTENDED,
+        rowFormatter);
+  }
+
+  private static void commit(LogManager logManager, Record... records) {
+    Flux.just(records)
+        .<WriteResult>map(
+            record ->
+                new EmptyWriteResult(
+                    new BulkBoundStatement<>(record, mockBoundStatement("INSERT"))))
+        .transform(logManager.newResultPositionsHandler())
+        .blockLast();
+  }
+
   private static BulkBoundStatement<?> mockBulkBoundStatement(
       int value, Object source, URI resource) {
     BoundStatement bs = mockBoundStatement("INSERT INTO " + value, value);
@@ -0,0 +1,107 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import java.net.URI;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of tracking positions when writes complete out of order.
+ *
+ * <p>Completion orders are simulated by keeping {@code inFlight} positions in flight, and
+ * completing one of them at random before reading the next position; this reproduces the order in
+ * which results reach {@link LogManager#newResultPositionsHandler()} under the given write
+ * concurrency. When {@code inFlight} is zero, positions are shuffled across the whole resource.
+ *
+ * <p>To run this benchmark, first compile the test classes, then run:
+ *
+ * <pre>
+ * java -cp &lt;test classpath&gt; org.openjdk.jmh.Main PositionsTrackerBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PositionsTrackerBenchmark {
+
+  private static final URI RESOURCE = URI.create("file:///data.csv");
+
+  @Param({"1000000"})
+  int records;
+
+  @Param({"64", "1024", "16384", "0"})
+  int inFlight;
+
+  private long[] positions;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    positions = new long[records];
+    if (inFlight == 0) {
+      for (int i = 0; i < records; i++) {
+        positions[i] = i + 1;
+      }
+      for (int i = records - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        long tmp = positions[i];
+        positions[i] = positions[j];
+        positions[j] = tmp;
+      }
+    } else {
+      long[] window = new long[Math.min(inFlight, records)];
+      long next = 1;
+      for (int i = 0; i < window.length; i++) {
+        window[i] = next++;
+      }
+      int size = window.length;
+      for (int i = 0; i < records; i++) {
+        int slot = random.nextInt(size);
+        positions[i] = window[slot];
+        if (next <= records) {
+          window[slot] = next++;
+        } else {
+          window[slot] = window[--size];
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public PositionsTracker update() {
+    PositionsTracker tracker = new PositionsTracker();
+    for (long position : positions) {
+      tracker.update(RESOURCE, position);
+    }
+    return tracker;
+  }
+}
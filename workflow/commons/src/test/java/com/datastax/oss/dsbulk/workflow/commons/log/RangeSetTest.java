@@ -0,0 +1,94 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RangeSetTest {
+
+  @Test
+  void should_merge_adjacent_positions() {
+    RangeSet set = new RangeSet();
+    set.add(5);
+    set.add(3);
+    set.add(1);
+    assertThat(set.toList()).containsExactly(new Range(1), new Range(3), new Range(5));
+    set.add(4);
+    assertThat(set.toList()).containsExactly(new Range(1), new Range(3, 5));
+    set.add(2);
+    assertThat(set.toList()).containsExactly(new Range(1, 5));
+    set.add(3);
+    assertThat(set.toList()).containsExactly(new Range(1, 5));
+    assertThat(set.size()).isOne();
+  }
+
+  @Test
+  void should_merge_overlapping_ranges() {
+    RangeSet set = new RangeSet();
+    set.add(10, 20);
+    set.add(30, 40);
+    set.add(50);
+    assertThat(set.toList()).containsExactly(new Range(10, 20), new Range(30, 40), new Range(50));
+    set.add(21, 29);
+    assertThat(set.toList()).containsExactly(new Range(10, 40), new Range(50));
+    set.add(5, 60);
+    assertThat(set.toList()).containsExactly(new Range(5, 60));
+    set.add(7, 8);
+    assertThat(set.toList()).containsExactly(new Range(5, 60));
+  }
+
+  @Test
+  void should_track_shuffled_positions() {
+    Random random = new Random(42);
+    for (int run = 0; run < 20; run++) {
+      int count = 1 + random.nextInt(5000);
+      List<Long> positions = new ArrayList<>(count);
+      for (long i = 1; i <= count; i++) {
+        positions.add(i);
+      }
+      Collections.shuffle(positions, random);
+      RangeSet set = new RangeSet();
+      BitSet expected = new BitSet();
+      // add a random subset of positions, then check against a bit set
+      int added = random.nextInt(count + 1);
+      for (int i = 0; i < added; i++) {
+        long position = positions.get(i);
+        set.add(position);
+        expected.set((int) position);
+      }
+      assertThat(set.toList()).isEqualTo(toRanges(expected));
+      assertThat(set.size()).isEqualTo(toRanges(expected).size());
+    }
+  }
+
+  private static List<Range> toRanges(BitSet bits) {
+    List<Range> ranges = new ArrayList<>();
+    int lower = bits.nextSetBit(0);
+    while (lower >= 0) {
+      int upper = bits.nextClearBit(lower) - 1;
+      ranges.add(new Range(lower, upper));
+      lower = bits.nextSetBit(upper + 1);
+    }
+    return ranges;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinition;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinitions;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.workflow.commons.statement.BulkBoundStatement;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class DefaultReadResultCopierTest {
+
+  private final ByteBuffer cell0 = TypeCodecs.INT.encode(42, ProtocolVersion.DEFAULT);
+  private final ByteBuffer cell1 = TypeCodecs.TEXT.encode("foo", ProtocolVersion.DEFAULT);
+  private final ByteBuffer cell2 = TypeCodecs.BIGINT.encode(4242L, ProtocolVersion.DEFAULT);
+
+  private PreparedStatement insertStatement;
+  private BoundStatementBuilder builder;
+  private BoundStatement boundStatement;
+  private ReadResult result;
+  private Row row;
+
+  @BeforeEach
+  void setUp() {
+    insertStatement = mock(PreparedStatement.class);
+    builder = mock(BoundStatementBuilder.class, RETURNS_SELF);
+    boundStatement = mock(BoundStatement.class);
+    when(insertStatement.boundStatementBuilder()).thenReturn(builder);
+    when(builder.build()).thenReturn(boundStatement);
+    row = mock(Row.class);
+    ColumnDefinitions definitions =
+        mockColumnDefinitions(
+            mockColumnDefinition("c1", DataTypes.INT),
+            mockColumnDefinition("c2", DataTypes.TEXT),
+            mockColumnDefinition("c3", DataTypes.BIGINT));
+    when(row.getColumnDefinitions()).thenReturn(definitions);
+    when(row.getBytesUnsafe(0)).thenReturn(cell0);
+    when(row.getBytesUnsafe(1)).thenReturn(cell1);
+    when(row.getBytesUnsafe(2)).thenReturn(cell2);
+    result = mock(ReadResult.class);
+    when(result.getRow()).thenReturn(Optional.of(row));
+  }
+
+  @Test
+  void should_bind_cells_at_the_index_they_were_read_from() {
+    DefaultReadResultCopier copier = new DefaultReadResultCopier(insertStatement, true);
+    BatchableStatement<?> statement = copier.copy(result);
+    assertThat(statement).isInstanceOf(BulkBoundStatement.class);
+    assertThat(((BulkBoundStatement<?>) statement).getSource()).isSameAs(result);
+    InOrder inOrder = inOrder(builder);
+    inOrder.verify(builder).setBytesUnsafe(0, cell0);
+    inOrder.verify(builder).setBytesUnsafe(1, cell1);
+    inOrder.verify(builder).setBytesUnsafe(2, cell2);
+    inOrder.verify(builder).build();
+  }
+
+  @Test
+  void should_leave_null_cells_unset_when_null_to_unset() {
+    when(row.getBytesUnsafe(1)).thenReturn(null);
+    DefaultReadResultCopier copier = new DefaultReadResultCopier(insertStatement, true);
+    copier.copy(result);
+    verify(builder).setBytesUnsafe(0, cell0);
+    verify(builder, never()).setBytesUnsafe(eq(1), any());
+    verify(builder).setBytesUnsafe(2, cell2);
+  }
+
+  @Test
+  void should_bind_null_cells_when_not_null_to_unset() {
+    when(row.getBytesUnsafe(1)).thenReturn(null);
+    DefaultReadResultCopier copier = new DefaultReadResultCopier(insertStatement, false);
+    copier.copy(result);
+    verify(builder).setBytesUnsafe(0, cell0);
+    verify(builder).setBytesUnsafe(eq(1), isNull());
+    verify(builder).setBytesUnsafe(2, cell2);
+  }
+
+  @Test
+  void should_throw_when_result_has_no_row() {
+    when(result.getRow()).thenReturn(Optional.empty());
+    DefaultReadResultCopier copier = new DefaultReadResultCopier(insertStatement, true);
+    assertThatThrownBy(() -> copier.copy(result)).isInstanceOf(IllegalStateException.class);
+    verify(builder, never()).setBytesUnsafe(anyInt(), any());
+  }
+}
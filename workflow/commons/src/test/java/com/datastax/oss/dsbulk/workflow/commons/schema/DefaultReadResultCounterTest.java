@@ -27,6 +27,7 @@ import static com.datastax.oss.dsbulk.workflow.commons.settings.StatsSettings.St
 import static java.net.InetSocketAddress.createUnresolved;
 import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
@@ -222,6 +223,32 @@ class DefaultReadResultCounterTest {
     assertThat(stdout.getStreamLines()).contains("2");
   }
 
+  @Test
+  void should_sum_pushed_down_counts(StreamInterceptor stdout) {
+    DefaultReadResultCounter counter =
+        new DefaultReadResultCounter(ks, metadata, EnumSet.of(global), 10, V4, codecFactory, true);
+    when(row1.getLong(0)).thenReturn(1000L);
+    when(row2.getLong(0)).thenReturn(234L);
+
+    counter.newCountingUnit().update(result1);
+    counter.newCountingUnit().update(result2);
+    counter.consolidateUnitCounts();
+    assertThat(counter.totalRows).isEqualTo(1234);
+
+    counter.reportTotals();
+    assertThat(stdout.getStreamLines()).contains("1234");
+  }
+
+  @Test
+  void should_not_push_down_counts_for_other_stats() {
+    assertThatThrownBy(
+            () ->
+                new DefaultReadResultCounter(
+                    ks, metadata, EnumSet.of(global, ranges), 10, V4, codecFactory, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Cannot push down counting when computing statistics other than global ones");
+  }
+
   @Test
   void should_count_nodes(StreamInterceptor stdout) {
     DefaultReadResultCounter counter =
@@ -312,6 +339,22 @@ class DefaultReadResultCounterTest {
                 "%s %s 0 0.00", getTokenValue(range3.getStart()), getTokenValue(range3.getEnd())));
   }
 
+  @Test
+  void should_reuse_partition_key_for_rows_of_same_partition() {
+    DefaultReadResultCounter counter =
+        new DefaultReadResultCounter(ks, metadata, EnumSet.of(partitions), 3, V4, codecFactory);
+
+    DefaultReadResultCounter.DefaultCountingUnit unit = counter.newCountingUnit();
+
+    unit.update(result2);
+    DefaultReadResultCounter.PartitionKey pk = unit.currentPk;
+    unit.update(result2);
+    unit.update(result2);
+
+    assertThat(unit.currentPk).isSameAs(pk);
+    assertThat(unit.currentPkCount).isEqualTo(3);
+  }
+
   @Test
   void should_count_biggest_partitions(StreamInterceptor stdout) {
     DefaultReadResultCounter counter =
@@ -21,6 +21,8 @@ import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.util.Sets.newLinkedHashSet;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
@@ -38,6 +40,7 @@ import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
 import com.datastax.oss.driver.internal.core.type.codec.registry.DefaultCodecRegistry;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
 import com.datastax.oss.dsbulk.connectors.api.ErrorRecord;
 import com.datastax.oss.dsbulk.connectors.api.Record;
@@ -185,4 +188,36 @@ class DefaultReadResultMapperTest {
         .hasPath("/ks/t")
         .hasNoParameters();
   }
+
+  @Test
+  void should_reuse_layout_when_columns_do_not_change() {
+    DefaultReadResultMapper mapper = new DefaultReadResultMapper(mapping, recordMetadata);
+    ArrayBackedRecord record1 = (ArrayBackedRecord) mapper.map(result);
+    ArrayBackedRecord record2 = (ArrayBackedRecord) mapper.map(result);
+    assertThat(record2.getSchema()).isSameAs(record1.getSchema());
+    assertThat(record2.values()).containsExactly(42, "foo", "bar");
+    // the mapping is only inspected once
+    verify(mapping).variableToFields(C1);
+    verify(mapping).variableToFields(C2);
+    verify(mapping).variableToFields(C3);
+  }
+
+  @Test
+  void should_rebuild_layout_when_columns_change() {
+    DefaultReadResultMapper mapper = new DefaultReadResultMapper(mapping, recordMetadata);
+    ArrayBackedRecord record1 = (ArrayBackedRecord) mapper.map(result);
+    assertThat(record1.fields()).containsExactly(F0, F1, F2);
+    ColumnDefinitions reordered =
+        mockColumnDefinitions(
+            mockColumnDefinition(C2.asIdentifier(), DataTypes.TEXT),
+            mockColumnDefinition(C1.asIdentifier(), DataTypes.INT));
+    when(row.getColumnDefinitions()).thenReturn(reordered);
+    ArrayBackedRecord record2 = (ArrayBackedRecord) mapper.map(result);
+    assertThat(record2.getSchema()).isNotSameAs(record1.getSchema());
+    assertThat(record2.fields()).containsExactly(F1, F0);
+    assertThat(record2.values()).containsExactly("foo", 42);
+    verify(mapping, times(2)).variableToFields(C1);
+    verify(mapping, times(2)).variableToFields(C2);
+    verify(mapping).variableToFields(C3);
+  }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.DefaultPreparedStatement;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSetMultimap;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
+import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.mapping.DefaultMapping;
+import com.datastax.oss.dsbulk.workflow.commons.statement.UnmappableStatement;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of mapping a record to a bound statement, for tables with 10, 50 and 200
+ * columns.
+ *
+ * <p>The table's columns cycle through {@code int}, {@code bigint} and {@code text}; the first
+ * column is the partition key, and the second one the clustering column.
+ *
+ * <p>To run this benchmark, first compile the test classes, then run:
+ *
+ * <pre>
+ * java -cp &lt;test classpath&gt; org.openjdk.jmh.Main DefaultRecordMapperBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultRecordMapperBenchmark {
+
+  private static final URI RESOURCE = URI.create("file:///data.csv");
+
+  private static final int[] TYPES = {
+    ProtocolConstants.DataType.INT,
+    ProtocolConstants.DataType.BIGINT,
+    ProtocolConstants.DataType.VARCHAR
+  };
+
+  @Param({"10", "50", "200"})
+  int columns;
+
+  private RecordMapper mapper;
+  private Object[] values;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<ColumnDefinition> definitions = new ArrayList<>(columns);
+    ImmutableSetMultimap.Builder<Field, CQLWord> fieldsToVariables = ImmutableSetMultimap.builder();
+    values = new String[columns];
+    for (int i = 0; i < columns; i++) {
+      String name = "c" + i;
+      int type = TYPES[i % TYPES.length];
+      definitions.add(
+          new DefaultColumnDefinition(
+              new ColumnSpec("ks", "t", name, i, RawType.PRIMITIVES.get(type)),
+              AttachmentPoint.NONE));
+      fieldsToVariables.put(new DefaultIndexedField(i), CQLWord.fromInternal(name));
+      values[i] = type == ProtocolConstants.DataType.VARCHAR ? "value" + i : String.valueOf(i);
+    }
+    PreparedStatement insertStatement =
+        new DefaultPreparedStatement(
+            ByteBuffer.wrap(new byte[] {1}),
+            "INSERT INTO ks.t ...",
+            DefaultColumnDefinitions.valueOf(definitions),
+            Collections.singletonList(0),
+            null,
+            DefaultColumnDefinitions.valueOf(Collections.emptyList()),
+            CqlIdentifier.fromInternal("ks"),
+            Collections.emptyMap(),
+            null,
+            null,
+            null,
+            null,
+            null,
+            Collections.emptyMap(),
+            null,
+            null,
+            null,
+            5000,
+            null,
+            null,
+            false,
+            CodecRegistry.DEFAULT,
+            DefaultProtocolVersion.V4);
+    mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            ImmutableSet.of(CQLWord.fromInternal("c0")),
+            ImmutableSet.of(CQLWord.fromInternal("c1")),
+            DefaultProtocolVersion.V4,
+            new DefaultMapping(
+                fieldsToVariables.build(), new ConvertingCodecFactory(), ImmutableSet.of()),
+            (field, cqlType) -> GenericType.STRING,
+            false,
+            false,
+            false);
+    Statement<?> statement = map();
+    if (statement instanceof UnmappableStatement) {
+      throw new IllegalStateException(
+          "Record could not be mapped", ((UnmappableStatement) statement).getError());
+    }
+  }
+
+  @Benchmark
+  public Statement<?> map() {
+    // records are cleared once mapped, so a new record is needed for each invocation
+    return (Statement<?>) mapper.map(DefaultRecord.indexed("source", RESOURCE, 1, values));
+  }
+}
@@ -56,10 +56,12 @@ import com.datastax.oss.dsbulk.codecs.api.util.ZonedTemporalFormat;
 import com.datastax.oss.dsbulk.codecs.text.string.StringToIntegerCodec;
 import com.datastax.oss.dsbulk.codecs.text.string.StringToLongCodec;
 import com.datastax.oss.dsbulk.codecs.text.string.StringToStringCodec;
+import com.datastax.oss.dsbulk.connectors.api.ArrayBackedRecord;
 import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
 import com.datastax.oss.dsbulk.connectors.api.Field;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.RecordSchema;
 import com.datastax.oss.dsbulk.mapping.CQLWord;
 import com.datastax.oss.dsbulk.mapping.InvalidMappingException;
 import com.datastax.oss.dsbulk.mapping.Mapping;
@@ -67,12 +69,14 @@ import com.datastax.oss.dsbulk.tests.utils.ReflectionUtils;
 import com.datastax.oss.dsbulk.workflow.commons.statement.BulkBoundStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.UnmappableStatement;
 import io.netty.util.concurrent.FastThreadLocal;
+import java.net.URI;
 import java.nio.ByteBuffer;
 import java.text.NumberFormat;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.assertj.core.util.Sets;
 import org.junit.jupiter.api.BeforeEach;
@@ -237,6 +241,29 @@ class DefaultRecordMapperTest {
     assertParameter(2, 2, TypeCodecs.TEXT.encode("foo", V4));
   }
 
+  @Test
+  void should_compile_field_bindings_once() {
+    when(record.fields()).thenReturn(set(F1, F2, F3));
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            true,
+            true,
+            false,
+            statement -> boundStatementBuilder);
+    assertThat(mapper.map(record)).isInstanceOf(BulkBoundStatement.class);
+    assertThat(mapper.map(record)).isInstanceOf(BulkBoundStatement.class);
+    verify(mapping, times(1)).fieldToVariables(F1);
+    verify(mapping, times(1)).codec(C1, DataTypes.INT, GenericType.STRING);
+    verify(mapping, times(1)).variableToFields(C1);
+    verify(boundStatementBuilder, times(6)).setBytesUnsafe(any(Integer.class), any());
+  }
+
   @Test
   void should_bind_mapped_numeric_timestamp() {
     when(record.fields()).thenReturn(set(F1));
@@ -501,6 +528,7 @@ class DefaultRecordMapperTest {
   @Test
   void should_return_unmappable_statement_when_pk_column_unmapped() {
     when(record.fields()).thenReturn(set(F1, F2, F3));
+    when(mapping.fieldToVariables(F1)).thenReturn(emptySet());
     when(boundStatementBuilder.isSet(0)).thenReturn(false);
     RecordMapper mapper =
         new DefaultRecordMapper(
@@ -722,6 +750,99 @@ class DefaultRecordMapperTest {
     assertParameter(2, 2, ByteBuffer.allocate(0));
   }
 
+  @Test
+  void should_map_array_backed_record() {
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            true,
+            false,
+            false,
+            statement -> boundStatementBuilder);
+    RecordSchema schema = RecordSchema.of(F3, F1, F2);
+    Statement<?> result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source", URI.create("file://file1"), 1, schema, "foo", "42", "4242"));
+    assertThat(result).isInstanceOf(BulkBoundStatement.class);
+    verify(boundStatementBuilder, times(3))
+        .setBytesUnsafe(variableCaptor.capture(), valueCaptor.capture());
+    assertParameter(0, 2, TypeCodecs.TEXT.encode("foo", V4));
+    assertParameter(1, 0, TypeCodecs.INT.encode(42, V4));
+    assertParameter(2, 1, TypeCodecs.BIGINT.encode(4242L, V4));
+    // the layout of the schema is reused
+    result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source", URI.create("file://file1"), 2, schema, "bar", "43", "4343"));
+    assertThat(result).isInstanceOf(BulkBoundStatement.class);
+    assertThat((Map<?, ?>) ReflectionUtils.getInternalState(mapper, "layouts")).hasSize(1);
+  }
+
+  @Test
+  void should_return_unmappable_statement_when_array_backed_record_has_extra_field() {
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            false,
+            false,
+            false,
+            statement -> boundStatementBuilder);
+    Field extra = new DefaultMappedField("extra");
+    Statement<?> result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source",
+                URI.create("file://file1"),
+                1,
+                RecordSchema.of(F1, F2, F3, extra),
+                "42",
+                "4242",
+                "foo",
+                "bar"));
+    assertThat(result).isInstanceOf(UnmappableStatement.class);
+    assertThat(((UnmappableStatement) result).getError())
+        .isInstanceOf(InvalidMappingException.class)
+        .hasMessageContaining("Extraneous field extra was found in record.");
+    // unmapped fields do not grow the mapper's state
+    assertThat((Map<?, ?>) ReflectionUtils.getInternalState(mapper, "fieldSlots")).hasSize(3);
+  }
+
+  @Test
+  void should_return_unmappable_statement_when_array_backed_record_has_missing_field() {
+    RecordMapper mapper =
+        new DefaultRecordMapper(
+            insertStatement,
+            set(C1),
+            set(C2, C3),
+            V4,
+            mapping,
+            recordMetadata,
+            false,
+            true,
+            false,
+            statement -> boundStatementBuilder);
+    Statement<?> result =
+        mapper.map(
+            new ArrayBackedRecord(
+                "source", URI.create("file://file1"), 1, RecordSchema.of(F1, F2), "42", "4242"));
+    assertThat(result).isInstanceOf(UnmappableStatement.class);
+    assertThat(((UnmappableStatement) result).getError())
+        .isInstanceOf(InvalidMappingException.class)
+        .hasMessageContaining(
+            "Required field field3 (mapped to column \"My Fancy Column Name\") was missing from record.");
+  }
+
   private void assertParameter(
       int invocationIndex, int expectedVariableIndex, ByteBuffer expectedVariableValue) {
     assertThat(variableCaptor.getAllValues().get(invocationIndex)).isEqualTo(expectedVariableIndex);
@@ -0,0 +1,62 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.settings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
+import com.typesafe.config.Config;
+import org.junit.jupiter.api.Test;
+
+class CopySettingsTest {
+
+  @Test
+  void should_report_target_table() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.copy", "keyspace", "ks2", "table", "t2");
+    CopySettings settings = new CopySettings(config);
+    settings.init();
+    assertThat(settings.getKeyspace()).contains("ks2");
+    assertThat(settings.getTable()).contains("t2");
+    assertThat(settings.getTargetDriverConfig()).isEmpty();
+  }
+
+  @Test
+  void should_report_target_driver_config() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.copy", "driver.basic.contact-points", "[\"host2:9042\"]");
+    CopySettings settings = new CopySettings(config);
+    settings.init();
+    assertThat(settings.getKeyspace()).isEmpty();
+    assertThat(settings.getTable()).isEmpty();
+    assertThat(settings.getTargetDriverConfig())
+        .hasValueSatisfying(
+            driverConfig ->
+                assertThat(driverConfig.getStringList("basic.contact-points"))
+                    .containsExactly("host2:9042"));
+  }
+
+  @Test
+  void should_error_when_copying_into_source_table() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.copy");
+    CopySettings settings = new CopySettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Settings copy.keyspace or copy.table must be defined");
+  }
+}
@@ -18,8 +18,12 @@ package com.datastax.oss.dsbulk.workflow.commons.settings;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.datastax.oss.dsbulk.tests.utils.StringUtils;
 import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
 import com.typesafe.config.Config;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.junit.jupiter.api.Test;
 
 class EngineSettingsTest {
@@ -74,5 +78,48 @@ class EngineSettingsTest {
     EngineSettings settings = new EngineSettings(config);
     settings.init();
     assertThat(settings.getMaxConcurrentQueries()).isEmpty();
+    assertThat(settings.isAdaptiveConcurrency()).isFalse();
+  }
+
+  @Test
+  void should_report_adaptive_concurrency_when_ADAPTIVE() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.engine", "maxConcurrentQueries", "ADAPTIVE");
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.getMaxConcurrentQueries()).isEmpty();
+    assertThat(settings.isAdaptiveConcurrency()).isTrue();
+  }
+
+  @Test
+  void should_report_empty_resume_from_by_default() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.engine");
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.getResumeFrom()).isEmpty();
+  }
+
+  @Test
+  void should_report_resume_from() throws IOException {
+    Path dir = Files.createTempDirectory("test");
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine", "resumeFrom", StringUtils.quoteJson(dir.toString()));
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.getResumeFrom()).contains(dir);
+  }
+
+  @Test
+  void should_throw_when_resume_from_not_a_directory() throws IOException {
+    Path file = Files.createTempFile("test", ".txt");
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine", "resumeFrom", StringUtils.quoteJson(file.toString()));
+    EngineSettings settings = new EngineSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid value for dsbulk.engine.resumeFrom")
+        .hasMessageContaining("is not a directory");
   }
 }
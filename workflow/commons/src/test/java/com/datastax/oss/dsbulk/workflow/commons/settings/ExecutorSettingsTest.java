@@ -28,8 +28,9 @@ import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
-import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.reader.ReactiveBulkReader;
+import com.datastax.oss.dsbulk.executor.api.throttling.PerNodeInFlightLimiter;
+import com.datastax.oss.dsbulk.executor.api.throttling.TokenBucketRateLimiter;
 import com.datastax.oss.dsbulk.executor.api.writer.ReactiveBulkWriter;
 import com.datastax.oss.dsbulk.executor.reactor.ContinuousReactorBulkExecutor;
 import com.datastax.oss.dsbulk.executor.reactor.DefaultReactorBulkExecutor;
@@ -145,7 +146,22 @@ class ExecutorSettingsTest {
     when(profile.getString(DefaultDriverOption.REQUEST_CONSISTENCY)).thenReturn("ONE");
     settings.init();
     ReactiveBulkReader executor = settings.newReadExecutor(session, null, false);
-    assertThat(((RateLimiter) getInternalState(executor, "rateLimiter")).getRate()).isEqualTo(100);
+    TokenBucketRateLimiter rateLimiter =
+        (TokenBucketRateLimiter) getInternalState(executor, "rateLimiter");
+    assertThat(rateLimiter.getRate()).isEqualTo(100);
+    assertThat(rateLimiter.getMaxBurst()).isEqualTo(100);
+  }
+
+  @Test
+  void should_enable_maxBurst() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.executor", "maxPerSecond", 100, "maxBurst", 10);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    TokenBucketRateLimiter rateLimiter =
+        (TokenBucketRateLimiter) getInternalState(executor, "rateLimiter");
+    assertThat(rateLimiter.getMaxBurst()).isEqualTo(10);
   }
 
   @Test
@@ -159,6 +175,49 @@ class ExecutorSettingsTest {
     assertThat(getInternalState(executor, "rateLimiter")).isNull();
   }
 
+  @Test
+  void should_enable_maxBytesPerSecond() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.executor", "maxBytesPerSecond", 1000000);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    TokenBucketRateLimiter bytesRateLimiter =
+        (TokenBucketRateLimiter) getInternalState(executor, "bytesRateLimiter");
+    assertThat(bytesRateLimiter.getRate()).isEqualTo(1000000);
+    assertThat(getInternalState(executor, "rateLimiter")).isNull();
+  }
+
+  @Test
+  void should_enable_maxBytesPerSecond_with_size_unit() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor", "maxBytesPerSecond", "10M");
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    TokenBucketRateLimiter bytesRateLimiter =
+        (TokenBucketRateLimiter) getInternalState(executor, "bytesRateLimiter");
+    assertThat(bytesRateLimiter.getRate()).isEqualTo(10 * 1024 * 1024);
+  }
+
+  @Test
+  void should_throw_exception_when_maxBytesPerSecond_not_a_size() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.executor", "maxBytesPerSecond", "NotASize");
+    ExecutorSettings settings = new ExecutorSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid value for dsbulk.executor.maxBytesPerSecond");
+  }
+
+  @Test
+  void should_disable_maxBytesPerSecond() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor", "maxBytesPerSecond", -1);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(executor, "bytesRateLimiter")).isNull();
+  }
+
   @Test
   void should_throw_exception_when_maxPerSecond_not_a_number() {
     Config config =
@@ -207,6 +266,25 @@ class ExecutorSettingsTest {
             "Invalid value for dsbulk.executor.maxInFlight, expecting NUMBER, got STRING");
   }
 
+  @Test
+  void should_enable_maxInFlightPerNode() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor", "maxInFlightPerNode", 10);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(executor, "maxConcurrentRequestsPerNode"))
+        .isInstanceOf(PerNodeInFlightLimiter.class);
+  }
+
+  @Test
+  void should_disable_maxInFlightPerNode() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.executor", "maxInFlightPerNode", -1);
+    ExecutorSettings settings = new ExecutorSettings(config);
+    settings.init();
+    ReactiveBulkWriter executor = settings.newWriteExecutor(session, null);
+    assertThat(getInternalState(executor, "maxConcurrentRequestsPerNode")).isNull();
+  }
+
   @Test
   void should_log_warning_when_concurrentMaxQueries_is_user_defined(
       @LogCapture LogInterceptor logs) {
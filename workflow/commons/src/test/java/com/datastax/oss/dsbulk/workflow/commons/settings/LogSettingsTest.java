@@ -376,4 +376,13 @@ class LogSettingsTest {
     ErrorThreshold threshold = settings.queryWarningsThreshold;
     assertThat(threshold).isInstanceOf(UnlimitedErrorThreshold.class);
   }
+
+  @Test
+  void should_throw_exception_when_journal_maxPendingEntries_not_positive() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.log", "journal.maxPendingEntries", 0);
+    LogSettings settings = new LogSettings(config, executionId);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Value for log.journal.maxPendingEntries (0) must be positive.");
+  }
 }
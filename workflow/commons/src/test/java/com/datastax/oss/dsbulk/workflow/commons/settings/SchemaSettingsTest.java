@@ -42,6 +42,7 @@ import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -68,9 +69,12 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
 import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.IndexMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.ViewMetadata;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import com.datastax.oss.driver.api.core.type.DataType;
 import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
@@ -93,6 +97,8 @@ import com.datastax.oss.dsbulk.tests.logging.LogCapture;
 import com.datastax.oss.dsbulk.tests.logging.LogInterceptingExtension;
 import com.datastax.oss.dsbulk.tests.logging.LogInterceptor;
 import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
+import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultCopier;
+import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCopier;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCounter;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
@@ -102,6 +108,7 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -1324,6 +1331,202 @@ class SchemaSettingsTest {
         .isEqualTo("SELECT c1 FROM ks.t1 WHERE token(c1) >= :ystart AND token(c1) < :yend");
   }
 
+  @Test
+  void should_create_row_counter_for_pushed_down_global_stats() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_COUNT, session, false, true);
+    mockCountResultSetDefinitions();
+    ReadResultCounter counter =
+        schemaSettings.createReadResultCounter(session, codecFactory, EnumSet.of(global), 10, true);
+    assertThat(counter).isNotNull();
+    ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
+    verify(session).prepare(argument.capture());
+    assertThat(argument.getValue())
+        .isEqualTo("SELECT count(*) FROM ks.t1 WHERE token(c1) >= :ystart AND token(c1) < :yend");
+  }
+
+  @Test
+  void should_throw_when_pushing_down_counts_and_mode_is_not_global() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_COUNT, session, false, true);
+    assertThatThrownBy(
+            () ->
+                schemaSettings.createReadResultCounter(
+                    session, codecFactory, EnumSet.of(global, hosts), 10, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Cannot push down counting with stats.modes = [global, hosts]; "
+                + "only stats.modes = [global] is allowed");
+  }
+
+  @Test
+  void should_throw_when_pushing_down_counts_and_query_is_provided() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema", "query", "\"SELECT c1 FROM ks.t1 LIMIT 10\"");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_COUNT, session, false, true);
+    assertThatThrownBy(
+            () ->
+                schemaSettings.createReadResultCounter(
+                    session, codecFactory, EnumSet.of(global), 10, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Cannot push down counting when schema.query is provided; "
+                + "set stats.pushDown to false or remove schema.query");
+  }
+
+  @Test
+  void should_throw_when_pushing_down_counts_and_result_is_not_a_count() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_COUNT, session, false, true);
+    assertThatThrownBy(
+            () ->
+                schemaSettings.createReadResultCounter(
+                    session, codecFactory, EnumSet.of(global), 10, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Cannot push down counting: expecting a single count column of type bigint, "
+                + "got [c1 text, \"This is column 2, and its name desperately needs quoting\" text, "
+                + "c3 text]");
+  }
+
+  @Test
+  void should_create_read_result_copier() {
+    CqlSession targetSession = mockTargetSession(newArrayList(col1, col2, col3), col1);
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_MAP, session, true, true);
+    ReadResultCopier copier =
+        schemaSettings.createReadResultCopier(session, targetSession, "ks2", "t2");
+    assertThat(copier).isInstanceOf(DefaultReadResultCopier.class);
+    ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
+    verify(targetSession).prepare(argument.capture());
+    // columns are inserted in the order they are read
+    assertThat(argument.getValue())
+        .isEqualTo(
+            String.format(
+                "INSERT INTO ks2.t2 (c1, \"%1$s\", c3) VALUES (:c1, :\"%1$s\", :c3)", C2));
+    assertThat((Boolean) getInternalState(copier, NULL_TO_UNSET)).isTrue();
+  }
+
+  @Test
+  void
+      should_create_read_result_copier_with_null_to_unset_false_when_protocol_version_lower_than_4() {
+    CqlSession targetSession = mockTargetSession(newArrayList(col1, col2, col3), col1);
+    when(targetSession.getContext().getProtocolVersion()).thenReturn(V3);
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_MAP, session, true, true);
+    ReadResultCopier copier =
+        schemaSettings.createReadResultCopier(session, targetSession, "ks2", "t2");
+    assertThat((Boolean) getInternalState(copier, NULL_TO_UNSET)).isFalse();
+    assertThat(logs)
+        .hasMessageContaining(
+            "Protocol version in use (V3) does not support unset bound variables; "
+                + "forcing schema.nullToUnset to false");
+  }
+
+  @Test
+  void should_throw_when_copying_into_counter_table() {
+    ColumnMetadata counter = mockColumnMetadata("c4", COUNTER);
+    CqlSession targetSession = mockTargetSession(newArrayList(col1, col2, col3, counter), col1);
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_MAP, session, true, true);
+    assertThatThrownBy(
+            () -> schemaSettings.createReadResultCopier(session, targetSession, "ks2", "t2"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Cannot copy rows into table ks2.t2: counter tables are not supported");
+  }
+
+  @Test
+  void should_throw_when_copying_into_missing_column() {
+    CqlSession targetSession = mockTargetSession(newArrayList(col1, col2), col1);
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_MAP, session, true, true);
+    assertThatThrownBy(
+            () -> schemaSettings.createReadResultCopier(session, targetSession, "ks2", "t2"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Cannot copy column c3: table ks2.t2 has no such column");
+  }
+
+  @Test
+  void should_throw_when_copying_into_column_of_different_type() {
+    ColumnMetadata c3 = mockColumnMetadata("c3", BIGINT);
+    CqlSession targetSession = mockTargetSession(newArrayList(col1, col2, c3), col1);
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_MAP, session, true, true);
+    assertThatThrownBy(
+            () -> schemaSettings.createReadResultCopier(session, targetSession, "ks2", "t2"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            String.format(
+                "Cannot copy column c3 of type %s into column of type %s of table ks2.t2",
+                TEXT, BIGINT));
+  }
+
+  @Test
+  void should_throw_when_primary_key_column_is_not_read() {
+    ColumnMetadata pk = mockColumnMetadata("pk", TEXT);
+    CqlSession targetSession = mockTargetSession(newArrayList(pk, col1, col2, col3), pk);
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_MAP, session, true, true);
+    assertThatThrownBy(
+            () -> schemaSettings.createReadResultCopier(session, targetSession, "ks2", "t2"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Cannot copy rows into table ks2.t2: primary key column pk is not being read");
+  }
+
+  @Test
+  void should_split_read_statement_in_halves() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_COUNT, session, false, true);
+    mockCountResultSetDefinitions();
+    schemaSettings.createReadResultCounter(session, codecFactory, EnumSet.of(global), 10, true);
+    BoundStatement bs = mock(BoundStatement.class, RETURNS_SELF);
+    when(bs.getToken(0)).thenReturn(token1);
+    when(bs.getToken(1)).thenReturn(token2);
+    List<Statement<?>> halves = schemaSettings.splitReadStatement(session, bs);
+    assertThat(halves).hasSize(2);
+    Murmur3Token middle = newToken(-6148914691236517206L);
+    verify(bs).setToken(0, token1);
+    verify(bs).setToken(1, middle);
+    verify(bs).setToken(0, middle);
+    verify(bs).setToken(1, token2);
+  }
+
+  @Test
+  void should_not_split_read_statement_of_one_token() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings schemaSettings = new SchemaSettings(config);
+    schemaSettings.init(SchemaGenerationType.READ_AND_COUNT, session, false, true);
+    mockCountResultSetDefinitions();
+    schemaSettings.createReadResultCounter(session, codecFactory, EnumSet.of(global), 10, true);
+    BoundStatement bs = mock(BoundStatement.class, RETURNS_SELF);
+    when(bs.getToken(0)).thenReturn(token1);
+    when(bs.getToken(1)).thenReturn(newToken(token1.getValue() + 1));
+    assertThat(schemaSettings.splitReadStatement(session, bs)).isEmpty();
+  }
+
   @ParameterizedTest
   @MethodSource("allProtocolVersions")
   void should_create_row_counter_for_partition_stats(ProtocolVersion version) {
@@ -2476,4 +2679,39 @@ class SchemaSettingsTest {
         (SetMultimap<Field, CQLWord>) getInternalState(mapping, "fieldsToVariables");
     assertThat(fieldsToVariables).isEqualTo(expected.build());
   }
+
+  private void mockCountResultSetDefinitions() {
+    ColumnDefinitions definitions = mockColumnDefinitions(mockColumnDefinition("count", BIGINT));
+    when(ps.getResultSetDefinitions()).thenReturn(definitions);
+  }
+
+  private static CqlSession mockTargetSession(
+      List<ColumnMetadata> columns, ColumnMetadata primaryKey) {
+    CqlSession targetSession = mockSession();
+    Metadata targetMetadata = targetSession.getMetadata();
+    KeyspaceMetadata targetKeyspace = mock(KeyspaceMetadata.class);
+    TableMetadata targetTable = mock(TableMetadata.class);
+    CqlIdentifier keyspaceId = CqlIdentifier.fromInternal("ks2");
+    CqlIdentifier tableId = CqlIdentifier.fromInternal("t2");
+    when(targetMetadata.getKeyspace(keyspaceId)).thenReturn(Optional.of(targetKeyspace));
+    when(targetKeyspace.getName()).thenReturn(keyspaceId);
+    when(targetKeyspace.getTable(tableId)).thenReturn(Optional.of(targetTable));
+    when(targetTable.getName()).thenReturn(tableId);
+    Map<CqlIdentifier, ColumnMetadata> byName = new LinkedHashMap<>();
+    for (ColumnMetadata column : columns) {
+      byName.put(column.getName(), column);
+      when(targetTable.getColumn(column.getName())).thenReturn(Optional.of(column));
+    }
+    when(targetTable.getColumns()).thenReturn(byName);
+    when(targetTable.getPrimaryKey()).thenReturn(singletonList(primaryKey));
+    when(targetSession.prepare(anyString())).thenReturn(mock(PreparedStatement.class));
+    return targetSession;
+  }
+
+  private static ColumnMetadata mockColumnMetadata(String name, DataType type) {
+    ColumnMetadata column = mock(ColumnMetadata.class);
+    when(column.getName()).thenReturn(CqlIdentifier.fromInternal(name));
+    when(column.getType()).thenReturn(type);
+    return column;
+  }
 }
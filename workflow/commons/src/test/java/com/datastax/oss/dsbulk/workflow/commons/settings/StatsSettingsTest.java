@@ -44,4 +44,22 @@ class StatsSettingsTest {
     settings.init();
     assertThat(settings.getNumPartitions()).isEqualTo(20);
   }
+
+  @Test
+  void should_report_push_down() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.stats", "pushDown", true);
+    StatsSettings settings = new StatsSettings(config);
+    settings.init();
+    assertThat(settings.isPushDown()).isTrue();
+  }
+
+  @Test
+  void should_ignore_push_down_for_other_stats() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.stats", "pushDown", true, "modes", "[global,ranges]");
+    StatsSettings settings = new StatsSettings(config);
+    settings.init();
+    assertThat(settings.isPushDown()).isFalse();
+  }
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.copy;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metrics.Metrics;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.base.Stopwatch;
+import com.datastax.oss.dsbulk.executor.api.reader.BulkReader;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.api.writer.BulkWriter;
+import com.datastax.oss.dsbulk.workflow.api.Workflow;
+import com.datastax.oss.dsbulk.workflow.api.utils.DurationUtils;
+import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
+import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
+import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCopier;
+import com.datastax.oss.dsbulk.workflow.commons.settings.BatchSettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.CopySettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.DriverSettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.EngineSettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.ExecutorSettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.LogSettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.MonitoringSettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.SchemaGenerationType;
+import com.datastax.oss.dsbulk.workflow.commons.settings.SchemaSettings;
+import com.datastax.oss.dsbulk.workflow.commons.settings.SettingsManager;
+import com.datastax.oss.dsbulk.workflow.commons.utils.CloseableUtils;
+import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
+import com.typesafe.config.Config;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The main class for copy workflows.
+ *
+ * <p>Rows are read from the source table by token range, and each row is bound, as raw bytes, to an
+ * insert statement prepared against the target table; no codec is involved. Statements are then
+ * batched by partition, if batching is enabled, and written to the target cluster.
+ */
+public class CopyWorkflow implements Workflow {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CopyWorkflow.class);
+
+  private final SettingsManager settingsManager;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  private String executionId;
+  private Scheduler scheduler;
+  private ReadResultCopier readResultCopier;
+  private MetricsManager metricsManager;
+  private LogManager logManager;
+  private CqlSession session;
+  private CqlSession targetSession;
+  private BulkReader reader;
+  private BulkWriter writer;
+  private List<Statement<?>> readStatements;
+  private boolean batchingEnabled;
+  private int batchBufferSize;
+  private Function<Publisher<BatchableStatement<?>>, Publisher<Statement<?>>> batcher;
+  private Function<Flux<ReadResult>, Flux<ReadResult>> totalItemsMonitor;
+  private Function<Flux<ReadResult>, Flux<ReadResult>> totalItemsCounter;
+  private Function<Flux<ReadResult>, Flux<ReadResult>> failedReadResultsMonitor;
+  private Function<Flux<ReadResult>, Flux<ReadResult>> failedReadsHandler;
+  private Function<Flux<ReadResult>, Flux<ReadResult>> readQueryWarningsHandler;
+  private Function<Flux<Statement<?>>, Flux<Statement<?>>> batcherMonitor;
+  private Function<Flux<WriteResult>, Flux<WriteResult>> failedWritesHandler;
+  private Function<Flux<WriteResult>, Flux<WriteResult>> writeQueryWarningsHandler;
+  private Function<Flux<Void>, Flux<Void>> terminationHandler;
+  private int readConcurrency;
+  private int writeConcurrency;
+
+  CopyWorkflow(Config config) {
+    settingsManager = new SettingsManager(config);
+  }
+
+  @Override
+  public void init() throws Exception {
+    settingsManager.init("COPY", false);
+    executionId = settingsManager.getExecutionId();
+    LogSettings logSettings = settingsManager.getLogSettings();
+    DriverSettings driverSettings = settingsManager.getDriverSettings();
+    SchemaSettings schemaSettings = settingsManager.getSchemaSettings();
+    BatchSettings batchSettings = settingsManager.getBatchSettings();
+    ExecutorSettings executorSettings = settingsManager.getExecutorSettings();
+    MonitoringSettings monitoringSettings = settingsManager.getMonitoringSettings();
+    EngineSettings engineSettings = settingsManager.getEngineSettings();
+    CopySettings copySettings = settingsManager.getCopySettings();
+    engineSettings.init();
+    // First verify that dry-run is off; that's unsupported for copy.
+    if (engineSettings.isDryRun()) {
+      throw new IllegalArgumentException("Dry-run is not supported for copy");
+    }
+    logSettings.init();
+    copySettings.init();
+    driverSettings.init(false);
+    logSettings.logEffectiveSettings(
+        settingsManager.getEffectiveBulkLoaderConfig(), driverSettings.getDriverConfig());
+    monitoringSettings.init();
+    batchSettings.init();
+    executorSettings.init();
+    session = newSession(driverSettings);
+    ClusterInformationUtils.printDebugInfoAboutCluster(session);
+    Optional<Config> targetDriverConfig = copySettings.getTargetDriverConfig();
+    if (targetDriverConfig.isPresent()) {
+      DriverSettings targetDriverSettings =
+          settingsManager.newTargetDriverSettings(targetDriverConfig.get());
+      targetDriverSettings.init(true);
+      targetSession = newSession(targetDriverSettings);
+      ClusterInformationUtils.printDebugInfoAboutCluster(targetSession);
+    } else {
+      targetSession = session;
+    }
+    schemaSettings.init(SchemaGenerationType.READ_AND_MAP, session, true, true);
+    batchingEnabled = batchSettings.isBatchingEnabled();
+    batchBufferSize = batchSettings.getBufferSize();
+    logManager = logSettings.newLogManager(session, false);
+    logManager.init();
+    metricsManager =
+        monitoringSettings.newMetricsManager(
+            true,
+            batchingEnabled,
+            logManager.getOperationDirectory(),
+            logSettings.getVerbosity(),
+            session.getMetrics().map(Metrics::getRegistry).orElse(new MetricRegistry()),
+            session.getContext().getProtocolVersion(),
+            session.getContext().getCodecRegistry(),
+            schemaSettings.getRowType());
+    metricsManager.init();
+    readResultCopier =
+        schemaSettings.createReadResultCopier(
+            session,
+            targetSession,
+            copySettings.getKeyspace().orElse(null),
+            copySettings.getTable().orElse(null));
+    readStatements = schemaSettings.createReadStatements(session);
+    reader =
+        executorSettings.newReadExecutor(
+            session, metricsManager.getExecutionListener(), schemaSettings.isSearchQuery());
+    writer =
+        executorSettings.newWriteExecutor(
+            targetSession,
+            metricsManager.getExecutionListener(),
+            metricsManager.getExecutionListener().getRegistry());
+    if (batchingEnabled) {
+      batcher = batchSettings.newStatementBatcher(targetSession)::batchByGroupingKey;
+    }
+    closed.set(false);
+    totalItemsMonitor = metricsManager.newTotalItemsMonitor();
+    failedReadResultsMonitor = metricsManager.newFailedItemsMonitor();
+    batcherMonitor = metricsManager.newBatcherMonitor();
+    totalItemsCounter = logManager.newTotalItemsCounter();
+    failedReadsHandler = logManager.newFailedReadsHandler();
+    readQueryWarningsHandler = logManager.newQueryWarningsHandler();
+    failedWritesHandler = logManager.newFailedWritesHandler();
+    writeQueryWarningsHandler = logManager.newQueryWarningsHandler();
+    terminationHandler = logManager.newTerminationHandler();
+    int numCores = Runtime.getRuntime().availableProcessors();
+    readConcurrency =
+        Math.min(readStatements.size(), engineSettings.getMaxConcurrentQueries().orElse(numCores));
+    // Rows are copied as they are read, without any conversion: writes are expected to be cheap,
+    // so use the same write concurrency as the load workflow with small rows.
+    writeConcurrency =
+        engineSettings
+            .getMaxConcurrentQueries()
+            .orElse(batchingEnabled ? numCores * 16 : numCores * 64);
+    LOGGER.debug(
+        "Using read concurrency: {}, write concurrency: {} (user-supplied: {})",
+        readConcurrency,
+        writeConcurrency,
+        engineSettings.getMaxConcurrentQueries().isPresent());
+    int numThreads = Math.min(readConcurrency, numCores);
+    scheduler =
+        numThreads == 1
+            ? Schedulers.immediate()
+            : Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
+  }
+
+  @VisibleForTesting
+  CqlSession newSession(DriverSettings driverSettings) {
+    return driverSettings.newSession(executionId);
+  }
+
+  @Override
+  public boolean execute() {
+    LOGGER.debug("{} started.", this);
+    metricsManager.start();
+    Stopwatch timer = Stopwatch.createStarted();
+    Flux.fromIterable(readStatements)
+        .flatMap(
+            statement ->
+                Flux.from(reader.readReactive(statement))
+                    .publishOn(scheduler, 500)
+                    .transform(readQueryWarningsHandler)
+                    .transform(totalItemsMonitor)
+                    .transform(totalItemsCounter)
+                    .transform(failedReadResultsMonitor)
+                    .transform(failedReadsHandler)
+                    .map(readResultCopier::copy)
+                    // Each read statement covers a single token range, and rows are read in token
+                    // order, so rows of the same partition are close to each other in this flow.
+                    .transform(this::bufferAndBatch),
+            readConcurrency,
+            500)
+        .flatMap(writer::writeReactive, writeConcurrency)
+        .transform(writeQueryWarningsHandler)
+        .transform(failedWritesHandler)
+        .then()
+        .flux()
+        .transform(terminationHandler)
+        .blockLast();
+    timer.stop();
+    metricsManager.stop();
+    Duration elapsed = DurationUtils.round(timer.elapsed(), TimeUnit.SECONDS);
+    if (logManager.getTotalErrors() == 0) {
+      LOGGER.info("{} completed successfully in {}.", this, DurationUtils.formatDuration(elapsed));
+    } else {
+      LOGGER.warn(
+          "{} completed with {} errors in {}.",
+          this,
+          logManager.getTotalErrors(),
+          DurationUtils.formatDuration(elapsed));
+    }
+    return logManager.getTotalErrors() == 0;
+  }
+
+  /**
+   * Batches the given statement flow, if batching is enabled; otherwise do nothing.
+   *
+   * <p>The flow is expected to be unbuffered, so this method first applies buffering by {@code
+   * batchBufferSize} before batching the resulting chunks.
+   */
+  private Flux<? extends Statement<?>> bufferAndBatch(Flux<BatchableStatement<?>> stmts) {
+    return batchingEnabled
+        ? stmts.window(batchBufferSize).flatMap(batcher).transform(batcherMonitor)
+        : stmts;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (closed.compareAndSet(false, true)) {
+      LOGGER.debug("{} closing.", this);
+      Exception e = CloseableUtils.closeQuietly(metricsManager, null);
+      e = CloseableUtils.closeQuietly(logManager, e);
+      e = CloseableUtils.closeQuietly(scheduler, e);
+      e = CloseableUtils.closeQuietly(reader, e);
+      e = CloseableUtils.closeQuietly(writer, e);
+      if (targetSession != session) {
+        e = CloseableUtils.closeQuietly(targetSession, e);
+      }
+      e = CloseableUtils.closeQuietly(session, e);
+      if (metricsManager != null) {
+        metricsManager.reportFinalMetrics();
+      }
+      LOGGER.debug("{} closed.", this);
+      if (e != null) {
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (executionId == null) {
+      return "Operation";
+    } else {
+      return "Operation " + executionId;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.copy;
+
+import com.datastax.oss.dsbulk.workflow.api.Workflow;
+import com.datastax.oss.dsbulk.workflow.api.WorkflowProvider;
+import com.typesafe.config.Config;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+public class CopyWorkflowProvider implements WorkflowProvider {
+
+  @NonNull
+  @Override
+  public String getTitle() {
+    return "copy";
+  }
+
+  @NonNull
+  @Override
+  public String getDescription() {
+    return "Copies rows from a table in DataStax Enterprise or "
+        + "Apache Cassandra (R) databases into another table, possibly in another cluster, "
+        + "without converting them. "
+        + "This command requires the source table and the target table to be properly configured. "
+        + "Run `dsbulk help schema` or `dsbulk help copy` for more information.";
+  }
+
+  @NonNull
+  @Override
+  public Workflow newWorkflow(@NonNull Config config) {
+    return new CopyWorkflow(config);
+  }
+}
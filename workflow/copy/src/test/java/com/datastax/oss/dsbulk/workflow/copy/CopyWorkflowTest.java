@@ -0,0 +1,199 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.copy;
+
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinition;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinitions;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockRow;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockSession;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.tests.logging.LogConfigurationResource;
+import com.datastax.oss.dsbulk.tests.logging.LogInterceptingExtension;
+import com.datastax.oss.dsbulk.workflow.commons.settings.DriverSettings;
+import com.datastax.oss.dsbulk.workflow.commons.statement.BulkBoundStatement;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+@ExtendWith(LogInterceptingExtension.class)
+@LogConfigurationResource("logback.xml")
+class CopyWorkflowTest {
+
+  private final List<Row> rows = Arrays.asList(mockRow(1, "foo"), mockRow(2, "bar"));
+
+  @Test
+  void should_copy_rows_from_source_session_to_target_session(@TempDir Path logDir)
+      throws Exception {
+    CqlSession source = mockSourceSession();
+    CqlSession target = mockTargetSession();
+    BoundStatementBuilder builder = mock(BoundStatementBuilder.class, RETURNS_SELF);
+    when(builder.build()).thenReturn(mock(BoundStatement.class));
+    PreparedStatement insert = mock(PreparedStatement.class);
+    when(insert.boundStatementBuilder()).thenReturn(builder);
+    when(target.prepare(anyString())).thenReturn(insert);
+    Config config =
+        ConfigFactory.parseString(
+                "dsbulk.schema.keyspace = ks, "
+                    + "dsbulk.schema.table = t1, "
+                    + "dsbulk.copy.keyspace = ks2, "
+                    + "dsbulk.copy.table = t2, "
+                    + "dsbulk.copy.driver.basic.contact-points = [\"127.0.0.2:9042\"], "
+                    + "dsbulk.batch.mode = DISABLED, "
+                    + "dsbulk.monitoring.jmx = false, "
+                    + "dsbulk.log.directory = \""
+                    + logDir.toString().replace('\\', '/')
+                    + "\"")
+            .withFallback(ConfigUtils.createApplicationConfig(null))
+            .resolve();
+    Iterator<CqlSession> sessions = Arrays.asList(source, target).iterator();
+    CopyWorkflow workflow =
+        new CopyWorkflow(config) {
+          @Override
+          CqlSession newSession(DriverSettings driverSettings) {
+            return sessions.next();
+          }
+        };
+    try {
+      workflow.init();
+      assertThat(workflow.execute()).isTrue();
+    } finally {
+      workflow.close();
+    }
+    ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+    verify(target).prepare(query.capture());
+    assertThat(query.getValue()).isEqualTo("INSERT INTO ks2.t2 (c1, c2) VALUES (:c1, :c2)");
+    // each row read from the source session is written once to the target session
+    ArgumentCaptor<Statement<?>> written = ArgumentCaptor.forClass(Statement.class);
+    verify(target, times(rows.size())).executeAsync(written.capture());
+    assertThat(
+            written.getAllValues().stream()
+                .map(stmt -> ((BulkBoundStatement<?>) stmt).getSource())
+                .map(result -> ((ReadResult) result).getRow().orElse(null))
+                .collect(Collectors.toList()))
+        .containsExactlyInAnyOrderElementsOf(rows);
+    // cells are bound as they were read
+    for (Row row : rows) {
+      ByteBuffer c1 = row.getBytesUnsafe(0);
+      ByteBuffer c2 = row.getBytesUnsafe(1);
+      verify(builder).setBytesUnsafe(0, c1);
+      verify(builder).setBytesUnsafe(1, c2);
+    }
+    verify(source, never()).prepare(query.getValue());
+    verify(target).close();
+    verify(source).close();
+  }
+
+  private CqlSession mockSourceSession() {
+    CqlSession session = mockSession();
+    mockTable(session, "ks", "t1");
+    ColumnDefinitions definitions =
+        mockColumnDefinitions(
+            mockColumnDefinition("c1", DataTypes.INT), mockColumnDefinition("c2", DataTypes.TEXT));
+    PreparedStatement select = mock(PreparedStatement.class);
+    when(select.getResultSetDefinitions()).thenReturn(definitions);
+    when(select.getVariableDefinitions()).thenReturn(mockColumnDefinitions());
+    when(select.bind()).thenReturn(mock(BoundStatement.class));
+    when(session.prepare(anyString())).thenReturn(select);
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    when(rs.currentPage()).thenReturn(rows);
+    when(rs.getExecutionInfo()).thenReturn(mock(ExecutionInfo.class));
+    when(session.executeAsync(any(Statement.class)))
+        .thenReturn(CompletableFuture.completedFuture(rs));
+    return session;
+  }
+
+  private CqlSession mockTargetSession() {
+    CqlSession session = mockSession();
+    mockTable(session, "ks2", "t2");
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    when(rs.getExecutionInfo()).thenReturn(mock(ExecutionInfo.class));
+    when(rs.wasApplied()).thenReturn(true);
+    when(session.executeAsync(any(Statement.class)))
+        .thenReturn(CompletableFuture.completedFuture(rs));
+    return session;
+  }
+
+  private static void mockTable(CqlSession session, String keyspaceName, String tableName) {
+    Metadata metadata = session.getMetadata();
+    KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+    TableMetadata table = mock(TableMetadata.class);
+    CqlIdentifier keyspaceId = CqlIdentifier.fromInternal(keyspaceName);
+    CqlIdentifier tableId = CqlIdentifier.fromInternal(tableName);
+    when(metadata.getKeyspace(keyspaceId)).thenReturn(Optional.of(keyspace));
+    when(keyspace.getName()).thenReturn(keyspaceId);
+    when(keyspace.getTable(tableId)).thenReturn(Optional.of(table));
+    when(table.getKeyspace()).thenReturn(keyspaceId);
+    when(table.getName()).thenReturn(tableId);
+    ColumnMetadata c1 = mockColumn(table, "c1", DataTypes.INT);
+    ColumnMetadata c2 = mockColumn(table, "c2", DataTypes.TEXT);
+    Map<CqlIdentifier, ColumnMetadata> columns =
+        ImmutableMap.of(c1.getName(), c1, c2.getName(), c2);
+    when(table.getColumns()).thenReturn(columns);
+    when(table.getPrimaryKey()).thenReturn(Collections.singletonList(c1));
+    when(table.getPartitionKey()).thenReturn(Collections.singletonList(c1));
+    when(table.getClusteringColumns()).thenReturn(ImmutableMap.of());
+  }
+
+  private static ColumnMetadata mockColumn(TableMetadata table, String name, DataType type) {
+    ColumnMetadata column = mock(ColumnMetadata.class);
+    CqlIdentifier id = CqlIdentifier.fromInternal(name);
+    when(column.getName()).thenReturn(id);
+    when(column.getType()).thenReturn(type);
+    when(table.getColumn(id)).thenReturn(Optional.of(column));
+    return column;
+  }
+}
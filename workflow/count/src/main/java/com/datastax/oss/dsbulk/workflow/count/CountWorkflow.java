@@ -17,8 +17,10 @@ package com.datastax.oss.dsbulk.workflow.count;
 
 import com.codahale.metrics.MetricRegistry;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metrics.Metrics;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
 import com.datastax.oss.driver.shaded.guava.common.base.Stopwatch;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.executor.api.reader.BulkReader;
@@ -59,12 +61,17 @@ public class CountWorkflow implements Workflow {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CountWorkflow.class);
 
+  /** The maximum number of times a token range is split in halves when counting it times out. */
+  private static final int MAX_SPLIT_DEPTH = 16;
+
   private final SettingsManager settingsManager;
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
   private String executionId;
   private Scheduler scheduler;
   private ReadResultCounter readResultCounter;
+  private SchemaSettings schemaSettings;
+  private boolean pushDown;
   private MetricsManager metricsManager;
   private LogManager logManager;
   private CqlSession session;
@@ -89,7 +96,7 @@ public class CountWorkflow implements Workflow {
     executionId = settingsManager.getExecutionId();
     LogSettings logSettings = settingsManager.getLogSettings();
     DriverSettings driverSettings = settingsManager.getDriverSettings();
-    SchemaSettings schemaSettings = settingsManager.getSchemaSettings();
+    schemaSettings = settingsManager.getSchemaSettings();
     ExecutorSettings executorSettings = settingsManager.getExecutorSettings();
     CodecSettings codecSettings = settingsManager.getCodecSettings();
     MonitoringSettings monitoringSettings = settingsManager.getMonitoringSettings();
@@ -131,8 +138,10 @@ public class CountWorkflow implements Workflow {
             schemaSettings.isAllowExtraFields(), schemaSettings.isAllowMissingFields());
     EnumSet<StatsSettings.StatisticsMode> modes = statsSettings.getStatisticsModes();
     int numPartitions = statsSettings.getNumPartitions();
+    pushDown = statsSettings.isPushDown();
     readResultCounter =
-        schemaSettings.createReadResultCounter(session, codecFactory, modes, numPartitions);
+        schemaSettings.createReadResultCounter(
+            session, codecFactory, modes, numPartitions, pushDown);
     readStatements = schemaSettings.createReadStatements(session);
     closed.set(false);
     success = false;
@@ -161,7 +170,7 @@ public class CountWorkflow implements Workflow {
     Flux.fromIterable(readStatements)
         .flatMap(
             statement ->
-                Flux.from(executor.readReactive(statement))
+                read(statement, 0)
                     .transform(queryWarningsHandler)
                     .transform(totalItemsMonitor)
                     .transform(totalItemsCounter)
@@ -195,6 +204,39 @@ public class CountWorkflow implements Workflow {
     return logManager.getTotalErrors() == 0;
   }
 
+  /**
+   * Reads the given statement; when counting is pushed down and the count query times out, its
+   * token range is split in two halves that are read separately instead, recursively.
+   */
+  private Flux<ReadResult> read(Statement<?> statement, int depth) {
+    Flux<ReadResult> results = Flux.from(executor.readReactive(statement));
+    if (!pushDown || depth >= MAX_SPLIT_DEPTH) {
+      return results;
+    }
+    return results.concatMap(
+        result -> {
+          if (isTimeout(result)) {
+            List<Statement<?>> halves = schemaSettings.splitReadStatement(session, statement);
+            if (!halves.isEmpty()) {
+              LOGGER.debug(
+                  "Count query timed out, splitting its token range in two: {}", statement);
+              return Flux.fromIterable(halves).concatMap(half -> read(half, depth + 1));
+            }
+          }
+          return Flux.just(result);
+        });
+  }
+
+  private static boolean isTimeout(ReadResult result) {
+    return result
+        .getError()
+        .map(Throwable::getCause)
+        .filter(
+            cause ->
+                cause instanceof ReadTimeoutException || cause instanceof DriverTimeoutException)
+        .isPresent();
+  }
+
   @Override
   public void close() throws Exception {
     if (closed.compareAndSet(false, true)) {
@@ -28,13 +28,17 @@ import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.Connector;
 import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.executor.api.listener.CompositeExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.EmptyWriteResult;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.api.throttling.AdaptiveConcurrencyLimiter;
 import com.datastax.oss.dsbulk.executor.api.writer.BulkWriter;
 import com.datastax.oss.dsbulk.sampler.DataSizeSampler;
 import com.datastax.oss.dsbulk.workflow.api.Workflow;
 import com.datastax.oss.dsbulk.workflow.api.utils.DurationUtils;
 import com.datastax.oss.dsbulk.workflow.api.utils.ThrowableUtils;
+import com.datastax.oss.dsbulk.workflow.commons.log.Checkpoint;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
@@ -53,7 +57,10 @@ import com.datastax.oss.dsbulk.workflow.commons.utils.CloseableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
 import com.typesafe.config.Config;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -61,6 +68,7 @@ import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.concurrent.Queues;
@@ -90,6 +98,7 @@ public class LoadWorkflow implements Workflow {
   private int readConcurrency;
   private int writeConcurrency;
   private boolean hasManyReaders;
+  private AdaptiveConcurrencyLimiter concurrencyLimiter;
 
   private Function<Record, BatchableStatement<?>> mapper;
   private Function<Publisher<BatchableStatement<?>>, Publisher<Statement<?>>> batcher;
@@ -106,6 +115,7 @@ public class LoadWorkflow implements Workflow {
   private Function<Flux<WriteResult>, Flux<WriteResult>> failedWritesHandler;
   private Function<Flux<WriteResult>, Flux<Void>> resultPositionsHndler;
   private Function<Flux<WriteResult>, Flux<WriteResult>> queryWarningsHandler;
+  private Function<Flux<Record>, Flux<Record>> resourceCompletionHandler;
 
   LoadWorkflow(Config config) {
     settingsManager = new SettingsManager(config);
@@ -120,6 +130,12 @@ public class LoadWorkflow implements Workflow {
     ConnectorSettings connectorSettings = settingsManager.getConnectorSettings();
     connectorSettings.init();
     connector = connectorSettings.getConnector();
+    EngineSettings engineSettings = settingsManager.getEngineSettings();
+    engineSettings.init();
+    Checkpoint checkpoint = null;
+    if (engineSettings.getResumeFrom().isPresent()) {
+      checkpoint = resumeFrom(engineSettings.getResumeFrom().get());
+    }
     connector.init();
     DriverSettings driverSettings = settingsManager.getDriverSettings();
     SchemaSettings schemaSettings = settingsManager.getSchemaSettings();
@@ -127,7 +143,6 @@ public class LoadWorkflow implements Workflow {
     ExecutorSettings executorSettings = settingsManager.getExecutorSettings();
     CodecSettings codecSettings = settingsManager.getCodecSettings();
     MonitoringSettings monitoringSettings = settingsManager.getMonitoringSettings();
-    EngineSettings engineSettings = settingsManager.getEngineSettings();
     driverSettings.init(true);
     logSettings.logEffectiveSettings(
         settingsManager.getEffectiveBulkLoaderConfig(), driverSettings.getDriverConfig());
@@ -135,7 +150,6 @@ public class LoadWorkflow implements Workflow {
     codecSettings.init();
     batchSettings.init();
     executorSettings.init();
-    engineSettings.init();
     session = driverSettings.newSession(executionId);
     ClusterInformationUtils.printDebugInfoAboutCluster(session);
     schemaSettings.init(
@@ -146,6 +160,9 @@ public class LoadWorkflow implements Workflow {
     batchingEnabled = batchSettings.isBatchingEnabled();
     batchBufferSize = batchSettings.getBufferSize();
     logManager = logSettings.newLogManager(session, true);
+    if (checkpoint != null) {
+      logManager.resumeFrom(checkpoint);
+    }
     logManager.init();
     metricsManager =
         monitoringSettings.newMetricsManager(
@@ -158,7 +175,6 @@ public class LoadWorkflow implements Workflow {
             session.getContext().getCodecRegistry(),
             schemaSettings.getRowType());
     metricsManager.init();
-    executor = executorSettings.newWriteExecutor(session, metricsManager.getExecutionListener());
     ConvertingCodecFactory codecFactory =
         codecSettings.createCodecFactory(
             schemaSettings.isAllowExtraFields(), schemaSettings.isAllowMissingFields());
@@ -183,6 +199,7 @@ public class LoadWorkflow implements Workflow {
     queryWarningsHandler = logManager.newQueryWarningsHandler();
     failedWritesHandler = logManager.newFailedWritesHandler();
     resultPositionsHndler = logManager.newResultPositionsHandler();
+    resourceCompletionHandler = logManager.newResourceCompletionHandler();
     terminationHandler = logManager.newTerminationHandler();
     numCores = Runtime.getRuntime().availableProcessors();
     if (connector.readConcurrency() < 1) {
@@ -197,12 +214,33 @@ public class LoadWorkflow implements Workflow {
         "Using write concurrency: {} (user-supplied: {})",
         writeConcurrency,
         engineSettings.getMaxConcurrentQueries().isPresent());
+    ExecutionListener executionListener = metricsManager.getExecutionListener();
+    if (engineSettings.isAdaptiveConcurrency() && !dryRun) {
+      concurrencyLimiter =
+          new AdaptiveConcurrencyLimiter(
+              writeConcurrency,
+              numCores,
+              writeConcurrency * 4,
+              numCores,
+              metricsManager.getExecutionListener().getRegistry());
+      executionListener = new CompositeExecutionListener(executionListener, concurrencyLimiter);
+      LOGGER.debug(
+          "Adaptive write concurrency enabled, limit will vary between {} and {}",
+          numCores,
+          concurrencyLimiter.getMaxLimit());
+    }
+    executor =
+        executorSettings.newWriteExecutor(
+            session, executionListener, metricsManager.getExecutionListener().getRegistry());
   }
 
   @Override
   public boolean execute() {
     LOGGER.debug("{} started.", this);
     metricsManager.start();
+    if (concurrencyLimiter != null) {
+      concurrencyLimiter.start();
+    }
     Stopwatch timer = Stopwatch.createStarted();
     Flux<Statement<?>> statements;
     if (hasManyReaders) {
@@ -232,6 +270,24 @@ public class LoadWorkflow implements Workflow {
     return logManager.getTotalErrors() == 0;
   }
 
+  /**
+   * Loads the checkpoint saved by a previous operation, and instructs the connector to skip the
+   * records committed by that operation.
+   */
+  private Checkpoint resumeFrom(Path operationDirectory) throws IOException {
+    if (!connector.supports(CommonConnectorFeature.RESUMABLE_READS)) {
+      throw new IllegalArgumentException(
+          "Invalid value for dsbulk.engine.resumeFrom: the connector does not support resuming operations.");
+    }
+    Checkpoint checkpoint = Checkpoint.load(operationDirectory);
+    LOGGER.info(
+        "Resuming operation from {}: {} resources will be skipped entirely.",
+        operationDirectory,
+        checkpoint.getCommittedResources().size());
+    connector.resumeFrom(checkpoint);
+    return checkpoint;
+  }
+
   /**
    * Reads the resources in parallel with {@code readConcurrency} parallelism.
    *
@@ -245,6 +301,7 @@ public class LoadWorkflow implements Workflow {
         .flatMap(
             records ->
                 Flux.from(records)
+                    .transform(resourceCompletionHandler)
                     .transform(totalItemsMonitor)
                     .transform(totalItemsCounter)
                     .transform(failedRecordsMonitor)
@@ -271,6 +328,7 @@ public class LoadWorkflow implements Workflow {
         .flatMap(
             records ->
                 Flux.from(records)
+                    .transform(resourceCompletionHandler)
                     .window(batchingEnabled ? batchBufferSize : Queues.SMALL_BUFFER_SIZE),
             readConcurrency)
         .flatMap(
@@ -313,11 +371,37 @@ public class LoadWorkflow implements Workflow {
   /**
    * Executes the given statement flow, unless we are running in dry-run mode, in which case a
    * successful write is emulated.
+   *
+   * <p>When adaptive concurrency is enabled, the flow is subscribed to with the maximum concurrency
+   * allowed by the limiter, and each write waits for a permit from it before being executed;
+   * waiting does not block the calling thread.
    */
   private Flux<WriteResult> executeStatements(Flux<? extends Statement<?>> stmts) {
-    return dryRun
-        ? stmts.map(EmptyWriteResult::new)
-        : stmts.flatMap(executor::writeReactive, writeConcurrency);
+    if (dryRun) {
+      return stmts.map(EmptyWriteResult::new);
+    }
+    if (concurrencyLimiter != null) {
+      return stmts.flatMap(this::executeWithPermit, concurrencyLimiter.getMaxLimit());
+    }
+    return stmts.flatMap(executor::writeReactive, writeConcurrency);
+  }
+
+  private Flux<WriteResult> executeWithPermit(Statement<?> statement) {
+    // the permit is only requested upon subscription, so that it cannot leak if the inner flow is
+    // cancelled before being subscribed to
+    return Flux.defer(
+        () -> {
+          CompletableFuture<Void> permit = concurrencyLimiter.acquireAsync();
+          return Mono.fromFuture(permit)
+              .thenMany(executor.writeReactive(statement))
+              .doFinally(
+                  signal -> {
+                    // withdraw the request if the permit was not granted yet, otherwise release it
+                    if (!permit.cancel(false)) {
+                      concurrencyLimiter.release();
+                    }
+                  });
+        });
   }
 
   @Override
@@ -328,6 +412,7 @@ public class LoadWorkflow implements Workflow {
       e = CloseableUtils.closeQuietly(logManager, e);
       e = CloseableUtils.closeQuietly(connector, e);
       e = CloseableUtils.closeQuietly(scheduler, e);
+      e = CloseableUtils.closeQuietly(concurrencyLimiter, e);
       e = CloseableUtils.closeQuietly(executor, e);
       e = CloseableUtils.closeQuietly(session, e);
       if (metricsManager != null) {